@@ -0,0 +1,56 @@
+package com.tcss.filewatcher.Benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar. Accepts the usual JMH command line and, unless a
+ * result format or file is given, writes the results as JSON to
+ * target/jmh-result.json so runs of different builds can be compared.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+public final class BenchmarkRunner {
+
+    /**
+     * Where the results go when no result file is given.
+     */
+    public static final String DEFAULT_RESULT_FILE = "target/jmh-result.json";
+
+    /**
+     * Not meant to be instantiated.
+     */
+    private BenchmarkRunner() {
+    }
+
+    /**
+     * Runs the benchmarks.
+     *
+     * @param theArgs the JMH command line, e.g. a benchmark name pattern.
+     * @throws CommandLineOptionException if the command line is invalid.
+     * @throws RunnerException            if the benchmarks fail to run.
+     * @throws IOException                if the result directory cannot be created.
+     */
+    public static void main(final String[] theArgs)
+            throws CommandLineOptionException, RunnerException, IOException {
+        final CommandLineOptions commandLine = new CommandLineOptions(theArgs);
+        final ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+        if (!commandLine.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLine.getResult().hasValue()) {
+            Files.createDirectories(Path.of(DEFAULT_RESULT_FILE).getParent());
+            options.result(DEFAULT_RESULT_FILE);
+        }
+        new Runner(options.build()).run();
+    }
+}
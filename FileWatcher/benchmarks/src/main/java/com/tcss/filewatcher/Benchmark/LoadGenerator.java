@@ -0,0 +1,651 @@
+package com.tcss.filewatcher.Benchmark;
+
+import com.tcss.filewatcher.Model.BatchEventWriter;
+import com.tcss.filewatcher.Model.ConnectionManager;
+import com.tcss.filewatcher.Model.DataBaseManager;
+import com.tcss.filewatcher.Model.EventRecord;
+import com.tcss.filewatcher.Model.FileEventWatcher;
+import com.tcss.filewatcher.Model.SceneHandler;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * End-to-end load test for a real FileEventWatcher. Writer threads create, modify and
+ * delete files in a temporary tree while new subtrees keep appearing, and every change
+ * is timed until its row is committed to a throwaway SQLite database.
+ * The report gives latency percentiles from the filesystem change to the committed
+ * row, sustained throughput, drop and overflow counts and heap growth.
+ *
+ * <p>Run it from the benchmarks jar, e.g.
+ * {@code java -cp target/benchmarks.jar com.tcss.filewatcher.Benchmark.LoadGenerator
+ * --writers 8 --rate 500 --duration 60}. {@code --help} lists every option.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+public final class LoadGenerator {
+
+    /**
+     * The options and their defaults, in the order they are listed by --help.
+     */
+    private static final String[][] OPTIONS = {
+            {"writers", "4", "number of writer threads"},
+            {"duration", "30", "seconds of load"},
+            {"rate", "200", "operations per second per writer, 0 for as fast as possible"},
+            {"mix", "40:50:10", "create:modify:delete weights"},
+            {"size", "0:65536", "min:max file size in bytes, log-uniform"},
+            {"fanout", "8", "subdirectories per directory in the initial tree"},
+            {"depth", "2", "levels of the initial tree"},
+            {"subtrees", "0.5", "new subtrees per second, each one level of fanout"},
+            {"quiet-window", "-1", "coalescer quiet window in ms, -1 for the watcher default"},
+            {"batch", String.valueOf(BatchEventWriter.DEFAULT_BATCH_SIZE), "writer batch size"},
+            {"linger", String.valueOf(BatchEventWriter.DEFAULT_LINGER_MILLIS),
+                    "writer linger time in ms"},
+            {"queue", String.valueOf(BatchEventWriter.DEFAULT_QUEUE_CAPACITY),
+                    "writer queue capacity"},
+            {"policy", "BLOCK", "writer backpressure policy"},
+            {"drain", "30", "seconds to wait for outstanding changes after the load"},
+            {"root", "", "directory to generate the tree in, a temporary one by default"},
+            {"json", "", "also write the report as JSON to this file"},
+            {"keep", "false", "keep the generated tree and database"},
+            {"log", "false", "keep the watcher's INFO logging on"},
+    };
+
+    /**
+     * Percentiles reported for the latency distribution.
+     */
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    /**
+     * Nanoseconds per millisecond, for the report.
+     */
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    /**
+     * The parsed options.
+     */
+    private final Map<String, String> mySettings;
+
+    /**
+     * Every directory the writers may use, growing as subtrees are added.
+     */
+    private final List<Path> myDirectories = new CopyOnWriteArrayList<>();
+
+    /**
+     * When each not yet committed change was made, by file path.
+     */
+    private final Map<String, Long> myPending = new ConcurrentHashMap<>();
+
+    /**
+     * Committed change latencies in nanoseconds, only touched by the writer thread.
+     */
+    private long[] myLatencies = new long[1 << 16];
+
+    /**
+     * The number of latencies recorded.
+     */
+    private int myLatencyCount;
+
+    /**
+     * Committed rows that were not a tracked change, e.g. new directories.
+     */
+    private final AtomicLong myUntrackedRows = new AtomicLong();
+
+    /**
+     * Files created.
+     */
+    private final LongAdder myCreates = new LongAdder();
+
+    /**
+     * Modifications performed.
+     */
+    private final LongAdder myModifies = new LongAdder();
+
+    /**
+     * Deletions performed.
+     */
+    private final LongAdder myDeletes = new LongAdder();
+
+    /**
+     * Subtrees created while under load.
+     */
+    private final LongAdder mySubtrees = new LongAdder();
+
+    /**
+     * Operations that failed with an I/O error.
+     */
+    private final LongAdder myErrors = new LongAdder();
+
+    /**
+     * Cleared when the load phase is over.
+     */
+    private final AtomicBoolean myIsRunning = new AtomicBoolean(true);
+
+    /**
+     * The highest heap usage seen while sampling.
+     */
+    private final AtomicLong myPeakHeap = new AtomicLong();
+
+    /**
+     * Random bytes the file contents are cut from.
+     */
+    private byte[] myContent;
+
+    /**
+     * Creates a generator.
+     *
+     * @param theSettings the parsed options.
+     */
+    private LoadGenerator(final Map<String, String> theSettings) {
+        mySettings = theSettings;
+    }
+
+    /**
+     * Runs a load test.
+     *
+     * @param theArgs the options, see --help.
+     * @throws Exception if the test cannot be set up.
+     */
+    public static void main(final String[] theArgs) throws Exception {
+        final Map<String, String> settings;
+        try {
+            settings = parse(theArgs);
+        } catch (final IllegalArgumentException theE) {
+            System.err.println(theE.getMessage());
+            System.err.println(usage());
+            System.exit(2);
+            return;
+        }
+        if (settings.containsKey("help")) {
+            System.out.println(usage());
+            return;
+        }
+        new LoadGenerator(settings).run();
+    }
+
+    /**
+     * Parses --name value pairs on top of the defaults.
+     *
+     * @param theArgs the command line.
+     * @return the settings.
+     * @throws IllegalArgumentException if an option is unknown or has no value.
+     */
+    private static Map<String, String> parse(final String[] theArgs) {
+        final Map<String, String> settings = new HashMap<>();
+        for (final String[] option : OPTIONS) {
+            settings.put(option[0], option[1]);
+        }
+        for (int i = 0; i < theArgs.length; i++) {
+            final String name = theArgs[i].replaceFirst("^--", "");
+            if ("help".equals(name) || "keep".equals(name) || "log".equals(name)) {
+                settings.put(name, "true");
+            } else if (!settings.containsKey(name) || !theArgs[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unknown option: " + theArgs[i]);
+            } else if (i + 1 >= theArgs.length) {
+                throw new IllegalArgumentException("Missing value for " + theArgs[i]);
+            } else {
+                settings.put(name, theArgs[++i]);
+            }
+        }
+        return settings;
+    }
+
+    /**
+     * Describes the options.
+     *
+     * @return the usage text.
+     */
+    private static String usage() {
+        final StringBuilder text = new StringBuilder("Options:\n");
+        for (final String[] option : OPTIONS) {
+            text.append(String.format("  --%-13s %s (default: %s)%n", option[0], option[2],
+                    option[1].isEmpty() ? "none" : option[1]));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Gets an integer option.
+     *
+     * @param theName the option.
+     * @return its value.
+     */
+    private int intSetting(final String theName) {
+        return Integer.parseInt(mySettings.get(theName));
+    }
+
+    /**
+     * Gets a pair of colon separated numbers.
+     *
+     * @param theName the option.
+     * @return its values.
+     */
+    private long[] rangeSetting(final String theName) {
+        return Arrays.stream(mySettings.get(theName).split(":"))
+                .mapToLong(Long::parseLong).toArray();
+    }
+
+    /**
+     * Sets up the tree and the watcher, applies the load and prints the report.
+     *
+     * @throws Exception if the test cannot be set up.
+     */
+    private void run() throws Exception {
+        if (!Boolean.parseBoolean(mySettings.get("log"))) {
+            Logger.getLogger("").setLevel(Level.WARNING);
+        }
+        final String rootSetting = mySettings.get("root");
+        final Path root = (rootSetting.isEmpty() ? Files.createTempDirectory("fw-load")
+                : Files.createDirectories(Path.of(rootSetting))).toRealPath();
+        final Path tree = Files.createDirectories(root.resolve("tree"));
+        buildTree(tree, intSetting("depth"), intSetting("fanout"));
+
+        final long[] sizes = rangeSetting("size");
+        myContent = new byte[(int) Math.max(1, sizes[1])];
+        new SplittableRandom(42).nextBytes(myContent);
+
+        final ConnectionManager connections = ConnectionManager.getInstance("jdbc:sqlite:"
+                + root.resolve("load.db"));
+        final BatchEventWriter writer = new BatchEventWriter(
+                new DataBaseManager(false, connections), intSetting("batch"),
+                Long.parseLong(mySettings.get("linger")), intSetting("queue"),
+                BatchEventWriter.BackpressurePolicy.valueOf(mySettings.get("policy")
+                        .toUpperCase(Locale.ROOT)));
+        writer.setCommitListener(this::recordCommitted);
+
+        final FileEventWatcher watcher = new FileEventWatcher(false);
+        if (intSetting("quiet-window") >= 0) {
+            watcher.getEventCoalescer().setQuietWindowMillis(intSetting("quiet-window"));
+        }
+        watcher.setEventWriter(writer);
+        watcher.setWatchPath(tree.toString());
+
+        final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        final long heapBefore = memory.getHeapMemoryUsage().getUsed();
+
+        final long registerStart = System.nanoTime();
+        watcher.startBackgroundWatching();
+        watcher.getDirectoryRegistrar().awaitIdle(TimeUnit.MINUTES.toMillis(5));
+        System.out.printf("Watching %d directories under %s (registered in %.1f ms)%n",
+                myDirectories.size(), tree,
+                (System.nanoTime() - registerStart) / NANOS_PER_MILLI);
+
+        final long duration = TimeUnit.SECONDS.toNanos(Long.parseLong(
+                mySettings.get("duration")));
+        final long loadStart = System.nanoTime();
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < intSetting("writers"); i++) {
+            final int id = i;
+            threads.add(Thread.ofPlatform().name("Load-Writer-" + i)
+                    .start(() -> writeFiles(id, loadStart + duration)));
+        }
+        threads.add(Thread.ofPlatform().name("Load-Subtrees").daemon()
+                .start(() -> addSubtrees(loadStart + duration)));
+        final Thread monitor = Thread.ofPlatform().name("Load-Monitor").daemon()
+                .start(() -> monitor(memory, writer, loadStart));
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        final long loadNanos = System.nanoTime() - loadStart;
+        final long committedDuringLoad = writer.getWrittenCount();
+
+        // let the coalescer and writer catch up before stopping, which flushes the rest
+        final long drainDeadline = System.nanoTime()
+                + TimeUnit.SECONDS.toNanos(Long.parseLong(mySettings.get("drain")));
+        long lastWritten = -1;
+        while (System.nanoTime() < drainDeadline
+                && (writer.getQueueDepth() > 0 || watcher.getEventCoalescer().getPendingCount() > 0
+                || writer.getWrittenCount() != lastWritten)) {
+            lastWritten = writer.getWrittenCount();
+            Thread.sleep(500);
+        }
+        final long drainNanos = System.nanoTime() - loadStart - loadNanos;
+        myIsRunning.set(false);
+        monitor.join();
+        watcher.stopWatching();
+
+        System.gc();
+        final long heapAfter = memory.getHeapMemoryUsage().getUsed();
+
+        final Map<String, Object> report = new LinkedHashMap<>();
+        report.put("writers", intSetting("writers"));
+        report.put("load_seconds", loadNanos / 1e9);
+        report.put("drain_seconds", drainNanos / 1e9);
+        report.put("directories", myDirectories.size());
+        report.put("creates", myCreates.sum());
+        report.put("modifies", myModifies.sum());
+        report.put("deletes", myDeletes.sum());
+        report.put("subtrees", mySubtrees.sum());
+        report.put("io_errors", myErrors.sum());
+        report.put("changes_per_second", (myCreates.sum() + myModifies.sum()
+                + myDeletes.sum()) / (loadNanos / 1e9));
+        report.put("rows_committed", writer.getWrittenCount());
+        report.put("rows_per_second_sustained", committedDuringLoad / (loadNanos / 1e9));
+        report.put("untracked_rows", myUntrackedRows.get());
+        report.put("changes_committed", myLatencyCount);
+        report.put("changes_never_committed", myPending.size());
+        report.put("coalesced_away", watcher.getEventCoalescer().getSuppressedCount()
+                + watcher.getEventCoalescer().getTransientCount());
+        report.put("writer_dropped", writer.getDroppedCount());
+        report.put("buffer_evicted", watcher.getEventBuffer().getEvictedCount());
+        report.put("overflows", watcher.getOverflowCount());
+        report.put("recovered_events", watcher.getRecoveredEventCount());
+        report.put("heap_before_mb", heapBefore / 1048576.0);
+        report.put("heap_after_mb", heapAfter / 1048576.0);
+        report.put("heap_peak_mb", myPeakHeap.get() / 1048576.0);
+        report.put("heap_growth_mb", (heapAfter - heapBefore) / 1048576.0);
+        report.putAll(latencyPercentiles());
+        printReport(report);
+
+        if (!mySettings.get("json").isEmpty()) {
+            Files.writeString(Path.of(mySettings.get("json")), toJson(report));
+        }
+        connections.close();
+        if (!Boolean.parseBoolean(mySettings.get("keep"))) {
+            deleteTree(root);
+        }
+    }
+
+    /**
+     * Creates the initial directory tree.
+     *
+     * @param theDir    the directory to fill.
+     * @param theDepth  the levels still to create.
+     * @param theFanout the subdirectories per directory.
+     * @throws IOException if a directory cannot be created.
+     */
+    private void buildTree(final Path theDir, final int theDepth, final int theFanout)
+            throws IOException {
+        addDirectory(theDir);
+        if (theDepth <= 0) {
+            return;
+        }
+        for (int i = 0; i < theFanout; i++) {
+            buildTree(Files.createDirectory(theDir.resolve("d" + i)), theDepth - 1, theFanout);
+        }
+    }
+
+    /**
+     * Makes a directory available to the writers and lets every extension through the
+     * router for it, as if it had been picked in the UI.
+     *
+     * @param theDir the directory.
+     */
+    private void addDirectory(final Path theDir) {
+        SceneHandler.addMonitoredDirectory(theDir.toString(), "All Extensions");
+        myDirectories.add(theDir);
+    }
+
+    /**
+     * One writer thread. Keeps its own files so modify and delete never race other
+     * writers, and paces itself to the configured rate.
+     *
+     * @param theId       the writer number, used in file names.
+     * @param theDeadline when to stop, in System.nanoTime terms.
+     */
+    private void writeFiles(final int theId, final long theDeadline) {
+        final SplittableRandom random = new SplittableRandom(theId);
+        final long[] mix = rangeSetting("mix");
+        final long[] sizes = rangeSetting("size");
+        final long total = mix[0] + mix[1] + mix[2];
+        final int rate = intSetting("rate");
+        final long interval = rate > 0 ? TimeUnit.SECONDS.toNanos(1) / rate : 0;
+        final List<Path> files = new ArrayList<>();
+        long sequence = 0;
+        long next = System.nanoTime();
+
+        while (System.nanoTime() < theDeadline) {
+            final long pick = random.nextLong(total);
+            try {
+                if (pick < mix[0] || files.isEmpty()) {
+                    final Path dir = myDirectories.get(random.nextInt(myDirectories.size()));
+                    final Path file = dir.resolve("w" + theId + "-" + sequence++ + ".dat");
+                    track(file);
+                    write(file, randomSize(random, sizes), StandardOpenOption.CREATE_NEW);
+                    files.add(file);
+                    myCreates.increment();
+                } else if (pick < mix[0] + mix[1]) {
+                    final Path file = files.get(random.nextInt(files.size()));
+                    track(file);
+                    write(file, randomSize(random, sizes), StandardOpenOption.TRUNCATE_EXISTING);
+                    myModifies.increment();
+                } else {
+                    final Path file = files.remove(random.nextInt(files.size()));
+                    track(file);
+                    Files.deleteIfExists(file);
+                    myDeletes.increment();
+                }
+            } catch (final IOException theE) {
+                myErrors.increment();
+            }
+            if (interval > 0) {
+                next += interval;
+                LockSupport.parkNanos(next - System.nanoTime());
+            }
+        }
+    }
+
+    /**
+     * Adds subtrees at the configured rate, each a directory with one level of fanout and
+     * a file in every child. Files created before the watcher has registered their
+     * directory can be missed, which is part of what is measured.
+     *
+     * @param theDeadline when to stop, in System.nanoTime terms.
+     */
+    private void addSubtrees(final long theDeadline) {
+        final double perSecond = Double.parseDouble(mySettings.get("subtrees"));
+        if (perSecond <= 0) {
+            return;
+        }
+        final SplittableRandom random = new SplittableRandom(-1);
+        final long interval = (long) (TimeUnit.SECONDS.toNanos(1) / perSecond);
+        final int fanout = intSetting("fanout");
+        long next = System.nanoTime() + interval;
+        int count = 0;
+
+        while (next < theDeadline) {
+            LockSupport.parkNanos(next - System.nanoTime());
+            next += interval;
+            try {
+                final Path parent = myDirectories.get(random.nextInt(myDirectories.size()));
+                final Path subtree = Files.createDirectory(parent.resolve("s" + count++));
+                addDirectory(subtree);
+                for (int i = 0; i < fanout; i++) {
+                    final Path child = Files.createDirectory(subtree.resolve("d" + i));
+                    addDirectory(child);
+                    final Path file = child.resolve("seed.dat");
+                    track(file);
+                    write(file, 1, StandardOpenOption.CREATE_NEW);
+                }
+                mySubtrees.increment();
+            } catch (final IOException theE) {
+                myErrors.increment();
+            }
+        }
+    }
+
+    /**
+     * Prints progress once a second and samples the heap until the run is over.
+     *
+     * @param theMemory the heap to sample.
+     * @param theWriter the writer to report on.
+     * @param theStart  when the load started, in System.nanoTime terms.
+     */
+    private void monitor(final MemoryMXBean theMemory, final BatchEventWriter theWriter,
+                         final long theStart) {
+        long lastWritten = 0;
+        while (myIsRunning.get()) {
+            LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(1));
+            final long heap = theMemory.getHeapMemoryUsage().getUsed();
+            myPeakHeap.accumulateAndGet(heap, Math::max);
+            final long written = theWriter.getWrittenCount();
+            System.out.printf("%6.1fs  %8d rows/s  queue %6d  pending %7d  heap %7.1f MB%n",
+                    (System.nanoTime() - theStart) / 1e9, written - lastWritten,
+                    theWriter.getQueueDepth(), myPending.size(), heap / 1048576.0);
+            lastWritten = written;
+        }
+    }
+
+    /**
+     * Remembers when a file was changed, keeping the first change that is not yet
+     * committed so coalesced bursts are timed from their start.
+     *
+     * @param theFile the file about to change.
+     */
+    private void track(final Path theFile) {
+        myPending.putIfAbsent(theFile.toString(), System.nanoTime());
+    }
+
+    /**
+     * Writes a file.
+     *
+     * @param theFile   the file.
+     * @param theSize   the number of bytes.
+     * @param theOption create or truncate.
+     * @throws IOException if the file cannot be written.
+     */
+    private void write(final Path theFile, final int theSize, final StandardOpenOption theOption)
+            throws IOException {
+        try (OutputStream out = Files.newOutputStream(theFile, theOption,
+                StandardOpenOption.WRITE)) {
+            out.write(myContent, 0, Math.min(theSize, myContent.length));
+        }
+    }
+
+    /**
+     * Picks a size, log-uniform between the bounds so small files dominate.
+     *
+     * @param theRandom the random source.
+     * @param theBounds min and max.
+     * @return the size in bytes.
+     */
+    private static int randomSize(final SplittableRandom theRandom, final long[] theBounds) {
+        final double low = Math.log1p(theBounds[0]);
+        final double high = Math.log1p(theBounds[1]);
+        return (int) Math.expm1(low + theRandom.nextDouble() * (high - low));
+    }
+
+    /**
+     * Matches committed rows to the changes that caused them.
+     *
+     * @param theBatch the rows that were just committed.
+     */
+    private void recordCommitted(final List<EventRecord> theBatch) {
+        final long now = System.nanoTime();
+        for (final EventRecord entry : theBatch) {
+            final Long changed = myPending.remove(entry.getDirectory() + File.separator
+                    + entry.getFileName());
+            if (changed == null) {
+                myUntrackedRows.incrementAndGet();
+                continue;
+            }
+            if (myLatencyCount == myLatencies.length) {
+                myLatencies = Arrays.copyOf(myLatencies, myLatencyCount * 2);
+            }
+            myLatencies[myLatencyCount++] = now - changed;
+        }
+    }
+
+    /**
+     * Computes the latency percentiles.
+     *
+     * @return the percentiles and maximum in milliseconds.
+     */
+    private Map<String, Object> latencyPercentiles() {
+        final long[] sorted = Arrays.copyOf(myLatencies, myLatencyCount);
+        Arrays.sort(sorted);
+        final Map<String, Object> result = new LinkedHashMap<>();
+        for (final double percentile : PERCENTILES) {
+            final int rank = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+            result.put("latency_p" + String.valueOf(percentile).replace(".0", "")
+                    .replace(".", "") + "_ms",
+                    sorted.length == 0 ? 0 : sorted[Math.max(rank, 0)] / NANOS_PER_MILLI);
+        }
+        result.put("latency_max_ms", sorted.length == 0 ? 0
+                : sorted[sorted.length - 1] / NANOS_PER_MILLI);
+        return result;
+    }
+
+    /**
+     * Prints the report.
+     *
+     * @param theReport the measurements.
+     */
+    private static void printReport(final Map<String, Object> theReport) {
+        System.out.println();
+        for (final Map.Entry<String, Object> line : theReport.entrySet()) {
+            final Object value = line.getValue();
+            System.out.printf("%-28s %s%n", line.getKey().replace('_', ' '),
+                    value instanceof Double number ? String.format("%.2f", number) : value);
+        }
+    }
+
+    /**
+     * Renders the report as a flat JSON object.
+     *
+     * @param theReport the measurements.
+     * @return the JSON text.
+     */
+    private static String toJson(final Map<String, Object> theReport) {
+        final StringBuilder json = new StringBuilder("{\n");
+        for (final Map.Entry<String, Object> line : theReport.entrySet()) {
+            if (json.length() > 2) {
+                json.append(",\n");
+            }
+            json.append("  \"").append(line.getKey()).append("\": ").append(line.getValue());
+        }
+        return json.append("\n}\n").toString();
+    }
+
+    /**
+     * Deletes a directory and everything below it.
+     *
+     * @param theRoot the directory.
+     * @throws IOException if something cannot be deleted.
+     */
+    private static void deleteTree(final Path theRoot) throws IOException {
+        Files.walkFileTree(theRoot, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(final Path theFile,
+                                             final BasicFileAttributes theAttrs)
+                    throws IOException {
+                Files.delete(theFile);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(final Path theDir, final IOException theE)
+                    throws IOException {
+                Files.delete(theDir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
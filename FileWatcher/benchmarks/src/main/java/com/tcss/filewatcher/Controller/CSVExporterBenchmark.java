@@ -0,0 +1,88 @@
+package com.tcss.filewatcher.Controller;
+
+import com.tcss.filewatcher.Model.DirectoryEntry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks exporting query results to a CSV file at different result sizes.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CSVExporterBenchmark {
+
+    /**
+     * The number of rows exported.
+     */
+    @Param({"10000", "100000", "1000000"})
+    private int myRows;
+
+    /**
+     * The rows to export.
+     */
+    private List<DirectoryEntry> myEntries;
+
+    /**
+     * The file the rows are written to.
+     */
+    private Path myFile;
+
+    /**
+     * Builds the rows.
+     *
+     * @throws IOException if the output file cannot be created.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        myEntries = new ArrayList<>(myRows);
+        for (int i = 0; i < myRows; i++) {
+            myEntries.add(new DirectoryEntry("17 Oct, 2026", String.format("12:%02d:%02d",
+                    i / 60 % 60, i % 60), "file" + i + ".txt", "/bench/dir" + (i % 64),
+                    "ENTRY_MODIFY"));
+        }
+        myFile = Files.createTempFile("export-bench", ".csv");
+    }
+
+    /**
+     * Deletes the output file.
+     *
+     * @throws IOException if it cannot be deleted.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(myFile);
+    }
+
+    /**
+     * Exports every row.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    @Benchmark
+    public void exportToCSV() throws IOException {
+        CSVExporter.exportToCSV(myEntries, myFile, "Benchmark export");
+    }
+}
@@ -0,0 +1,115 @@
+package com.tcss.filewatcher.Model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks writing events to a temporary SQLite database, one at a time and in
+ * the batches used by the event writer. Scores are per event.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DatabaseBenchmark {
+
+    /**
+     * The number of events per batch, the writer's default.
+     */
+    private static final int BATCH = BatchEventWriter.DEFAULT_BATCH_SIZE;
+
+    /**
+     * The directory holding the temporary database.
+     */
+    private Path myDir;
+
+    /**
+     * The connections to the temporary database.
+     */
+    private ConnectionManager myConnections;
+
+    /**
+     * The database under test.
+     */
+    private DataBaseManager myDBManager;
+
+    /**
+     * One batch of events.
+     */
+    private List<DirectoryEntry> myBatch;
+
+    /**
+     * Opens a fresh database.
+     *
+     * @throws IOException if the temporary directory cannot be created.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        myDir = Files.createTempDirectory("db-bench");
+        myConnections = ConnectionManager.getInstance("jdbc:sqlite:"
+                + myDir.resolve("bench.db"));
+        myDBManager = new DataBaseManager(false, myConnections);
+        myBatch = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            myBatch.add(new DirectoryEntry("17 Oct, 2026", "12:00:00", "file" + i + ".txt",
+                    "/bench/dir" + (i % 16), "ENTRY_MODIFY"));
+        }
+    }
+
+    /**
+     * Closes and deletes the database.
+     *
+     * @throws IOException if the files cannot be deleted.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        myConnections.close();
+        try (var files = Files.list(myDir)) {
+            for (final Path file : files.toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(myDir);
+    }
+
+    /**
+     * One event in its own transaction.
+     */
+    @Benchmark
+    public void insertFileEvent() {
+        myDBManager.insertFileEvent("17 Oct, 2026", "12:00:00", "file.txt", "/bench/dir",
+                "ENTRY_MODIFY");
+    }
+
+    /**
+     * A full writer batch in one transaction.
+     *
+     * @return the number of events written.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int insertFileEvents() {
+        return myDBManager.insertFileEvents(myBatch);
+    }
+}
@@ -0,0 +1,207 @@
+package com.tcss.filewatcher.Model;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the in-memory part of the ingest path: turning a raw watch event into a
+ * published event, matching file extensions and building table rows.
+ * Lives in the model package so it can reach the package-private watcher methods.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IngestBenchmark {
+
+    /**
+     * The number of distinct file names cycled through.
+     */
+    private static final int NAMES = 1024;
+
+    /**
+     * The watcher under test.
+     */
+    private FileEventWatcher myWatcher;
+
+    /**
+     * The watched root.
+     */
+    private Path myRoot;
+
+    /**
+     * A subdirectory of the root, where the extension rules apply.
+     */
+    private Path mySubDir;
+
+    /**
+     * Synthetic MODIFY events for different files.
+     */
+    private WatchEvent<Path>[] myEvents;
+
+    /**
+     * File names that match a watched extension.
+     */
+    private String[] myMatchingNames;
+
+    /**
+     * The matching file names as the watch service reports them.
+     */
+    private Path[] myMatchingPaths;
+
+    /**
+     * File names that match no watched extension, as the watch service reports them.
+     */
+    private Path[] myOtherPaths;
+
+    /**
+     * The next name or event to use.
+     */
+    private int myIndex;
+
+    /**
+     * Creates the watcher and the synthetic events.
+     *
+     * @throws IOException if the temporary directories cannot be created.
+     */
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() throws IOException {
+        myRoot = Files.createTempDirectory("ingest-bench");
+        mySubDir = Files.createDirectory(myRoot.resolve("sub"));
+        myWatcher = new FileEventWatcher(false);
+        myWatcher.getEventCoalescer().setQuietWindowMillis(0);
+        myWatcher.setWatchPath(myRoot.toString());
+        for (final String extension : new String[]{".txt", ".java", ".md", ".csv", ".log"}) {
+            myWatcher.addWatchedExtension(extension);
+        }
+
+        myEvents = new WatchEvent[NAMES];
+        myMatchingNames = new String[NAMES];
+        myMatchingPaths = new Path[NAMES];
+        myOtherPaths = new Path[NAMES];
+        for (int i = 0; i < NAMES; i++) {
+            myEvents[i] = new SyntheticEvent(Path.of("file" + i + ".txt"));
+            myMatchingNames[i] = "Source" + i + ".java";
+            myMatchingPaths[i] = Path.of(myMatchingNames[i]);
+            myOtherPaths[i] = Path.of("image" + i + ".png");
+        }
+    }
+
+    /**
+     * Removes the temporary directories.
+     *
+     * @throws IOException if they cannot be deleted.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        myWatcher.clearCurrentEvents();
+        Files.deleteIfExists(mySubDir);
+        Files.deleteIfExists(myRoot);
+    }
+
+    /**
+     * Gets the next index into the name tables.
+     *
+     * @return the index.
+     */
+    private int next() {
+        myIndex = (myIndex + 1) & (NAMES - 1);
+        return myIndex;
+    }
+
+    /**
+     * One raw MODIFY event through coalescing, buffering, logging and publishing.
+     */
+    @Benchmark
+    public void processWatchEvent() {
+        myWatcher.processWatchEvent(myEvents[next()], mySubDir);
+    }
+
+    /**
+     * Extension check for a name that matches.
+     *
+     * @return the match result.
+     */
+    @Benchmark
+    public boolean isWatchedFileHit() {
+        return myWatcher.isWatchedFile(myMatchingPaths[next()], mySubDir);
+    }
+
+    /**
+     * Extension check for a name that matches nothing.
+     *
+     * @return the match result.
+     */
+    @Benchmark
+    public boolean isWatchedFileMiss() {
+        return myWatcher.isWatchedFile(myOtherPaths[next()], mySubDir);
+    }
+
+    /**
+     * Building one table row.
+     *
+     * @return the new entry.
+     */
+    @Benchmark
+    public DirectoryEntry directoryEntryConstruction() {
+        return new DirectoryEntry("17 Oct, 2026", "12:00:00", myMatchingNames[next()],
+                mySubDir.toString(), "ENTRY_MODIFY");
+    }
+
+    /**
+     * A watch event that was never reported by a watch service.
+     */
+    private static final class SyntheticEvent implements WatchEvent<Path> {
+
+        /**
+         * The file name the event is about.
+         */
+        private final Path myContext;
+
+        /**
+         * Creates an event.
+         *
+         * @param theContext the file name.
+         */
+        SyntheticEvent(final Path theContext) {
+            myContext = theContext;
+        }
+
+        @Override
+        public Kind<Path> kind() {
+            return ENTRY_MODIFY;
+        }
+
+        @Override
+        public int count() {
+            return 1;
+        }
+
+        @Override
+        public Path context() {
+            return myContext;
+        }
+    }
+}
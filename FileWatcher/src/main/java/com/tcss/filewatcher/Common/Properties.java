@@ -58,6 +58,21 @@ public enum Properties {
      */
     NEW_FILE_EVENT,
 
+    /**
+     * A new file event passed the directory rules and was queued for the database.
+     */
+    FILTERED_FILE_EVENT,
+
+    /**
+     * Another batch of directories in a watched tree was registered.
+     */
+    REGISTRATION_PROGRESS,
+
+    /**
+     * Every directory tree that was being registered is now watched.
+     */
+    REGISTRATION_COMPLETE,
+
     /**
      * Query Directory.
      */
@@ -2,12 +2,15 @@ package com.tcss.filewatcher.Controller;
 
 import com.opencsv.CSVWriter;
 import com.tcss.filewatcher.Model.DirectoryEntry;
+import com.tcss.filewatcher.Model.EventRecord;
+import com.tcss.filewatcher.Model.FlightEvents;
 
 import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
 import java.util.logging.Level;
@@ -49,6 +52,7 @@ public class CSVExporter {
             throw new IllegalArgumentException("File name cannot be null or empty");
         }
 
+        final FlightEvents.CsvExport flight = new FlightEvents.CsvExport();
         try (final FileWriter fileWriter = new FileWriter(thePath.toFile());
              final CSVWriter csvWriter = new CSVWriter(fileWriter)) {
 
@@ -63,6 +67,74 @@ public class CSVExporter {
             logger.log(Level.INFO, "Successfully exported " + theEntries.size()
                     + " entries to " + thePath.getFileName());
         }
+        flight.end(thePath, theEntries.size());
+    }
+
+    /**
+     * Exports compact event records to a CSV file with query information header, in the
+     * same layout as {@link #exportToCSV(List, Path, String)}.
+     *
+     * @param theRecords   the events to export
+     * @param thePath      the output CSV file
+     * @param theQueryInfo Information about the query that generated these results
+     * @throws IOException if an error occurs while writing the file
+     */
+    public static void exportRecordsToCSV(final List<EventRecord> theRecords,
+                                          final Path thePath,
+                                          final String theQueryInfo) throws IOException {
+        if (theRecords == null) {
+            throw new IllegalArgumentException("Records list cannot be null");
+        }
+        exportRecordsToCSV(theRecords.iterator(), theRecords.size(), thePath, theQueryInfo);
+    }
+
+    /**
+     * Exports event records to a CSV file as they are read, e.g. from a database cursor,
+     * so only one row is held in memory at a time.
+     *
+     * @param theRecords     the events to export
+     * @param theRecordCount the number of events reported in the header
+     * @param thePath        the output CSV file
+     * @param theQueryInfo   Information about the query that generated these results
+     * @return the number of events written
+     * @throws IOException if an error occurs while writing the file
+     */
+    public static long exportRecordsToCSV(final Iterator<EventRecord> theRecords,
+                                          final long theRecordCount,
+                                          final Path thePath,
+                                          final String theQueryInfo) throws IOException {
+        if (theRecords == null) {
+            throw new IllegalArgumentException("Records cannot be null");
+        }
+
+        if (thePath == null) {
+            throw new IllegalArgumentException("File name cannot be null or empty");
+        }
+
+        final FlightEvents.CsvExport flight = new FlightEvents.CsvExport();
+        long written = 0;
+        try (final FileWriter fileWriter = new FileWriter(thePath.toFile());
+             final CSVWriter csvWriter = new CSVWriter(fileWriter)) {
+
+            writeQueryHeader(csvWriter, theQueryInfo, theRecordCount);
+            writeColumnHeaders(csvWriter);
+            while (theRecords.hasNext()) {
+                final EventRecord record = theRecords.next();
+                csvWriter.writeNext(new String[]{
+                        record.getDate(),
+                        record.getTime(),
+                        record.getFileName(),
+                        record.getExtension(),
+                        record.getDirectory(),
+                        record.getModificationType()
+                });
+                written++;
+            }
+            Logger.getLogger("Export to CSV Logger").log(Level.INFO, "Successfully exported "
+                    + written + " records to " + thePath.getFileName());
+        }
+        flight.end(thePath, (int) Math.min(written, Integer.MAX_VALUE));
+        return written;
     }
 
     /**
@@ -74,7 +146,7 @@ public class CSVExporter {
      */
     private static void writeQueryHeader(final CSVWriter theCsvWriter,
                                         final String theQueryInfo,
-                                   final int theRecordCount) {
+                                   final long theRecordCount) {
         // Write query information
         theCsvWriter.writeNext(new String[]{"File Watcher Query Results"});
         theCsvWriter.writeNext(new String[]{"Generated on: " + LocalDateTime.now().format(HEADER_DATE_FORMAT)});
@@ -1,7 +1,10 @@
 package com.tcss.filewatcher.Controller;
 
+import com.tcss.filewatcher.Model.DataBaseManager;
 import com.tcss.filewatcher.Model.DirectoryEntry;
 import com.tcss.filewatcher.Model.EmailClient;
+import com.tcss.filewatcher.Model.EventCursor;
+import com.tcss.filewatcher.Model.EventQuery;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -49,6 +52,26 @@ public class EmailFileController {
         CSVExporter.exportToCSV(theNewTable, theTmpPath, theQueryInfo);
     }
 
+    /**
+     * Query result csv generator. Streams the events of the query from the database
+     * into the csv file instead of copying a table.
+     *
+     * @param theDataBase  the database to read from.
+     * @param theQuery     the query whose events are exported.
+     * @param theTmpPath   the csv file to write.
+     * @param theQueryInfo The query Result.
+     * @throws IOException Thrown if the file cannot be written.
+     */
+    public static void send(final DataBaseManager theDataBase, final EventQuery theQuery,
+                            final Path theTmpPath,
+                            final String theQueryInfo) throws IOException {
+
+        try (EventCursor events = theDataBase.openRecords(theQuery)) {
+            CSVExporter.exportRecordsToCSV(events, theDataBase.countRecords(theQuery),
+                    theTmpPath, theQueryInfo);
+        }
+    }
+
     /**
      * Starts the email automation where it emails all the events to the registered address.
      * Runs a background thread.
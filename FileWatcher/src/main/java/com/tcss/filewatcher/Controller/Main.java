@@ -1,5 +1,6 @@
 package com.tcss.filewatcher.Controller;
 
+import com.tcss.filewatcher.Model.FlightRecording;
 import com.tcss.filewatcher.Viewer.MainSceneController;
 import java.io.IOException;
 import java.util.Objects;
@@ -45,6 +46,7 @@ public class Main extends Application {
     }
 
     public static void main(String[] args) {
+        FlightRecording.startFromSystemProperties();
         launch();
     }
 }
\ No newline at end of file
@@ -0,0 +1,768 @@
+package com.tcss.filewatcher.Controller;
+
+import com.tcss.filewatcher.Model.ConnectionManager;
+import com.tcss.filewatcher.Model.DataBaseManager;
+import com.tcss.filewatcher.Model.EmailClient;
+import com.tcss.filewatcher.Model.EventCursor;
+import com.tcss.filewatcher.Model.FileDirectoryDataBase;
+import com.tcss.filewatcher.Model.FileEventWatcher;
+import com.tcss.filewatcher.Model.FlightRecording;
+import com.tcss.filewatcher.Model.MetricsServer;
+import com.tcss.filewatcher.Model.RetentionPolicy;
+import com.tcss.filewatcher.Model.SceneHandler;
+import com.tcss.filewatcher.Model.WatchListRestore;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs the file watcher without a user interface, for servers that have no display.
+ * The watch list saved by the application is loaded from the watchList table, events
+ * are persisted by the watcher's batch writer and, when an address is given, a digest
+ * of the day's events is emailed at 5pm. Nothing here loads a JavaFX class, so the
+ * JavaFX jars do not need to be present.
+ * <p>
+ * A running daemon is controlled through a Unix domain socket that accepts one command
+ * per connection: {@code status}, {@code reload} (re-read the watch list), {@code digest}
+ * (email the digest now), {@code rollups} (recount the event rollup tables),
+ * {@code retention} (expire old events now) and {@code stop}. The digest, rollups and
+ * retention commands can take long, so they are queued on a maintenance thread and
+ * answered right away; their results are logged. SIGTERM and SIGINT stop
+ * it cleanly, writing out every queued event first. Like in the application, when a
+ * retention property is set the watcher applies the {@link RetentionPolicy} shortly
+ * after starting and then once a day.
+ * <pre>
+ * java -cp &lt;jars&gt; com.tcss.filewatcher.Controller.WatcherDaemon [--email address]
+ *         [--socket path | --no-socket]
+ * java -cp &lt;jars&gt; com.tcss.filewatcher.Controller.WatcherDaemon --control status
+ * java -cp &lt;jars&gt; com.tcss.filewatcher.Controller.WatcherDaemon --rebuild-rollups
+ * </pre>
+ * The database is filewatcher.db in the working directory, the same as the application.
+ * Gmail must have been authorized once on a machine with a browser and the token in
+ * ~/.filewatcher_tokens copied over, the daemon cannot open the consent page.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+public final class WatcherDaemon {
+
+    /**
+     * The default control socket, in the user's home directory.
+     */
+    public static final Path DEFAULT_SOCKET =
+            Path.of(System.getProperty("user.home"), ".filewatcher", "daemon.sock");
+
+    /**
+     * Logger object.
+     */
+    private static final Logger MY_LOGGER = Logger.getLogger("Watcher Daemon");
+
+    /**
+     * The saved watch list.
+     */
+    private final FileDirectoryDataBase myWatchList;
+
+    /**
+     * The event store the digest is read from.
+     */
+    private final DataBaseManager myEvents;
+
+    /**
+     * The watcher doing the work.
+     */
+    private final FileEventWatcher myWatcher;
+
+    /**
+     * The control socket, or null for none.
+     */
+    private final Path mySocketPath;
+
+    /**
+     * The digest address, or null for no digest.
+     */
+    private final String myEmailAddress;
+
+    /**
+     * The watched roots and the extensions saved for each, as last applied.
+     */
+    private final Map<Path, Set<String>> myRoots = new HashMap<>();
+
+    /**
+     * Saved roots that do not exist, retried on every reload.
+     */
+    private final Set<Path> myMissingRoots = new HashSet<>();
+
+    /**
+     * Released once the daemon has stopped.
+     */
+    private final CountDownLatch myStopped = new CountDownLatch(1);
+
+    /**
+     * The listening control socket, or null.
+     */
+    private ServerSocketChannel myControl;
+
+    /**
+     * The epoch millisecond the last digest covered up to.
+     */
+    private long myDigestUntilMillis;
+
+    /**
+     * Held for a whole digest, so the scheduled one and a digest command never send the
+     * same events twice.
+     */
+    private final Lock myDigestLock = new ReentrantLock();
+
+    /**
+     * Runs the digest, rollups and retention commands one at a time, so the control
+     * socket keeps answering while they work.
+     */
+    private final ExecutorService myMaintenance = Executors.newSingleThreadExecutor(
+            theTask -> {
+                final Thread thread = new Thread(theTask, "FileWatcher-Maintenance");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    /**
+     * The epoch millisecond the daemon started.
+     */
+    private long myStartedMillis;
+
+    /**
+     * The watch list as last applied.
+     */
+    private WatchListRestore myRestore;
+
+    /**
+     * Milliseconds from reading the watch list until every tree was registered, or -1
+     * while still registering.
+     */
+    private long myReadyMillis = -1;
+
+    /**
+     * Whether the daemon is running.
+     */
+    private boolean myIsRunning;
+
+    /**
+     * Creates a daemon that is not running yet.
+     *
+     * @param theWatchList    the saved watch list.
+     * @param theEvents       the event store the digest is read from.
+     * @param theWatcher      the watcher to run, not started.
+     * @param theSocketPath   the control socket, or null for none.
+     * @param theEmailAddress the digest address, or null for no digest.
+     * @throws IllegalArgumentException if the watch list, store or watcher is null.
+     */
+    public WatcherDaemon(final FileDirectoryDataBase theWatchList,
+                         final DataBaseManager theEvents, final FileEventWatcher theWatcher,
+                         final Path theSocketPath, final String theEmailAddress) {
+        if (theWatchList == null || theEvents == null || theWatcher == null) {
+            throw new IllegalArgumentException("Watch list, events and watcher are required");
+        }
+        myWatchList = theWatchList;
+        myEvents = theEvents;
+        myWatcher = theWatcher;
+        mySocketPath = theSocketPath;
+        myEmailAddress = (theEmailAddress == null || theEmailAddress.isBlank())
+                ? null : theEmailAddress.trim();
+    }
+
+    /**
+     * Runs the daemon until it is stopped through the control socket or a signal.
+     *
+     * @param theArgs the command line, see the class documentation.
+     */
+    public static void main(final String[] theArgs) {
+        final Map<String, String> options;
+        try {
+            options = parseArguments(theArgs);
+        } catch (final IllegalArgumentException theE) {
+            System.err.println(theE.getMessage());
+            printUsage(System.err);
+            System.exit(2);
+            return;
+        }
+        if (options.containsKey("help")) {
+            printUsage(System.out);
+            return;
+        }
+        final Path socket = options.containsKey("no-socket") ? null
+                : Path.of(options.getOrDefault("socket", DEFAULT_SOCKET.toString()));
+
+        if (options.containsKey("control")) {
+            if (socket == null) {
+                System.err.println("--control needs a socket");
+                System.exit(2);
+            }
+            System.exit(sendCommand(socket, options.get("control"), System.out) ? 0 : 1);
+        }
+        if (options.containsKey("rebuild-rollups")) {
+            final long counted = new DataBaseManager(false).rebuildRollups();
+            ConnectionManager.closeAll();
+            System.out.println(counted < 0 ? "rollups not rebuilt"
+                    : "rollups rebuilt events=" + counted);
+            System.exit(counted < 0 ? 1 : 0);
+        }
+
+        FlightRecording.startFromSystemProperties();
+        final FileEventWatcher watcher = new FileEventWatcher(false);
+        final MetricsServer metrics = MetricsServer.startDefault();
+        if (metrics != null) {
+            metrics.setWatcher(watcher);
+        }
+        final WatcherDaemon daemon = new WatcherDaemon(new FileDirectoryDataBase(false),
+                new DataBaseManager(false), watcher, socket, options.get("email"));
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            daemon.stop();
+            ConnectionManager.closeAll();
+        }, "FileWatcher-Shutdown"));
+
+        try {
+            daemon.start();
+        } catch (final IOException | IllegalStateException theE) {
+            MY_LOGGER.log(Level.SEVERE, "Daemon could not start: " + theE.getMessage() + "\n");
+            System.exit(1);
+        }
+        daemon.awaitStop();
+        System.exit(0);
+    }
+
+    /**
+     * Loads the watch list, starts watching and opens the control socket.
+     *
+     * @throws IOException           if the watch service or control socket cannot be set up.
+     * @throws IllegalStateException if it is already running or another daemon owns the
+     *                               control socket.
+     */
+    public void start() throws IOException {
+        final long startNanos = System.nanoTime();
+        synchronized (this) {
+            if (myIsRunning || myStopped.getCount() == 0) {
+                throw new IllegalStateException("The daemon can only be started once");
+            }
+            myIsRunning = true;
+            myStartedMillis = System.currentTimeMillis();
+            myDigestUntilMillis = myStartedMillis;
+        }
+        try {
+            applyWatchList();
+            myWatcher.startBackgroundWatching();
+            if (mySocketPath != null) {
+                openControlSocket();
+            }
+        } catch (final IOException | RuntimeException theE) {
+            stop();
+            throw theE;
+        }
+        if (myEmailAddress != null) {
+            EmailFrequencyManager.startDailyAt5(this::sendDigest);
+        }
+        MY_LOGGER.log(Level.INFO, "Watching " + getRootCount() + " directories ("
+                + getMissingRootCount() + " missing), started in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos) + " ms\n");
+
+        // the trees are still being walked, report when every directory is registered
+        final WatchListRestore restore = myRestore;
+        final Thread ready = new Thread(() -> {
+            long millis;
+            do {
+                millis = restore.awaitReady(myWatcher, TimeUnit.MINUTES.toMillis(1));
+            } while (millis < 0 && isRunning());
+            synchronized (this) {
+                myReadyMillis = millis;
+            }
+        }, "FileWatcher-Ready");
+        ready.setDaemon(true);
+        ready.start();
+    }
+
+    /**
+     * Stops watching after writing out every queued event, and closes the control
+     * socket. Does nothing if it is not running.
+     */
+    public void stop() {
+        synchronized (this) {
+            if (!myIsRunning) {
+                return;
+            }
+            myIsRunning = false;
+        }
+        closeControlSocket();
+        // a queued command finishes on its own; nothing new is accepted
+        myMaintenance.shutdown();
+        if (myEmailAddress != null) {
+            EmailFrequencyManager.shutdown();
+        }
+        myWatcher.stopWatching();
+        MY_LOGGER.log(Level.INFO, "Daemon stopped\n");
+        myStopped.countDown();
+    }
+
+    /**
+     * Blocks until the daemon has stopped.
+     */
+    public void awaitStop() {
+        try {
+            myStopped.await();
+        } catch (final InterruptedException theE) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Checks whether the daemon is running.
+     *
+     * @return true if it is running.
+     */
+    public synchronized boolean isRunning() {
+        return myIsRunning;
+    }
+
+    /**
+     * Gets the number of saved roots being watched.
+     *
+     * @return the number of roots.
+     */
+    public synchronized int getRootCount() {
+        return myRoots.size();
+    }
+
+    /**
+     * Gets how long it took from reading the watch list until every tree was registered.
+     *
+     * @return the milliseconds, or -1 while still registering.
+     */
+    public synchronized long getReadyMillis() {
+        return myReadyMillis;
+    }
+
+    /**
+     * Gets the number of saved roots that do not exist.
+     *
+     * @return the number of missing roots.
+     */
+    public synchronized int getMissingRootCount() {
+        return myMissingRoots.size();
+    }
+
+    /**
+     * Re-reads the watch list and brings the watcher in line with it: new roots are
+     * registered, removed ones released and the extension rules replaced.
+     *
+     * @return a one line summary of what changed.
+     */
+    public synchronized String reload() {
+        final int before = myRoots.size();
+        final int[] changes = applyWatchList();
+        MY_LOGGER.log(Level.INFO, "Watch list reloaded: " + changes[0] + " added, "
+                + changes[1] + " removed\n");
+        return "reloaded roots=" + myRoots.size() + " (was " + before + ") added="
+                + changes[0] + " removed=" + changes[1] + " missing=" + myMissingRoots.size();
+    }
+
+    /**
+     * Describes the running daemon on one line.
+     *
+     * @return the status.
+     */
+    public synchronized String status() {
+        return "running=" + myIsRunning
+                + " watching=" + myWatcher.isWatching()
+                + " roots=" + myRoots.size()
+                + " missing=" + myMissingRoots.size()
+                + " watches=" + myWatcher.getWatchKeyCount()
+                + " written=" + myWatcher.getEventWriter().getWrittenCount()
+                + " queued=" + myWatcher.getEventWriter().getQueueDepth()
+                + " dropped=" + myWatcher.getEventWriter().getDroppedCount()
+                + " overflows=" + myWatcher.getOverflowCount()
+                + " ready=" + (myReadyMillis < 0 ? "pending" : myReadyMillis + "ms")
+                + " uptime=" + (System.currentTimeMillis() - myStartedMillis) / 1000 + "s"
+                + " digest=" + (myEmailAddress == null ? "off" : myEmailAddress);
+    }
+
+    /**
+     * Emails the events recorded since the last digest as a CSV attachment. Skipped if
+     * another digest is being sent.
+     *
+     * @return the number of events sent, or -1 if nothing was sent.
+     */
+    public int sendDigest() {
+        if (myEmailAddress == null) {
+            MY_LOGGER.log(Level.WARNING, "No digest address configured\n");
+            return -1;
+        }
+        if (!myDigestLock.tryLock()) {
+            MY_LOGGER.log(Level.INFO, "A digest is already being sent\n");
+            return -1;
+        }
+        try {
+            return sendDigestLocked();
+        } finally {
+            myDigestLock.unlock();
+        }
+    }
+
+    /**
+     * Emails the events recorded since the last digest, while holding the digest lock.
+     *
+     * @return the number of events sent, or -1 if nothing was sent.
+     */
+    private int sendDigestLocked() {
+        final long from;
+        final long until = System.currentTimeMillis();
+        synchronized (this) {
+            from = myDigestUntilMillis;
+        }
+        final long count = myEvents.countByTimeRange(from, until);
+        Path csv = null;
+        try {
+            csv = Files.createTempFile("filewatcher-digest", ".csv");
+            final long sent;
+            // streamed, and the reader connection is released before the slow send
+            try (EventCursor events = myEvents.openRecordsByTimeRange(from, until)) {
+                sent = CSVExporter.exportRecordsToCSV(events, count, csv, "Events from "
+                        + Instant.ofEpochMilli(from) + " to " + Instant.ofEpochMilli(until));
+            }
+            if (!EmailClient.send(myEmailAddress, csv)) {
+                return -1;
+            }
+            synchronized (this) {
+                myDigestUntilMillis = until + 1;
+            }
+            return (int) Math.min(sent, Integer.MAX_VALUE);
+
+        } catch (final IOException | IllegalStateException theE) {
+            MY_LOGGER.log(Level.SEVERE, "Digest could not be written: " + theE.getMessage()
+                    + "\n");
+            return -1;
+
+        } finally {
+            deleteQuietly(csv);
+        }
+    }
+
+    /**
+     * Seals the live event table once it holds a week of events and expires the events
+     * and rollups the retention policy no longer keeps.
+     *
+     * @return the reply to the control command.
+     */
+    private String applyRetention() {
+        final RetentionPolicy policy = RetentionPolicy.fromSystemProperties();
+        final int dropped = myEvents.applyRetention(policy, System.currentTimeMillis());
+        return dropped < 0 ? "retention not applied"
+                : "retention applied partitions=" + myEvents.getPartitions().size()
+                + " dropped=" + dropped;
+    }
+
+    /**
+     * Runs one control command.
+     *
+     * @param theCommand the command, case insensitive.
+     * @return the reply.
+     */
+    private String handleCommand(final String theCommand) {
+        final String command = theCommand == null ? ""
+                : theCommand.trim().toLowerCase(Locale.ROOT);
+        return switch (command) {
+            case "status" -> status();
+            case "reload" -> reload();
+            case "digest" -> runInBackground(command, () -> {
+                final int sent = sendDigest();
+                return sent < 0 ? "digest not sent" : "digest sent events=" + sent;
+            });
+            case "rollups" -> runInBackground(command, () -> {
+                final long counted = myEvents.rebuildRollups();
+                return counted < 0 ? "rollups not rebuilt"
+                        : "rollups rebuilt events=" + counted;
+            });
+            case "retention" -> runInBackground(command, this::applyRetention);
+            case "stop" -> {
+                // reply before the socket is closed under the connection
+                final Thread stopper = new Thread(this::stop, "FileWatcher-Daemon-Stop");
+                stopper.start();
+                yield "stopping";
+            }
+            default -> "unknown command '" + command
+                    + "', expected status, reload, digest, rollups, retention or stop";
+        };
+    }
+
+    /**
+     * Queues a slow command on the maintenance thread and logs its result there.
+     *
+     * @param theCommand the command.
+     * @param theTask    runs the command and returns its result.
+     * @return the reply to the control command.
+     */
+    private String runInBackground(final String theCommand, final Supplier<String> theTask) {
+        try {
+            myMaintenance.execute(() -> MY_LOGGER.log(Level.INFO, theTask.get() + "\n"));
+            return theCommand + " queued, the result is logged";
+        } catch (final RejectedExecutionException theE) {
+            return theCommand + " not queued, the daemon is stopping";
+        }
+    }
+
+    /**
+     * Sends one command to a running daemon and prints the reply.
+     *
+     * @param theSocket  the control socket.
+     * @param theCommand the command.
+     * @param theOut     where the reply is printed.
+     * @return true if the daemon replied.
+     */
+    public static boolean sendCommand(final Path theSocket, final String theCommand,
+                                      final PrintStream theOut) {
+        try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(theSocket))) {
+            final PrintWriter writer = new PrintWriter(
+                    Channels.newWriter(channel, StandardCharsets.UTF_8), true);
+            writer.println(theCommand);
+            final BufferedReader reader = new BufferedReader(
+                    Channels.newReader(channel, StandardCharsets.UTF_8));
+            final String reply = reader.readLine();
+            if (reply == null) {
+                theOut.println("no reply from " + theSocket);
+                return false;
+            }
+            theOut.println(reply);
+            return true;
+
+        } catch (final IOException theE) {
+            theOut.println("cannot reach the daemon at " + theSocket + ": " + theE.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Brings the watcher in line with the saved watch list.
+     *
+     * @return the number of roots added and removed.
+     */
+    private synchronized int[] applyWatchList() {
+        final WatchListRestore saved = WatchListRestore.read(myWatchList);
+        final Map<Path, Set<String>> wanted = saved.getRules();
+        int added = 0;
+        int removed = 0;
+
+        for (final Path root : new ArrayList<>(myRoots.keySet())) {
+            if (!wanted.containsKey(root) || saved.getMissingRoots().contains(root)) {
+                myWatcher.removeWatchPath(root.toString());
+                SceneHandler.removeMonitoredDirectory(root.toString());
+                myRoots.remove(root);
+                removed++;
+            }
+        }
+
+        for (final Path root : saved.getRoots()) {
+            final Set<String> current = myRoots.put(root, wanted.get(root));
+            if (current == null) {
+                added++;
+                continue;
+            }
+            for (final String extension : current) {
+                if (!wanted.get(root).contains(extension)) {
+                    SceneHandler.removeMonitoredExtension(root.toString(), extension);
+                }
+            }
+        }
+        myMissingRoots.clear();
+        myMissingRoots.addAll(saved.getMissingRoots());
+
+        final Set<String> extensions = saved.getWatchedExtensions();
+        for (final String extension : myWatcher.getWatchedExtensions()) {
+            if (!extensions.contains(extension)) {
+                myWatcher.removeWatchedExtension(extension);
+            }
+        }
+        saved.registerRules();
+        saved.applyTo(myWatcher);
+        myRestore = saved;
+        return new int[]{added, removed};
+    }
+
+    /**
+     * Opens the control socket and serves it on a daemon thread.
+     *
+     * @throws IOException           if the socket cannot be created.
+     * @throws IllegalStateException if another daemon is listening on it.
+     */
+    private void openControlSocket() throws IOException {
+        if (Files.exists(mySocketPath)) {
+            try {
+                SocketChannel.open(UnixDomainSocketAddress.of(mySocketPath)).close();
+                throw new IllegalStateException("Another daemon is listening on "
+                        + mySocketPath);
+            } catch (final IOException theStale) {
+                // left behind by a daemon that was killed
+                Files.delete(mySocketPath);
+            }
+        }
+        final Path parent = mySocketPath.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        final ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        server.bind(UnixDomainSocketAddress.of(mySocketPath));
+        try {
+            Files.setPosixFilePermissions(mySocketPath, PosixFilePermissions.fromString(
+                    "rw-------"));
+        } catch (final UnsupportedOperationException theE) {
+            MY_LOGGER.log(Level.INFO, "Control socket permissions left as they are\n");
+        }
+        synchronized (this) {
+            myControl = server;
+        }
+        final Thread thread = new Thread(() -> serveControl(server), "FileWatcher-Control");
+        thread.setDaemon(true);
+        thread.start();
+        MY_LOGGER.log(Level.INFO, "Control socket at " + mySocketPath + "\n");
+    }
+
+    /**
+     * Answers control connections, one command each, until the socket is closed.
+     *
+     * @param theServer the listening socket.
+     */
+    private void serveControl(final ServerSocketChannel theServer) {
+        while (theServer.isOpen()) {
+            try (SocketChannel client = theServer.accept()) {
+                final BufferedReader reader = new BufferedReader(
+                        Channels.newReader(client, StandardCharsets.UTF_8));
+                final PrintWriter writer = new PrintWriter(
+                        Channels.newWriter(client, StandardCharsets.UTF_8), true);
+                writer.println(handleCommand(reader.readLine()));
+
+            } catch (final IOException theE) {
+                if (theServer.isOpen()) {
+                    MY_LOGGER.log(Level.WARNING, "Control connection failed: "
+                            + theE.getMessage() + "\n");
+                }
+            }
+        }
+    }
+
+    /**
+     * Closes the control socket and removes its file.
+     */
+    private void closeControlSocket() {
+        final ServerSocketChannel server;
+        synchronized (this) {
+            server = myControl;
+            myControl = null;
+        }
+        if (server == null) {
+            return;
+        }
+        try {
+            server.close();
+        } catch (final IOException theE) {
+            MY_LOGGER.log(Level.WARNING, "Control socket not closed: " + theE.getMessage()
+                    + "\n");
+        }
+        deleteQuietly(mySocketPath);
+    }
+
+    /**
+     * Deletes a file if there is one, logging a failure.
+     *
+     * @param theFile the file, or null.
+     */
+    private static void deleteQuietly(final Path theFile) {
+        if (theFile == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(theFile);
+        } catch (final IOException theE) {
+            MY_LOGGER.log(Level.WARNING, "Could not delete " + theFile + ": "
+                    + theE.getMessage() + "\n");
+        }
+    }
+
+    /**
+     * Reads the command line into option names and values.
+     *
+     * @param theArgs the command line.
+     * @return the options, flags mapped to an empty string.
+     * @throws IllegalArgumentException if an option is unknown or misses its value.
+     */
+    private static Map<String, String> parseArguments(final String[] theArgs) {
+        final Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < theArgs.length; i++) {
+            final String name = theArgs[i].startsWith("--") ? theArgs[i].substring(2) : "";
+            switch (name) {
+                case "email", "socket", "control" -> {
+                    if (i + 1 >= theArgs.length) {
+                        throw new IllegalArgumentException("--" + name + " needs a value");
+                    }
+                    options.put(name, theArgs[++i]);
+                }
+                case "no-socket", "rebuild-rollups", "help" -> options.put(name, "");
+                default -> throw new IllegalArgumentException("Unknown option: " + theArgs[i]);
+            }
+        }
+        return options;
+    }
+
+    /**
+     * Prints the command line options.
+     *
+     * @param theOut where to print.
+     */
+    private static void printUsage(final PrintStream theOut) {
+        theOut.println("""
+                usage: WatcherDaemon [--email address] [--socket path | --no-socket]
+                       WatcherDaemon --control status|reload|digest|rollups|retention|stop
+                                     [--socket path]
+                       WatcherDaemon --rebuild-rollups
+
+                  --email address  email a digest of the day's events at 5pm
+                  --socket path    control socket, default ~/.filewatcher/daemon.sock
+                  --no-socket      run without a control socket, stop with SIGTERM
+                  --control cmd    send a command to a running daemon and print the reply
+                  --rebuild-rollups
+                                   recount the event rollup tables of filewatcher.db
+                                   and exit
+
+                system properties:
+                  -Dfilewatcher.exclude=*.tmp~,build/**  never report matching files
+                  -Dfilewatcher.include=Makefile         report matching files whatever
+                                                         their extension
+                  -Dfilewatcher.retention.raw=90d        keep events this long (nothing
+                                                         expires unless a retention
+                                                         property is set)
+                  -Dfilewatcher.retention.rollups=730d   keep event rollups this long
+                """);
+    }
+}
@@ -0,0 +1,470 @@
+package com.tcss.filewatcher.Model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Asynchronous writer stage that sits between the file event watcher and the database.
+ * Events are queued and flushed by a background thread in multi-row transactions, either
+ * when a full batch has accumulated or when the linger time runs out. Submitting and
+ * shutting down exclude each other, so an event is either refused or queued before the
+ * worker's last drain, never left behind in the queue.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+public class BatchEventWriter {
+
+    /**
+     * What to do with a new event when the queue is full.
+     */
+    public enum BackpressurePolicy {
+
+        /**
+         * Blocks the submitting thread until there is room in the queue.
+         */
+        BLOCK,
+
+        /**
+         * Discards the event that is being submitted.
+         */
+        DROP_NEWEST,
+
+        /**
+         * Discards the oldest queued event to make room for the new one.
+         */
+        DROP_OLDEST
+    }
+
+    /**
+     * The default number of events written per transaction.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    /**
+     * The default time in milliseconds a partial batch waits for more events.
+     */
+    public static final long DEFAULT_LINGER_MILLIS = 50;
+
+    /**
+     * The default number of events the queue can hold.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 8192;
+
+    /**
+     * How long shutdown waits for the worker to drain the queue.
+     */
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5000;
+
+    /**
+     * How long a blocked submit waits for room before checking that the worker is alive.
+     */
+    private static final long BLOCK_RETRY_MILLIS = 100;
+
+    /**
+     * Logger object.
+     */
+    private static final Logger MY_LOGGER = Logger.getLogger("Batch Event Writer");
+
+    /**
+     * The database the batches are written to.
+     */
+    private final DataBaseManager myDBManager;
+
+    /**
+     * The bounded queue of events waiting to be written.
+     */
+    private final BlockingQueue<EventRecord> myQueue;
+
+    /**
+     * The maximum number of events written per transaction.
+     */
+    private final int myBatchSize;
+
+    /**
+     * The maximum time in milliseconds a partial batch waits before it is flushed.
+     */
+    private final long myLingerMillis;
+
+    /**
+     * The policy applied when the queue is full.
+     */
+    private final BackpressurePolicy myPolicy;
+
+    /**
+     * Whether the writer is accepting events.
+     */
+    private final AtomicBoolean myIsRunning = new AtomicBoolean(false);
+
+    /**
+     * Shared by submitters while they check that the writer runs and queue their event,
+     * exclusive while shutdown stops accepting events.
+     */
+    private final ReadWriteLock myGate = new ReentrantReadWriteLock();
+
+    /**
+     * Number of events accepted into the queue.
+     */
+    private final AtomicLong mySubmittedCount = new AtomicLong();
+
+    /**
+     * Number of events committed to the database.
+     */
+    private final AtomicLong myWrittenCount = new AtomicLong();
+
+    /**
+     * Number of events dropped because of backpressure or a stopped writer.
+     */
+    private final AtomicLong myDroppedCount = new AtomicLong();
+
+    /**
+     * The background thread that flushes batches.
+     */
+    private volatile Thread myWorker;
+
+    /**
+     * Told about every batch right after it was committed, or null.
+     */
+    private volatile Consumer<List<EventRecord>> myCommitListener;
+
+    /**
+     * How long each batch took to write.
+     */
+    private final LatencyHistogram myWriteLatency =
+            new LatencyHistogram(LatencyHistogram.LOCAL_BOUNDS);
+
+    /**
+     * Creates a writer with the default batch size, linger time, queue capacity and a
+     * blocking backpressure policy.
+     *
+     * @param theDBManager the database the events are written to.
+     */
+    public BatchEventWriter(final DataBaseManager theDBManager) {
+        this(theDBManager, DEFAULT_BATCH_SIZE, DEFAULT_LINGER_MILLIS, DEFAULT_QUEUE_CAPACITY,
+                BackpressurePolicy.BLOCK);
+    }
+
+    /**
+     * Creates a writer.
+     *
+     * @param theDBManager     the database the events are written to.
+     * @param theBatchSize     the maximum number of events per transaction.
+     * @param theLingerMillis  the maximum time a partial batch waits for more events.
+     * @param theQueueCapacity the maximum number of queued events.
+     * @param thePolicy        what to do when the queue is full.
+     * @throws IllegalArgumentException if any argument is null or out of range.
+     */
+    public BatchEventWriter(final DataBaseManager theDBManager, final int theBatchSize,
+                            final long theLingerMillis, final int theQueueCapacity,
+                            final BackpressurePolicy thePolicy) {
+        if (theDBManager == null || thePolicy == null) {
+            throw new IllegalArgumentException("Database manager and policy cannot be null");
+        }
+        if (theBatchSize < 1 || theLingerMillis < 0 || theQueueCapacity < 1) {
+            throw new IllegalArgumentException("Batch size and queue capacity must be positive "
+                    + "and linger time cannot be negative");
+        }
+        myDBManager = theDBManager;
+        myBatchSize = theBatchSize;
+        myLingerMillis = theLingerMillis;
+        myQueue = new ArrayBlockingQueue<>(theQueueCapacity);
+        myPolicy = thePolicy;
+    }
+
+    /**
+     * Starts the background writer thread. Does nothing if it is already running. If the
+     * worker of the last run is still draining, waits for it first, at most as long as
+     * {@link #shutdown()} does, so there is only one writer at a time.
+     *
+     * @throws IllegalStateException if the last worker is still draining or the wait was
+     *                               interrupted; the writer is not started.
+     */
+    public synchronized void start() {
+        if (myIsRunning.get()) {
+            return;
+        }
+        final Thread worker = myWorker;
+        if (worker != null) {
+            try {
+                worker.join(SHUTDOWN_TIMEOUT_MILLIS);
+            } catch (final InterruptedException theE) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while the last event writer "
+                        + "was draining");
+            }
+            if (worker.isAlive()) {
+                MY_LOGGER.log(Level.WARNING, "Event writer not started, the last one is "
+                        + "still draining " + myQueue.size() + " events\n");
+                throw new IllegalStateException("The last event writer is still draining");
+            }
+        }
+        myIsRunning.set(true);
+        myWorker = new Thread(this::runWriter, "Event-Writer-Thread");
+        myWorker.setDaemon(true);
+        myWorker.start();
+    }
+
+    /**
+     * Queues an event to be written. Only the compact record of the event is queued.
+     *
+     * @param theEntry the event.
+     * @return true if the event was queued, false if it was dropped.
+     */
+    public boolean submit(final DirectoryEntry theEntry) {
+        return theEntry != null && submitRecord(theEntry.toRecord());
+    }
+
+    /**
+     * Queues an event record to be written.
+     *
+     * @param theRecord the event.
+     * @return true if the event was queued, false if it was dropped.
+     */
+    public boolean submitRecord(final EventRecord theRecord) {
+        if (theRecord == null) {
+            return false;
+        }
+        myGate.readLock().lock();
+        try {
+            if (!myIsRunning.get() || !enqueue(theRecord)) {
+                myDroppedCount.incrementAndGet();
+                return false;
+            }
+        } finally {
+            myGate.readLock().unlock();
+        }
+        mySubmittedCount.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Queues an event according to the backpressure policy. Called while the writer is
+     * running and cannot be shut down.
+     *
+     * @param theRecord the event.
+     * @return true if the event was queued, false if it has to be dropped.
+     */
+    private boolean enqueue(final EventRecord theRecord) {
+        switch (myPolicy) {
+            case BLOCK -> {
+                try {
+                    // the worker drains the queue until shutdown, unless it died
+                    while (!myQueue.offer(theRecord, BLOCK_RETRY_MILLIS,
+                            TimeUnit.MILLISECONDS)) {
+                        final Thread worker = myWorker;
+                        if (worker == null || !worker.isAlive()) {
+                            return false;
+                        }
+                    }
+                } catch (final InterruptedException theE) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            case DROP_NEWEST -> {
+                if (!myQueue.offer(theRecord)) {
+                    return false;
+                }
+            }
+            case DROP_OLDEST -> {
+                while (!myQueue.offer(theRecord)) {
+                    if (myQueue.poll() != null) {
+                        myDroppedCount.incrementAndGet();
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stops accepting events and waits for the worker to write everything that is still
+     * queued. If the worker does not finish in time it is left to finish on its own.
+     */
+    public synchronized void shutdown() {
+        // waits for submitters that are queueing, so no event arrives after this
+        myGate.writeLock().lock();
+        try {
+            if (!myIsRunning.compareAndSet(true, false)) {
+                return;
+            }
+        } finally {
+            myGate.writeLock().unlock();
+        }
+        final Thread worker = myWorker;
+        try {
+            worker.join(SHUTDOWN_TIMEOUT_MILLIS);
+        } catch (final InterruptedException theE) {
+            Thread.currentThread().interrupt();
+        }
+        if (worker.isAlive()) {
+            MY_LOGGER.log(Level.WARNING, "Event writer still draining, "
+                    + myQueue.size() + " events queued\n");
+            return;
+        }
+
+        // Only if the worker was interrupted: write what it did not get to.
+        final List<EventRecord> remaining = new ArrayList<>(myBatchSize);
+        while (myQueue.drainTo(remaining, myBatchSize) > 0) {
+            flush(remaining);
+        }
+        myWorker = null;
+        MY_LOGGER.log(Level.INFO, "Event writer drained, " + myWrittenCount.get()
+                + " events written\n");
+    }
+
+    /**
+     * Sets a listener that is handed each batch right after it was committed, on the
+     * thread that wrote it. The list is only valid during the call. Used to measure
+     * end-to-end latency; keep the listener cheap, it holds up the writer.
+     *
+     * @param theListener the listener, or null to remove it.
+     */
+    public void setCommitListener(final Consumer<List<EventRecord>> theListener) {
+        myCommitListener = theListener;
+    }
+
+    /**
+     * Gets the database the events are written to.
+     *
+     * @return the database manager.
+     */
+    DataBaseManager getDBManager() {
+        return myDBManager;
+    }
+
+    /**
+     * Checks whether the writer is accepting events.
+     *
+     * @return true if the writer is running, false otherwise.
+     */
+    public boolean isRunning() {
+        return myIsRunning.get();
+    }
+
+    /**
+     * Gets the number of events waiting to be written.
+     *
+     * @return the queue depth.
+     */
+    public int getQueueDepth() {
+        return myQueue.size();
+    }
+
+    /**
+     * Gets the number of events accepted into the queue.
+     *
+     * @return the submitted event count.
+     */
+    public long getSubmittedCount() {
+        return mySubmittedCount.get();
+    }
+
+    /**
+     * Gets the number of events committed to the database.
+     *
+     * @return the written event count.
+     */
+    public long getWrittenCount() {
+        return myWrittenCount.get();
+    }
+
+    /**
+     * Gets the number of events that were dropped.
+     *
+     * @return the dropped event count.
+     */
+    public long getDroppedCount() {
+        return myDroppedCount.get();
+    }
+
+    /**
+     * Gets the time each batch took to write.
+     *
+     * @return the write latency histogram.
+     */
+    public LatencyHistogram getWriteLatency() {
+        return myWriteLatency;
+    }
+
+    /**
+     * The writer loop. Waits for the first event of a batch, then keeps collecting until
+     * the batch is full or the linger time has passed, and writes the batch in one
+     * transaction.
+     */
+    private void runWriter() {
+        final List<EventRecord> batch = new ArrayList<>(myBatchSize);
+        final long lingerNanos = TimeUnit.MILLISECONDS.toNanos(myLingerMillis);
+
+        while (myIsRunning.get() || !myQueue.isEmpty()) {
+            try {
+                final EventRecord first = myQueue.poll(Math.max(myLingerMillis, 1),
+                        TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                final long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < myBatchSize) {
+                    myQueue.drainTo(batch, myBatchSize - batch.size());
+                    final long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= myBatchSize || remaining <= 0) {
+                        break;
+                    }
+                    final EventRecord next = myQueue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+
+            } catch (final InterruptedException theE) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (final RuntimeException theE) {
+                // one failed batch must not stop the writer, submitters wait on it
+                MY_LOGGER.log(Level.SEVERE, "Unable to write events: " + theE.getMessage()
+                        + "\n");
+                myDroppedCount.addAndGet(batch.size());
+                batch.clear();
+            }
+        }
+        flush(batch);
+    }
+
+    /**
+     * Writes a batch to the database and clears it.
+     *
+     * @param theBatch the events to write.
+     */
+    private void flush(final List<EventRecord> theBatch) {
+        if (theBatch.isEmpty()) {
+            return;
+        }
+        final long start = System.nanoTime();
+        final int written = myDBManager.insertEventRecords(theBatch);
+        myWriteLatency.recordSince(start);
+        myWrittenCount.addAndGet(written);
+        if (written < theBatch.size()) {
+            myDroppedCount.addAndGet(theBatch.size() - written);
+        }
+        final Consumer<List<EventRecord>> listener = myCommitListener;
+        if (listener != null && written > 0) {
+            listener.accept(Collections.unmodifiableList(theBatch));
+        }
+        theBatch.clear();
+    }
+}
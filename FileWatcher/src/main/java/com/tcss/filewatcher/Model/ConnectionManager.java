@@ -0,0 +1,498 @@
+package com.tcss.filewatcher.Model;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteConnection;
+import org.sqlite.SQLiteDataSource;
+
+/**
+ * Shared, long-lived SQLite connections for all the database managers.
+ * <p>Every database file gets exactly one writer connection, handed out to one caller at a
+ * time, and a small pool of read-only connections. The database runs in WAL mode so readers
+ * never block the writer and the writer never blocks readers. Each connection keeps its
+ * own cache of prepared statements.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+public final class ConnectionManager {
+
+    /**
+     * The JDBC URL of the application database.
+     */
+    public static final String DEFAULT_URL = "jdbc:sqlite:filewatcher.db";
+
+    /**
+     * The default maximum number of read-only connections.
+     */
+    public static final int DEFAULT_READER_COUNT = 4;
+
+    /**
+     * Page cache per connection in KiB (negative values are KiB for SQLite).
+     */
+    private static final int CACHE_SIZE_KIB = -16384;
+
+    /**
+     * Bytes of the database file that may be memory mapped.
+     */
+    private static final String MMAP_SIZE_BYTES = String.valueOf(256L * 1024 * 1024);
+
+    /**
+     * How long a connection waits on a locked database before failing, in milliseconds.
+     */
+    private static final int BUSY_TIMEOUT_MILLIS = 5000;
+
+    /**
+     * Maximum number of prepared statements cached per connection.
+     */
+    private static final int STATEMENT_CACHE_SIZE = 32;
+
+    /**
+     * Logger object.
+     */
+    private static final Logger MY_LOGGER = Logger.getLogger("Connection Manager");
+
+    /**
+     * One manager per database URL.
+     */
+    private static final Map<String, ConnectionManager> MY_INSTANCES = new HashMap<>();
+
+    /**
+     * The JDBC URL of this manager's database.
+     */
+    private final String myUrl;
+
+    /**
+     * The data source for read-only connections.
+     */
+    private final SQLiteDataSource myReadDataSource;
+
+    /**
+     * The single writer connection.
+     */
+    private final Lease myWriter;
+
+    /**
+     * Gives callers exclusive use of the writer connection.
+     */
+    private final ReentrantLock myWriterLock = new ReentrantLock(true);
+
+    /**
+     * Limits the number of read-only connections in use.
+     */
+    private final Semaphore myReaderPermits;
+
+    /**
+     * Read-only connections that are open and not in use.
+     */
+    private final ConcurrentLinkedQueue<Lease> myIdleReaders = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Every read-only connection that has been opened.
+     */
+    private final List<Lease> myAllReaders = new ArrayList<>();
+
+    /**
+     * Tables whose CREATE statement has already run on this database.
+     */
+    private final Set<String> myInitializedTables = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Whether the connections have been closed.
+     */
+    private volatile boolean myIsClosed;
+
+    /**
+     * Opens the writer connection for a database.
+     *
+     * @param theUrl         the JDBC URL of the database.
+     * @param theReaderCount the maximum number of read-only connections.
+     * @throws SQLException if the writer connection cannot be opened.
+     */
+    private ConnectionManager(final String theUrl, final int theReaderCount) throws SQLException {
+        myUrl = theUrl;
+        myReaderPermits = new Semaphore(theReaderCount, true);
+
+        final SQLiteConfig writeConfig = baseConfig();
+        writeConfig.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        final SQLiteDataSource writeDataSource = new SQLiteDataSource(writeConfig);
+        writeDataSource.setUrl(theUrl);
+        myWriter = new Lease(this, writeDataSource.getConnection(), true, false);
+
+        final SQLiteConfig readConfig = baseConfig();
+        readConfig.setReadOnly(true);
+        myReadDataSource = new SQLiteDataSource(readConfig);
+        myReadDataSource.setUrl(theUrl);
+
+        MY_LOGGER.log(Level.INFO, "Database connection established successfully\n");
+    }
+
+    /**
+     * Gets the manager of the application database.
+     *
+     * @return the shared connection manager.
+     */
+    public static ConnectionManager getInstance() {
+        return getInstance(DEFAULT_URL);
+    }
+
+    /**
+     * Gets the manager of a database, opening it on first use.
+     *
+     * @param theUrl the JDBC URL of the database.
+     * @return the shared connection manager for that database.
+     * @throws RuntimeException if the database cannot be opened.
+     */
+    public static synchronized ConnectionManager getInstance(final String theUrl) {
+        if (theUrl == null || theUrl.isBlank()) {
+            throw new IllegalArgumentException("Database URL cannot be null or empty");
+        }
+        ConnectionManager manager = MY_INSTANCES.get(theUrl);
+        if (manager == null || manager.myIsClosed) {
+            try {
+                manager = new ConnectionManager(theUrl, DEFAULT_READER_COUNT);
+            } catch (final SQLException theE) {
+                MY_LOGGER.log(Level.SEVERE, "Failed to initialize database: " + theE.getMessage()
+                        + "\n");
+                throw new RuntimeException("Failed to initialize database: ", theE);
+            }
+            MY_INSTANCES.put(theUrl, manager);
+        }
+        return manager;
+    }
+
+    /**
+     * Closes every open database.
+     */
+    public static synchronized void closeAll() {
+        for (final ConnectionManager manager : MY_INSTANCES.values()) {
+            manager.close();
+        }
+        MY_INSTANCES.clear();
+    }
+
+    /**
+     * Settings shared by the writer and the readers.
+     *
+     * @return a new configuration object.
+     */
+    private static SQLiteConfig baseConfig() {
+        final SQLiteConfig config = new SQLiteConfig();
+        config.setSynchronous(SQLiteConfig.SynchronousMode.NORMAL);
+        config.setCacheSize(CACHE_SIZE_KIB);
+        config.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, MMAP_SIZE_BYTES);
+        config.setTempStore(SQLiteConfig.TempStore.MEMORY);
+        config.setBusyTimeout(BUSY_TIMEOUT_MILLIS);
+        return config;
+    }
+
+    /**
+     * Gets the JDBC URL of this manager's database.
+     *
+     * @return the database URL.
+     */
+    public String getUrl() {
+        return myUrl;
+    }
+
+    /**
+     * Borrows the writer connection. Blocks while another caller is using it.
+     * The lease must be closed to hand the writer back.
+     *
+     * @return the writer lease.
+     * @throws SQLException if the manager has been closed.
+     */
+    public Lease acquireWriter() throws SQLException {
+        checkOpen();
+        myWriterLock.lock();
+        return myWriter;
+    }
+
+    /**
+     * Borrows a read-only connection, opening a new one if none is idle and the pool is
+     * not full. The lease must be closed to return the connection to the pool.
+     *
+     * @return a reader lease.
+     * @throws SQLException if the manager has been closed or a connection cannot be opened.
+     */
+    public Lease acquireReader() throws SQLException {
+        checkOpen();
+        myReaderPermits.acquireUninterruptibly();
+        final Lease idle = myIdleReaders.poll();
+        if (idle != null) {
+            return idle;
+        }
+        try {
+            final Lease reader = new Lease(this, myReadDataSource.getConnection(), false,
+                    false);
+            synchronized (myAllReaders) {
+                myAllReaders.add(reader);
+            }
+            return reader;
+
+        } catch (final SQLException theE) {
+            myReaderPermits.release();
+            throw theE;
+        }
+    }
+
+    /**
+     * Opens a read-only connection outside the pool, for a caller that keeps one
+     * connection to itself, e.g. a query worker that must be able to interrupt it.
+     * Closing the lease closes the connection.
+     *
+     * @return a dedicated reader lease.
+     * @throws SQLException if the manager has been closed or the connection cannot be
+     *                      opened.
+     */
+    public Lease openDedicatedReader() throws SQLException {
+        checkOpen();
+        final Lease reader = new Lease(this, myReadDataSource.getConnection(), false, true);
+        synchronized (myAllReaders) {
+            myAllReaders.add(reader);
+        }
+        return reader;
+    }
+
+    /**
+     * Runs a CREATE statement for a table the first time it is requested on this database.
+     * Later calls for the same table do nothing.
+     *
+     * @param theTableName the name the statement is remembered by.
+     * @param theStatements the DDL statements to run, in order.
+     * @throws SQLException if a statement fails.
+     */
+    public void ensureTable(final String theTableName, final String... theStatements)
+            throws SQLException {
+        if (myInitializedTables.contains(theTableName)) {
+            return;
+        }
+        try (Lease lease = acquireWriter();
+             Statement stmt = lease.getConnection().createStatement()) {
+            if (myInitializedTables.contains(theTableName)) {
+                return;
+            }
+            for (final String statement : theStatements) {
+                stmt.executeUpdate(statement);
+            }
+            myInitializedTables.add(theTableName);
+        }
+    }
+
+    /**
+     * Closes the writer and every reader. Leases that are still out become unusable.
+     */
+    public void close() {
+        if (myIsClosed) {
+            return;
+        }
+        myIsClosed = true;
+        myWriterLock.lock();
+        try {
+            myWriter.closeConnection();
+        } finally {
+            myWriterLock.unlock();
+        }
+        synchronized (myAllReaders) {
+            for (final Lease reader : myAllReaders) {
+                reader.closeConnection();
+            }
+            myAllReaders.clear();
+        }
+        myIdleReaders.clear();
+    }
+
+    /**
+     * Fails if the manager has been closed.
+     *
+     * @throws SQLException if the manager has been closed.
+     */
+    private void checkOpen() throws SQLException {
+        if (myIsClosed) {
+            throw new SQLException("Connection manager for " + myUrl + " is closed");
+        }
+    }
+
+    /**
+     * Hands a lease back to its manager.
+     *
+     * @param theLease the lease being returned.
+     */
+    private void release(final Lease theLease) {
+        if (theLease.myIsWriter) {
+            myWriterLock.unlock();
+        } else if (theLease.myIsDedicated) {
+            synchronized (myAllReaders) {
+                myAllReaders.remove(theLease);
+            }
+            theLease.closeConnection();
+        } else {
+            if (!myIsClosed) {
+                myIdleReaders.offer(theLease);
+            }
+            myReaderPermits.release();
+        }
+    }
+
+    /**
+     * A borrowed connection. Closing the lease returns the connection to its manager
+     * instead of closing it. Statements obtained from {@link #prepare(String)} are cached
+     * and must not be closed by the caller; result sets still should be.
+     *
+     * @author Kassie Whitney
+     * @version 10.17.26
+     */
+    public static final class Lease implements AutoCloseable {
+
+        /**
+         * The manager this lease belongs to.
+         */
+        private final ConnectionManager myManager;
+
+        /**
+         * The physical connection.
+         */
+        private final Connection myConnection;
+
+        /**
+         * Whether this is the writer connection.
+         */
+        private final boolean myIsWriter;
+
+        /**
+         * Whether this connection is outside the reader pool.
+         */
+        private final boolean myIsDedicated;
+
+        /**
+         * Prepared statements by SQL text, least recently used first.
+         */
+        private final Map<String, PreparedStatement> myStatements;
+
+        /**
+         * Wraps a physical connection.
+         *
+         * @param theManager     the owning manager.
+         * @param theConnection  the physical connection.
+         * @param theIsWriter    whether this is the writer connection.
+         * @param theIsDedicated whether the connection is outside the reader pool.
+         */
+        private Lease(final ConnectionManager theManager, final Connection theConnection,
+                      final boolean theIsWriter, final boolean theIsDedicated) {
+            myManager = theManager;
+            myConnection = theConnection;
+            myIsWriter = theIsWriter;
+            myIsDedicated = theIsDedicated;
+            myStatements = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(
+                        final Map.Entry<String, PreparedStatement> theEldest) {
+                    if (size() > STATEMENT_CACHE_SIZE) {
+                        closeQuietly(theEldest.getValue());
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        /**
+         * Gets the physical connection. Do not close it; close the lease instead.
+         *
+         * @return the connection.
+         */
+        public Connection getConnection() {
+            return myConnection;
+        }
+
+        /**
+         * Gets a cached prepared statement for the SQL text, preparing it on first use.
+         * The parameters of a reused statement are cleared.
+         *
+         * @param theSql the SQL text.
+         * @return the prepared statement.
+         * @throws SQLException if the statement cannot be prepared.
+         */
+        public PreparedStatement prepare(final String theSql) throws SQLException {
+            PreparedStatement statement = myStatements.get(theSql);
+            if (statement == null || statement.isClosed()) {
+                statement = myConnection.prepareStatement(theSql);
+                myStatements.put(theSql, statement);
+            } else {
+                statement.clearParameters();
+            }
+            return statement;
+        }
+
+        /**
+         * Interrupts the statement running on this connection, which then fails with an
+         * SQLException. Safe to call from any thread; does nothing if no statement runs.
+         *
+         * @throws SQLException if the connection is closed.
+         */
+        public void interrupt() throws SQLException {
+            myConnection.unwrap(SQLiteConnection.class).getDatabase().interrupt();
+        }
+
+        /**
+         * Returns the connection to the manager. An open transaction is rolled back.
+         */
+        @Override
+        public void close() {
+            try {
+                if (!myConnection.isClosed() && !myConnection.getAutoCommit()) {
+                    myConnection.rollback();
+                    myConnection.setAutoCommit(true);
+                }
+            } catch (final SQLException theE) {
+                MY_LOGGER.log(Level.WARNING, "Unable to reset connection: " + theE.getMessage()
+                        + "\n");
+            }
+            myManager.release(this);
+        }
+
+        /**
+         * Closes the cached statements and the physical connection.
+         */
+        private void closeConnection() {
+            for (final PreparedStatement statement : myStatements.values()) {
+                closeQuietly(statement);
+            }
+            myStatements.clear();
+            try {
+                myConnection.close();
+            } catch (final SQLException theE) {
+                MY_LOGGER.log(Level.WARNING, "Unable to close connection: " + theE.getMessage()
+                        + "\n");
+            }
+        }
+
+        /**
+         * Closes a statement, ignoring errors.
+         *
+         * @param theStatement the statement to close.
+         */
+        private static void closeQuietly(final PreparedStatement theStatement) {
+            try {
+                theStatement.close();
+            } catch (final SQLException ignored) {
+                // already unusable
+            }
+        }
+    }
+}
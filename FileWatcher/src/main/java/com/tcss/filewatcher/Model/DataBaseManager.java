@@ -1,319 +1,1094 @@
-package com.tcss.filewatcher.Model;
-
-import java.sql.Connection;
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.util.logging.Level;
-import java.util.logging.Logger;
-import org.sqlite.SQLiteDataSource;
-import java.sql.Statement;
-import java.util.ArrayList;
-import java.util.List;
-import java.sql.PreparedStatement;
-
-/**
- * This class manages the SQLite database for the File Watcher application.
- * Handles all SQLite database operations for storing and querying file events.
- *
- * @author Salima Hafurova
- * @version 7/23/25
- */
-public class DataBaseManager {
-
-    /**
-     * The SQLite data source for database connections.
-     */
-    private SQLiteDataSource myDs;
-
-    /**
-     * The JDBC URL for the SQLite database file.
-     */
-    private static final String DB_URL = "jdbc:sqlite:filewatcher.db";
-
-    /**
-     * The logger object.
-     */
-    private static final Logger MY_LOGGER = Logger.getLogger("Database Manager");
-
-    /**
-     * Constructs a new DataBaseManager, initializing the database and creating the table if needed.
-     */
-    public DataBaseManager(final boolean theDebugger) {
-        initializeDatabase();
-        createTable();
-        setDebugger(theDebugger);
-    }
-
-    private void setDebugger(final boolean theDebuggerStatus) {
-        if (!theDebuggerStatus) {
-            MY_LOGGER.log(Level.OFF, "\n");
-        }
-    }
-
-    /**
-     * Initializes the SQLite data source and sets the database URL.
-     * Throws a RuntimeException if initialization fails.
-     */
-    private void initializeDatabase() {
-        try {
-            myDs = new SQLiteDataSource();
-            myDs.setUrl(DB_URL);
-            MY_LOGGER.log(Level.INFO, "Database connection established successfully\n");
-        } catch (final Exception theException) {
-            MY_LOGGER.log(Level.SEVERE, theException.getMessage()+"\n");
-            throw new RuntimeException("Failed to initialize database: ", theException);
-        }
-    }
-
-    /**
-     * Creates the 'filewatcher' table in the database if it does not already exist.
-     * Throws a RuntimeException if table creation fails.
-     */
-    private void createTable() {
-        String query = """
-                CREATE TABLE IF NOT EXISTS filewatcher (
-                id INTEGER PRIMARY KEY AUTOINCREMENT,
-                event_date TEXT NOT NULL,
-                event_time TEXT NOT NULL,
-                file_name TEXT NOT NULL,
-                absolute_path TEXT NOT NULL,
-                event_type TEXT NOT NULL
-                )""";
-
-
-        try (Connection conn = myDs.getConnection();
-             Statement stmt = conn.createStatement()) {
-            stmt.executeUpdate(query);
-            MY_LOGGER.log(Level.INFO,"Table 'filewatcher' initialized.\n");
-        } catch (SQLException theE) {
-
-            MY_LOGGER.log(Level.SEVERE, "Error creating table: " + theE.getMessage()+"\n");
-            throw new RuntimeException("Failed to create table: ", theE);
-        }
-    }
-
-    /**
-     * Inserts a file event into the database.
-     *
-     * @param theCurrentDate  the current date of the event in "yyyy-MM-dd" format
-     * @param theCurrentTime  the current time of the event in "HH:mm:ss" format
-     * @param theAbsolutePath the absolute path of the file
-     * @param theFileName     the name of the file
-     * @param theEventType    the type of event (e.g., CREATED, MODIFIED, DELETED)
-     * @throws IllegalArgumentException if any parameter is null
-     */
-    public final void insertFileEvent(final String theCurrentDate, final String theCurrentTime,
-                                      final String theAbsolutePath, final String theFileName,
-                                      final String theEventType) {
-
-        final String insertSQL = "INSERT INTO filewatcher (event_date, event_time, " +
-                "file_name, absolute_path, event_type) VALUES (?, ?, ?, ?, ?)";
-        try (Connection conn = myDs.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(insertSQL)) {
-
-            pstmt.setObject(1, theCurrentDate);
-            pstmt.setObject(2, theCurrentTime);
-            pstmt.setObject(3, theAbsolutePath);
-            pstmt.setObject(4, theFileName);
-            pstmt.setObject(5, theEventType);
-            pstmt.executeUpdate();
-
-        } catch (final SQLException theE) {
-
-            MY_LOGGER.log(Level.SEVERE, "Error inserting file event: " + theE.getMessage()+
-                    "\n");
-        }
-    }
-
-    /**
-     * Deletes all records from the 'filewatcher' table.
-     */
-    public final void clearDatabase() {
-        final String deleteSQL = "DELETE FROM filewatcher";
-        try (Connection conn = myDs.getConnection();
-             Statement stmt = conn.createStatement()) {
-            stmt.executeUpdate(deleteSQL);
-        } catch (final SQLException theEvent) {
-            MY_LOGGER.log(Level.SEVERE, "Error clearing database: " + theEvent.getMessage()+
-                    "\n");
-        }
-    }
-
-    /**
-     * Returns the number of records in the 'filewatcher' table.
-     *
-     * @return the number of records, or -1 if an error occurs
-     */
-    public final int getTableSize() {
-        final String countItems = "SELECT COUNT(*) FROM filewatcher";
-        try (Connection conn = myDs.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(countItems)) {
-
-            if (rs.next()) {
-                return rs.getInt(1);
-            } else {
-                return 0;
-            }
-
-        } catch (final SQLException theEvent) {
-            MY_LOGGER.log(Level.SEVERE, "Error counting items: " + theEvent.getMessage()+"\n");
-            return -1;
-        }
-    }
-
-
-    /**
-     * Queries file events by file extension.
-     *
-     * @param theExtension the file extension to search for (e.g., ".txt")
-     * @return a list of string arrays, each containing [fileName, absolutePath, eventType, eventTime]
-     */
-    public final List<DirectoryEntry> queryByExtension(final String theExtension) {
-        final List<DirectoryEntry> results = new ArrayList<>();
-        final String query = "SELECT event_date, event_time, file_name, absolute_path, " +
-                "event_type FROM filewatcher WHERE file_name LIKE ? "
-                + "ORDER by event_date, event_time";
-        try (Connection conn = myDs.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
-
-            String searchPattern;
-            searchPattern = "%" + theExtension;
-            pstmt.setString(1, searchPattern);
-            final ResultSet resultSet = pstmt.executeQuery();
-            addToResultList(results, resultSet);
-
-        } catch (final SQLException theEvent) {
-            MY_LOGGER.log(Level.SEVERE,
-                    "Error querying by extension: " + theEvent.getMessage()+"\n");
-        }
-        return results;
-    }
-
-
-    private void addToResultList(List<DirectoryEntry> results, ResultSet resultSet) throws SQLException {
-        while (resultSet.next()) {
-            final String date = resultSet.getString("event_date");
-            final String time = resultSet.getString("event_time");
-            final String fileName = resultSet.getString("file_name");
-            final String directory = resultSet.getString("absolute_path");
-            final String eventType = resultSet.getString("event_type");
-
-            final DirectoryEntry entry = new DirectoryEntry(date, time, fileName, directory,
-                    eventType);
-
-            results.add(entry);
-        }
-    }
-
-    /**
-     * Queries file events by event type.
-     *
-     * @param theEventType the event type to search for (e.g., "CREATED")
-     * @return a list of string arrays, each containing [fileName, absolutePath, eventType, eventTime]
-     * @throws IllegalArgumentException if event type is null
-     */
-    public final List<DirectoryEntry> queryByEventType(final String theEventType) {
-        final List<DirectoryEntry> results = new ArrayList<>();
-        final String query = "SELECT event_date, event_time, file_name, absolute_path, " +
-                "event_type FROM filewatcher WHERE event_type = ? "
-                + "ORDER BY event_date, event_time";
-        try (Connection conn = myDs.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
-
-            pstmt.setString(1, theEventType.toUpperCase());
-            ResultSet rs = pstmt.executeQuery();
-            addToResultList(results, rs);
-
-        } catch (final SQLException theEvent) {
-            MY_LOGGER.log(Level.SEVERE,
-                    "Error querying by event type: " + theEvent.getMessage()+"\n");
-        }
-        return results;
-    }
-
-    /**
-     * Queries file events by directory path.
-     *
-     * @param theDirectoryPath the directory path to search for
-     * @return a list of string arrays, each containing [fileName, absolutePath, eventType, eventTime]
-     * @throws IllegalArgumentException if the directory path is null
-     */
-    public final List<DirectoryEntry> queryByDirectory(final String theDirectoryPath) {
-        final List<DirectoryEntry> results = new ArrayList<>();
-        final String query = "SELECT event_date, event_time, file_name, absolute_path, " +
-                "event_type FROM filewatcher WHERE absolute_path "
-                + "LIKE ? ORDER BY event_date, event_time";
-        try (final Connection conn = myDs.getConnection();
-             final PreparedStatement pstmt = conn.prepareStatement(query)) {
-            pstmt.setString(1, theDirectoryPath + "%");
-            ResultSet rs = pstmt.executeQuery();
-            addToResultList(results, rs);
-
-        } catch (final SQLException theEvent) {
-
-            MY_LOGGER.log(Level.SEVERE,
-                    "Error querying by directory: "+ theEvent.getMessage()+"\n");
-        }
-
-        return results;
-    }
-
-    /**
-     * Queries file events within a date range.
-     *
-     * @param theStartDate the start date
-     * @param theEndDate   the end date
-     * @return a list of string arrays, each containing [fileName, absolutePath, eventType, eventTime]
-     * @throws IllegalArgumentException if either date is null
-     */
-    public final List<DirectoryEntry> queryByDateRange(final String theStartDate,
-                                                       final String theEndDate) {
-        final List<DirectoryEntry> results = new ArrayList<>();
-        final String query =
-                "SELECT event_date, event_time, file_name, absolute_path, event_type " +
-                "FROM filewatcher " +
-                "WHERE event_date BETWEEN ? AND ? " +
-                "ORDER BY event_date, event_time";
-        try (final Connection conn = myDs.getConnection();
-             final PreparedStatement pstmt = conn.prepareStatement(query)) {
-            pstmt.setString(1, theStartDate);
-            pstmt.setString(2, theEndDate);
-            final ResultSet rs = pstmt.executeQuery();
-            addToResultList(results, rs);
-        } catch (final SQLException theEvent) {
-            MY_LOGGER.log(Level.SEVERE, "Error querying by date range: " + theEvent.getMessage()+"\n");
-        }
-        return results;
-    }
-
-    /**
-     * Retrieves all file events from the database.
-     *
-     * @return a list of string arrays, each containing [fileName, absolutePath, eventType, eventTime]
-     */
-    public final List<DirectoryEntry> getAllEntries() {
-        final List<DirectoryEntry> sqlEntries = new ArrayList<>();
-        final String query = """
-                SELECT event_date, event_time, file_name, absolute_path, event_type
-                FROM filewatcher
-                ORDER BY event_date, event_time
-                """;
-
-        try (Connection conn = myDs.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
-            addToResultList(sqlEntries, rs);
-
-        } catch (final SQLException theEvent) {
-
-            MY_LOGGER.log(Level.SEVERE,
-                    "Error retrieving entries: " + theEvent.getMessage()+"\n");
-        }
-        return sqlEntries;
-    }
-
-}
-
-
-
+package com.tcss.filewatcher.Model;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.sql.PreparedStatement;
+
+/**
+ * This class manages the SQLite database for the File Watcher application.
+ * Handles all SQLite database operations for storing and querying file events.
+ *
+ * @author Salima Hafurova
+ * @version 7/23/25
+ */
+public class DataBaseManager {
+
+    /**
+     * The default number of rows a cursor reads per fetch.
+     */
+    public static final int DEFAULT_FETCH_SIZE = 512;
+
+    /**
+     * The shared connections to the database.
+     */
+    private ConnectionManager myConnections;
+
+    /**
+     * The number of rows a cursor reads per fetch.
+     */
+    private volatile int myFetchSize = DEFAULT_FETCH_SIZE;
+
+    /**
+     * The versioned layout of the 'filewatcher' table.
+     */
+    private EventSchema mySchema;
+
+    /**
+     * The sealed partitions of the event history.
+     */
+    private EventPartitions myPartitions;
+
+    /**
+     * The ids of the paths, file names and extensions of the events.
+     */
+    private EventDictionary myDictionary;
+
+    /**
+     * The logger object.
+     */
+    private static final Logger MY_LOGGER = Logger.getLogger("Database Manager");
+
+    /**
+     * Inserts one event with its typed columns and dictionary ids.
+     */
+    private static final String INSERT_SQL = "INSERT INTO filewatcher (event_date, "
+            + "event_time, file_name, absolute_path, event_type, event_timestamp, "
+            + "event_code, synthesized, path_id, name_id, extension_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * The columns read into a table entry.
+     */
+    private static final String ENTRY_COLUMNS = "event_date, event_time, file_name, "
+            + "absolute_path, event_type, synthesized";
+
+    /**
+     * The columns read into an event record.
+     */
+    static final String RECORD_COLUMNS = "id, event_timestamp, event_code, "
+            + "absolute_path, file_name, extension, synthesized";
+
+    /**
+     * Binds one event of a batch to the insert statement.
+     *
+     * @param <T> the type of the events.
+     */
+    private interface EventBinder<T> {
+
+        /**
+         * Binds the event and counts it in the rollups of the batch.
+         *
+         * @param theLease   the writer lease, for the dictionary ids.
+         * @param thePstmt   the insert statement.
+         * @param theEvent   the event.
+         * @param theRollups the rollup counts of the batch.
+         * @throws SQLException if a value cannot be bound.
+         */
+        void bind(ConnectionManager.Lease theLease, PreparedStatement thePstmt, T theEvent,
+                  EventRollup.Batch theRollups) throws SQLException;
+    }
+
+    /**
+     * Constructs a new DataBaseManager, initializing the database and creating the table if needed.
+     */
+    public DataBaseManager(final boolean theDebugger) {
+        this(theDebugger, ConnectionManager.getInstance());
+    }
+
+    /**
+     * Constructs a new DataBaseManager on top of a specific database.
+     *
+     * @param theDebugger    the status of the debugger.
+     * @param theConnections the shared connections of the database to use.
+     */
+    public DataBaseManager(final boolean theDebugger, final ConnectionManager theConnections) {
+        initializeDatabase(theConnections);
+        createTable();
+        setDebugger(theDebugger);
+    }
+
+    private void setDebugger(final boolean theDebuggerStatus) {
+        if (!theDebuggerStatus) {
+            MY_LOGGER.log(Level.OFF, "\n");
+        }
+    }
+
+    /**
+     * Connects the manager to the shared connections of the database.
+     * Throws a RuntimeException if initialization fails.
+     */
+    private void initializeDatabase(final ConnectionManager theConnections) {
+        if (theConnections == null) {
+            MY_LOGGER.log(Level.SEVERE, "The connection manager is null\n");
+            throw new RuntimeException("Failed to initialize database: no connection manager");
+        }
+        myConnections = theConnections;
+        myPartitions = EventPartitions.of(theConnections);
+        myDictionary = EventDictionary.of(theConnections);
+    }
+
+    /**
+     * Creates the 'filewatcher' table in the database if it does not already exist,
+     * or upgrades an older table to the current schema version.
+     * Only runs once per database file.
+     * Throws a RuntimeException if table creation fails.
+     */
+    private void createTable() {
+        try {
+            mySchema = EventSchema.initialize(myConnections);
+            MY_LOGGER.log(Level.INFO,"Table 'filewatcher' initialized.\n");
+        } catch (SQLException theE) {
+
+            MY_LOGGER.log(Level.SEVERE, "Error creating table: " + theE.getMessage()+"\n");
+            throw new RuntimeException("Failed to create table: ", theE);
+        }
+    }
+
+    /**
+     * Inserts a file event into the database.
+     *
+     * @param theCurrentDate  the current date of the event in "yyyy-MM-dd" format
+     * @param theCurrentTime  the current time of the event in "HH:mm:ss" format
+     * @param theAbsolutePath the absolute path of the file
+     * @param theFileName     the name of the file
+     * @param theEventType    the type of event (e.g., CREATED, MODIFIED, DELETED)
+     * @throws IllegalArgumentException if any parameter is null
+     */
+    public final void insertFileEvent(final String theCurrentDate, final String theCurrentTime,
+                                      final String theAbsolutePath, final String theFileName,
+                                      final String theEventType) {
+
+        // a batch of one, so the rollups are updated in the same transaction
+        insertBatch(Collections.singletonList(theFileName),
+                (theLease, thePstmt, theName, theRollups) -> bindEvent(theLease, thePstmt,
+                        theCurrentDate, theCurrentTime, theAbsolutePath, theName,
+                        theEventType, false, theRollups),
+                theFileName, theEventType);
+    }
+
+    /**
+     * Inserts a batch of file events in a single transaction.
+     * Either every event in the batch is written or none of them are.
+     *
+     * @param theEntries the events to insert.
+     * @return the number of events written, 0 if the batch was empty or failed.
+     */
+    public final int insertFileEvents(final List<DirectoryEntry> theEntries) {
+        if (theEntries == null || theEntries.isEmpty()) {
+            return 0;
+        }
+        final DirectoryEntry first = theEntries.get(0);
+        return insertBatch(theEntries, (theLease, thePstmt, theEntry, theRollups) ->
+                        bindEvent(theLease, thePstmt, theEntry.getDate(), theEntry.getTime(),
+                                theEntry.getFileName(), theEntry.getDirectory(),
+                                theEntry.getModificationType(), theEntry.isSynthesized(),
+                                theRollups),
+                first.getDirectory(), first.getModificationType());
+    }
+
+    /**
+     * Inserts a batch of compact event records in a single transaction. The typed columns
+     * are bound straight from the records, without parsing any date or type text.
+     * Either every event in the batch is written or none of them are.
+     *
+     * @param theRecords the events to insert.
+     * @return the number of events written, 0 if the batch was empty or failed.
+     */
+    public final int insertEventRecords(final List<EventRecord> theRecords) {
+        if (theRecords == null || theRecords.isEmpty()) {
+            return 0;
+        }
+        final EventRecord first = theRecords.get(0);
+        return insertBatch(theRecords, this::bindRecord, first.getDirectory(),
+                first.getModificationType());
+    }
+
+    /**
+     * Writes a batch of events and their rollup counts in one transaction, rolling back
+     * if any of them fails.
+     *
+     * @param theEvents    the events to insert, not empty.
+     * @param theBinder    binds one event to the insert statement.
+     * @param theDirectory the directory reported to the flight recorder.
+     * @param theEventType the event type reported to the flight recorder.
+     * @param <T>          the type of the events.
+     * @return the number of events written, 0 if the batch failed.
+     */
+    private <T> int insertBatch(final List<T> theEvents, final EventBinder<T> theBinder,
+                                final String theDirectory, final String theEventType) {
+        final FlightEvents.DatabaseWrite flight = new FlightEvents.DatabaseWrite();
+        try (ConnectionManager.Lease lease = myConnections.acquireWriter()) {
+
+            final Connection conn = lease.getConnection();
+            final PreparedStatement pstmt = lease.prepare(INSERT_SQL);
+            final EventRollup.Batch rollups = new EventRollup.Batch();
+            conn.setAutoCommit(false);
+            try {
+                for (final T event : theEvents) {
+                    theBinder.bind(lease, pstmt, event, rollups);
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+                rollups.write(lease);
+                final long commitStart = System.nanoTime();
+                conn.commit();
+                flight.recordCommit(commitStart);
+                flight.end(theDirectory, theEventType, theEvents.size());
+                return theEvents.size();
+
+            } catch (final SQLException theE) {
+                pstmt.clearBatch();
+                conn.rollback();
+                // ids added in the rolled back transaction may be handed out again
+                myDictionary.invalidate();
+                throw theE;
+
+            } finally {
+                conn.setAutoCommit(true);
+            }
+
+        } catch (final SQLException theE) {
+
+            MY_LOGGER.log(Level.SEVERE, "Error inserting file event batch: " + theE.getMessage()
+                    + "\n");
+            flight.end(theDirectory, theEventType, 0);
+            return 0;
+        }
+    }
+
+    /**
+     * Binds one event to the insert statement, deriving the typed columns.
+     *
+     * @param theLease     the writer lease, for the dictionary ids.
+     * @param thePstmt     the insert statement.
+     * @param theDate      the event date.
+     * @param theTime      the event time.
+     * @param theFileName  the file name, stored in the name dictionary.
+     * @param thePath      the directory, stored in the path dictionary.
+     * @param theEventType the event type.
+     * @param theSynthesized whether the event was reconstructed by a rescan.
+     * @param theRollups   the rollup counts of the batch.
+     * @throws SQLException if a value cannot be bound.
+     */
+    private void bindEvent(final ConnectionManager.Lease theLease,
+                           final PreparedStatement thePstmt, final String theDate,
+                           final String theTime, final String theFileName,
+                           final String thePath, final String theEventType,
+                           final boolean theSynthesized, final EventRollup.Batch theRollups)
+            throws SQLException {
+        final long timestamp = EventSchema.toEpochMillis(theDate, theTime);
+        final int code = FileEventType.fromName(theEventType).getCode();
+        final String extension = EventSchema.extensionOf(theFileName);
+        thePstmt.setObject(1, theDate);
+        thePstmt.setObject(2, theTime);
+        thePstmt.setObject(5, theEventType);
+        thePstmt.setLong(6, timestamp);
+        thePstmt.setInt(7, code);
+        thePstmt.setInt(8, theSynthesized ? 1 : 0);
+        bindNames(theLease, thePstmt, thePath, theFileName, extension);
+        theRollups.add(timestamp, thePath, extension, code);
+    }
+
+    /**
+     * Binds one event record to the insert statement. The date and time text columns
+     * are still written for older readers of the table.
+     *
+     * @param theLease   the writer lease, for the dictionary ids.
+     * @param thePstmt   the insert statement.
+     * @param theRecord  the event.
+     * @param theRollups the rollup counts of the batch.
+     * @throws SQLException if a value cannot be bound.
+     */
+    private void bindRecord(final ConnectionManager.Lease theLease,
+                            final PreparedStatement thePstmt, final EventRecord theRecord,
+                            final EventRollup.Batch theRollups) throws SQLException {
+        thePstmt.setString(1, theRecord.getDate());
+        thePstmt.setString(2, theRecord.getTime());
+        thePstmt.setString(5, theRecord.getModificationType());
+        thePstmt.setLong(6, theRecord.getTimestamp());
+        thePstmt.setInt(7, theRecord.getKind().getCode());
+        thePstmt.setInt(8, theRecord.isSynthesized() ? 1 : 0);
+        bindNames(theLease, thePstmt, theRecord.getDirectory(), theRecord.getFileName(),
+                theRecord.getExtension());
+        theRollups.add(theRecord.getTimestamp(), theRecord.getDirectory(),
+                theRecord.getExtension(), theRecord.getKind().getCode());
+    }
+
+    /**
+     * Binds the dictionary ids of the path, file name and extension of an event. The
+     * text columns are left empty, or null to keep rejecting events without them.
+     *
+     * @param theLease     the writer lease.
+     * @param thePstmt     the insert statement.
+     * @param thePath      the directory of the event.
+     * @param theFileName  the file name.
+     * @param theExtension the lower-case extension with its dot.
+     * @throws SQLException if an id cannot be looked up or bound.
+     */
+    private void bindNames(final ConnectionManager.Lease theLease,
+                           final PreparedStatement thePstmt, final String thePath,
+                           final String theFileName, final String theExtension)
+            throws SQLException {
+        thePstmt.setString(3, theFileName == null ? null : "");
+        thePstmt.setString(4, thePath == null ? null : "");
+        thePstmt.setObject(9, myDictionary.idOf(theLease, EventDictionary.Table.PATHS,
+                thePath));
+        thePstmt.setObject(10, myDictionary.idOf(theLease, EventDictionary.Table.NAMES,
+                theFileName));
+        thePstmt.setObject(11, myDictionary.idOf(theLease,
+                EventDictionary.Table.EXTENSIONS, theExtension));
+    }
+
+    /**
+     * Gets the schema of the database behind this manager.
+     *
+     * @return the event schema.
+     */
+    public final EventSchema getSchema() {
+        return mySchema;
+    }
+
+    /**
+     * Deletes all records from the 'filewatcher' table, its partitions and its rollups.
+     */
+    public final void clearDatabase() {
+        try (ConnectionManager.Lease lease = myConnections.acquireWriter();
+             Statement stmt = lease.getConnection().createStatement()) {
+            lease.getConnection().setAutoCommit(false);
+            try {
+                stmt.executeUpdate("DELETE FROM filewatcher");
+                EventPartitions.clear(stmt);
+                EventRollup.clear(stmt);
+                lease.getConnection().commit();
+            } catch (final SQLException theE) {
+                lease.getConnection().rollback();
+                throw theE;
+            } finally {
+                lease.getConnection().setAutoCommit(true);
+            }
+        } catch (final SQLException theEvent) {
+            MY_LOGGER.log(Level.SEVERE, "Error clearing database: " + theEvent.getMessage()+
+                    "\n");
+        }
+    }
+
+    /**
+     * Returns the number of records in the 'filewatcher' table and its partitions.
+     *
+     * @return the number of records, or -1 if an error occurs
+     */
+    public final int getTableSize() {
+        final String countItems = "SELECT COUNT(*) FROM " + EventPartitions.ALL_VIEW;
+        try (ConnectionManager.Lease lease = myConnections.acquireReader();
+             ResultSet rs = lease.prepare(countItems).executeQuery()) {
+
+            if (rs.next()) {
+                return rs.getInt(1);
+            } else {
+                return 0;
+            }
+
+        } catch (final SQLException theEvent) {
+            MY_LOGGER.log(Level.SEVERE, "Error counting items: " + theEvent.getMessage()+"\n");
+            return -1;
+        }
+    }
+
+
+    /**
+     * Queries file events by file extension.
+     *
+     * @param theExtension the file extension to search for (e.g., ".txt")
+     * @return a list of string arrays, each containing [fileName, absolutePath, eventType, eventTime]
+     */
+    public final List<DirectoryEntry> queryByExtension(final String theExtension) {
+        return queryEntries(EventQuery.all().withExtension(theExtension == null ? ""
+                : theExtension), "extension", theExtension);
+    }
+
+
+    private void addToResultList(List<DirectoryEntry> results, ResultSet resultSet) throws SQLException {
+        while (resultSet.next()) {
+            final String date = EventRecord.intern(resultSet.getString("event_date"));
+            final String time = resultSet.getString("event_time");
+            final String fileName = resultSet.getString("file_name");
+            final String directory = EventRecord.intern(resultSet.getString("absolute_path"));
+            final String eventType = EventRecord.intern(resultSet.getString("event_type"));
+
+            final DirectoryEntry entry = new DirectoryEntry(date, time, fileName, directory,
+                    eventType);
+            entry.setSynthesized(resultSet.getInt("synthesized") != 0);
+
+            results.add(entry);
+        }
+    }
+
+    /**
+     * Queries file events by event type.
+     *
+     * @param theEventType the event type to search for (e.g., "CREATED")
+     * @return a list of string arrays, each containing [fileName, absolutePath, eventType, eventTime]
+     * @throws IllegalArgumentException if event type is null
+     */
+    public final List<DirectoryEntry> queryByEventType(final String theEventType) {
+        if (theEventType == null) {
+            throw new IllegalArgumentException("Event type cannot be null");
+        }
+        return queryEntries(EventQuery.all().ofType(FileEventType.fromName(theEventType)),
+                "event type", theEventType);
+    }
+
+    /**
+     * Queries file events by directory path.
+     *
+     * @param theDirectoryPath the directory path to search for
+     * @return a list of string arrays, each containing [fileName, absolutePath, eventType, eventTime]
+     * @throws IllegalArgumentException if the directory path is null
+     */
+    public final List<DirectoryEntry> queryByDirectory(final String theDirectoryPath) {
+        return queryEntries(EventQuery.all().inDirectory(theDirectoryPath), "directory",
+                theDirectoryPath);
+    }
+
+    /**
+     * Queries file events within a date range. Both ends are inclusive whole days.
+     *
+     * @param theStartDate the start date, "dd MMM, yyyy" or "yyyy-MM-dd"
+     * @param theEndDate   the end date, "dd MMM, yyyy" or "yyyy-MM-dd"
+     * @return a list of string arrays, each containing [fileName, absolutePath, eventType, eventTime]
+     * @throws IllegalArgumentException if either date is null
+     */
+    public final List<DirectoryEntry> queryByDateRange(final String theStartDate,
+                                                       final String theEndDate) {
+        final LocalDate start = EventSchema.parseDate(theStartDate);
+        final LocalDate end = EventSchema.parseDate(theEndDate);
+        if (start == null || end == null) {
+            MY_LOGGER.log(Level.WARNING, "Unreadable date range: " + theStartDate + " - "
+                    + theEndDate + "\n");
+            return new ArrayList<>();
+        }
+        final ZoneId zone = ZoneId.systemDefault();
+        return queryByTimeRange(start.atStartOfDay(zone).toInstant().toEpochMilli(),
+                end.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli() - 1);
+    }
+
+    /**
+     * Queries file events between two instants.
+     *
+     * @param theStartMillis the first epoch millisecond, inclusive
+     * @param theEndMillis   the last epoch millisecond, inclusive
+     * @return the events in the range, oldest first
+     */
+    public final List<DirectoryEntry> queryByTimeRange(final long theStartMillis,
+                                                       final long theEndMillis) {
+        return queryEntries(EventQuery.all().between(theStartMillis, theEndMillis),
+                "time range", theStartMillis + "-" + theEndMillis);
+    }
+
+    /**
+     * Retrieves all file events from the database.
+     *
+     * @return a list of string arrays, each containing [fileName, absolutePath, eventType, eventTime]
+     */
+    public final List<DirectoryEntry> getAllEntries() {
+        return queryEntries(EventQuery.all(), "all", null);
+    }
+
+    /**
+     * Runs a query and reads the rows as table entries, keeping the stored date, time
+     * and type text.
+     *
+     * @param theQuery    the query.
+     * @param theLabel    what the query selects by, for the flight recorder and log.
+     * @param theArgument the query argument, for the flight recorder.
+     * @return the entries, empty if an error occurs.
+     */
+    private List<DirectoryEntry> queryEntries(final EventQuery theQuery, final String theLabel,
+                                              final String theArgument) {
+        final FlightEvents.DatabaseQuery flight = new FlightEvents.DatabaseQuery();
+        final List<DirectoryEntry> results = new ArrayList<>();
+        final EventQuery query = theQuery.forSchema(mySchema.isMigrated());
+        try (ConnectionManager.Lease lease = myConnections.acquireReader()) {
+            final PreparedStatement pstmt = lease.prepare(resolve(lease, query,
+                    query.toSql(ENTRY_COLUMNS)));
+            bindParameters(pstmt, query.parameters());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                addToResultList(results, rs);
+            }
+
+        } catch (final SQLException theEvent) {
+            MY_LOGGER.log(Level.SEVERE,
+                    "Error querying by " + theLabel + ": " + theEvent.getMessage() + "\n");
+        }
+        flight.end(theLabel, theArgument, results.size());
+        return results;
+    }
+
+    /**
+     * Binds query parameters to a statement, starting at the first parameter.
+     *
+     * @param thePstmt  the statement.
+     * @param theParams the parameter values, in order.
+     * @throws SQLException if a value cannot be bound.
+     */
+    private static void bindParameters(final PreparedStatement thePstmt,
+                                       final List<Object> theParams) throws SQLException {
+        for (int i = 0; i < theParams.size(); i++) {
+            thePstmt.setObject(i + 1, theParams.get(i));
+        }
+    }
+
+    /**
+     * Retrieves all file events as compact records, for code that does not show them in
+     * a table. Use {@link #openAllRecords()} to read them without holding them all.
+     *
+     * @return the events, oldest first.
+     */
+    public final List<EventRecord> getAllRecords() {
+        return drain(openAllRecords());
+    }
+
+    /**
+     * Queries file events between two instants as compact records.
+     *
+     * @param theStartMillis the first epoch millisecond, inclusive
+     * @param theEndMillis   the last epoch millisecond, inclusive
+     * @return the events in the range, oldest first
+     */
+    public final List<EventRecord> queryRecordsByTimeRange(final long theStartMillis,
+                                                           final long theEndMillis) {
+        return drain(openRecordsByTimeRange(theStartMillis, theEndMillis));
+    }
+
+    /**
+     * Gets the number of rows a cursor reads from the database per fetch.
+     *
+     * @return the fetch size.
+     */
+    public final int getFetchSize() {
+        return myFetchSize;
+    }
+
+    /**
+     * Sets the number of rows a cursor reads from the database per fetch.
+     *
+     * @param theFetchSize the fetch size.
+     * @throws IllegalArgumentException if the fetch size is not positive.
+     */
+    public final void setFetchSize(final int theFetchSize) {
+        if (theFetchSize < 1) {
+            throw new IllegalArgumentException("Fetch size must be positive");
+        }
+        myFetchSize = theFetchSize;
+    }
+
+    /**
+     * Opens a cursor over all file events, oldest first.
+     *
+     * @return the cursor; it must be closed.
+     */
+    public final EventCursor openAllRecords() {
+        return openRecords(EventQuery.all());
+    }
+
+    /**
+     * Opens a cursor over the file events between two instants, oldest first.
+     *
+     * @param theStartMillis the first epoch millisecond, inclusive
+     * @param theEndMillis   the last epoch millisecond, inclusive
+     * @return the cursor; it must be closed.
+     */
+    public final EventCursor openRecordsByTimeRange(final long theStartMillis,
+                                                    final long theEndMillis) {
+        return openRecords(EventQuery.all().between(theStartMillis, theEndMillis));
+    }
+
+    /**
+     * Opens a cursor over the file events with an extension, oldest first.
+     *
+     * @param theExtension the file extension, with or without the dot (e.g. ".txt")
+     * @return the cursor; it must be closed.
+     */
+    public final EventCursor openRecordsByExtension(final String theExtension) {
+        return openRecords(EventQuery.all().withExtension(theExtension == null ? ""
+                : theExtension));
+    }
+
+    /**
+     * Opens a cursor over the file events in a directory and its subdirectories,
+     * oldest first.
+     *
+     * @param theDirectoryPath the directory path.
+     * @return the cursor; it must be closed.
+     */
+    public final EventCursor openRecordsByDirectory(final String theDirectoryPath) {
+        return openRecords(EventQuery.all().inDirectory(theDirectoryPath));
+    }
+
+    /**
+     * Opens a cursor over the file events a query selects, oldest first.
+     *
+     * @param theQuery the query.
+     * @return the cursor; it must be closed.
+     * @throws IllegalArgumentException if the query is null.
+     */
+    public final EventCursor openRecords(final EventQuery theQuery) {
+        if (theQuery == null) {
+            throw new IllegalArgumentException("Query cannot be null");
+        }
+        final EventQuery query = theQuery.forSchema(mySchema.isMigrated());
+        return openCursor(query, query.toSql(RECORD_COLUMNS), "records",
+                query.parameters().toArray());
+    }
+
+    /**
+     * Reads all the file events a query selects as compact records. Use
+     * {@link #openRecords(EventQuery)} to read a large result without holding it.
+     *
+     * @param theQuery the query.
+     * @return the events in the order of the query.
+     * @throws IllegalArgumentException if the query is null.
+     */
+    public final List<EventRecord> queryRecords(final EventQuery theQuery) {
+        return drain(openRecords(theQuery));
+    }
+
+    /**
+     * Reads one page of the events a query selects, continuing after a known event.
+     * The page is found by seeking the (event_timestamp, id) index to the key of the
+     * previous page, so reading page 10,000 costs the same as reading the first one.
+     *
+     * @param theQuery          the query.
+     * @param theAfterTimestamp the timestamp of the last event of the previous page;
+     *                          for the first page Long.MIN_VALUE, or Long.MAX_VALUE for a
+     *                          newest-first query.
+     * @param theAfterId        the id of the last event of the previous page, chosen
+     *                          like the timestamp for the first page.
+     * @param theLimit          the most events to read.
+     * @return the events after the key, in the order of the query.
+     * @throws IllegalArgumentException if the query is null or the limit is not positive.
+     */
+    public final List<EventRecord> queryPage(final EventQuery theQuery,
+                                             final long theAfterTimestamp,
+                                             final long theAfterId, final int theLimit) {
+        if (theQuery == null || theLimit < 1) {
+            throw new IllegalArgumentException("Query cannot be null and limit must be positive");
+        }
+        final EventQuery query = theQuery.forSchema(mySchema.isMigrated());
+        final List<Object> params = new ArrayList<>(query.parameters());
+        params.add(theAfterTimestamp);
+        params.add(theAfterId);
+        params.add(theLimit);
+        return drain(openCursor(query, query.toPageSql(RECORD_COLUMNS) + " LIMIT ?", "page",
+                params.toArray()));
+    }
+
+    /**
+     * Describes how SQLite reads the first page of a query, one line per step of its
+     * query plan, e.g. to check that the pages of a query are read without a sort.
+     *
+     * @param theQuery the query.
+     * @return the steps of the plan, empty if it could not be read.
+     * @throws IllegalArgumentException if the query is null.
+     */
+    public final List<String> explainPage(final EventQuery theQuery) {
+        if (theQuery == null) {
+            throw new IllegalArgumentException("Query cannot be null");
+        }
+        final EventQuery query = theQuery.forSchema(mySchema.isMigrated());
+        final List<Object> params = new ArrayList<>(query.parameters());
+        final long first = query.getOrder() == EventQuery.Order.NEWEST_FIRST
+                ? Long.MAX_VALUE : Long.MIN_VALUE;
+        params.add(first);
+        params.add(first);
+        params.add(EventPager.DEFAULT_PAGE_SIZE);
+        final List<String> plan = new ArrayList<>();
+        try (ConnectionManager.Lease lease = myConnections.acquireReader()) {
+            final PreparedStatement pstmt = lease.prepare("EXPLAIN QUERY PLAN "
+                    + resolve(lease, query, query.toPageSql(RECORD_COLUMNS) + " LIMIT ?"));
+            bindParameters(pstmt, params);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    plan.add(rs.getString("detail"));
+                }
+            }
+        } catch (final SQLException theEvent) {
+            MY_LOGGER.log(Level.SEVERE,
+                    "Error explaining query: " + theEvent.getMessage() + "\n");
+        }
+        return plan;
+    }
+
+    /**
+     * Finds the event a number of places after a known event, without reading the ones
+     * in between. Used to jump to a page whose key is not known yet.
+     *
+     * @param theQuery          the query.
+     * @param theAfterTimestamp the timestamp of the known event, or the first-page key
+     *                          of {@link #queryPage} to count from the start.
+     * @param theAfterId        the id of the known event, or the first-page key to
+     *                          count from the start.
+     * @param theSkip           how many events to skip after the known one.
+     * @return the event, or null if there are not enough events.
+     * @throws IllegalArgumentException if the query is null or the skip is negative.
+     */
+    public final EventRecord findRecordAfter(final EventQuery theQuery,
+                                             final long theAfterTimestamp,
+                                             final long theAfterId, final long theSkip) {
+        if (theQuery == null || theSkip < 0) {
+            throw new IllegalArgumentException("Query cannot be null and skip cannot be "
+                    + "negative");
+        }
+        final EventQuery query = theQuery.forSchema(mySchema.isMigrated());
+        final List<Object> params = new ArrayList<>(query.parameters());
+        params.add(theAfterTimestamp);
+        params.add(theAfterId);
+        params.add(theSkip);
+        final List<EventRecord> found = drain(openCursor(query,
+                query.toPageSql(RECORD_COLUMNS) + " LIMIT 1 OFFSET ?", "seek",
+                params.toArray()));
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    /**
+     * Counts the file events a query selects without reading them.
+     *
+     * @param theQuery the query.
+     * @return the number of events, or -1 if an error occurs
+     * @throws IllegalArgumentException if the query is null.
+     */
+    public final long countRecords(final EventQuery theQuery) {
+        if (theQuery == null) {
+            throw new IllegalArgumentException("Query cannot be null");
+        }
+        final EventQuery query = theQuery.forSchema(mySchema.isMigrated());
+        try (ConnectionManager.Lease lease = myConnections.acquireReader()) {
+            final PreparedStatement pstmt = lease.prepare(query.toCountSql(
+                    myPartitions.tablesBetween(lease, query.getFromMillis(),
+                            query.getToMillis())));
+            bindParameters(pstmt, query.parameters());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        } catch (final SQLException theEvent) {
+            MY_LOGGER.log(Level.SEVERE,
+                    "Error counting records: " + theEvent.getMessage() + "\n");
+            return -1;
+        }
+    }
+
+    /**
+     * Counts the file events between two instants without reading them.
+     *
+     * @param theStartMillis the first epoch millisecond, inclusive
+     * @param theEndMillis   the last epoch millisecond, inclusive
+     * @return the number of events, or -1 if an error occurs
+     */
+    public final long countByTimeRange(final long theStartMillis, final long theEndMillis) {
+        return countRecords(EventQuery.all().between(theStartMillis, theEndMillis));
+    }
+
+    /**
+     * Adds up the rollup counts of the buckets that start between two instants. Align
+     * the range to the granularity to count whole buckets; a day bucket that starts in
+     * the range counts the whole day.
+     *
+     * @param theGranularity the bucket length to read.
+     * @param theFromMillis  the first bucket start, inclusive.
+     * @param theToMillis    the last bucket start, inclusive.
+     * @param theType        the event type to count, or null for every type.
+     * @param theGroupBy     the dimensions to group by, empty for one grand total.
+     * @param theLimit       the most rows, 0 for no limit.
+     * @return the rows, in time order when grouped by time and busiest first otherwise;
+     * empty if an error occurs.
+     * @throws IllegalArgumentException if the granularity or grouping is null or the
+     *                                  limit is negative.
+     */
+    public final List<EventRollup> aggregateEvents(final EventRollup.Granularity theGranularity,
+                                                   final long theFromMillis,
+                                                   final long theToMillis,
+                                                   final FileEventType theType,
+                                                   final Set<EventRollup.Dimension> theGroupBy,
+                                                   final int theLimit) {
+        if (theGranularity == null || theGroupBy == null || theLimit < 0) {
+            throw new IllegalArgumentException("Granularity and grouping cannot be null and "
+                    + "limit cannot be negative");
+        }
+        final FlightEvents.DatabaseQuery flight = new FlightEvents.DatabaseQuery();
+        final List<EventRollup> results = new ArrayList<>();
+        try (ConnectionManager.Lease lease = myConnections.acquireReader()) {
+            final PreparedStatement pstmt = lease.prepare(EventRollup.aggregateSql(
+                    theGranularity, theGroupBy, theType != null, theLimit));
+            pstmt.setLong(1, theFromMillis);
+            pstmt.setLong(2, theToMillis);
+            if (theType != null) {
+                pstmt.setInt(3, theType.getCode());
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    results.add(EventRollup.read(rs));
+                }
+            }
+
+        } catch (final SQLException theEvent) {
+            MY_LOGGER.log(Level.SEVERE, "Error aggregating events: " + theEvent.getMessage()
+                    + "\n");
+        }
+        flight.end("rollup", theGranularity + " " + theGroupBy, results.size());
+        return results;
+    }
+
+    /**
+     * Counts the events per directory in each bucket, e.g. the modifications per
+     * directory per hour of the last week.
+     *
+     * @param theGranularity the bucket length.
+     * @param theFromMillis  the first bucket start, inclusive.
+     * @param theToMillis    the last bucket start, inclusive.
+     * @param theType        the event type to count, or null for every type.
+     * @return the counts in time order, busiest directory first within a bucket.
+     * @throws IllegalArgumentException if the granularity is null.
+     */
+    public final List<EventRollup> countPerDirectory(final EventRollup.Granularity theGranularity,
+                                                     final long theFromMillis,
+                                                     final long theToMillis,
+                                                     final FileEventType theType) {
+        return aggregateEvents(theGranularity, theFromMillis, theToMillis, theType,
+                EnumSet.of(EventRollup.Dimension.TIME, EventRollup.Dimension.DIRECTORY), 0);
+    }
+
+    /**
+     * Finds the extensions with the most events in the day buckets that start between
+     * two instants.
+     *
+     * @param theFromMillis the first day start, inclusive.
+     * @param theToMillis   the last day start, inclusive.
+     * @param theLimit      the most extensions, 0 for all of them.
+     * @return the extensions with their event counts, busiest first.
+     * @throws IllegalArgumentException if the limit is negative.
+     */
+    public final List<EventRollup> topExtensions(final long theFromMillis,
+                                                 final long theToMillis, final int theLimit) {
+        return aggregateEvents(EventRollup.Granularity.DAY, theFromMillis, theToMillis, null,
+                EnumSet.of(EventRollup.Dimension.EXTENSION), theLimit);
+    }
+
+    /**
+     * Recounts the rollup tables from the event table and its partitions in one
+     * transaction, for databases whose rollups were lost or written by a tool that did
+     * not maintain them. Buckets older than the newest expired partition are kept, as
+     * their events are gone.
+     *
+     * @return the number of events counted, or -1 if an error occurs.
+     */
+    public final long rebuildRollups() {
+        try (ConnectionManager.Lease lease = myConnections.acquireWriter();
+             Statement stmt = lease.getConnection().createStatement()) {
+            lease.getConnection().setAutoCommit(false);
+            try {
+                final long counted = EventRollup.rebuild(stmt, EventPartitions.ALL_VIEW,
+                        EventPartitions.horizon(stmt));
+                lease.getConnection().commit();
+                MY_LOGGER.log(Level.INFO, "Rollups rebuilt from " + counted + " events.\n");
+                return counted;
+            } catch (final SQLException theE) {
+                lease.getConnection().rollback();
+                throw theE;
+            } finally {
+                lease.getConnection().setAutoCommit(true);
+            }
+        } catch (final SQLException theEvent) {
+            MY_LOGGER.log(Level.SEVERE, "Error rebuilding rollups: " + theEvent.getMessage()
+                    + "\n");
+            return -1;
+        }
+    }
+
+    /**
+     * Moves every event of the 'filewatcher' table into a new partition, leaving the
+     * table empty for new events. {@link #applyRetention} does this once the oldest
+     * event is a week old; call this to seal earlier, e.g. before a bulk import.
+     *
+     * @return the new partition, or null if there were no events, the schema migration
+     * is still running or an error occurs.
+     */
+    public final EventPartitions.Partition sealPartition() {
+        if (!mySchema.isMigrated()) {
+            MY_LOGGER.log(Level.INFO, "Not sealing while the schema migration runs.\n");
+            return null;
+        }
+        try (ConnectionManager.Lease lease = myConnections.acquireWriter();
+             Statement stmt = lease.getConnection().createStatement()) {
+            lease.getConnection().setAutoCommit(false);
+            try {
+                final EventPartitions.Partition partition =
+                        EventPartitions.seal(stmt, System.currentTimeMillis());
+                lease.getConnection().commit();
+                if (partition != null) {
+                    MY_LOGGER.log(Level.INFO, "Sealed partition " + partition + ".\n");
+                }
+                return partition;
+            } catch (final SQLException theE) {
+                lease.getConnection().rollback();
+                throw theE;
+            } finally {
+                lease.getConnection().setAutoCommit(true);
+            }
+        } catch (final SQLException theEvent) {
+            MY_LOGGER.log(Level.SEVERE, "Error sealing partition: " + theEvent.getMessage()
+                    + "\n");
+            return null;
+        }
+    }
+
+    /**
+     * Applies a retention policy in one transaction: seals the 'filewatcher' table once
+     * its oldest event is a week old, drops the partitions whose newest event is older
+     * than the raw retention and deletes the rollup buckets older than the rollup
+     * retention. Expired events go a whole partition at a time, without deleting rows.
+     *
+     * @param thePolicy how long events and rollups are kept.
+     * @param theNow    the current epoch millisecond.
+     * @return the number of partitions dropped, or -1 if an error occurs.
+     * @throws IllegalArgumentException if the policy is null.
+     */
+    public final int applyRetention(final RetentionPolicy thePolicy, final long theNow) {
+        if (thePolicy == null) {
+            throw new IllegalArgumentException("Retention policy cannot be null");
+        }
+        if (!mySchema.isMigrated()) {
+            MY_LOGGER.log(Level.INFO, "Not applying retention while the schema migration "
+                    + "runs.\n");
+            return 0;
+        }
+        try (ConnectionManager.Lease lease = myConnections.acquireWriter();
+             Statement stmt = lease.getConnection().createStatement()) {
+            lease.getConnection().setAutoCommit(false);
+            try {
+                final boolean seal;
+                try (ResultSet rs = stmt.executeQuery("SELECT MIN(event_timestamp) "
+                        + "FROM filewatcher")) {
+                    final long oldest = rs.next() ? rs.getLong(1) : 0;
+                    seal = !rs.wasNull() && oldest < theNow - EventPartitions.PARTITION_MILLIS;
+                }
+                if (seal) {
+                    EventPartitions.seal(stmt, theNow);
+                }
+                final List<EventPartitions.Partition> dropped = EventPartitions.expire(stmt,
+                        theNow - thePolicy.getRaw().toMillis(), theNow);
+                final int buckets = EventRollup.expire(stmt,
+                        theNow - thePolicy.getRollups().toMillis());
+                lease.getConnection().commit();
+                MY_LOGGER.log(Level.INFO, "Retention " + thePolicy + ": "
+                        + (seal ? "sealed the live table, " : "") + "dropped " + dropped
+                        + " and " + buckets + " rollup rows.\n");
+                return dropped.size();
+            } catch (final SQLException theE) {
+                lease.getConnection().rollback();
+                throw theE;
+            } finally {
+                lease.getConnection().setAutoCommit(true);
+            }
+        } catch (final SQLException theEvent) {
+            MY_LOGGER.log(Level.SEVERE, "Error applying retention: " + theEvent.getMessage()
+                    + "\n");
+            return -1;
+        }
+    }
+
+    /**
+     * Gets the partitions of the event history that have not expired.
+     *
+     * @return the partitions, oldest first; empty if an error occurs.
+     */
+    public final List<EventPartitions.Partition> getPartitions() {
+        try (ConnectionManager.Lease lease = myConnections.acquireReader()) {
+            return myPartitions.getPartitions(lease);
+        } catch (final SQLException theEvent) {
+            MY_LOGGER.log(Level.SEVERE, "Error reading partitions: " + theEvent.getMessage()
+                    + "\n");
+            return List.of();
+        }
+    }
+
+    /**
+     * Replaces the event source of a compiled statement with the tables the time range
+     * of its query needs.
+     *
+     * @param theLease the lease the statement will run on.
+     * @param theQuery the query the statement was compiled from.
+     * @param theSql   the statement.
+     * @return the statement to prepare.
+     * @throws SQLException if the partition catalog could not be read.
+     */
+    private String resolve(final ConnectionManager.Lease theLease, final EventQuery theQuery,
+                           final String theSql) throws SQLException {
+        return myPartitions.resolve(theLease, theSql, theQuery.getFromMillis(),
+                theQuery.getToMillis());
+    }
+
+    /**
+     * Runs a statement selecting the record columns and wraps the rows in a cursor that
+     * owns the reader connection until it is closed.
+     *
+     * @param theQuery  the query the statement was compiled from, for its time range.
+     * @param theSql    the statement, reading from {@link EventPartitions#SOURCE}.
+     * @param theLabel  what the query selects by, for the flight recorder.
+     * @param theParams the values of the statement parameters, in order.
+     * @return the cursor, empty if the query could not run.
+     */
+    private EventCursor openCursor(final EventQuery theQuery, final String theSql,
+                                   final String theLabel, final Object... theParams) {
+        final FlightEvents.DatabaseQuery flight = new FlightEvents.DatabaseQuery();
+        final String argument = theQuery.toString();
+        ConnectionManager.Lease lease = null;
+        try {
+            lease = myConnections.acquireReader();
+            final PreparedStatement pstmt = lease.prepare(resolve(lease, theQuery, theSql));
+            pstmt.setFetchSize(myFetchSize);
+            bindParameters(pstmt, Arrays.asList(theParams));
+            return new EventCursor(lease, pstmt.executeQuery(), flight, theLabel, argument);
+
+        } catch (final SQLException theEvent) {
+            if (lease != null) {
+                lease.close();
+            }
+            MY_LOGGER.log(Level.SEVERE, "Error opening " + theLabel + " query: "
+                    + theEvent.getMessage() + "\n");
+            flight.end(theLabel, argument, 0);
+            return EventCursor.empty();
+        }
+    }
+
+    /**
+     * Reads the rest of a cursor into a list and closes it.
+     *
+     * @param theCursor the cursor.
+     * @return the records, empty if reading failed.
+     */
+    private static List<EventRecord> drain(final EventCursor theCursor) {
+        final List<EventRecord> records = new ArrayList<>();
+        try (theCursor) {
+            theCursor.forEachRemaining(records::add);
+        } catch (final IllegalStateException theE) {
+            records.clear();
+        }
+        return records;
+    }
+
+}
+
+
+
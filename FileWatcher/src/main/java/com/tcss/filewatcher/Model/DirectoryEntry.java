@@ -4,6 +4,9 @@ import javafx.beans.property.SimpleStringProperty;
 
 /**
  * Handles the data placed in the filewatcher table.
+ * The values are kept as plain strings; the JavaFX properties are only created when a
+ * table binds to the row, so entries that only go to the database, a CSV file or the
+ * headless daemon never load any JavaFX class.
  *
  * @author Kassie Whitney
  * @version 7.31.25
@@ -11,34 +14,74 @@ import javafx.beans.property.SimpleStringProperty;
 public class DirectoryEntry {
 
     /**
-     * The date property.
+     * The date.
      */
-    private SimpleStringProperty myDate;
+    private String myDate;
 
     /**
-     * The time property.
+     * The time.
      */
-    private SimpleStringProperty myTime;
+    private String myTime;
 
     /**
-     * The directory property.
+     * The directory.
      */
-    private SimpleStringProperty myDirectory;
+    private String myDirectory;
 
     /**
-     * The file extension property object.
+     * The file extension.
      */
-    private SimpleStringProperty myFileExtension;
+    private String myFileExtension;
 
     /**
      * The modification type
      */
-    private final SimpleStringProperty myModificationType;
+    private final String myModificationType;
 
     /**
      * The name of the file that was modified
      */
-    private SimpleStringProperty myFileName;
+    private String myFileName;
+
+    /**
+     * Whether the event was reconstructed by a rescan instead of reported by the system.
+     */
+    private boolean myIsSynthesized;
+
+    /**
+     * The date property, null until a table asks for it.
+     */
+    private SimpleStringProperty myDateProperty;
+
+    /**
+     * The time property, null until a table asks for it.
+     */
+    private SimpleStringProperty myTimeProperty;
+
+    /**
+     * The directory property, null until a table asks for it.
+     */
+    private SimpleStringProperty myDirectoryProperty;
+
+    /**
+     * The file extension property, null until a table asks for it.
+     */
+    private SimpleStringProperty myFileExtensionProperty;
+
+    /**
+     * The modification type property, null until a table asks for it.
+     */
+    private SimpleStringProperty myModificationTypeProperty;
+
+    /**
+     * The file name property, null until a table asks for it.
+     */
+    private SimpleStringProperty myFileNameProperty;
+
+    /**
+     * The compact record behind this row, null if the row was built from strings.
+     */
+    private EventRecord myRecord;
 
 
     /**
@@ -47,7 +90,7 @@ public class DirectoryEntry {
      * @param theModificationType how the file was modified.
      */
     public DirectoryEntry(final String theModificationType) {
-        myModificationType = new SimpleStringProperty(theModificationType);
+        myModificationType = theModificationType;
     }
 
     /**
@@ -60,11 +103,11 @@ public class DirectoryEntry {
     public DirectoryEntry(final String theDate, final String theTime,
                           final String theFileExtension, final String theDirectory) {
 
-        this(null);
-        myDate = new SimpleStringProperty(theDate);
-        myTime = new SimpleStringProperty(theTime);
-        myDirectory = new SimpleStringProperty(theDirectory);
-        myFileExtension = new SimpleStringProperty(theFileExtension);
+        this((String) null);
+        myDate = theDate;
+        myTime = theTime;
+        myDirectory = theDirectory;
+        myFileExtension = theFileExtension;
 
 
     }
@@ -73,11 +116,26 @@ public class DirectoryEntry {
                           final String theFileName, final String theDirectory,
                           final String theEvent) {
         this(theEvent);
-        myDate = new SimpleStringProperty(theDate);
-        myTime = new SimpleStringProperty(theTime);
-        myFileName = new SimpleStringProperty(theFileName);
-        myDirectory = new SimpleStringProperty(theDirectory);
-        myFileExtension = new SimpleStringProperty(extractExtension(theFileName));
+        myDate = theDate;
+        myTime = theTime;
+        myFileName = theFileName;
+        myDirectory = theDirectory;
+        myFileExtension = extractExtension(theFileName);
+    }
+
+    /**
+     * Wraps a compact event record for a table. The date and time are formatted from
+     * the record's timestamp the first time they are read.
+     *
+     * @param theRecord the event record.
+     */
+    public DirectoryEntry(final EventRecord theRecord) {
+        this(theRecord.getModificationType());
+        myRecord = theRecord;
+        myFileName = theRecord.getFileName();
+        myDirectory = theRecord.getDirectory();
+        myFileExtension = theRecord.getExtension();
+        myIsSynthesized = theRecord.isSynthesized();
     }
 
     private String extractExtension(final String fileName) {
@@ -92,7 +150,8 @@ public class DirectoryEntry {
      * @return the string format of the modification type.
      */
     public String getModificationType() {
-        return myModificationType.get();
+        return myModificationTypeProperty == null ? myModificationType
+                : myModificationTypeProperty.get();
     }
 
     /**
@@ -101,7 +160,13 @@ public class DirectoryEntry {
      * @return the string format of the date.
      */
     public String getDate() {
-        return myDate.get();
+        if (myDateProperty != null) {
+            return myDateProperty.get();
+        }
+        if (myDate == null && myRecord != null) {
+            myDate = myRecord.getDate();
+        }
+        return myDate;
     }
 
     /**
@@ -110,7 +175,13 @@ public class DirectoryEntry {
      * @return the string format of the time.
      */
     public String getTime() {
-        return myTime.get();
+        if (myTimeProperty != null) {
+            return myTimeProperty.get();
+        }
+        if (myTime == null && myRecord != null) {
+            myTime = myRecord.getTime();
+        }
+        return myTime;
     }
 
     /**
@@ -119,7 +190,7 @@ public class DirectoryEntry {
      * @return the directory path.
      */
     public String getDirectory() {
-        return myDirectory.get();
+        return myDirectoryProperty == null ? myDirectory : myDirectoryProperty.get();
     }
 
     /**
@@ -128,7 +199,9 @@ public class DirectoryEntry {
      * @return the string representation of the file extension.
      */
     public String getFileExtension() {
-        return (myFileExtension != null) ? myFileExtension.get() : "";
+        final String extension = myFileExtensionProperty == null ? myFileExtension
+                : myFileExtensionProperty.get();
+        return (extension != null) ? extension : "";
     }
 
     /**
@@ -137,9 +210,49 @@ public class DirectoryEntry {
      * @return the string representation of the file name.
      */
     public String getFileName() {
-        return myFileName.get();
+        return myFileNameProperty == null ? myFileName : myFileNameProperty.get();
+    }
+
+
+    /**
+     * Checks whether the event was reconstructed by a rescan after the watch service
+     * lost events, instead of being reported by the operating system.
+     *
+     * @return true if the event was synthesized.
+     */
+    public boolean isSynthesized() {
+        return myIsSynthesized;
+    }
+
+    /**
+     * Marks whether the event was reconstructed by a rescan.
+     *
+     * @param theSynthesized true if the event was synthesized.
+     */
+    public void setSynthesized(final boolean theSynthesized) {
+        myIsSynthesized = theSynthesized;
+        if (myRecord != null && myRecord.isSynthesized() != theSynthesized) {
+            myRecord = new EventRecord(myRecord.getId(), myRecord.getTimestamp(),
+                    myRecord.getKind(), myRecord.getDirectory(), myRecord.getFileName(),
+                    myRecord.getExtension(), theSynthesized);
+        }
     }
 
+    /**
+     * Gets the compact record of this event, building one from the strings if the row
+     * was not created from a record.
+     *
+     * @return the event record.
+     */
+    public EventRecord toRecord() {
+        if (myRecord == null) {
+            myRecord = EventRecord.of(EventSchema.toEpochMillis(getDate(), getTime()),
+                    FileEventType.fromName(getModificationType()),
+                    getDirectory() == null ? "" : getDirectory(),
+                    getFileName() == null ? "" : getFileName(), myIsSynthesized);
+        }
+        return myRecord;
+    }
 
     /**
      * Gets the modification type property.
@@ -147,7 +260,10 @@ public class DirectoryEntry {
      * @return the modification type property object
      */
     public SimpleStringProperty modificationTypeProperty() {
-        return myModificationType;
+        if (myModificationTypeProperty == null) {
+            myModificationTypeProperty = new SimpleStringProperty(myModificationType);
+        }
+        return myModificationTypeProperty;
     }
 
     /**
@@ -156,7 +272,10 @@ public class DirectoryEntry {
      * @return the date as a simple string property object.
      */
     public SimpleStringProperty dateProperty() {
-        return myDate;
+        if (myDateProperty == null) {
+            myDateProperty = new SimpleStringProperty(getDate());
+        }
+        return myDateProperty;
     }
 
     /**
@@ -165,7 +284,10 @@ public class DirectoryEntry {
      * @return the time as a simple string property object.
      */
     public SimpleStringProperty timeProperty() {
-        return myTime;
+        if (myTimeProperty == null) {
+            myTimeProperty = new SimpleStringProperty(getTime());
+        }
+        return myTimeProperty;
     }
 
     /**
@@ -174,7 +296,10 @@ public class DirectoryEntry {
      * @return the directory as a simple string property object.
      */
     public SimpleStringProperty directoryProperty() {
-        return myDirectory;
+        if (myDirectoryProperty == null) {
+            myDirectoryProperty = new SimpleStringProperty(myDirectory);
+        }
+        return myDirectoryProperty;
     }
 
     /**
@@ -183,7 +308,10 @@ public class DirectoryEntry {
      * @return the file extension simple string property object.
      */
     public SimpleStringProperty fileExtensionProperty() {
-        return myFileExtension;
+        if (myFileExtensionProperty == null) {
+            myFileExtensionProperty = new SimpleStringProperty(myFileExtension);
+        }
+        return myFileExtensionProperty;
     }
 
     /**
@@ -192,7 +320,10 @@ public class DirectoryEntry {
      * @return the file name simple string property object.
      */
     public SimpleStringProperty fileNameProperty() {
-        return myFileName;
+        if (myFileNameProperty == null) {
+            myFileNameProperty = new SimpleStringProperty(myFileName);
+        }
+        return myFileNameProperty;
     }
 
 
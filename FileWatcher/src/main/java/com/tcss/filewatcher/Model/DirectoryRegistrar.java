@@ -0,0 +1,470 @@
+package com.tcss.filewatcher.Model;
+
+import com.tcss.filewatcher.Common.Properties;
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Registers whole directory trees with a watch service in parallel.
+ * Each directory is listed by its own fork-join task, so large trees are spread over
+ * every core, and subtrees whose name or path matches an exclude glob are pruned
+ * before anything below them is touched. Walks run in the background; progress is
+ * published as property changes and through the counters.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+public class DirectoryRegistrar {
+
+    /**
+     * Registers one directory with the watch service.
+     */
+    @FunctionalInterface
+    public interface DirectoryHandler {
+
+        /**
+         * Registers a directory.
+         *
+         * @param theDir the directory to register.
+         * @throws IOException if the directory could not be registered.
+         */
+        void register(Path theDir) throws IOException;
+    }
+
+    /**
+     * The directories that are skipped unless configured otherwise.
+     */
+    public static final List<String> DEFAULT_EXCLUDES = List.of(".git", "node_modules",
+            "target");
+
+    /**
+     * How many registered directories pass between progress notifications.
+     */
+    private static final int PROGRESS_INTERVAL = 1000;
+
+    /**
+     * Logger object.
+     */
+    private static final Logger MY_LOGGER = Logger.getLogger("Directory Registrar");
+
+    /**
+     * Registers each directory that is found.
+     */
+    private final DirectoryHandler myHandler;
+
+    /**
+     * The pool the walks run on.
+     */
+    private final ForkJoinPool myPool;
+
+    /**
+     * Publishes progress to listeners.
+     */
+    private final PropertyChangeSupport myChanges = new PropertyChangeSupport(this);
+
+    /**
+     * The exclude globs as written by the user.
+     */
+    private volatile List<String> myExcludeGlobs = List.of();
+
+    /**
+     * The compiled exclude globs.
+     */
+    private volatile List<PathMatcher> myExcludes = List.of();
+
+    /**
+     * Incremented by cancel so walks that are already running stop early.
+     */
+    private final AtomicInteger myGeneration = new AtomicInteger();
+
+    /**
+     * Number of walks that have not finished yet.
+     */
+    private final AtomicInteger myPendingWalks = new AtomicInteger();
+
+    /**
+     * Number of directories registered.
+     */
+    private final AtomicLong myRegisteredCount = new AtomicLong();
+
+    /**
+     * Number of subtrees pruned by an exclude glob.
+     */
+    private final AtomicLong myExcludedCount = new AtomicLong();
+
+    /**
+     * Number of directories that could not be listed or registered.
+     */
+    private final AtomicLong myFailedCount = new AtomicLong();
+
+    /**
+     * Creates a registrar that uses every available core and the default excludes.
+     *
+     * @param theHandler registers each directory that is found.
+     */
+    public DirectoryRegistrar(final DirectoryHandler theHandler) {
+        this(theHandler, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a registrar with the default excludes.
+     *
+     * @param theHandler     registers each directory that is found.
+     * @param theParallelism the number of threads walking at once.
+     */
+    public DirectoryRegistrar(final DirectoryHandler theHandler, final int theParallelism) {
+        if (theHandler == null) {
+            throw new IllegalArgumentException("Directory handler cannot be null");
+        }
+        if (theParallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        myHandler = theHandler;
+        myPool = new ForkJoinPool(theParallelism);
+        setExcludeGlobs(DEFAULT_EXCLUDES);
+    }
+
+    /**
+     * Replaces the exclude globs. A directory is skipped, together with everything below
+     * it, when a glob matches its name (e.g. "node_modules") or its absolute path.
+     * Watched roots themselves are never excluded.
+     *
+     * @param theGlobs the glob patterns.
+     */
+    public void setExcludeGlobs(final Collection<String> theGlobs) {
+        if (theGlobs == null) {
+            throw new IllegalArgumentException("Exclude globs cannot be null");
+        }
+        final List<PathMatcher> matchers = new ArrayList<>();
+        for (final String glob : theGlobs) {
+            if (glob != null && !glob.isBlank()) {
+                matchers.add(FileSystems.getDefault().getPathMatcher("glob:" + glob.trim()));
+            }
+        }
+        myExcludeGlobs = List.copyOf(theGlobs);
+        myExcludes = List.copyOf(matchers);
+    }
+
+    /**
+     * Gets the exclude globs.
+     *
+     * @return the glob patterns.
+     */
+    public List<String> getExcludeGlobs() {
+        return myExcludeGlobs;
+    }
+
+    /**
+     * Checks whether a directory is pruned by the exclude globs.
+     *
+     * @param theDir the directory.
+     * @return true if the directory and its subtree are skipped.
+     */
+    public boolean isExcluded(final Path theDir) {
+        final Path name = theDir.getFileName();
+        for (final PathMatcher matcher : myExcludes) {
+            if ((name != null && matcher.matches(name)) || matcher.matches(theDir)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Picks the roots that need a walk of their own. A root below another root is left
+     * out because the other root's walk registers it too, unless it or a directory
+     * between them is excluded, in which case that walk would prune it.
+     *
+     * @param theRoots the watched roots, absolute and normalized.
+     * @return the roots to walk, outermost first.
+     */
+    public List<Path> outermostRoots(final Collection<Path> theRoots) {
+        final List<Path> sorted = new ArrayList<>(new HashSet<>(theRoots));
+        sorted.sort(Comparator.comparingInt(Path::getNameCount)
+                .thenComparing(Comparator.naturalOrder()));
+
+        final Set<Path> kept = new HashSet<>();
+        final List<Path> outermost = new ArrayList<>();
+        for (final Path root : sorted) {
+            boolean pruned = isExcluded(root);
+            boolean covered = false;
+            for (Path parent = root.getParent(); parent != null; parent = parent.getParent()) {
+                if (kept.contains(parent)) {
+                    covered = !pruned;
+                    break;
+                }
+                pruned |= isExcluded(parent);
+            }
+            if (!covered) {
+                kept.add(root);
+                outermost.add(root);
+            }
+        }
+        return outermost;
+    }
+
+    /**
+     * Registers a watched root on the calling thread, so a bad root fails right away,
+     * then walks the rest of its tree in the background.
+     *
+     * @param theRoot the root directory.
+     * @throws IOException if the root could not be registered.
+     */
+    public void registerTree(final Path theRoot) throws IOException {
+        myHandler.register(theRoot);
+        myRegisteredCount.incrementAndGet();
+        submit(theRoot, false);
+    }
+
+    /**
+     * Registers a directory and its tree in the background, e.g. one that was just created
+     * inside a watched tree. Nothing happens if the directory is excluded.
+     *
+     * @param theDir the directory.
+     */
+    public void submitTree(final Path theDir) {
+        if (isExcluded(theDir)) {
+            myExcludedCount.incrementAndGet();
+            return;
+        }
+        submit(theDir, true);
+    }
+
+    /**
+     * Starts a background walk.
+     *
+     * @param theDir      the directory to start from.
+     * @param theRegister whether the starting directory still has to be registered.
+     */
+    private void submit(final Path theDir, final boolean theRegister) {
+        myPendingWalks.incrementAndGet();
+        final int generation = myGeneration.get();
+        try {
+            myPool.execute(new WalkTask(theDir, theRegister, generation) {
+                @Override
+                protected void compute() {
+                    try {
+                        super.compute();
+                    } finally {
+                        finishWalk(theDir);
+                    }
+                }
+            });
+        } catch (final RuntimeException theE) {
+            finishWalk(theDir);
+            throw theE;
+        }
+    }
+
+    /**
+     * Records that a walk finished and wakes up anyone waiting for the registrar to go idle.
+     *
+     * @param theDir the directory the walk started from.
+     */
+    private void finishWalk(final Path theDir) {
+        MY_LOGGER.log(Level.FINE, "Finished registering " + theDir + "\n");
+        final boolean idle;
+        synchronized (this) {
+            idle = myPendingWalks.decrementAndGet() == 0;
+            notifyAll();
+        }
+        // listeners run outside the monitor, so they cannot block awaitIdle or new walks
+        if (idle) {
+            myChanges.firePropertyChange(Properties.REGISTRATION_COMPLETE.toString(), null,
+                    myRegisteredCount.get());
+        }
+    }
+
+    /**
+     * Stops every walk that is in progress. Directories registered so far stay registered.
+     */
+    public void cancel() {
+        myGeneration.incrementAndGet();
+    }
+
+    /**
+     * Waits until no walk is in progress. REGISTRATION_COMPLETE is published right after
+     * the waiters are woken, so it may reach listeners after this returns.
+     *
+     * @param theMillis the longest time to wait.
+     * @return true if the registrar is idle.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public synchronized boolean awaitIdle(final long theMillis) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + theMillis;
+        long remaining = theMillis;
+        while (myPendingWalks.get() > 0 && remaining > 0) {
+            wait(remaining);
+            remaining = deadline - System.currentTimeMillis();
+        }
+        return myPendingWalks.get() == 0;
+    }
+
+    /**
+     * Checks whether no walk is in progress.
+     *
+     * @return true if the registrar is idle.
+     */
+    public synchronized boolean isIdle() {
+        return myPendingWalks.get() == 0;
+    }
+
+    /**
+     * Gets the number of directories registered.
+     *
+     * @return the registered count.
+     */
+    public long getRegisteredCount() {
+        return myRegisteredCount.get();
+    }
+
+    /**
+     * Gets the number of subtrees pruned by an exclude glob.
+     *
+     * @return the excluded count.
+     */
+    public long getExcludedCount() {
+        return myExcludedCount.get();
+    }
+
+    /**
+     * Gets the number of directories that could not be listed or registered.
+     *
+     * @return the failed count.
+     */
+    public long getFailedCount() {
+        return myFailedCount.get();
+    }
+
+    /**
+     * Adds a listener for REGISTRATION_PROGRESS and REGISTRATION_COMPLETE.
+     *
+     * @param theListener the listener to add.
+     */
+    public void addPropertyChangeListener(final PropertyChangeListener theListener) {
+        myChanges.addPropertyChangeListener(theListener);
+    }
+
+    /**
+     * Removes a listener.
+     *
+     * @param theListener the listener to remove.
+     */
+    public void removePropertyChangeListener(final PropertyChangeListener theListener) {
+        myChanges.removePropertyChangeListener(theListener);
+    }
+
+    /**
+     * Registers one directory and forks a task for each of its subdirectories. Never
+     * serialized; ForkJoinTask only happens to be Serializable.
+     */
+    @SuppressWarnings("serial")
+    private class WalkTask extends RecursiveAction {
+
+        /**
+         * The directory this task handles.
+         */
+        private final Path myDir;
+
+        /**
+         * Whether the directory still has to be registered.
+         */
+        private final boolean myRegister;
+
+        /**
+         * The registrar generation this task belongs to.
+         */
+        private final int myTaskGeneration;
+
+        /**
+         * Creates a task.
+         *
+         * @param theDir        the directory.
+         * @param theRegister   whether the directory still has to be registered.
+         * @param theGeneration the registrar generation.
+         */
+        WalkTask(final Path theDir, final boolean theRegister, final int theGeneration) {
+            myDir = theDir;
+            myRegister = theRegister;
+            myTaskGeneration = theGeneration;
+        }
+
+        @Override
+        protected void compute() {
+            if (myGeneration.get() != myTaskGeneration) {
+                return;
+            }
+            try {
+                if (myRegister) {
+                    myHandler.register(myDir);
+                    final long registered = myRegisteredCount.incrementAndGet();
+                    if (registered % PROGRESS_INTERVAL == 0) {
+                        myChanges.firePropertyChange(
+                                Properties.REGISTRATION_PROGRESS.toString(), null, registered);
+                    }
+                }
+
+                final List<WalkTask> children = new ArrayList<>();
+                try (DirectoryStream<Path> stream = Files.newDirectoryStream(myDir)) {
+                    for (final Path child : stream) {
+                        if (!isDirectory(child)) {
+                            continue;
+                        }
+                        if (isExcluded(child)) {
+                            myExcludedCount.incrementAndGet();
+                            continue;
+                        }
+                        children.add(new WalkTask(child, true, myTaskGeneration));
+                    }
+                }
+                invokeAll(children);
+
+            } catch (final ClosedWatchServiceException theE) {
+                // the watcher stopped while we were walking and has already cancelled this
+                // walk; cancelling again could cancel the walks of a restarted watcher
+                return;
+
+            } catch (final IOException theE) {
+                myFailedCount.incrementAndGet();
+                MY_LOGGER.log(Level.WARNING, "Could not register " + myDir + ": "
+                        + theE.getMessage() + "\n");
+            }
+        }
+
+        /**
+         * Checks whether an entry is a real directory, not a link to one.
+         *
+         * @param thePath the entry.
+         * @return true for directories, false for anything else or entries that vanished.
+         */
+        private static boolean isDirectory(final Path thePath) {
+            try {
+                return Files.readAttributes(thePath, BasicFileAttributes.class,
+                        LinkOption.NOFOLLOW_LINKS).isDirectory();
+            } catch (final IOException theE) {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.tcss.filewatcher.Model;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Remembers the name, size and modification time of every entry in the watched
+ * directories, one level deep per directory. When the watch service overflows for a
+ * directory, a rescan of just that directory is diffed against the snapshot to find
+ * the events that were lost.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+public class DirectorySnapshot {
+
+    /**
+     * The logger object.
+     */
+    private static final Logger MY_LOGGER = Logger.getLogger("Directory Snapshot");
+
+    /**
+     * The entries of every captured directory, by directory and entry name.
+     */
+    private final Map<Path, Map<Path, EntryState>> mySnapshots = new ConcurrentHashMap<>();
+
+    /**
+     * Records the current contents of a directory.
+     *
+     * @param theDir the directory to capture.
+     */
+    public void capture(final Path theDir) {
+        mySnapshots.put(theDir, scan(theDir));
+    }
+
+    /**
+     * Forgets a directory.
+     *
+     * @param theDir the directory to forget.
+     */
+    public void remove(final Path theDir) {
+        mySnapshots.remove(theDir);
+    }
+
+    /**
+     * Forgets every directory.
+     */
+    public void clear() {
+        mySnapshots.clear();
+    }
+
+    /**
+     * Checks whether a directory has been captured.
+     *
+     * @param theDir the directory.
+     * @return true if the directory is in the snapshot.
+     */
+    public boolean contains(final Path theDir) {
+        return mySnapshots.containsKey(theDir);
+    }
+
+    /**
+     * Keeps the snapshot in step with an event that was delivered normally,
+     * so a later rescan only reports what was actually missed.
+     *
+     * @param theDir      the directory the event happened in.
+     * @param theFileName the name of the entry.
+     * @param theKind     the kind of the event.
+     */
+    public void update(final Path theDir, final Path theFileName,
+                       final WatchEvent.Kind<?> theKind) {
+        final Map<Path, EntryState> entries = mySnapshots.get(theDir);
+        if (entries == null) {
+            return;
+        }
+        if (theKind == ENTRY_DELETE) {
+            entries.remove(theFileName);
+            return;
+        }
+        final EntryState state = stat(theDir.resolve(theFileName));
+        if (state == null) {
+            entries.remove(theFileName);
+        } else {
+            entries.put(theFileName, state);
+        }
+    }
+
+    /**
+     * Rescans a directory, replaces its snapshot and reports how it changed.
+     *
+     * @param theDir the directory to rescan.
+     * @return the kind of change for every entry that was created, deleted or modified.
+     */
+    public Map<Path, WatchEvent.Kind<Path>> rescan(final Path theDir) {
+        final Map<Path, EntryState> current = scan(theDir);
+        final Map<Path, EntryState> previous = mySnapshots.put(theDir, current);
+        final Map<Path, WatchEvent.Kind<Path>> changes = new LinkedHashMap<>();
+        if (previous == null) {
+            return changes;
+        }
+        for (final Map.Entry<Path, EntryState> entry : current.entrySet()) {
+            final EntryState before = previous.get(entry.getKey());
+            if (before == null) {
+                changes.put(entry.getKey(), ENTRY_CREATE);
+            } else if (!before.equals(entry.getValue())) {
+                changes.put(entry.getKey(), ENTRY_MODIFY);
+            }
+        }
+        for (final Path name : previous.keySet()) {
+            if (!current.containsKey(name)) {
+                changes.put(name, ENTRY_DELETE);
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Lists a directory.
+     *
+     * @param theDir the directory to list.
+     * @return the state of each entry by name, empty if the directory cannot be read.
+     */
+    private static Map<Path, EntryState> scan(final Path theDir) {
+        final Map<Path, EntryState> entries = new ConcurrentHashMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(theDir)) {
+            for (final Path child : stream) {
+                final EntryState state = stat(child);
+                if (state != null) {
+                    entries.put(child.getFileName(), state);
+                }
+            }
+        } catch (final IOException theE) {
+            MY_LOGGER.log(Level.WARNING, "Could not scan " + theDir + ": " + theE.getMessage()
+                    + "\n");
+        }
+        return entries;
+    }
+
+    /**
+     * Reads the state of one entry.
+     *
+     * @param thePath the entry.
+     * @return its state, or null if it no longer exists.
+     */
+    private static EntryState stat(final Path thePath) {
+        try {
+            final BasicFileAttributes attrs = Files.readAttributes(thePath,
+                    BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            // a directory's own size and time change with its contents, which are watched
+            // through their own keys
+            if (attrs.isDirectory()) {
+                return new EntryState(0, 0, true);
+            }
+            return new EntryState(attrs.size(), attrs.lastModifiedTime().toMillis(), false);
+        } catch (final NoSuchFileException theE) {
+            return null;
+        } catch (final IOException theE) {
+            MY_LOGGER.log(Level.FINE, "Could not read " + thePath + ": " + theE.getMessage()
+                    + "\n");
+            return null;
+        }
+    }
+
+    /**
+     * The remembered state of one directory entry.
+     *
+     * @param size         the size in bytes, 0 for directories.
+     * @param lastModified the modification time in epoch milliseconds.
+     * @param isDirectory  whether the entry is a directory.
+     */
+    private record EntryState(long size, long lastModified, boolean isDirectory) {
+    }
+}
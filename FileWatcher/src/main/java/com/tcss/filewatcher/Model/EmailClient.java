@@ -84,21 +84,30 @@ public class EmailClient {
      */
     private static final Logger MY_LOGGER = Logger.getLogger("Email Client Logger");
 
+    /**
+     * How long each send call to Gmail took, successful or not.
+     */
+    private static final LatencyHistogram MY_SEND_LATENCY =
+            new LatencyHistogram(LatencyHistogram.REMOTE_BOUNDS);
+
 
     /**
      * Gets the Gmail service.
+     * @param theInteractive whether the user may be sent to the browser to authorize Gmail.
      * @return the Gmail service
      * @throws GeneralSecurityException thrown if oauth fails.
-     * @throws IOException thrown if the path to the json file doesn't exist.
+     * @throws IOException thrown if the path to the json file doesn't exist, or if no token
+     * is stored and the user cannot be asked.
      */
-    private static Gmail getService() throws GeneralSecurityException, IOException {
+    private static Gmail getService(final boolean theInteractive)
+            throws GeneralSecurityException, IOException {
         if (SERVICE == null) {
             synchronized (EmailClient.class) {
                 if (SERVICE == null) {
                     SERVICE = new Gmail.Builder(
                             GoogleNetHttpTransport.newTrustedTransport(),
                             MY_JSON_FACTORY,
-                            authorize()
+                            authorize(theInteractive)
                     ).setApplicationName(MY_APPLICATION_NAME).build();
                 }
             }
@@ -124,17 +133,7 @@ public class EmailClient {
         }
 
         try {
-            final Gmail service = getService();
-
-            if (!Files.exists(theCsvPath)) {
-                throw new FileNotFoundException("CSV not found: " + theCsvPath);
-            }
-
-            final File csvFile = theCsvPath.toFile();
-            final MimeMessage email = createEmail(theToAddress, csvFile);
-            Message sent = sendMessage(service, email);
-
-            MY_LOGGER.log(Level.INFO,"Sent message ID: " + sent.getId()+"\n");
+            deliver(theToAddress, theCsvPath, true);
             return true;
 
         } catch (final Exception theEvent) {
@@ -149,14 +148,80 @@ public class EmailClient {
         }
     }
 
+    /**
+     * Sends the report without showing any dialog, for callers without a display such as
+     * the headless daemon. Problems are only logged. Gmail must have been authorized
+     * before, i.e. a token must already be stored in ~/.filewatcher_tokens; without one
+     * nothing is sent, as no browser can be opened to ask for it.
+     *
+     * @param theToAddress the address to send to.
+     * @param theCsvPath   the CSV file to attach.
+     * @return true if the email was sent.
+     */
+    public static boolean send(final String theToAddress, final Path theCsvPath) {
+        if (theToAddress == null || theToAddress.isEmpty()) {
+            MY_LOGGER.log(Level.WARNING, "No receiver address configured, email not sent\n");
+            return false;
+        }
+
+        try {
+            deliver(theToAddress, theCsvPath, false);
+            return true;
+
+        } catch (final Exception theEvent) {
+            MY_LOGGER.log(Level.SEVERE, "Unable to send email: " + theEvent.getMessage()
+                    + "\n");
+            return false;
+        }
+    }
+
+    /**
+     * Builds and sends the email with the CSV attached.
+     *
+     * @param theToAddress   the address to send to.
+     * @param theCsvPath     the CSV file to attach.
+     * @param theInteractive whether the user may be sent to the browser to authorize Gmail.
+     * @throws GeneralSecurityException thrown if oauth fails.
+     * @throws IOException              thrown if the CSV file or credentials are missing.
+     * @throws MessagingException       thrown if the email cannot be built or sent.
+     */
+    private static void deliver(final String theToAddress, final Path theCsvPath,
+                                final boolean theInteractive)
+            throws GeneralSecurityException, IOException, MessagingException {
+        final FlightEvents.EmailSend flight = new FlightEvents.EmailSend();
+        boolean sent = false;
+        try {
+            final Gmail service = getService(theInteractive);
+
+            if (!Files.exists(theCsvPath)) {
+                throw new FileNotFoundException("CSV not found: " + theCsvPath);
+            }
+
+            final File csvFile = theCsvPath.toFile();
+            final MimeMessage email = createEmail(theToAddress, csvFile);
+            Message message = sendMessage(service, email);
+
+            MY_LOGGER.log(Level.INFO,"Sent message ID: " + message.getId()+"\n");
+            sent = true;
+
+        } finally {
+            flight.end(theCsvPath, sent);
+        }
+    }
+
     /**
      * Checks user email authorization via O-Auth2.0.
      *
+     * @param theInteractive whether the user may be sent to the browser to authorize Gmail;
+     *                       otherwise only a stored token is used.
      * @return the authorization code.
-     * @throws IOException              thrown if gmail_oauth.json file aren't found.
+     * @throws IOException              thrown if gmail_oauth.json file aren't found, or if
+     *                                  no usable token is stored and the user cannot be
+     *                                  asked.
      * @throws GeneralSecurityException thrown if the users email is unauthorized.
      */
-    private static Credential authorize() throws IOException, GeneralSecurityException {
+    private static Credential authorize(final boolean theInteractive)
+            throws IOException, GeneralSecurityException {
         if (!TOKENS_DIR.exists() && !TOKENS_DIR.mkdirs()) {
             throw new IOException("Could not create token dir: " + TOKENS_DIR.getAbsolutePath());
         }
@@ -176,6 +241,18 @@ public class EmailClient {
 
             final String tokenKey = "user";
 
+            if (!theInteractive) {
+                // the browser flow would wait forever for a user who is not there
+                final Credential credential = flow.loadCredential(tokenKey);
+                if (credential == null || credential.getRefreshToken() == null
+                        && credential.getExpiresInSeconds() != null
+                        && credential.getExpiresInSeconds() <= 60) {
+                    throw new IOException("Gmail is not authorized, no token stored in "
+                            + TOKENS_DIR.getAbsolutePath());
+                }
+                return credential;
+            }
+
             final LocalServerReceiver receiver =
                     new LocalServerReceiver.Builder().setPort(-1).build();
 
@@ -254,6 +331,20 @@ public class EmailClient {
      */
     private static Message sendMessage(final Gmail theService,
                                        final MimeMessage theEmail) throws MessagingException, IOException {
-        return theService.users().messages().send("me", createMessageWithEmail(theEmail)).execute();
+        final long start = System.nanoTime();
+        try {
+            return theService.users().messages().send("me", createMessageWithEmail(theEmail)).execute();
+        } finally {
+            MY_SEND_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Gets the time each send call took.
+     *
+     * @return the send latency histogram.
+     */
+    public static LatencyHistogram getSendLatency() {
+        return MY_SEND_LATENCY;
     }
 }
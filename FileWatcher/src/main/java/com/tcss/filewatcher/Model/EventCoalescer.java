@@ -0,0 +1,356 @@
+package com.tcss.filewatcher.Model;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Coalescing stage between the watch service and the rest of the event pipeline.
+ * Raw events are held per path until the path has been quiet for the configured
+ * window, and bursts are merged while they wait:
+ * repeated MODIFY events become one MODIFY, CREATE followed by MODIFY events stays a
+ * single CREATE, and a CREATE followed by a DELETE is dropped as a transient file.
+ * Any other sequence releases the pending event before the new one is held.
+ * A window of zero turns the stage into a pass-through.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+public class EventCoalescer {
+
+    /**
+     * The default time in milliseconds a path has to be quiet before its event is released.
+     */
+    public static final long DEFAULT_QUIET_WINDOW_MILLIS = 200;
+
+    /**
+     * How many quiet windows a continuously changing path may be held for at most.
+     */
+    private static final int MAX_HOLD_WINDOWS = 10;
+
+    /**
+     * The events waiting for their path to go quiet, in arrival order.
+     */
+    private final Map<Path, Pending> myPending = new LinkedHashMap<>();
+
+    /**
+     * Receives the coalesced events.
+     */
+    private final Consumer<Pending> mySink;
+
+    /**
+     * The quiet window in milliseconds.
+     */
+    private volatile long myQuietWindowMillis;
+
+    /**
+     * Number of raw events offered.
+     */
+    private long myReceivedCount;
+
+    /**
+     * Number of coalesced events released.
+     */
+    private long myEmittedCount;
+
+    /**
+     * Number of raw events merged away or dropped.
+     */
+    private long mySuppressedCount;
+
+    /**
+     * Number of CREATE and DELETE pairs dropped as transient files.
+     */
+    private long myTransientCount;
+
+    /**
+     * Creates a coalescer with the default quiet window.
+     *
+     * @param theSink receives the coalesced events.
+     */
+    public EventCoalescer(final Consumer<Pending> theSink) {
+        this(theSink, DEFAULT_QUIET_WINDOW_MILLIS);
+    }
+
+    /**
+     * Creates a coalescer.
+     *
+     * @param theSink              receives the coalesced events.
+     * @param theQuietWindowMillis the quiet window in milliseconds, 0 to pass events through.
+     */
+    public EventCoalescer(final Consumer<Pending> theSink, final long theQuietWindowMillis) {
+        if (theSink == null) {
+            throw new IllegalArgumentException("Event sink cannot be null");
+        }
+        mySink = theSink;
+        setQuietWindowMillis(theQuietWindowMillis);
+    }
+
+    /**
+     * Offers a raw watch event.
+     *
+     * @param theDir       the directory the event happened in.
+     * @param theFileName  the name of the file relative to the directory.
+     * @param theKind      the kind of the event.
+     * @param theNowMillis the current time in epoch milliseconds.
+     */
+    public void offer(final Path theDir, final Path theFileName, final WatchEvent.Kind<?> theKind,
+                      final long theNowMillis) {
+        final List<Pending> released = new ArrayList<>(2);
+        synchronized (this) {
+            myReceivedCount++;
+            final Pending event = new Pending(theDir, theFileName, theKind, theNowMillis);
+            if (myQuietWindowMillis == 0) {
+                released.add(event);
+            } else {
+                final Path path = theDir.resolve(theFileName);
+                final Pending pending = myPending.get(path);
+                if (pending == null) {
+                    myPending.put(path, event);
+                } else if (theKind == ENTRY_MODIFY
+                        && (pending.myKind == ENTRY_MODIFY || pending.myKind == ENTRY_CREATE)) {
+                    pending.myLastSeenMillis = theNowMillis;
+                    mySuppressedCount++;
+                } else if (theKind == ENTRY_DELETE && pending.myKind == ENTRY_CREATE) {
+                    myPending.remove(path);
+                    mySuppressedCount += 2;
+                    myTransientCount++;
+                } else {
+                    // keep the order of everything else: release what was held first
+                    myPending.remove(path);
+                    released.add(pending);
+                    myPending.put(path, event);
+                }
+            }
+            myEmittedCount += released.size();
+        }
+        released.forEach(mySink);
+    }
+
+    /**
+     * Releases every pending event whose path has been quiet for the window, or that
+     * has been held for the maximum time.
+     *
+     * @param theNowMillis the current time in epoch milliseconds.
+     */
+    public void flushDue(final long theNowMillis) {
+        final List<Pending> released = new ArrayList<>();
+        synchronized (this) {
+            final long window = myQuietWindowMillis;
+            final Iterator<Pending> pending = myPending.values().iterator();
+            while (pending.hasNext()) {
+                final Pending event = pending.next();
+                if (theNowMillis - event.myLastSeenMillis >= window
+                        || theNowMillis - event.myFirstSeenMillis >= window * MAX_HOLD_WINDOWS) {
+                    pending.remove();
+                    released.add(event);
+                }
+            }
+            myEmittedCount += released.size();
+        }
+        released.forEach(mySink);
+    }
+
+    /**
+     * Releases every pending event regardless of the window, e.g. when the watcher stops.
+     */
+    public void flushAll() {
+        final List<Pending> released;
+        synchronized (this) {
+            released = new ArrayList<>(myPending.values());
+            myPending.clear();
+            myEmittedCount += released.size();
+        }
+        released.forEach(mySink);
+    }
+
+    /**
+     * Gets how long the caller may wait before the next pending event is due.
+     *
+     * @param theNowMillis the current time in epoch milliseconds.
+     * @return the milliseconds until the next event is due, or -1 if nothing is pending.
+     */
+    public synchronized long millisUntilNextFlush(final long theNowMillis) {
+        if (myPending.isEmpty()) {
+            return -1;
+        }
+        final long window = myQuietWindowMillis;
+        long next = Long.MAX_VALUE;
+        for (final Pending event : myPending.values()) {
+            next = Math.min(next, Math.min(event.myLastSeenMillis + window,
+                    event.myFirstSeenMillis + window * MAX_HOLD_WINDOWS));
+        }
+        return Math.max(0, next - theNowMillis);
+    }
+
+    /**
+     * Gets the quiet window.
+     *
+     * @return the quiet window in milliseconds.
+     */
+    public long getQuietWindowMillis() {
+        return myQuietWindowMillis;
+    }
+
+    /**
+     * Sets the quiet window. Events already pending are released on the new window.
+     *
+     * @param theQuietWindowMillis the quiet window in milliseconds, 0 to pass events through.
+     */
+    public void setQuietWindowMillis(final long theQuietWindowMillis) {
+        if (theQuietWindowMillis < 0) {
+            throw new IllegalArgumentException("Quiet window cannot be negative");
+        }
+        myQuietWindowMillis = theQuietWindowMillis;
+    }
+
+    /**
+     * Gets the number of events waiting for their path to go quiet.
+     *
+     * @return the number of pending events.
+     */
+    public synchronized int getPendingCount() {
+        return myPending.size();
+    }
+
+    /**
+     * Gets the number of raw events offered.
+     *
+     * @return the received count.
+     */
+    public synchronized long getReceivedCount() {
+        return myReceivedCount;
+    }
+
+    /**
+     * Gets the number of coalesced events released.
+     *
+     * @return the emitted count.
+     */
+    public synchronized long getEmittedCount() {
+        return myEmittedCount;
+    }
+
+    /**
+     * Gets the number of raw events that were merged into another event or dropped.
+     *
+     * @return the suppressed count.
+     */
+    public synchronized long getSuppressedCount() {
+        return mySuppressedCount;
+    }
+
+    /**
+     * Gets the number of files that were created and deleted within one window.
+     *
+     * @return the transient count.
+     */
+    public synchronized long getTransientCount() {
+        return myTransientCount;
+    }
+
+    /**
+     * A coalesced event waiting for, or released after, its quiet window.
+     *
+     * @author Kassie Whitney
+     * @version 10.17.26
+     */
+    public static final class Pending {
+
+        /**
+         * The directory the event happened in.
+         */
+        private final Path myDir;
+
+        /**
+         * The name of the file relative to the directory.
+         */
+        private final Path myFileName;
+
+        /**
+         * The kind of the coalesced event.
+         */
+        private final WatchEvent.Kind<?> myKind;
+
+        /**
+         * When the first raw event of the burst arrived.
+         */
+        private final long myFirstSeenMillis;
+
+        /**
+         * When the last raw event of the burst arrived.
+         */
+        private long myLastSeenMillis;
+
+        /**
+         * Creates a pending event.
+         *
+         * @param theDir        the directory the event happened in.
+         * @param theFileName   the name of the file relative to the directory.
+         * @param theKind       the kind of the event.
+         * @param theSeenMillis when the raw event arrived.
+         */
+        private Pending(final Path theDir, final Path theFileName,
+                        final WatchEvent.Kind<?> theKind, final long theSeenMillis) {
+            myDir = theDir;
+            myFileName = theFileName;
+            myKind = theKind;
+            myFirstSeenMillis = theSeenMillis;
+            myLastSeenMillis = theSeenMillis;
+        }
+
+        /**
+         * Gets the directory the event happened in.
+         *
+         * @return the directory.
+         */
+        public Path getDirectory() {
+            return myDir;
+        }
+
+        /**
+         * Gets the name of the file relative to the directory.
+         *
+         * @return the file name.
+         */
+        public Path getFileName() {
+            return myFileName;
+        }
+
+        /**
+         * Gets the kind of the coalesced event.
+         *
+         * @return the event kind.
+         */
+        public WatchEvent.Kind<?> getKind() {
+            return myKind;
+        }
+
+        /**
+         * Gets when the first raw event of the burst arrived.
+         *
+         * @return the epoch milliseconds.
+         */
+        public long getFirstSeenMillis() {
+            return myFirstSeenMillis;
+        }
+
+        /**
+         * Gets when the last raw event of the burst arrived.
+         *
+         * @return the epoch milliseconds.
+         */
+        public long getLastSeenMillis() {
+            return myLastSeenMillis;
+        }
+    }
+}
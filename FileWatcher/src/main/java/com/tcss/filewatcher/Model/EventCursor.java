@@ -0,0 +1,207 @@
+package com.tcss.filewatcher.Model;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A forward-only cursor over the results of an event query. Rows are read from the
+ * database one fetch at a time as the cursor advances, so a year of history can be
+ * exported with only the current row in memory.
+ * The cursor holds a reader connection until it is closed or runs out of rows, so it
+ * must always be closed, e.g. in a try-with-resources block.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+public final class EventCursor implements Iterator<EventRecord>, AutoCloseable {
+
+    /**
+     * Logger object.
+     */
+    private static final Logger MY_LOGGER = Logger.getLogger("Event Cursor");
+
+    /**
+     * The reader connection the query runs on, null for an empty cursor.
+     */
+    private final ConnectionManager.Lease myLease;
+
+    /**
+     * The open rows, null for an empty cursor.
+     */
+    private final ResultSet myResultSet;
+
+    /**
+     * The flight recorder event of the query, null for an empty cursor.
+     */
+    private final FlightEvents.DatabaseQuery myFlight;
+
+    /**
+     * What the query selects by, for the flight recorder.
+     */
+    private final String myQuery;
+
+    /**
+     * The query argument, for the flight recorder.
+     */
+    private final String myArgument;
+
+    /**
+     * The row read ahead by hasNext, or null.
+     */
+    private EventRecord myNext;
+
+    /**
+     * The number of rows handed out so far.
+     */
+    private long myCount;
+
+    /**
+     * Whether the rows and the connection have been released.
+     */
+    private boolean myIsClosed;
+
+    /**
+     * Wraps an executed query.
+     *
+     * @param theLease     the reader connection, released when the cursor closes.
+     * @param theResultSet the rows selecting the record columns.
+     * @param theFlight    the flight recorder event, ended when the cursor closes.
+     * @param theQuery     what the query selects by.
+     * @param theArgument  the query argument.
+     */
+    EventCursor(final ConnectionManager.Lease theLease, final ResultSet theResultSet,
+                final FlightEvents.DatabaseQuery theFlight, final String theQuery,
+                final String theArgument) {
+        myLease = theLease;
+        myResultSet = theResultSet;
+        myFlight = theFlight;
+        myQuery = theQuery;
+        myArgument = theArgument;
+        myIsClosed = theResultSet == null;
+    }
+
+    /**
+     * Creates a cursor without rows, returned when a query could not run.
+     *
+     * @return an empty cursor.
+     */
+    public static EventCursor empty() {
+        return new EventCursor(null, null, null, null, null);
+    }
+
+    /**
+     * Reads the current row of a result set selecting the record columns
+     * (id, event_timestamp, event_code, absolute_path, file_name, extension, synthesized).
+     *
+     * @param theResultSet the rows, positioned on a row.
+     * @return the record.
+     * @throws SQLException if the row cannot be read.
+     */
+    static EventRecord readRecord(final ResultSet theResultSet) throws SQLException {
+        final String directory = theResultSet.getString("absolute_path");
+        final String fileName = theResultSet.getString("file_name");
+        return new EventRecord(theResultSet.getLong("id"),
+                theResultSet.getLong("event_timestamp"),
+                FileEventType.fromCode(theResultSet.getInt("event_code")),
+                directory == null ? "" : directory, fileName == null ? "" : fileName,
+                theResultSet.getString("extension"), theResultSet.getInt("synthesized") != 0);
+    }
+
+    /**
+     * Checks whether there is another row, reading it from the database if needed.
+     * The cursor closes itself after the last row.
+     *
+     * @return true if next will return a record.
+     * @throws IllegalStateException if the row cannot be read.
+     */
+    @Override
+    public boolean hasNext() {
+        if (myNext != null) {
+            return true;
+        }
+        if (myIsClosed) {
+            return false;
+        }
+        try {
+            if (myResultSet.next()) {
+                myNext = readRecord(myResultSet);
+                return true;
+            }
+        } catch (final SQLException theE) {
+            MY_LOGGER.log(Level.SEVERE, "Error reading " + myQuery + " query: "
+                    + theE.getMessage() + "\n");
+            close();
+            throw new IllegalStateException("Event query failed after " + myCount + " rows",
+                    theE);
+        }
+        close();
+        return false;
+    }
+
+    /**
+     * Gets the next row.
+     *
+     * @return the record.
+     * @throws NoSuchElementException if there are no more rows.
+     * @throws IllegalStateException  if the row cannot be read.
+     */
+    @Override
+    public EventRecord next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more events");
+        }
+        final EventRecord record = myNext;
+        myNext = null;
+        myCount++;
+        return record;
+    }
+
+    /**
+     * Gets the number of rows handed out so far.
+     *
+     * @return the row count.
+     */
+    public long getCount() {
+        return myCount;
+    }
+
+    /**
+     * Views the remaining rows as a sequential stream. Closing the stream closes the
+     * cursor.
+     *
+     * @return the stream of records.
+     */
+    public Stream<EventRecord> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this,
+                Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(this::close);
+    }
+
+    /**
+     * Releases the rows and returns the connection to the pool. Safe to call more than
+     * once.
+     */
+    @Override
+    public void close() {
+        if (myIsClosed) {
+            return;
+        }
+        myIsClosed = true;
+        myNext = null;
+        try {
+            myResultSet.close();
+        } catch (final SQLException theE) {
+            MY_LOGGER.log(Level.WARNING, "Unable to close query rows: " + theE.getMessage()
+                    + "\n");
+        }
+        myLease.close();
+        myFlight.end(myQuery, myArgument, (int) Math.min(myCount, Integer.MAX_VALUE));
+    }
+}
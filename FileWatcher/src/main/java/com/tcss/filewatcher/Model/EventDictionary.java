@@ -0,0 +1,262 @@
+package com.tcss.filewatcher.Model;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Stores each distinct directory, file name and extension once and gives it an integer
+ * id, so an event row holds three small integers instead of repeating the strings.
+ * The 'event_paths', 'event_names' and 'event_extensions' tables only ever grow, which
+ * keeps an id valid for as long as the database exists; clearing the events keeps them.
+ * The writer looks ids up through a least recently used cache per table, so a busy
+ * directory costs one lookup per cache eviction instead of one per event.
+ * <p>
+ * Directory subtrees are found as a range on a case-insensitive index of 'event_paths',
+ * and the matching ids are then looked up on the (path_id, event_timestamp) index of the
+ * events, instead of scanning every event with a LIKE pattern.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+public final class EventDictionary {
+
+    /**
+     * The dictionaries of every database that has been opened, by its connection manager.
+     */
+    private static final Map<ConnectionManager, EventDictionary> MY_DICTIONARIES =
+            new IdentityHashMap<>();
+
+    /**
+     * The cached ids of each table, least recently used first.
+     */
+    private final Map<Table, Map<String, Long>> myCaches = new EnumMap<>(Table.class);
+
+    /**
+     * The number of ids found in a cache.
+     */
+    private long myHits;
+
+    /**
+     * The number of ids read from or added to a table.
+     */
+    private long myMisses;
+
+    /**
+     * Creates empty caches for a database.
+     */
+    private EventDictionary() {
+        for (final Table table : Table.values()) {
+            myCaches.put(table, new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<String, Long> theEldest) {
+                    return size() > table.getCacheSize();
+                }
+            });
+        }
+    }
+
+    /**
+     * Gets the dictionary of a database.
+     *
+     * @param theConnections the shared connections of the database.
+     * @return the dictionary, shared by every user of the connections.
+     */
+    public static EventDictionary of(final ConnectionManager theConnections) {
+        synchronized (MY_DICTIONARIES) {
+            return MY_DICTIONARIES.computeIfAbsent(theConnections,
+                    theKey -> new EventDictionary());
+        }
+    }
+
+    /**
+     * Creates the dictionary tables if they do not exist yet.
+     *
+     * @param theStatement a statement on the writer connection.
+     * @throws SQLException if a table could not be created.
+     */
+    static void createTables(final Statement theStatement) throws SQLException {
+        for (final Table table : Table.values()) {
+            theStatement.executeUpdate("CREATE TABLE IF NOT EXISTS " + table.getName()
+                    + " (id INTEGER PRIMARY KEY, " + table.getColumn()
+                    + " TEXT NOT NULL UNIQUE)");
+        }
+        // directory queries match in any case
+        theStatement.executeUpdate("CREATE INDEX IF NOT EXISTS idx_event_paths_nocase "
+                + "ON event_paths (path COLLATE NOCASE)");
+    }
+
+    /**
+     * Compiles a SELECT that reads an event table with its ids decoded, under the column
+     * names of the text columns. Rows not converted yet keep their text.
+     *
+     * @param theTable the live table or a partition.
+     * @return the statement, usable as a subquery.
+     */
+    static String decode(final String theTable) {
+        return "SELECT e.id AS id, e.event_date AS event_date, e.event_time AS event_time, "
+                + "COALESCE(n.name, e.file_name) AS file_name, "
+                + "COALESCE(p.path, e.absolute_path) AS absolute_path, "
+                + "e.event_type AS event_type, e.event_timestamp AS event_timestamp, "
+                + "e.event_code AS event_code, COALESCE(x.extension, e.extension) AS extension, "
+                + "e.synthesized AS synthesized, e.path_id AS path_id, e.name_id AS name_id, "
+                + "e.extension_id AS extension_id FROM " + theTable + " e "
+                + "LEFT JOIN event_paths p ON p.id = e.path_id "
+                + "LEFT JOIN event_names n ON n.id = e.name_id "
+                + "LEFT JOIN event_extensions x ON x.id = e.extension_id";
+    }
+
+    /**
+     * Gets the id of a value, adding it to its table if it is new. Run it inside the
+     * transaction that writes the events, and call {@link #invalidate()} if that
+     * transaction rolls back.
+     *
+     * @param theLease the writer lease.
+     * @param theTable the dictionary.
+     * @param theValue the value, or null.
+     * @return the id, or null for a null value.
+     * @throws SQLException if the table could not be read or written.
+     */
+    synchronized Long idOf(final ConnectionManager.Lease theLease, final Table theTable,
+                           final String theValue) throws SQLException {
+        if (theValue == null) {
+            return null;
+        }
+        final Map<String, Long> cache = myCaches.get(theTable);
+        Long id = cache.get(theValue);
+        if (id != null) {
+            myHits++;
+            return id;
+        }
+        myMisses++;
+        final PreparedStatement select = theLease.prepare("SELECT id FROM "
+                + theTable.getName() + " WHERE " + theTable.getColumn() + " = ?");
+        select.setString(1, theValue);
+        try (ResultSet rs = select.executeQuery()) {
+            if (rs.next()) {
+                id = rs.getLong(1);
+            }
+        }
+        if (id == null) {
+            final PreparedStatement insert = theLease.prepare("INSERT INTO "
+                    + theTable.getName() + " (" + theTable.getColumn() + ") VALUES (?)");
+            insert.setString(1, theValue);
+            insert.executeUpdate();
+            try (ResultSet rs = theLease.prepare("SELECT last_insert_rowid()")
+                    .executeQuery()) {
+                rs.next();
+                id = rs.getLong(1);
+            }
+        }
+        cache.put(theValue, id);
+        return id;
+    }
+
+    /**
+     * Forgets every cached id, after a transaction that may have added some rolled back.
+     */
+    synchronized void invalidate() {
+        for (final Map<String, Long> cache : myCaches.values()) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Gets the number of ids found in a cache.
+     *
+     * @return the cache hits.
+     */
+    public synchronized long getHitCount() {
+        return myHits;
+    }
+
+    /**
+     * Gets the number of ids that had to be read from or added to a table.
+     *
+     * @return the cache misses.
+     */
+    public synchronized long getMissCount() {
+        return myMisses;
+    }
+
+    /**
+     * The dictionary tables.
+     */
+    enum Table {
+
+        /**
+         * The directories events happened in.
+         */
+        PATHS("event_paths", "path", 4096),
+
+        /**
+         * The file names.
+         */
+        NAMES("event_names", "name", 16384),
+
+        /**
+         * The lower-case file extensions, with their dot.
+         */
+        EXTENSIONS("event_extensions", "extension", 256);
+
+        /**
+         * The table name.
+         */
+        private final String myName;
+
+        /**
+         * The column holding the value.
+         */
+        private final String myColumn;
+
+        /**
+         * The most ids cached.
+         */
+        private final int myCacheSize;
+
+        /**
+         * Describes a dictionary table.
+         *
+         * @param theName      the table name.
+         * @param theColumn    the column holding the value.
+         * @param theCacheSize the most ids cached.
+         */
+        Table(final String theName, final String theColumn, final int theCacheSize) {
+            myName = theName;
+            myColumn = theColumn;
+            myCacheSize = theCacheSize;
+        }
+
+        /**
+         * Gets the table name.
+         *
+         * @return the name.
+         */
+        String getName() {
+            return myName;
+        }
+
+        /**
+         * Gets the column holding the value.
+         *
+         * @return the column name.
+         */
+        String getColumn() {
+            return myColumn;
+        }
+
+        /**
+         * Gets the most ids cached.
+         *
+         * @return the cache size.
+         */
+        int getCacheSize() {
+            return myCacheSize;
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package com.tcss.filewatcher.Model;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gives indexed access to the results of an event query without loading them all.
+ * Rows are read a page at a time with keyset pagination on (event_timestamp, id) in
+ * the order of the query, and only the most recently used pages stay in memory. The
+ * key of the last row of every page that was read is remembered, so the page after it
+ * is one index seek away; a jump to a page that was never reached skips forward from the nearest known key.
+ * The total comes from a separate COUNT query, taken when the pager is created or
+ * handed in by a caller that counted off the UI thread.
+ * <p>
+ * {@link #get} reads a missing page on the calling thread. A table instead checks
+ * {@link #isLoaded}, reads missing pages with {@link #load} on a {@link QueryService} and
+ * hands them back with {@link #put}, so neither the skip nor the page read blocks it.
+ * Not thread-safe; a table reads it from one thread.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+public final class EventPager {
+
+    /**
+     * The default number of rows per page.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 256;
+
+    /**
+     * The default number of pages kept in memory.
+     */
+    public static final int DEFAULT_RESIDENT_PAGES = 8;
+
+    /**
+     * The database the pages are read from.
+     */
+    private final DataBaseManager myDBManager;
+
+    /**
+     * The query being paged.
+     */
+    private final EventQuery myQuery;
+
+    /**
+     * The number of rows per page.
+     */
+    private final int myPageSize;
+
+    /**
+     * The number of rows the query selected when the pager was created.
+     */
+    private final int mySize;
+
+    /**
+     * The loaded pages by page number, least recently used first.
+     */
+    private final Map<Integer, List<EventRecord>> myPages;
+
+    /**
+     * The timestamp of the row before each page, for pages whose key is known.
+     */
+    private final long[] myAnchorTimestamps;
+
+    /**
+     * The id of the row before each page, for pages whose key is known.
+     */
+    private final long[] myAnchorIds;
+
+    /**
+     * Whether the key of the row before each page is known.
+     */
+    private final boolean[] myKnown;
+
+    /**
+     * The number of pages read from the database.
+     */
+    private long myPageLoads;
+
+    /**
+     * Creates a pager with the default page size and window.
+     *
+     * @param theDBManager the database the pages are read from.
+     * @param theQuery     the query to page through.
+     * @throws IllegalArgumentException if an argument is null.
+     */
+    public EventPager(final DataBaseManager theDBManager, final EventQuery theQuery) {
+        this(theDBManager, theQuery, DEFAULT_PAGE_SIZE, DEFAULT_RESIDENT_PAGES);
+    }
+
+    /**
+     * Creates a pager with the default page size and window over a query whose rows
+     * were already counted, e.g. by a {@link QueryService}.
+     *
+     * @param theDBManager the database the pages are read from.
+     * @param theQuery     the query to page through.
+     * @param theCount     the number of rows the query selects.
+     * @throws IllegalArgumentException if an argument is null or the count is negative.
+     */
+    public EventPager(final DataBaseManager theDBManager, final EventQuery theQuery,
+                      final long theCount) {
+        this(theDBManager, theQuery, DEFAULT_PAGE_SIZE, DEFAULT_RESIDENT_PAGES, theCount);
+    }
+
+    /**
+     * Creates a pager and counts the rows of the query.
+     *
+     * @param theDBManager     the database the pages are read from.
+     * @param theQuery         the query to page through.
+     * @param thePageSize      the number of rows per page.
+     * @param theResidentPages the number of pages kept in memory.
+     * @throws IllegalArgumentException if an argument is null or not positive.
+     */
+    public EventPager(final DataBaseManager theDBManager, final EventQuery theQuery,
+                      final int thePageSize, final int theResidentPages) {
+        this(theDBManager, theQuery, thePageSize, theResidentPages,
+                theDBManager == null || theQuery == null ? 0
+                        : theDBManager.countRecords(theQuery));
+    }
+
+    /**
+     * Creates a pager over a query whose rows were counted.
+     *
+     * @param theDBManager     the database the pages are read from.
+     * @param theQuery         the query to page through.
+     * @param thePageSize      the number of rows per page.
+     * @param theResidentPages the number of pages kept in memory.
+     * @param theCount         the number of rows the query selects.
+     * @throws IllegalArgumentException if an argument is null, negative or not positive.
+     */
+    private EventPager(final DataBaseManager theDBManager, final EventQuery theQuery,
+                       final int thePageSize, final int theResidentPages,
+                       final long theCount) {
+        if (theCount < 0) {
+            throw new IllegalArgumentException("Count cannot be negative");
+        }
+        if (theDBManager == null || theQuery == null) {
+            throw new IllegalArgumentException("Database manager and query cannot be null");
+        }
+        if (thePageSize < 1 || theResidentPages < 1) {
+            throw new IllegalArgumentException("Page size and resident pages must be positive");
+        }
+        myDBManager = theDBManager;
+        myQuery = theQuery;
+        myPageSize = thePageSize;
+        mySize = Math.clamp(theCount, 0, Integer.MAX_VALUE);
+        myPages = new LinkedHashMap<>(theResidentPages * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(
+                    final Map.Entry<Integer, List<EventRecord>> theEldest) {
+                return size() > theResidentPages;
+            }
+        };
+        final int pageCount = (mySize + thePageSize - 1) / thePageSize;
+        myAnchorTimestamps = new long[Math.max(pageCount, 1)];
+        myAnchorIds = new long[Math.max(pageCount, 1)];
+        myKnown = new boolean[Math.max(pageCount, 1)];
+        // the first page starts before every key in the order of the query
+        final long first = theQuery.getOrder() == EventQuery.Order.NEWEST_FIRST
+                ? Long.MAX_VALUE : Long.MIN_VALUE;
+        myAnchorTimestamps[0] = first;
+        myAnchorIds[0] = first;
+        myKnown[0] = true;
+    }
+
+    /**
+     * Gets the number of rows the query selected when the pager was created.
+     *
+     * @return the row count.
+     */
+    public int size() {
+        return mySize;
+    }
+
+    /**
+     * Gets a row, reading its page if it is not in memory.
+     *
+     * @param theIndex the row index.
+     * @return the record, or null if the row no longer exists.
+     * @throws IndexOutOfBoundsException if the index is outside the count.
+     */
+    public EventRecord get(final int theIndex) {
+        if (theIndex < 0 || theIndex >= mySize) {
+            throw new IndexOutOfBoundsException("Index " + theIndex + " of " + mySize);
+        }
+        final List<EventRecord> page = page(theIndex / myPageSize);
+        final int offset = theIndex % myPageSize;
+        return offset < page.size() ? page.get(offset) : null;
+    }
+
+    /**
+     * Checks whether the page of a row is in memory, so {@link #get} returns at once.
+     *
+     * @param theIndex the row index.
+     * @return true if the page of the row is resident.
+     */
+    public boolean isLoaded(final int theIndex) {
+        return myPages.containsKey(theIndex / myPageSize);
+    }
+
+    /**
+     * Reads a page on a query service, skipping forward from the nearest known key in
+     * the same statement. Hand the result to {@link #put} on the thread that reads this
+     * pager.
+     *
+     * @param theService the service to read the page on.
+     * @param thePage    the page number.
+     * @return the running query, whose result is the rows of the page.
+     * @throws IllegalArgumentException  if the service is null.
+     * @throws IndexOutOfBoundsException if the page is outside the count.
+     * @throws IllegalStateException     if the service is closed or too many queries wait.
+     */
+    public QueryService.QueryTask<List<EventRecord>> load(final QueryService theService,
+                                                           final int thePage) {
+        if (theService == null) {
+            throw new IllegalArgumentException("Query service cannot be null");
+        }
+        if (thePage < 0 || thePage >= myKnown.length) {
+            throw new IndexOutOfBoundsException("Page " + thePage + " of " + myKnown.length);
+        }
+        int known = thePage;
+        while (!myKnown[known]) {
+            known--;
+        }
+        return theService.page(myQuery, myAnchorTimestamps[known], myAnchorIds[known],
+                (long) (thePage - known) * myPageSize, myPageSize);
+    }
+
+    /**
+     * Stores a page read with {@link #load}.
+     *
+     * @param thePage the page number.
+     * @param theRows the rows of the page.
+     * @throws IllegalArgumentException  if the rows are null.
+     * @throws IndexOutOfBoundsException if the page is outside the count.
+     */
+    public void put(final int thePage, final List<EventRecord> theRows) {
+        if (theRows == null) {
+            throw new IllegalArgumentException("Rows cannot be null");
+        }
+        if (thePage < 0 || thePage >= myKnown.length) {
+            throw new IndexOutOfBoundsException("Page " + thePage + " of " + myKnown.length);
+        }
+        myPages.put(thePage, theRows);
+        myPageLoads++;
+        rememberNext(thePage, theRows);
+    }
+
+    /**
+     * Gets the query being paged.
+     *
+     * @return the query.
+     */
+    public EventQuery getQuery() {
+        return myQuery;
+    }
+
+    /**
+     * Gets the number of rows per page.
+     *
+     * @return the page size.
+     */
+    public int getPageSize() {
+        return myPageSize;
+    }
+
+    /**
+     * Gets the number of pages currently in memory.
+     *
+     * @return the resident page count.
+     */
+    public int getResidentPageCount() {
+        return myPages.size();
+    }
+
+    /**
+     * Gets the number of pages read from the database so far.
+     *
+     * @return the page load count.
+     */
+    public long getPageLoads() {
+        return myPageLoads;
+    }
+
+    /**
+     * Gets a page from memory or reads it from the database.
+     *
+     * @param thePage the page number.
+     * @return the rows of the page.
+     */
+    private List<EventRecord> page(final int thePage) {
+        List<EventRecord> rows = myPages.get(thePage);
+        if (rows == null) {
+            rows = load(thePage);
+            myPages.put(thePage, rows);
+        }
+        return rows;
+    }
+
+    /**
+     * Reads a page, first finding the key of the row before it if that is not known.
+     *
+     * @param thePage the page number.
+     * @return the rows of the page.
+     */
+    private List<EventRecord> load(final int thePage) {
+        if (!myKnown[thePage]) {
+            int known = thePage - 1;
+            while (!myKnown[known]) {
+                known--;
+            }
+            final EventRecord before = myDBManager.findRecordAfter(myQuery,
+                    myAnchorTimestamps[known], myAnchorIds[known],
+                    (long) (thePage - known) * myPageSize - 1);
+            if (before == null) {
+                return List.of();
+            }
+            remember(thePage, before);
+        }
+        final List<EventRecord> rows = myDBManager.queryPage(myQuery,
+                myAnchorTimestamps[thePage], myAnchorIds[thePage], myPageSize);
+        myPageLoads++;
+        rememberNext(thePage, rows);
+        return rows;
+    }
+
+    /**
+     * Remembers the last row of a full page as the row before the next page.
+     *
+     * @param thePage the page number.
+     * @param theRows the rows of the page.
+     */
+    private void rememberNext(final int thePage, final List<EventRecord> theRows) {
+        if (theRows.size() == myPageSize && thePage + 1 < myAnchorIds.length) {
+            remember(thePage + 1, theRows.get(theRows.size() - 1));
+        }
+    }
+
+    /**
+     * Remembers the row before a page.
+     *
+     * @param thePage   the page number.
+     * @param theRecord the last row of the previous page.
+     */
+    private void remember(final int thePage, final EventRecord theRecord) {
+        myAnchorTimestamps[thePage] = theRecord.getTimestamp();
+        myAnchorIds[thePage] = theRecord.getId();
+        myKnown[thePage] = true;
+    }
+}
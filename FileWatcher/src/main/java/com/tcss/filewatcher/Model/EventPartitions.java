@@ -0,0 +1,477 @@
+package com.tcss.filewatcher.Model;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Splits the event history into time partitions so old events expire by dropping a
+ * table instead of deleting rows. New events always go to the live 'filewatcher' table;
+ * sealing renames it to a partition, 'filewatcher_p&lt;last id&gt;', and starts an empty
+ * live table that continues the id sequence. The 'event_partitions' catalog records the
+ * first and last event timestamp of each partition, which lets a query read only the
+ * partitions overlapping its time range. The 'filewatcher_all' view is the union of the
+ * live table and every partition, for tools that read the database directly. Both read
+ * the tables through {@link EventDictionary#decode}, so they show the stored ids as text;
+ * counts, which only need the ids, read {@link #tablesBetween} as they are.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+public final class EventPartitions {
+
+    /**
+     * The table new events are written to.
+     */
+    static final String LIVE_TABLE = "filewatcher";
+
+    /**
+     * The view over the live table and every partition.
+     */
+    static final String ALL_VIEW = "filewatcher_all";
+
+    /**
+     * Stands for the events in statements compiled by {@link EventQuery}; replaced by
+     * {@link #resolve} with the tables the time range of the query needs.
+     */
+    static final String SOURCE = "{events}";
+
+    /**
+     * The age of the oldest live event at which the live table is sealed.
+     */
+    static final long PARTITION_MILLIS = 7L * 24 * 60 * 60 * 1000;
+
+    /**
+     * The partitions of every database that has been opened, by its connection manager.
+     */
+    private static final Map<ConnectionManager, EventPartitions> MY_PARTITIONS =
+            new IdentityHashMap<>();
+
+    /**
+     * The partitions not dropped yet, oldest first, as of {@link #mySchemaVersion}.
+     */
+    private volatile List<Partition> myCatalog = List.of();
+
+    /**
+     * The schema version the catalog was read at, -1 before the first read.
+     */
+    private volatile int mySchemaVersion = -1;
+
+    /**
+     * Creates the partition catalog of a database; it is read on first use.
+     */
+    private EventPartitions() {
+    }
+
+    /**
+     * Gets the partitions of a database.
+     *
+     * @param theConnections the shared connections of the database.
+     * @return the partitions, shared by every user of the connections.
+     */
+    static EventPartitions of(final ConnectionManager theConnections) {
+        synchronized (MY_PARTITIONS) {
+            return MY_PARTITIONS.computeIfAbsent(theConnections,
+                    theKey -> new EventPartitions());
+        }
+    }
+
+    /**
+     * Creates the catalog and the union view if they do not exist yet.
+     *
+     * @param theStatement a statement on the writer connection.
+     * @throws SQLException if a table or the view could not be created.
+     */
+    static void createTables(final Statement theStatement) throws SQLException {
+        createCatalog(theStatement);
+        try (ResultSet rs = theStatement.executeQuery("SELECT 1 FROM sqlite_master "
+                + "WHERE type = 'view' AND name = '" + ALL_VIEW + "'")) {
+            if (rs.next()) {
+                return;
+            }
+        }
+        createView(theStatement);
+    }
+
+    /**
+     * Creates the catalog if it does not exist yet.
+     *
+     * @param theStatement a statement on the writer connection.
+     * @throws SQLException if the table could not be created.
+     */
+    static void createCatalog(final Statement theStatement) throws SQLException {
+        theStatement.executeUpdate("CREATE TABLE IF NOT EXISTS event_partitions ("
+                + "name TEXT PRIMARY KEY, first_timestamp INTEGER NOT NULL, "
+                + "last_timestamp INTEGER NOT NULL, row_count INTEGER NOT NULL, "
+                + "sealed_at INTEGER NOT NULL, dropped_at INTEGER)");
+    }
+
+    /**
+     * Gets the live table and the partitions not dropped yet.
+     *
+     * @param theStatement a statement on the connection.
+     * @return the table names, the live table first.
+     * @throws SQLException if the catalog could not be read.
+     */
+    static List<String> tables(final Statement theStatement) throws SQLException {
+        final List<String> tables = new ArrayList<>();
+        tables.add(LIVE_TABLE);
+        for (final Partition partition : readCatalog(theStatement)) {
+            tables.add(partition.getName());
+        }
+        return tables;
+    }
+
+    /**
+     * Replaces the live table with an empty one and records the old one as a partition.
+     * Run it inside the transaction of the caller.
+     *
+     * @param theStatement a statement on the writer connection.
+     * @param theNow       the current epoch millisecond.
+     * @return the new partition, or null if the live table is empty.
+     * @throws SQLException if the table could not be sealed.
+     */
+    static Partition seal(final Statement theStatement, final long theNow)
+            throws SQLException {
+        final long first;
+        final long last;
+        final long rows;
+        try (ResultSet rs = theStatement.executeQuery("SELECT MIN(event_timestamp), "
+                + "MAX(event_timestamp), COUNT(*) FROM " + LIVE_TABLE)) {
+            rs.next();
+            first = rs.getLong(1);
+            last = rs.getLong(2);
+            rows = rs.getLong(3);
+        }
+        if (rows == 0) {
+            return null;
+        }
+        final long sequence;
+        try (ResultSet rs = theStatement.executeQuery(
+                "SELECT seq FROM sqlite_sequence WHERE name = '" + LIVE_TABLE + "'")) {
+            sequence = rs.next() ? rs.getLong(1) : 0;
+        }
+        final String name = LIVE_TABLE + "_p" + sequence;
+
+        // the view would follow the rename, and index names cannot change
+        theStatement.executeUpdate("DROP VIEW IF EXISTS " + ALL_VIEW);
+        EventSchema.dropIndexes(theStatement, LIVE_TABLE);
+        theStatement.executeUpdate("ALTER TABLE " + LIVE_TABLE + " RENAME TO " + name);
+        EventSchema.createLiveTable(theStatement);
+        EventSchema.createIndexes(theStatement, name);
+        // the rename took the sequence along; new ids continue after the sealed ones
+        theStatement.executeUpdate("INSERT INTO sqlite_sequence (name, seq) VALUES ('"
+                + LIVE_TABLE + "', " + sequence + ")");
+        theStatement.executeUpdate("INSERT INTO event_partitions (name, first_timestamp, "
+                + "last_timestamp, row_count, sealed_at) VALUES ('" + name + "', " + first
+                + ", " + last + ", " + rows + ", " + theNow + ")");
+        createView(theStatement);
+        return new Partition(name, first, last, rows);
+    }
+
+    /**
+     * Drops the partitions whose newest event is older than an instant. Run it inside
+     * the transaction of the caller.
+     *
+     * @param theStatement a statement on the writer connection.
+     * @param theBefore    the first epoch millisecond to keep.
+     * @param theNow       the current epoch millisecond.
+     * @return the dropped partitions.
+     * @throws SQLException if a partition could not be dropped.
+     */
+    static List<Partition> expire(final Statement theStatement, final long theBefore,
+                                  final long theNow) throws SQLException {
+        final List<Partition> expired = new ArrayList<>();
+        for (final Partition partition : readCatalog(theStatement)) {
+            if (partition.getLastTimestamp() < theBefore) {
+                expired.add(partition);
+            }
+        }
+        if (expired.isEmpty()) {
+            return expired;
+        }
+        theStatement.executeUpdate("DROP VIEW IF EXISTS " + ALL_VIEW);
+        for (final Partition partition : expired) {
+            theStatement.executeUpdate("DROP TABLE " + partition.getName());
+            theStatement.executeUpdate("UPDATE event_partitions SET dropped_at = " + theNow
+                    + " WHERE name = '" + partition.getName() + "'");
+        }
+        createView(theStatement);
+        return expired;
+    }
+
+    /**
+     * Drops every partition and forgets them, including the dropped ones. Run it inside
+     * the transaction of the caller.
+     *
+     * @param theStatement a statement on the writer connection.
+     * @throws SQLException if a partition could not be dropped.
+     */
+    static void clear(final Statement theStatement) throws SQLException {
+        theStatement.executeUpdate("DROP VIEW IF EXISTS " + ALL_VIEW);
+        for (final Partition partition : readCatalog(theStatement)) {
+            theStatement.executeUpdate("DROP TABLE " + partition.getName());
+        }
+        theStatement.executeUpdate("DELETE FROM event_partitions");
+        createView(theStatement);
+    }
+
+    /**
+     * Finds the first instant from which no event has been dropped. Events before it
+     * may be gone, so rollups before it must not be recounted.
+     *
+     * @param theStatement a statement on the connection.
+     * @return the epoch millisecond after the newest dropped event, Long.MIN_VALUE if
+     * nothing was dropped.
+     * @throws SQLException if the catalog could not be read.
+     */
+    static long horizon(final Statement theStatement) throws SQLException {
+        try (ResultSet rs = theStatement.executeQuery("SELECT MAX(last_timestamp) "
+                + "FROM event_partitions WHERE dropped_at IS NOT NULL")) {
+            final long last = rs.next() ? rs.getLong(1) : 0;
+            return rs.wasNull() ? Long.MIN_VALUE : last + 1;
+        }
+    }
+
+    /**
+     * Gets the partitions not dropped yet.
+     *
+     * @param theLease a lease on the database.
+     * @return the partitions, oldest first.
+     * @throws SQLException if the catalog could not be read.
+     */
+    List<Partition> getPartitions(final ConnectionManager.Lease theLease)
+            throws SQLException {
+        refresh(theLease);
+        return myCatalog;
+    }
+
+    /**
+     * Replaces {@link #SOURCE} in a statement with the decoded events between two
+     * instants: the live table alone if no partition overlaps the range, otherwise the
+     * union of the live table and the overlapping partitions. An ordered statement that
+     * selects the event_timestamp and id columns is instead repeated for each table and
+     * ordered as a whole, so SQLite merges the tables, each read in the order of its
+     * index, rather than sorting all of their events for every page; its parameters
+     * before the ORDER BY must be numbered.
+     *
+     * @param theLease      the lease the statement will run on.
+     * @param theSql        the statement.
+     * @param theFromMillis the first epoch millisecond the statement reads, inclusive.
+     * @param theToMillis   the last epoch millisecond the statement reads, inclusive.
+     * @return the statement to run.
+     * @throws SQLException if the catalog could not be read.
+     */
+    String resolve(final ConnectionManager.Lease theLease, final String theSql,
+                   final long theFromMillis, final long theToMillis) throws SQLException {
+        if (!theSql.contains(SOURCE)) {
+            return theSql;
+        }
+        final List<String> tables = tablesBetween(theLease, theFromMillis, theToMillis);
+        final int order = theSql.lastIndexOf(" ORDER BY ");
+        final List<String> decoded = new ArrayList<>();
+        if (tables.size() > 1 && order >= 0 && selectsKey(theSql)) {
+            final String branch = theSql.substring(0, order);
+            for (final String table : tables) {
+                decoded.add(branch.replace(SOURCE, "(" + EventDictionary.decode(table) + ")"));
+            }
+            return String.join(" UNION ALL ", decoded) + theSql.substring(order);
+        }
+        for (final String table : tables) {
+            decoded.add(EventDictionary.decode(table));
+        }
+        return theSql.replace(SOURCE, "(" + String.join(" UNION ALL ", decoded) + ")");
+    }
+
+    /**
+     * Checks whether a statement on {@link #SOURCE} selects the columns its ORDER BY
+     * sorts on, which the ORDER BY of a compound statement must name.
+     *
+     * @param theSql the statement.
+     * @return true if it selects the event_timestamp and id columns.
+     */
+    private static boolean selectsKey(final String theSql) {
+        final int from = theSql.indexOf(" FROM " + SOURCE);
+        if (!theSql.startsWith("SELECT ") || from < 0) {
+            return false;
+        }
+        final List<String> columns = Arrays.asList(theSql.substring("SELECT ".length(), from)
+                .split(",\\s*"));
+        return columns.contains("event_timestamp") && columns.contains("id");
+    }
+
+    /**
+     * Gets the event tables holding the events between two instants: the live table and
+     * the partitions overlapping the range.
+     *
+     * @param theLease      the lease the tables will be read on.
+     * @param theFromMillis the first epoch millisecond, inclusive.
+     * @param theToMillis   the last epoch millisecond, inclusive.
+     * @return the table names, the live table first.
+     * @throws SQLException if the catalog could not be read.
+     */
+    List<String> tablesBetween(final ConnectionManager.Lease theLease,
+                               final long theFromMillis, final long theToMillis)
+            throws SQLException {
+        refresh(theLease);
+        final List<String> tables = new ArrayList<>();
+        tables.add(LIVE_TABLE);
+        for (final Partition partition : myCatalog) {
+            if (partition.getFirstTimestamp() <= theToMillis
+                    && partition.getLastTimestamp() >= theFromMillis) {
+                tables.add(partition.getName());
+            }
+        }
+        return tables;
+    }
+
+    /**
+     * Re-reads the catalog if the schema changed since it was last read, which every
+     * seal and drop does, whichever process made the change.
+     *
+     * @param theLease a lease on the database.
+     * @throws SQLException if the catalog could not be read.
+     */
+    private void refresh(final ConnectionManager.Lease theLease) throws SQLException {
+        final int version;
+        try (ResultSet rs = theLease.prepare("PRAGMA schema_version").executeQuery()) {
+            version = rs.next() ? rs.getInt(1) : 0;
+        }
+        if (version == mySchemaVersion) {
+            return;
+        }
+        synchronized (this) {
+            try (Statement stmt = theLease.getConnection().createStatement()) {
+                myCatalog = Collections.unmodifiableList(readCatalog(stmt));
+            }
+            mySchemaVersion = version;
+        }
+    }
+
+    /**
+     * Reads the partitions not dropped yet.
+     *
+     * @param theStatement a statement on the connection.
+     * @return the partitions, oldest first.
+     * @throws SQLException if the catalog could not be read.
+     */
+    private static List<Partition> readCatalog(final Statement theStatement)
+            throws SQLException {
+        final List<Partition> partitions = new ArrayList<>();
+        try (ResultSet rs = theStatement.executeQuery("SELECT name, first_timestamp, "
+                + "last_timestamp, row_count FROM event_partitions "
+                + "WHERE dropped_at IS NULL ORDER BY first_timestamp, name")) {
+            while (rs.next()) {
+                partitions.add(new Partition(rs.getString(1), rs.getLong(2), rs.getLong(3),
+                        rs.getLong(4)));
+            }
+        }
+        return partitions;
+    }
+
+    /**
+     * Recreates the union view over the live table and the partitions in the catalog.
+     *
+     * @param theStatement a statement on the writer connection.
+     * @throws SQLException if the view could not be created.
+     */
+    static void createView(final Statement theStatement) throws SQLException {
+        final StringBuilder view = new StringBuilder("CREATE VIEW " + ALL_VIEW + " AS "
+                + EventDictionary.decode(LIVE_TABLE));
+        for (final Partition partition : readCatalog(theStatement)) {
+            view.append(" UNION ALL ").append(EventDictionary.decode(partition.getName()));
+        }
+        theStatement.executeUpdate("DROP VIEW IF EXISTS " + ALL_VIEW);
+        theStatement.executeUpdate(view.toString());
+    }
+
+    /**
+     * A sealed partition of the event history.
+     */
+    public static final class Partition {
+
+        /**
+         * The table name.
+         */
+        private final String myName;
+
+        /**
+         * The oldest event timestamp in the partition.
+         */
+        private final long myFirstTimestamp;
+
+        /**
+         * The newest event timestamp in the partition.
+         */
+        private final long myLastTimestamp;
+
+        /**
+         * The number of events in the partition.
+         */
+        private final long myRowCount;
+
+        /**
+         * Creates a partition description.
+         *
+         * @param theName           the table name.
+         * @param theFirstTimestamp the oldest event timestamp.
+         * @param theLastTimestamp  the newest event timestamp.
+         * @param theRowCount       the number of events.
+         */
+        private Partition(final String theName, final long theFirstTimestamp,
+                          final long theLastTimestamp, final long theRowCount) {
+            myName = theName;
+            myFirstTimestamp = theFirstTimestamp;
+            myLastTimestamp = theLastTimestamp;
+            myRowCount = theRowCount;
+        }
+
+        /**
+         * Gets the table name.
+         *
+         * @return the name.
+         */
+        public String getName() {
+            return myName;
+        }
+
+        /**
+         * Gets the oldest event timestamp in the partition.
+         *
+         * @return the epoch millisecond.
+         */
+        public long getFirstTimestamp() {
+            return myFirstTimestamp;
+        }
+
+        /**
+         * Gets the newest event timestamp in the partition.
+         *
+         * @return the epoch millisecond.
+         */
+        public long getLastTimestamp() {
+            return myLastTimestamp;
+        }
+
+        /**
+         * Gets the number of events in the partition.
+         *
+         * @return the row count.
+         */
+        public long getRowCount() {
+            return myRowCount;
+        }
+
+        @Override
+        public String toString() {
+            return myName + "[" + myFirstTimestamp + ".." + myLastTimestamp + ", "
+                    + myRowCount + " events]";
+        }
+    }
+}
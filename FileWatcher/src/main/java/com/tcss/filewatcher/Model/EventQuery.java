@@ -0,0 +1,689 @@
+package com.tcss.filewatcher.Model;
+
+import java.io.File;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * An immutable description of which file events to read, compiled into a single SQL
+ * statement. Each narrowing method returns a new query, so a screen can keep its base
+ * scope and add the filters the user picks on top of it, e.g.
+ * {@code EventQuery.all().inDirectory(dir).withExtensions(exts).between(from, to)}.
+ * The directory, extension and file name conditions are resolved on the small tables of
+ * {@link EventDictionary} and matched against the ids of the events. Counts look the
+ * ids up on the (path_id, event_timestamp) and (extension_id, event_timestamp) indexes.
+ * Reads walk the (event_timestamp, id) index instead and check the ids on each row, so
+ * rows stream in order and a page never sorts the whole subtree; a page then costs in
+ * proportion to how far apart its rows are in time, not to the size of the subtree.
+ * The type is checked on the rows the indexes find. While the schema migration is still
+ * converting rows,
+ * {@link #forSchema} also matches the rows without ids on their text.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+public final class EventQuery {
+
+    /**
+     * The order events are read in.
+     */
+    public enum Order {
+
+        /**
+         * By timestamp, then id, ascending.
+         */
+        OLDEST_FIRST,
+
+        /**
+         * By timestamp, then id, descending.
+         */
+        NEWEST_FIRST
+    }
+
+    /**
+     * The query that selects every event.
+     */
+    private static final EventQuery ALL = new EventQuery();
+
+    /**
+     * The local date and time of a row written before event_timestamp existed, as
+     * "yyyy-MM-dd HH:mm:ss", from its event_date and event_time text.
+     */
+    private static final String LEGACY_DATE_TIME = legacyDateTime();
+
+    /**
+     * The format of {@link #LEGACY_DATE_TIME}.
+     */
+    private static final DateTimeFormatter LEGACY_FORMAT =
+            DateTimeFormatter.ofPattern("uuuu-MM-dd HH:mm:ss");
+
+    /**
+     * The largest epoch second a time bound is clamped to before it is formatted, about
+     * 12,000 years.
+     */
+    private static final long LEGACY_SECONDS = 400_000_000_000L;
+
+    /**
+     * The directory, without trailing separators, or null for any directory.
+     */
+    private String myDirectory;
+
+    /**
+     * The separator of the directory path.
+     */
+    private char mySeparator;
+
+    /**
+     * The normalized extensions, or null for any extension.
+     */
+    private List<String> myExtensions;
+
+    /**
+     * The first epoch millisecond, inclusive.
+     */
+    private long myFromMillis = Long.MIN_VALUE;
+
+    /**
+     * The last epoch millisecond, inclusive.
+     */
+    private long myToMillis = Long.MAX_VALUE;
+
+    /**
+     * The event types, or null for any type.
+     */
+    private Set<FileEventType> myTypes;
+
+    /**
+     * The file name pattern as a LIKE pattern, or null for any name.
+     */
+    private String myNamePattern;
+
+    /**
+     * The order of the results.
+     */
+    private Order myOrder = Order.OLDEST_FIRST;
+
+    /**
+     * The most events to read, 0 for no limit.
+     */
+    private int myLimit;
+
+    /**
+     * Whether rows without ids are matched on their directory, extension and name text.
+     */
+    private boolean myMatchesText;
+
+    /**
+     * Creates the query that selects every event.
+     */
+    private EventQuery() {
+    }
+
+    /**
+     * Copies a query so one condition can be changed on the copy.
+     *
+     * @param theQuery the query to copy.
+     */
+    private EventQuery(final EventQuery theQuery) {
+        myDirectory = theQuery.myDirectory;
+        mySeparator = theQuery.mySeparator;
+        myExtensions = theQuery.myExtensions;
+        myFromMillis = theQuery.myFromMillis;
+        myToMillis = theQuery.myToMillis;
+        myTypes = theQuery.myTypes;
+        myNamePattern = theQuery.myNamePattern;
+        myOrder = theQuery.myOrder;
+        myLimit = theQuery.myLimit;
+        myMatchesText = theQuery.myMatchesText;
+    }
+
+    /**
+     * Gets the query that selects every event.
+     *
+     * @return the unfiltered query.
+     */
+    public static EventQuery all() {
+        return ALL;
+    }
+
+    /**
+     * Narrows the query to a directory and its subdirectories. Letters match in any
+     * case.
+     *
+     * @param theDirectory the directory path, with or without a trailing separator.
+     * @return the narrowed query.
+     * @throws IllegalArgumentException if the directory is null.
+     */
+    public EventQuery inDirectory(final String theDirectory) {
+        if (theDirectory == null) {
+            throw new IllegalArgumentException("Directory cannot be null");
+        }
+        // a path without separators is a drive or a name; use the platform's
+        final char separator = theDirectory.indexOf('/') >= 0 ? '/'
+                : theDirectory.indexOf('\\') >= 0 ? '\\' : File.separatorChar;
+        int end = theDirectory.length();
+        while (end > 0 && theDirectory.charAt(end - 1) == separator) {
+            end--;
+        }
+        final EventQuery query = new EventQuery(this);
+        query.myDirectory = theDirectory.substring(0, end);
+        query.mySeparator = separator;
+        return query;
+    }
+
+    /**
+     * Narrows the query to one file extension.
+     *
+     * @param theExtension the extension, with or without the dot (e.g. ".txt").
+     * @return the narrowed query.
+     * @throws IllegalArgumentException if the extension is null.
+     */
+    public EventQuery withExtension(final String theExtension) {
+        if (theExtension == null) {
+            throw new IllegalArgumentException("Extension cannot be null");
+        }
+        return withExtensions(List.of(theExtension));
+    }
+
+    /**
+     * Narrows the query to any of a set of file extensions.
+     *
+     * @param theExtensions the extensions, with or without the dot.
+     * @return the narrowed query.
+     * @throws IllegalArgumentException if the set is null, empty or holds a null.
+     */
+    public EventQuery withExtensions(final Collection<String> theExtensions) {
+        if (theExtensions == null || theExtensions.isEmpty()
+                || theExtensions.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Extensions cannot be null or empty");
+        }
+        final Set<String> extensions = new TreeSet<>();
+        for (final String extension : theExtensions) {
+            extensions.add(normalizeExtension(extension));
+        }
+        final EventQuery query = new EventQuery(this);
+        query.myExtensions = List.copyOf(extensions);
+        return query;
+    }
+
+    /**
+     * Narrows the query to the events between two instants.
+     *
+     * @param theFromMillis the first epoch millisecond, inclusive.
+     * @param theToMillis   the last epoch millisecond, inclusive.
+     * @return the narrowed query.
+     */
+    public EventQuery between(final long theFromMillis, final long theToMillis) {
+        final EventQuery query = new EventQuery(this);
+        query.myFromMillis = theFromMillis;
+        query.myToMillis = theToMillis;
+        return query;
+    }
+
+    /**
+     * Narrows the query to one kind of event.
+     *
+     * @param theType the event type.
+     * @return the narrowed query.
+     * @throws IllegalArgumentException if the type is null.
+     */
+    public EventQuery ofType(final FileEventType theType) {
+        if (theType == null) {
+            throw new IllegalArgumentException("Event type cannot be null");
+        }
+        return ofTypes(List.of(theType));
+    }
+
+    /**
+     * Narrows the query to any of a set of event kinds.
+     *
+     * @param theTypes the event types.
+     * @return the narrowed query.
+     * @throws IllegalArgumentException if the set is null, empty or holds a null.
+     */
+    public EventQuery ofTypes(final Collection<FileEventType> theTypes) {
+        if (theTypes == null || theTypes.isEmpty()
+                || theTypes.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Event types cannot be null or empty");
+        }
+        final EventQuery query = new EventQuery(this);
+        query.myTypes = Collections.unmodifiableSet(EnumSet.copyOf(theTypes));
+        return query;
+    }
+
+    /**
+     * Narrows the query to file names matching a pattern, where '*' matches any run of
+     * characters and '?' matches one character. Letters match in any case.
+     *
+     * @param thePattern the file name pattern, e.g. "report-*.pdf".
+     * @return the narrowed query.
+     * @throws IllegalArgumentException if the pattern is null.
+     */
+    public EventQuery named(final String thePattern) {
+        if (thePattern == null) {
+            throw new IllegalArgumentException("File name pattern cannot be null");
+        }
+        final StringBuilder like = new StringBuilder(thePattern.length() + 4);
+        for (int i = 0; i < thePattern.length(); i++) {
+            final char c = thePattern.charAt(i);
+            switch (c) {
+                case '*' -> like.append('%');
+                case '?' -> like.append('_');
+                case '%', '_', '\\' -> like.append('\\').append(c);
+                default -> like.append(c);
+            }
+        }
+        final EventQuery query = new EventQuery(this);
+        query.myNamePattern = like.toString();
+        return query;
+    }
+
+    /**
+     * Sets the order the events are read in.
+     *
+     * @param theOrder the order.
+     * @return the reordered query.
+     * @throws IllegalArgumentException if the order is null.
+     */
+    public EventQuery orderBy(final Order theOrder) {
+        if (theOrder == null) {
+            throw new IllegalArgumentException("Order cannot be null");
+        }
+        final EventQuery query = new EventQuery(this);
+        query.myOrder = theOrder;
+        return query;
+    }
+
+    /**
+     * Limits the number of events read.
+     *
+     * @param theLimit the most events to read.
+     * @return the limited query.
+     * @throws IllegalArgumentException if the limit is not positive.
+     */
+    public EventQuery limit(final int theLimit) {
+        if (theLimit < 1) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        final EventQuery query = new EventQuery(this);
+        query.myLimit = theLimit;
+        return query;
+    }
+
+    /**
+     * Gets the order the events are read in.
+     *
+     * @return the order.
+     */
+    public Order getOrder() {
+        return myOrder;
+    }
+
+    /**
+     * Gets the most events the query reads.
+     *
+     * @return the limit, 0 if there is none.
+     */
+    public int getLimit() {
+        return myLimit;
+    }
+
+    /**
+     * Gets the first instant the query selects.
+     *
+     * @return the epoch millisecond, Long.MIN_VALUE if there is no lower bound.
+     */
+    long getFromMillis() {
+        return myFromMillis;
+    }
+
+    /**
+     * Gets the last instant the query selects.
+     *
+     * @return the epoch millisecond, Long.MAX_VALUE if there is no upper bound.
+     */
+    long getToMillis() {
+        return myToMillis;
+    }
+
+    /**
+     * Gets the query to run on a database. Until its schema migration finishes, some rows
+     * have no ids yet, so the returned query also matches the directory, extension and
+     * file name of those rows on their text, at the cost of a slower plan. Rows written
+     * before the extension and timestamp columns existed are matched on the extension of
+     * their file name and on their event_date and event_time. They have no timestamp to
+     * page on, so counts, cursors and exports see them, but pages do not.
+     *
+     * @param theMigrated whether every row of the database has its ids.
+     * @return this query if it can be run as it is, otherwise a copy with the fallback.
+     */
+    EventQuery forSchema(final boolean theMigrated) {
+        if (theMigrated == !myMatchesText
+                || myDirectory == null && myExtensions == null && myNamePattern == null
+                && myFromMillis == Long.MIN_VALUE && myToMillis == Long.MAX_VALUE) {
+            return this;
+        }
+        final EventQuery query = new EventQuery(this);
+        query.myMatchesText = !theMigrated;
+        return query;
+    }
+
+    /**
+     * Compiles the query into a SELECT statement on {@link EventPartitions#SOURCE}.
+     *
+     * @param theColumns the columns to select.
+     * @return the statement, with the parameters of {@link #parameters()}.
+     */
+    String toSql(final String theColumns) {
+        return "SELECT " + theColumns + " FROM " + EventPartitions.SOURCE + " WHERE "
+                + whereClause() + " " + orderClause() + (myLimit > 0 ? " LIMIT " + myLimit : "");
+    }
+
+    /**
+     * Compiles the query into a SELECT statement on {@link EventPartitions#SOURCE} that
+     * reads the events after a (event_timestamp, id) key, in the order of the query,
+     * without a limit.
+     *
+     * @param theColumns the columns to select.
+     * @return the statement, with the parameters of {@link #parameters()} followed by
+     * the two of the key; all of them are numbered, so the statement can be repeated
+     * for each event table.
+     */
+    String toPageSql(final String theColumns) {
+        return "SELECT " + theColumns + " FROM " + EventPartitions.SOURCE + " WHERE "
+                + whereClause() + " AND " + afterKeyClause() + " " + orderClause();
+    }
+
+    /**
+     * Compiles a statement counting the events the query selects, up to its limit. Each
+     * event table is counted on its own, without decoding its ids, so every count can
+     * use the indexes of its table; the counts are then added up.
+     *
+     * @param theTables the event tables the time range of the query needs.
+     * @return the statement, with the parameters of {@link #parameters()}.
+     */
+    String toCountSql(final List<String> theTables) {
+        final String where = whereClause(false, new ArrayList<>());
+        final List<String> counts = new ArrayList<>(theTables.size());
+        for (final String table : theTables) {
+            counts.add(myLimit > 0 ? "SELECT COUNT(*) AS c FROM (SELECT 1 FROM " + table
+                    + " WHERE " + where + " LIMIT " + myLimit + ")"
+                    : "SELECT COUNT(*) AS c FROM " + table + " WHERE " + where);
+        }
+        return "SELECT " + (myLimit > 0 ? "MIN(" + myLimit + ", SUM(c))" : "SUM(c)")
+                + " FROM (" + String.join(" UNION ALL ", counts) + ")";
+    }
+
+    /**
+     * Builds the WHERE clause of a statement reading the events in the order of the
+     * query, without the keyword.
+     *
+     * @return the conditions joined by AND, "1" if the query selects everything.
+     */
+    String whereClause() {
+        return whereClause(true, new ArrayList<>());
+    }
+
+    /**
+     * Builds the WHERE clause of the query, without the keyword. The parameters are
+     * numbered, so a condition can use a value twice and a statement can repeat the
+     * clause for each event table.
+     *
+     * @param theOrdered    whether the statement reads the events in order; the unary
+     *                      plus keeps SQLite off the id indexes, whose rows it would have
+     *                      to sort.
+     * @param theParameters receives the values of the parameters, in order.
+     * @return the conditions joined by AND, "1" if the query selects everything.
+     */
+    private String whereClause(final boolean theOrdered, final List<Object> theParameters) {
+        final String unindexed = theOrdered ? "+" : "";
+        final List<String> conditions = new ArrayList<>();
+        if (myDirectory != null) {
+            final String directory = bind(theParameters, myDirectory);
+            final String first = bind(theParameters, myDirectory + mySeparator);
+            final String after = bind(theParameters, myDirectory + (char) (mySeparator + 1));
+            // the directory itself, then everything below it as one range on the path
+            // dictionary: separator + 1 sorts after every child and before no sibling
+            conditions.add(orText(unindexed + "path_id IN (SELECT id FROM event_paths "
+                    + "WHERE path = " + directory + " COLLATE NOCASE OR path >= " + first
+                    + " COLLATE NOCASE AND path < " + after + " COLLATE NOCASE)",
+                    "path_id IS NULL AND (absolute_path = " + directory + " COLLATE NOCASE "
+                    + "OR absolute_path >= " + first + " COLLATE NOCASE "
+                    + "AND absolute_path < " + after + " COLLATE NOCASE)"));
+        }
+        if (myExtensions != null) {
+            final String match = "extension IN (" + bindAll(theParameters, myExtensions) + ")";
+            final String byId = unindexed + "extension_id IN (SELECT id FROM "
+                    + "event_extensions WHERE " + match + ")";
+            if (myMatchesText) {
+                // a v1 row has no extension column value, only its file name
+                final List<String> names = new ArrayList<>(myExtensions.size());
+                for (final String extension : myExtensions) {
+                    names.add(extension.isEmpty() ? "file_name NOT LIKE '_%.%'"
+                            : "file_name LIKE " + bind(theParameters,
+                            "_%" + escapeLike(extension)) + " ESCAPE '\\'");
+                }
+                conditions.add(orText(byId, "extension_id IS NULL AND (" + match
+                        + " OR extension IS NULL AND (" + String.join(" OR ", names) + "))"));
+            } else {
+                conditions.add(byId);
+            }
+        }
+        if (myFromMillis != Long.MIN_VALUE || myToMillis != Long.MAX_VALUE) {
+            final String range = "event_timestamp BETWEEN " + bind(theParameters, myFromMillis)
+                    + " AND " + bind(theParameters, myToMillis);
+            // a v1 row has no timestamp, only its local date and time as text
+            conditions.add(myMatchesText ? "(" + range + " OR event_timestamp IS NULL AND "
+                    + LEGACY_DATE_TIME + " BETWEEN "
+                    + bind(theParameters, toLegacyDateTime(myFromMillis, true)) + " AND "
+                    + bind(theParameters, toLegacyDateTime(myToMillis, false)) + ")" : range);
+        }
+        if (myTypes != null) {
+            final List<Object> codes = new ArrayList<>(myTypes.size());
+            for (final FileEventType type : myTypes) {
+                codes.add(type.getCode());
+            }
+            conditions.add("event_code IN (" + bindAll(theParameters, codes) + ")");
+        }
+        if (myNamePattern != null) {
+            final String pattern = bind(theParameters, myNamePattern);
+            conditions.add(orText("name_id IN (SELECT id FROM event_names "
+                    + "WHERE name LIKE " + pattern + " ESCAPE '\\')",
+                    "name_id IS NULL AND file_name LIKE " + pattern + " ESCAPE '\\'"));
+        }
+        return conditions.isEmpty() ? "1" : String.join(" AND ", conditions);
+    }
+
+    /**
+     * Adds a parameter value.
+     *
+     * @param theParameters the values of the parameters so far.
+     * @param theValue      the value.
+     * @return the numbered placeholder of the value, e.g. "?3".
+     */
+    private static String bind(final List<Object> theParameters, final Object theValue) {
+        theParameters.add(theValue);
+        return "?" + theParameters.size();
+    }
+
+    /**
+     * Adds several parameter values.
+     *
+     * @param theParameters the values of the parameters so far.
+     * @param theValues     the values.
+     * @return the numbered placeholders of the values, e.g. "?3, ?4".
+     */
+    private static String bindAll(final List<Object> theParameters,
+                                  final Collection<?> theValues) {
+        final List<String> placeholders = new ArrayList<>(theValues.size());
+        for (final Object value : theValues) {
+            placeholders.add(bind(theParameters, value));
+        }
+        return String.join(", ", placeholders);
+    }
+
+    /**
+     * Adds the text match for rows without ids to a dictionary condition, if this query
+     * has the fallback.
+     *
+     * @param theIdCondition   the condition on the ids.
+     * @param theTextCondition the condition on the text of rows without ids.
+     * @return the condition to use.
+     */
+    private String orText(final String theIdCondition, final String theTextCondition) {
+        return myMatchesText ? "(" + theIdCondition + " OR (" + theTextCondition + "))"
+                : theIdCondition;
+    }
+
+    /**
+     * Escapes the LIKE wildcards of a text, for a pattern with ESCAPE '\'.
+     *
+     * @param theText the text.
+     * @return the text, matched literally.
+     */
+    private static String escapeLike(final String theText) {
+        return theText.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * Converts a bound of the time range to the text {@link #LEGACY_DATE_TIME} compares
+     * with. The text only has seconds, so a bound is rounded into the range.
+     *
+     * @param theMillis  the epoch millisecond.
+     * @param theRoundUp whether the bound is the lower one.
+     * @return the local date and time, "" or "~" past either end of the calendar.
+     */
+    private static String toLegacyDateTime(final long theMillis, final boolean theRoundUp) {
+        final long seconds = theRoundUp ? Math.ceilDiv(theMillis, 1000L)
+                : Math.floorDiv(theMillis, 1000L);
+        // well past the years 0 and 9999 either way, and inside what LocalDateTime holds
+        final LocalDateTime dateTime = LocalDateTime.ofInstant(Instant.ofEpochSecond(
+                Math.clamp(seconds, -LEGACY_SECONDS, LEGACY_SECONDS)), ZoneId.systemDefault());
+        if (dateTime.getYear() < 0) {
+            return "";
+        }
+        return dateTime.getYear() > 9999 ? "~" : dateTime.format(LEGACY_FORMAT);
+    }
+
+    /**
+     * Builds {@link #LEGACY_DATE_TIME}. A v1 event_date is ISO, or "dd MMM, yyyy" with
+     * the month in English or in the format locale, as {@link EventSchema} reads it.
+     *
+     * @return the SQL expression, NULL for a date it cannot read.
+     */
+    private static String legacyDateTime() {
+        final Map<String, Month> names = new LinkedHashMap<>();
+        for (final Locale locale : List.of(Locale.ENGLISH,
+                Locale.getDefault(Locale.Category.FORMAT))) {
+            for (final Month month : Month.values()) {
+                names.putIfAbsent(month.getDisplayName(TextStyle.SHORT, locale), month);
+            }
+        }
+        final StringBuilder months = new StringBuilder("CASE substr(event_date, 4, "
+                + "length(event_date) - 9)");
+        for (final Map.Entry<String, Month> name : names.entrySet()) {
+            months.append(" WHEN '").append(name.getKey().replace("'", "''"))
+                    .append("' THEN '")
+                    .append(String.format("%02d", name.getValue().getValue())).append('\'');
+        }
+        months.append(" END");
+        return "(CASE WHEN event_date GLOB '[0-9][0-9][0-9][0-9]-[0-9][0-9]-[0-9][0-9]' "
+                + "THEN event_date ELSE substr(event_date, -4) || '-' || " + months
+                + " || '-' || substr(event_date, 1, 2) END || ' ' || "
+                + "COALESCE(event_time, '00:00:00'))";
+    }
+
+    /**
+     * Gets the ORDER BY clause of the query, on the (event_timestamp, id) index.
+     *
+     * @return the clause.
+     */
+    String orderClause() {
+        return myOrder == Order.NEWEST_FIRST ? "ORDER BY event_timestamp DESC, id DESC"
+                : "ORDER BY event_timestamp, id";
+    }
+
+    /**
+     * Gets the condition that selects the events after a (event_timestamp, id) key in
+     * the order of the query.
+     *
+     * @return the condition, with two numbered parameters for the key after the ones of
+     * {@link #parameters()}.
+     */
+    String afterKeyClause() {
+        final int count = parameters().size();
+        return "(event_timestamp, id) " + (myOrder == Order.NEWEST_FIRST ? "<" : ">")
+                + " (?" + (count + 1) + ", ?" + (count + 2) + ")";
+    }
+
+    /**
+     * Gets the values of the parameters in the WHERE clause, in order.
+     *
+     * @return the parameter values.
+     */
+    List<Object> parameters() {
+        final List<Object> parameters = new ArrayList<>();
+        whereClause(false, parameters);
+        return Collections.unmodifiableList(parameters);
+    }
+
+    /**
+     * Normalizes an extension the way the extension dictionary stores it.
+     *
+     * @param theExtension the extension, with or without the dot, or null.
+     * @return the lower-case extension with its dot, or an empty string.
+     */
+    static String normalizeExtension(final String theExtension) {
+        String extension = theExtension == null ? "" : theExtension.trim()
+                .toLowerCase(Locale.ROOT);
+        if (!extension.isEmpty() && !extension.startsWith(".")) {
+            extension = "." + extension;
+        }
+        return extension;
+    }
+
+    @Override
+    public boolean equals(final Object theOther) {
+        if (this == theOther) {
+            return true;
+        }
+        if (!(theOther instanceof EventQuery other)) {
+            return false;
+        }
+        return myFromMillis == other.myFromMillis && myToMillis == other.myToMillis
+                && myOrder == other.myOrder && myLimit == other.myLimit
+                && Objects.equals(myDirectory, other.myDirectory)
+                && mySeparator == other.mySeparator
+                && Objects.equals(myExtensions, other.myExtensions)
+                && Objects.equals(myTypes, other.myTypes)
+                && Objects.equals(myNamePattern, other.myNamePattern)
+                && myMatchesText == other.myMatchesText;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(myDirectory, mySeparator, myExtensions, myFromMillis, myToMillis, myTypes,
+                myNamePattern, myOrder, myLimit, myMatchesText);
+    }
+
+    @Override
+    public String toString() {
+        return "EventQuery{" + whereClause() + " " + parameters() + " " + myOrder
+                + (myLimit > 0 ? " limit " + myLimit : "") + "}";
+    }
+}
@@ -0,0 +1,270 @@
+package com.tcss.filewatcher.Model;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One file event as the model, query and export code sees it: immutable, with the time
+ * as epoch milliseconds, the kind as an enum and no JavaFX properties. Directories and
+ * extensions repeat across millions of events, so they are interned in a shared
+ * dictionary and every record of the same directory points at the same string. The
+ * date and time text is only built when asked for, e.g. for a CSV row or a table cell.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+public final class EventRecord {
+
+    /**
+     * The most strings kept in the dictionary; rarer ones are not interned after that.
+     */
+    public static final int DICTIONARY_LIMIT = 100_000;
+
+    /**
+     * The date format used by the watcher and the tables.
+     */
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern(
+            "dd MMM, yyyy");
+
+    /**
+     * The time format used by the watcher and the tables.
+     */
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern(
+            "HH:mm:ss");
+
+    /**
+     * The shared dictionary of directories and extensions.
+     */
+    private static final ConcurrentHashMap<String, String> MY_DICTIONARY =
+            new ConcurrentHashMap<>();
+
+    /**
+     * The row id, 0 if the event has not been stored.
+     */
+    private final long myId;
+
+    /**
+     * When the event happened, in epoch milliseconds.
+     */
+    private final long myTimestamp;
+
+    /**
+     * The kind of event.
+     */
+    private final FileEventType myKind;
+
+    /**
+     * The directory of the file, interned.
+     */
+    private final String myDirectory;
+
+    /**
+     * The name of the file.
+     */
+    private final String myFileName;
+
+    /**
+     * The lower-case extension with its dot, or an empty string, interned.
+     */
+    private final String myExtension;
+
+    /**
+     * Whether the event was reconstructed by a rescan.
+     */
+    private final boolean myIsSynthesized;
+
+    /**
+     * Creates a record.
+     *
+     * @param theId          the row id, 0 if not stored.
+     * @param theTimestamp   when the event happened, in epoch milliseconds.
+     * @param theKind        the kind of event.
+     * @param theDirectory   the directory of the file.
+     * @param theFileName    the name of the file.
+     * @param theExtension   the lower-case extension with its dot, or an empty string.
+     * @param theSynthesized whether the event was reconstructed by a rescan.
+     * @throws IllegalArgumentException if the kind, directory or file name is null.
+     */
+    public EventRecord(final long theId, final long theTimestamp, final FileEventType theKind,
+                       final String theDirectory, final String theFileName,
+                       final String theExtension, final boolean theSynthesized) {
+        if (theKind == null || theDirectory == null || theFileName == null) {
+            throw new IllegalArgumentException("Kind, directory and file name cannot be null");
+        }
+        myId = theId;
+        myTimestamp = theTimestamp;
+        myKind = theKind;
+        myDirectory = intern(theDirectory);
+        myFileName = theFileName;
+        myExtension = theExtension == null ? "" : intern(theExtension);
+        myIsSynthesized = theSynthesized;
+    }
+
+    /**
+     * Creates a record that has not been stored, deriving the extension from the name.
+     *
+     * @param theTimestamp   when the event happened, in epoch milliseconds.
+     * @param theKind        the kind of event.
+     * @param theDirectory   the directory of the file.
+     * @param theFileName    the name of the file.
+     * @param theSynthesized whether the event was reconstructed by a rescan.
+     * @return the record.
+     * @throws IllegalArgumentException if the kind, directory or file name is null.
+     */
+    public static EventRecord of(final long theTimestamp, final FileEventType theKind,
+                                 final String theDirectory, final String theFileName,
+                                 final boolean theSynthesized) {
+        return new EventRecord(0, theTimestamp, theKind, theDirectory, theFileName,
+                EventSchema.extensionOf(theFileName), theSynthesized);
+    }
+
+    /**
+     * Gets the shared copy of a directory, extension or other often repeated string.
+     *
+     * @param theValue the string, or null.
+     * @return the shared copy, or the string itself once the dictionary is full.
+     */
+    public static String intern(final String theValue) {
+        if (theValue == null) {
+            return null;
+        }
+        final String shared = MY_DICTIONARY.get(theValue);
+        if (shared != null) {
+            return shared;
+        }
+        if (MY_DICTIONARY.size() >= DICTIONARY_LIMIT) {
+            return theValue;
+        }
+        final String previous = MY_DICTIONARY.putIfAbsent(theValue, theValue);
+        return previous == null ? theValue : previous;
+    }
+
+    /**
+     * Gets the row id.
+     *
+     * @return the id, 0 if the event has not been stored.
+     */
+    public long getId() {
+        return myId;
+    }
+
+    /**
+     * Gets when the event happened.
+     *
+     * @return the epoch milliseconds.
+     */
+    public long getTimestamp() {
+        return myTimestamp;
+    }
+
+    /**
+     * Gets the kind of event.
+     *
+     * @return the kind.
+     */
+    public FileEventType getKind() {
+        return myKind;
+    }
+
+    /**
+     * Gets the directory of the file.
+     *
+     * @return the directory.
+     */
+    public String getDirectory() {
+        return myDirectory;
+    }
+
+    /**
+     * Gets the name of the file.
+     *
+     * @return the file name.
+     */
+    public String getFileName() {
+        return myFileName;
+    }
+
+    /**
+     * Gets the extension of the file.
+     *
+     * @return the lower-case extension with its dot, or an empty string.
+     */
+    public String getExtension() {
+        return myExtension;
+    }
+
+    /**
+     * Checks whether the event was reconstructed by a rescan.
+     *
+     * @return true if the event was synthesized.
+     */
+    public boolean isSynthesized() {
+        return myIsSynthesized;
+    }
+
+    /**
+     * Gets the name of the kind as the watcher reports it, e.g. "ENTRY_CREATE".
+     *
+     * @return the modification type.
+     */
+    public String getModificationType() {
+        return myKind.getWatchName();
+    }
+
+    /**
+     * Formats the date of the event in the system time zone.
+     *
+     * @return the date, e.g. "05 Mar, 2025".
+     */
+    public String getDate() {
+        return DATE_FORMAT.format(toLocalDateTime());
+    }
+
+    /**
+     * Formats the time of the event in the system time zone.
+     *
+     * @return the time, e.g. "14:03:27".
+     */
+    public String getTime() {
+        return TIME_FORMAT.format(toLocalDateTime());
+    }
+
+    /**
+     * Converts the timestamp to the system time zone.
+     *
+     * @return the local date and time.
+     */
+    private LocalDateTime toLocalDateTime() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(myTimestamp), ZoneId.systemDefault());
+    }
+
+    @Override
+    public boolean equals(final Object theOther) {
+        if (this == theOther) {
+            return true;
+        }
+        if (!(theOther instanceof EventRecord other)) {
+            return false;
+        }
+        return myId == other.myId && myTimestamp == other.myTimestamp
+                && myKind == other.myKind && myIsSynthesized == other.myIsSynthesized
+                && myDirectory.equals(other.myDirectory) && myFileName.equals(other.myFileName)
+                && myExtension.equals(other.myExtension);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(myId, myTimestamp, myKind, myDirectory, myFileName);
+    }
+
+    @Override
+    public String toString() {
+        return "EventRecord{id=" + myId + ", timestamp=" + myTimestamp + ", kind=" + myKind
+                + ", directory=" + myDirectory + ", fileName=" + myFileName
+                + (myIsSynthesized ? ", synthesized" : "") + "}";
+    }
+}
@@ -0,0 +1,236 @@
+package com.tcss.filewatcher.Model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Fixed-capacity, lock-free ring buffer of the most recent events.
+ * Every appended event gets the next sequence number; once the buffer is full the
+ * oldest event is overwritten. Readers keep their own cursor, a sequence number,
+ * and visit the events published since then in place, without copying the buffer.
+ * A reader that falls more than a full buffer behind skips the overwritten events,
+ * which are counted as dropped.
+ *
+ * @param <T> the type of the events.
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+public class EventRingBuffer<T> {
+
+    /**
+     * The default number of events kept.
+     */
+    public static final int DEFAULT_CAPACITY = 16384;
+
+    /**
+     * The slots, indexed by sequence number modulo the capacity.
+     */
+    private final AtomicReferenceArray<Slot<T>> mySlots;
+
+    /**
+     * The capacity minus one, used to map sequence numbers to slots.
+     */
+    private final int myMask;
+
+    /**
+     * The sequence number the next event will get.
+     */
+    private final AtomicLong myNextSequence = new AtomicLong();
+
+    /**
+     * Events before this sequence number were cleared.
+     */
+    private final AtomicLong myClearedBefore = new AtomicLong();
+
+    /**
+     * Number of events overwritten by newer ones.
+     */
+    private final AtomicLong myEvictedCount = new AtomicLong();
+
+    /**
+     * Number of events readers missed because they were overwritten first, or that were
+     * overwritten before they could be stored.
+     */
+    private final AtomicLong myDroppedCount = new AtomicLong();
+
+    /**
+     * Creates a buffer with the default capacity.
+     */
+    public EventRingBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a buffer.
+     *
+     * @param theCapacity the number of events kept, rounded up to a power of two.
+     */
+    public EventRingBuffer(final int theCapacity) {
+        if (theCapacity <= 0 || theCapacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30");
+        }
+        final int capacity = Integer.highestOneBit(theCapacity) == theCapacity
+                ? theCapacity : Integer.highestOneBit(theCapacity) << 1;
+        mySlots = new AtomicReferenceArray<>(capacity);
+        myMask = capacity - 1;
+    }
+
+    /**
+     * Appends an event, overwriting the oldest one if the buffer is full. If a writer a
+     * whole lap ahead already stored its event in the same slot, this event is overwritten
+     * before it was stored; it is counted as dropped and never replaces the newer one.
+     *
+     * @param theEvent the event.
+     * @return the sequence number of the event.
+     */
+    public long append(final T theEvent) {
+        final long sequence = myNextSequence.getAndIncrement();
+        final int index = (int) (sequence & myMask);
+        final Slot<T> slot = new Slot<>(sequence, theEvent);
+        Slot<T> old;
+        do {
+            old = mySlots.get(index);
+            if (old != null && old.sequence() > sequence) {
+                myDroppedCount.incrementAndGet();
+                return sequence;
+            }
+        } while (!mySlots.compareAndSet(index, old, slot));
+        if (old != null && old.sequence() >= myClearedBefore.get()) {
+            myEvictedCount.incrementAndGet();
+        }
+        return sequence;
+    }
+
+    /**
+     * Visits the events published at or after a cursor, oldest first.
+     *
+     * @param theCursor  the first sequence number wanted, e.g. the result of the last read.
+     * @param theMax     the most events to visit.
+     * @param theVisitor receives each event.
+     * @return the cursor to pass to the next read.
+     */
+    public long read(final long theCursor, final int theMax,
+                     final Consumer<? super T> theVisitor) {
+        final long head = myNextSequence.get();
+        final long oldest = Math.max(myClearedBefore.get(), head - mySlots.length());
+        long sequence = theCursor;
+        if (sequence < oldest) {
+            if (sequence >= myClearedBefore.get()) {
+                myDroppedCount.addAndGet(oldest - sequence);
+            }
+            sequence = oldest;
+        }
+        int visited = 0;
+        while (sequence < head && visited < theMax) {
+            final Slot<T> slot = mySlots.get((int) (sequence & myMask));
+            if (slot == null || slot.sequence() < sequence) {
+                // reserved by a writer that has not stored the event yet
+                break;
+            }
+            if (slot.sequence() > sequence) {
+                // overwritten while we were reading
+                myDroppedCount.incrementAndGet();
+            } else {
+                theVisitor.accept(slot.event());
+                visited++;
+            }
+            sequence++;
+        }
+        return sequence;
+    }
+
+    /**
+     * Copies the retained events, oldest first.
+     *
+     * @return a new list of the events.
+     */
+    public List<T> toList() {
+        final List<T> events = new ArrayList<>(size());
+        read(getTailSequence(), Integer.MAX_VALUE, events::add);
+        return events;
+    }
+
+    /**
+     * Discards every retained event. Sequence numbers keep counting up.
+     */
+    public void clear() {
+        myClearedBefore.set(myNextSequence.get());
+    }
+
+    /**
+     * Gets the sequence number the next event will get.
+     *
+     * @return the head sequence number.
+     */
+    public long getHeadSequence() {
+        return myNextSequence.get();
+    }
+
+    /**
+     * Gets the sequence number of the oldest retained event.
+     *
+     * @return the tail sequence number, equal to the head when the buffer is empty.
+     */
+    public long getTailSequence() {
+        return Math.max(myClearedBefore.get(), myNextSequence.get() - mySlots.length());
+    }
+
+    /**
+     * Gets the number of retained events.
+     *
+     * @return the size.
+     */
+    public int size() {
+        return (int) (getHeadSequence() - getTailSequence());
+    }
+
+    /**
+     * Checks whether no event is retained.
+     *
+     * @return true if the buffer is empty.
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Gets the number of events kept.
+     *
+     * @return the capacity.
+     */
+    public int getCapacity() {
+        return mySlots.length();
+    }
+
+    /**
+     * Gets the number of events overwritten by newer ones.
+     *
+     * @return the eviction count.
+     */
+    public long getEvictedCount() {
+        return myEvictedCount.get();
+    }
+
+    /**
+     * Gets the number of events readers missed because they were overwritten first, or
+     * that were overwritten before they could be stored.
+     *
+     * @return the dropped count.
+     */
+    public long getDroppedCount() {
+        return myDroppedCount.get();
+    }
+
+    /**
+     * One stored event with its sequence number.
+     *
+     * @param sequence the sequence number.
+     * @param event    the event.
+     * @param <T>      the type of the event.
+     */
+    private record Slot<T>(long sequence, T event) {
+    }
+}
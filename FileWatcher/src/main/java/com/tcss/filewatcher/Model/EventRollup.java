@@ -0,0 +1,466 @@
+package com.tcss.filewatcher.Model;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One row of an event aggregate: how many events fell into a time bucket for a
+ * directory, extension and event type. The counts come from rollup tables kept per
+ * minute, hour and day, which are updated in the same transaction as the raw events
+ * and keyed by (bucket, directory, extension, type), so questions like "modifications
+ * per directory per hour last week" read a few hundred rows however large the event
+ * table is. Buckets start at multiples of their length since the epoch, so days run
+ * from midnight UTC. A dimension an aggregate was not grouped by is null in its rows.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+public final class EventRollup {
+
+    /**
+     * The length of the time buckets an aggregate reads.
+     */
+    public enum Granularity {
+
+        /**
+         * One bucket per minute.
+         */
+        MINUTE(60_000L, "event_rollup_minute"),
+
+        /**
+         * One bucket per hour.
+         */
+        HOUR(3_600_000L, "event_rollup_hour"),
+
+        /**
+         * One bucket per day, from midnight UTC.
+         */
+        DAY(86_400_000L, "event_rollup_day");
+
+        /**
+         * The length of a bucket in milliseconds.
+         */
+        private final long myMillis;
+
+        /**
+         * The rollup table of this granularity.
+         */
+        private final String myTable;
+
+        /**
+         * Creates a granularity.
+         *
+         * @param theMillis the length of a bucket in milliseconds.
+         * @param theTable  the rollup table.
+         */
+        Granularity(final long theMillis, final String theTable) {
+            myMillis = theMillis;
+            myTable = theTable;
+        }
+
+        /**
+         * Gets the length of a bucket.
+         *
+         * @return the length in milliseconds.
+         */
+        public long getMillis() {
+            return myMillis;
+        }
+
+        /**
+         * Gets the start of the bucket an instant falls into.
+         *
+         * @param theMillis the epoch milliseconds.
+         * @return the epoch milliseconds the bucket starts at.
+         */
+        public long bucketOf(final long theMillis) {
+            return theMillis - Math.floorMod(theMillis, myMillis);
+        }
+
+        /**
+         * Gets the rollup table of this granularity.
+         *
+         * @return the table name.
+         */
+        String getTable() {
+            return myTable;
+        }
+    }
+
+    /**
+     * What an aggregate can be grouped by.
+     */
+    public enum Dimension {
+
+        /**
+         * The time bucket.
+         */
+        TIME,
+
+        /**
+         * The directory of the file.
+         */
+        DIRECTORY,
+
+        /**
+         * The file extension.
+         */
+        EXTENSION,
+
+        /**
+         * The event type.
+         */
+        TYPE
+    }
+
+    /**
+     * The start of the bucket, or Long.MIN_VALUE if not grouped by time.
+     */
+    private final long myBucketStart;
+
+    /**
+     * The directory, or null if not grouped by directory.
+     */
+    private final String myDirectory;
+
+    /**
+     * The extension, "" for files without one, or null if not grouped by extension.
+     */
+    private final String myExtension;
+
+    /**
+     * The event type, or null if not grouped by type.
+     */
+    private final FileEventType myKind;
+
+    /**
+     * The number of events.
+     */
+    private final long myCount;
+
+    /**
+     * Creates an aggregate row.
+     *
+     * @param theBucketStart the start of the bucket, or Long.MIN_VALUE.
+     * @param theDirectory   the directory, or null.
+     * @param theExtension   the extension, or null.
+     * @param theKind        the event type, or null.
+     * @param theCount       the number of events.
+     */
+    EventRollup(final long theBucketStart, final String theDirectory,
+                final String theExtension, final FileEventType theKind, final long theCount) {
+        myBucketStart = theBucketStart;
+        myDirectory = theDirectory;
+        myExtension = theExtension;
+        myKind = theKind;
+        myCount = theCount;
+    }
+
+    /**
+     * Gets the start of the time bucket.
+     *
+     * @return the epoch milliseconds, or Long.MIN_VALUE if not grouped by time.
+     */
+    public long getBucketStart() {
+        return myBucketStart;
+    }
+
+    /**
+     * Gets the directory.
+     *
+     * @return the directory, or null if not grouped by directory.
+     */
+    public String getDirectory() {
+        return myDirectory;
+    }
+
+    /**
+     * Gets the file extension.
+     *
+     * @return the extension with its dot, "" for files without one, or null if not
+     * grouped by extension.
+     */
+    public String getExtension() {
+        return myExtension;
+    }
+
+    /**
+     * Gets the event type.
+     *
+     * @return the type, or null if not grouped by type.
+     */
+    public FileEventType getKind() {
+        return myKind;
+    }
+
+    /**
+     * Gets the number of events.
+     *
+     * @return the count.
+     */
+    public long getCount() {
+        return myCount;
+    }
+
+    @Override
+    public String toString() {
+        return "EventRollup[bucket=" + (myBucketStart == Long.MIN_VALUE ? "*" : myBucketStart)
+                + ", directory=" + myDirectory + ", extension=" + myExtension + ", kind="
+                + myKind + ", count=" + myCount + "]";
+    }
+
+    /**
+     * Creates the rollup tables if they do not exist.
+     *
+     * @param theStatement a statement on the writer connection.
+     * @throws SQLException if a table could not be created.
+     */
+    static void createTables(final Statement theStatement) throws SQLException {
+        for (final Granularity granularity : Granularity.values()) {
+            theStatement.executeUpdate("CREATE TABLE IF NOT EXISTS " + granularity.getTable()
+                    + " (bucket_start INTEGER NOT NULL, directory TEXT NOT NULL, "
+                    + "extension TEXT NOT NULL, event_code INTEGER NOT NULL, "
+                    + "event_count INTEGER NOT NULL, "
+                    + "PRIMARY KEY (bucket_start, directory, extension, event_code)) "
+                    + "WITHOUT ROWID");
+        }
+    }
+
+    /**
+     * Recounts the rollup buckets that start at or after an instant from the converted
+     * events of a table or view; older buckets are kept as they are, since their events
+     * may have expired. Run it inside the transaction of the caller.
+     *
+     * @param theStatement a statement on the writer connection.
+     * @param theSource    the table or view holding the events.
+     * @param theHorizon   the first epoch millisecond whose events are all in the source,
+     *                     Long.MIN_VALUE to recount everything.
+     * @return the number of events counted.
+     * @throws SQLException if a table could not be rebuilt.
+     */
+    static long rebuild(final Statement theStatement, final String theSource,
+                        final long theHorizon) throws SQLException {
+        for (final Granularity granularity : Granularity.values()) {
+            final long length = granularity.getMillis();
+            final long start = firstWholeBucket(granularity, theHorizon);
+            theStatement.executeUpdate("DELETE FROM " + granularity.getTable()
+                    + " WHERE bucket_start >= " + start);
+            // the same floor as bucketOf, also for instants before the epoch
+            theStatement.executeUpdate("INSERT INTO " + granularity.getTable()
+                    + " (bucket_start, directory, extension, event_code, event_count) "
+                    + "SELECT event_timestamp - ((event_timestamp % " + length + ") + "
+                    + length + ") % " + length + ", absolute_path, "
+                    + "COALESCE(extension, ''), event_code, COUNT(*) FROM " + theSource
+                    + " WHERE event_timestamp >= " + start + " AND event_code IS NOT NULL "
+                    + "GROUP BY 1, 2, 3, 4");
+        }
+        try (ResultSet rs = theStatement.executeQuery("SELECT COALESCE(SUM(event_count), 0) "
+                + "FROM " + Granularity.DAY.getTable() + " WHERE bucket_start >= "
+                + firstWholeBucket(Granularity.DAY, theHorizon))) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * Finds the first bucket that starts at or after an instant.
+     *
+     * @param theGranularity the bucket length.
+     * @param theHorizon     the epoch millisecond, Long.MIN_VALUE for no bound.
+     * @return the bucket start.
+     */
+    private static long firstWholeBucket(final Granularity theGranularity,
+                                         final long theHorizon) {
+        if (theHorizon == Long.MIN_VALUE) {
+            return Long.MIN_VALUE;
+        }
+        return theGranularity.bucketOf(theHorizon - 1) + theGranularity.getMillis();
+    }
+
+    /**
+     * Deletes the buckets that end before an instant; the bucket holding the instant is
+     * kept. Run it inside the transaction of the caller.
+     *
+     * @param theStatement a statement on the writer connection.
+     * @param theBefore    the first epoch millisecond to keep.
+     * @return the number of rows deleted.
+     * @throws SQLException if a table could not be trimmed.
+     */
+    static int expire(final Statement theStatement, final long theBefore)
+            throws SQLException {
+        int deleted = 0;
+        for (final Granularity granularity : Granularity.values()) {
+            deleted += theStatement.executeUpdate("DELETE FROM " + granularity.getTable()
+                    + " WHERE bucket_start < " + granularity.bucketOf(theBefore));
+        }
+        return deleted;
+    }
+
+    /**
+     * Deletes every rollup row. Run it inside the transaction of the caller.
+     *
+     * @param theStatement a statement on the writer connection.
+     * @throws SQLException if a table could not be emptied.
+     */
+    static void clear(final Statement theStatement) throws SQLException {
+        for (final Granularity granularity : Granularity.values()) {
+            theStatement.executeUpdate("DELETE FROM " + granularity.getTable());
+        }
+    }
+
+    /**
+     * Compiles an aggregate over one rollup table. The parameters are the first and
+     * last bucket start, then the event code if filtered by type.
+     *
+     * @param theGranularity the bucket length.
+     * @param theGroupBy     the dimensions to group by.
+     * @param theByType      whether the rows are filtered by an event code.
+     * @param theLimit       the most rows, 0 for no limit.
+     * @return the statement.
+     */
+    static String aggregateSql(final Granularity theGranularity,
+                               final Set<Dimension> theGroupBy, final boolean theByType,
+                               final int theLimit) {
+        final StringBuilder groups = new StringBuilder();
+        for (final Dimension dimension : theGroupBy) {
+            groups.append(groups.isEmpty() ? "" : ", ").append(column(dimension));
+        }
+        final StringBuilder sql = new StringBuilder("SELECT ");
+        for (final Dimension dimension : Dimension.values()) {
+            sql.append(theGroupBy.contains(dimension) ? column(dimension) : "NULL")
+                    .append(", ");
+        }
+        sql.append("SUM(event_count) AS total FROM ").append(theGranularity.getTable())
+                .append(" WHERE bucket_start BETWEEN ? AND ?");
+        if (theByType) {
+            sql.append(" AND event_code = ?");
+        }
+        if (!groups.isEmpty()) {
+            sql.append(" GROUP BY ").append(groups);
+        }
+        // time runs forward; within a bucket, or without one, the busiest come first
+        sql.append(" ORDER BY ");
+        if (theGroupBy.contains(Dimension.TIME)) {
+            sql.append("bucket_start, ");
+        }
+        sql.append("total DESC");
+        if (!groups.isEmpty()) {
+            sql.append(", ").append(groups);
+        }
+        if (theLimit > 0) {
+            sql.append(" LIMIT ").append(theLimit);
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Reads a row of a statement compiled by
+     * {@link #aggregateSql(Granularity, Set, boolean, int)}.
+     *
+     * @param theResultSet the result set, on a row.
+     * @return the aggregate row.
+     * @throws SQLException if a column cannot be read.
+     */
+    static EventRollup read(final ResultSet theResultSet) throws SQLException {
+        final long bucket = theResultSet.getLong(1);
+        final boolean hasBucket = !theResultSet.wasNull();
+        final String directory = theResultSet.getString(2);
+        final String extension = theResultSet.getString(3);
+        final int code = theResultSet.getInt(4);
+        final boolean hasKind = !theResultSet.wasNull();
+        return new EventRollup(hasBucket ? bucket : Long.MIN_VALUE, directory, extension,
+                hasKind ? FileEventType.fromCode(code) : null, theResultSet.getLong(5));
+    }
+
+    /**
+     * Gets the rollup column of a dimension.
+     *
+     * @param theDimension the dimension.
+     * @return the column name.
+     */
+    private static String column(final Dimension theDimension) {
+        return switch (theDimension) {
+            case TIME -> "bucket_start";
+            case DIRECTORY -> "directory";
+            case EXTENSION -> "extension";
+            case TYPE -> "event_code";
+        };
+    }
+
+    /**
+     * The rollup counts of a batch of events, summed in memory so each bucket is
+     * written once per batch, then added to the tables in the batch's transaction.
+     *
+     * @author Kassie Whitney
+     * @version 10.17.26
+     */
+    static final class Batch {
+
+        /**
+         * The counts to add per table and bucket key.
+         */
+        private final Map<Granularity, Map<Key, long[]>> myCounts =
+                new EnumMap<>(Granularity.class);
+
+        /**
+         * Counts one event.
+         *
+         * @param theTimestamp the epoch milliseconds of the event.
+         * @param theDirectory the directory of the file.
+         * @param theExtension the extension, null or "" for none.
+         * @param theCode      the event type code.
+         */
+        void add(final long theTimestamp, final String theDirectory,
+                 final String theExtension, final int theCode) {
+            final String extension = theExtension == null ? "" : theExtension;
+            for (final Granularity granularity : Granularity.values()) {
+                myCounts.computeIfAbsent(granularity, theKey -> new HashMap<>())
+                        .computeIfAbsent(new Key(granularity.bucketOf(theTimestamp),
+                                theDirectory, extension, theCode), theKey -> new long[1])[0]++;
+            }
+        }
+
+        /**
+         * Adds the counts to the rollup tables and forgets them. The caller commits.
+         *
+         * @param theLease the writer lease, inside a transaction.
+         * @throws SQLException if a count cannot be written.
+         */
+        void write(final ConnectionManager.Lease theLease) throws SQLException {
+            for (final Map.Entry<Granularity, Map<Key, long[]>> table : myCounts.entrySet()) {
+                final PreparedStatement upsert = theLease.prepare("INSERT INTO "
+                        + table.getKey().getTable() + " (bucket_start, directory, extension, "
+                        + "event_code, event_count) VALUES (?, ?, ?, ?, ?) "
+                        + "ON CONFLICT (bucket_start, directory, extension, event_code) "
+                        + "DO UPDATE SET event_count = event_count + excluded.event_count");
+                for (final Map.Entry<Key, long[]> count : table.getValue().entrySet()) {
+                    final Key key = count.getKey();
+                    upsert.setLong(1, key.bucket());
+                    upsert.setString(2, key.directory());
+                    upsert.setString(3, key.extension());
+                    upsert.setInt(4, key.code());
+                    upsert.setLong(5, count.getValue()[0]);
+                    upsert.addBatch();
+                }
+                upsert.executeBatch();
+            }
+            myCounts.clear();
+        }
+
+        /**
+         * The key of one rollup row.
+         *
+         * @param bucket    the start of the bucket.
+         * @param directory the directory.
+         * @param extension the extension, "" for none.
+         * @param code      the event type code.
+         */
+        private record Key(long bucket, String directory, String extension, int code) {
+        }
+    }
+}
@@ -0,0 +1,387 @@
+package com.tcss.filewatcher.Model;
+
+import com.tcss.filewatcher.Common.Properties;
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Headless event-routing pipeline between the file event watcher and everything that
+ * consumes its events. Raw events are handed over by the watcher thread, filtered against
+ * the monitored directory rules on a dedicated worker, persisted through the batch event
+ * writer, and then published to subscribers as {@link Properties#FILTERED_FILE_EVENT}.
+ * <p>Persistence does not depend on any viewer being open. Only compact event records
+ * are queued; a table row is built for an accepted event only when someone subscribes to
+ * the filtered events. Routing and shutting down exclude each other, so every event the
+ * router accepts is routed before shutdown returns.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+public class EventRouter {
+
+    /**
+     * The default number of raw events that can wait for the router.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 16384;
+
+    /**
+     * How long the worker waits for an event before re-checking whether it should stop.
+     */
+    private static final long POLL_MILLIS = 100;
+
+    /**
+     * How long shutdown waits for the worker to drain the queue.
+     */
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5000;
+
+    /**
+     * How long a blocked route waits for room before checking that the worker is alive.
+     */
+    private static final long BLOCK_RETRY_MILLIS = 100;
+
+    /**
+     * How many dropped events are reported together, so a stopped writer does not flood
+     * the log.
+     */
+    private static final long DROP_LOG_INTERVAL = 1000;
+
+    /**
+     * Logger object.
+     */
+    private static final Logger MY_LOGGER = Logger.getLogger("Event Router");
+
+    /**
+     * Notifies subscribers of the filtered events.
+     */
+    private final PropertyChangeSupport myChanges = new PropertyChangeSupport(this);
+
+    /**
+     * Raw events waiting to be filtered.
+     */
+    private final BlockingQueue<EventRecord> myQueue;
+
+    /**
+     * The writer that persists accepted events.
+     */
+    private final BatchEventWriter myEventWriter;
+
+    /**
+     * Whether the router is accepting events.
+     */
+    private final AtomicBoolean myIsRunning = new AtomicBoolean(false);
+
+    /**
+     * Shared by callers while they check that the router runs and queue their event,
+     * exclusive while shutdown stops accepting events.
+     */
+    private final ReadWriteLock myGate = new ReentrantReadWriteLock();
+
+    /**
+     * Number of raw events received.
+     */
+    private final AtomicLong myReceivedCount = new AtomicLong();
+
+    /**
+     * Number of events that passed the filter.
+     */
+    private final AtomicLong myAcceptedCount = new AtomicLong();
+
+    /**
+     * Number of events rejected by the filter.
+     */
+    private final AtomicLong myFilteredCount = new AtomicLong();
+
+    /**
+     * Number of accepted events the batch event writer did not take.
+     */
+    private final AtomicLong myDroppedCount = new AtomicLong();
+
+    /**
+     * The dedicated routing thread.
+     */
+    private volatile Thread myWorker;
+
+    /**
+     * Creates a router with the default queue capacity.
+     *
+     * @param theEventWriter the writer that persists accepted events.
+     */
+    public EventRouter(final BatchEventWriter theEventWriter) {
+        this(theEventWriter, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Creates a router.
+     *
+     * @param theEventWriter   the writer that persists accepted events.
+     * @param theQueueCapacity the maximum number of raw events waiting to be routed.
+     * @throws IllegalArgumentException if the writer is null or the capacity is not positive.
+     */
+    public EventRouter(final BatchEventWriter theEventWriter, final int theQueueCapacity) {
+        if (theEventWriter == null) {
+            throw new IllegalArgumentException("Event writer cannot be null");
+        }
+        if (theQueueCapacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be positive");
+        }
+        myEventWriter = theEventWriter;
+        myQueue = new LinkedBlockingQueue<>(theQueueCapacity);
+    }
+
+    /**
+     * Starts the routing thread. Does nothing if it is already running. If the worker of
+     * the last run is still draining, waits for it first, at most as long as
+     * {@link #shutdown()} does.
+     *
+     * @throws IllegalStateException if the last worker is still draining or the wait was
+     *                               interrupted; the router is not started.
+     */
+    public synchronized void start() {
+        if (myIsRunning.get()) {
+            return;
+        }
+        final Thread worker = myWorker;
+        if (worker != null) {
+            try {
+                worker.join(SHUTDOWN_TIMEOUT_MILLIS);
+            } catch (final InterruptedException theE) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while the last event router "
+                        + "was draining");
+            }
+            if (worker.isAlive()) {
+                MY_LOGGER.log(Level.WARNING, "Event router not started, the last one is "
+                        + "still draining " + myQueue.size() + " events\n");
+                throw new IllegalStateException("The last event router is still draining");
+            }
+        }
+        myIsRunning.set(true);
+        myWorker = new Thread(this::runRouter, "Event-Router-Thread");
+        myWorker.setDaemon(true);
+        myWorker.start();
+    }
+
+    /**
+     * Hands a raw event to the router. Blocks if the router has fallen too far behind.
+     *
+     * @param theEntry the raw event.
+     * @return true if the event was queued, false if the router is stopped.
+     */
+    public boolean route(final DirectoryEntry theEntry) {
+        return theEntry != null && routeRecord(theEntry.toRecord());
+    }
+
+    /**
+     * Hands a raw event record to the router. Blocks if the router has fallen too far
+     * behind.
+     *
+     * @param theRecord the raw event.
+     * @return true if the event was queued, false if the router is stopped.
+     */
+    public boolean routeRecord(final EventRecord theRecord) {
+        if (theRecord == null) {
+            return false;
+        }
+        myGate.readLock().lock();
+        try {
+            // the worker drains the queue until shutdown, unless it died
+            while (myIsRunning.get()) {
+                if (myQueue.offer(theRecord, BLOCK_RETRY_MILLIS, TimeUnit.MILLISECONDS)) {
+                    myReceivedCount.incrementAndGet();
+                    return true;
+                }
+                final Thread worker = myWorker;
+                if (worker == null || !worker.isAlive()) {
+                    break;
+                }
+            }
+            return false;
+
+        } catch (final InterruptedException theE) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            myGate.readLock().unlock();
+        }
+    }
+
+    /**
+     * Stops accepting events and waits for the worker to route everything that is still
+     * queued. If the worker does not finish in time it is left to finish on its own. The
+     * batch event writer is not shut down here; that is up to its owner, who must keep it
+     * running while this returns false.
+     *
+     * @return true if the worker has ended, false if it still hands events to the writer.
+     */
+    public synchronized boolean shutdown() {
+        // waits for callers that are queueing, so no event arrives after this
+        myGate.writeLock().lock();
+        try {
+            if (!myIsRunning.compareAndSet(true, false)) {
+                final Thread worker = myWorker;
+                return worker == null || !worker.isAlive();
+            }
+        } finally {
+            myGate.writeLock().unlock();
+        }
+        final Thread worker = myWorker;
+        try {
+            worker.join(SHUTDOWN_TIMEOUT_MILLIS);
+        } catch (final InterruptedException theE) {
+            Thread.currentThread().interrupt();
+        }
+        if (worker.isAlive()) {
+            MY_LOGGER.log(Level.WARNING, "Event router still draining, "
+                    + myQueue.size() + " events queued\n");
+            return false;
+        }
+
+        // Only if the worker was interrupted: route what it did not get to.
+        EventRecord record;
+        while ((record = myQueue.poll()) != null) {
+            dispatch(record);
+        }
+        myWorker = null;
+        return true;
+    }
+
+    /**
+     * Checks whether the router is accepting events.
+     *
+     * @return true if the router is running, false otherwise.
+     */
+    public boolean isRunning() {
+        return myIsRunning.get();
+    }
+
+    /**
+     * Gets the number of raw events waiting to be routed.
+     *
+     * @return the queue depth.
+     */
+    public int getQueueDepth() {
+        return myQueue.size();
+    }
+
+    /**
+     * Gets the number of raw events received.
+     *
+     * @return the received event count.
+     */
+    public long getReceivedCount() {
+        return myReceivedCount.get();
+    }
+
+    /**
+     * Gets the number of events that passed the filter.
+     *
+     * @return the accepted event count.
+     */
+    public long getAcceptedCount() {
+        return myAcceptedCount.get();
+    }
+
+    /**
+     * Gets the number of events rejected by the filter.
+     *
+     * @return the filtered event count.
+     */
+    public long getFilteredCount() {
+        return myFilteredCount.get();
+    }
+
+    /**
+     * Gets the number of accepted events the batch event writer did not take, because it
+     * was stopped or dropped them under backpressure.
+     *
+     * @return the dropped event count.
+     */
+    public long getDroppedCount() {
+        return myDroppedCount.get();
+    }
+
+    /**
+     * Subscribes a listener to the filtered event stream.
+     *
+     * @param theListener the listener to add.
+     */
+    public void addPropertyChangeListener(final PropertyChangeListener theListener) {
+        myChanges.addPropertyChangeListener(theListener);
+    }
+
+    /**
+     * Unsubscribes a listener from the filtered event stream.
+     *
+     * @param theListener the listener to remove.
+     */
+    public void removePropertyChangeListener(final PropertyChangeListener theListener) {
+        myChanges.removePropertyChangeListener(theListener);
+    }
+
+    /**
+     * Gets the listeners subscribed to the filtered event stream.
+     *
+     * @return the listeners.
+     */
+    public PropertyChangeListener[] getPropertyChangeListeners() {
+        return myChanges.getPropertyChangeListeners();
+    }
+
+    /**
+     * The routing loop.
+     */
+    private void runRouter() {
+        while (myIsRunning.get() || !myQueue.isEmpty()) {
+            try {
+                final EventRecord record = myQueue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (record != null) {
+                    dispatch(record);
+                }
+            } catch (final InterruptedException theE) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (final RuntimeException theE) {
+                // one bad event or listener must not stop the pipeline
+                MY_LOGGER.log(Level.SEVERE, "Unable to route event: " + theE.getMessage()
+                        + "\n");
+            }
+        }
+    }
+
+    /**
+     * Filters, persists and publishes a single event.
+     *
+     * @param theRecord the raw event.
+     */
+    private void dispatch(final EventRecord theRecord) {
+        if (!FileExtensionHandler.canAddEvent(
+                SceneHandler.getRulesFromDir(theRecord.getDirectory()), theRecord)) {
+            myFilteredCount.incrementAndGet();
+            return;
+        }
+        myAcceptedCount.incrementAndGet();
+        if (!myEventWriter.submitRecord(theRecord)
+                && myDroppedCount.incrementAndGet() % DROP_LOG_INTERVAL == 1) {
+            MY_LOGGER.log(Level.WARNING, "Event writer is not taking events, "
+                    + myDroppedCount.get() + " accepted events dropped\n");
+        }
+        final String property = Properties.FILTERED_FILE_EVENT.toString();
+        if (!myChanges.hasListeners(property)) {
+            return;
+        }
+        final DirectoryEntry entry = new DirectoryEntry(theRecord);
+        final FlightEvents.PropertyChangeDispatch dispatch =
+                new FlightEvents.PropertyChangeDispatch();
+        myChanges.firePropertyChange(property, null, entry);
+        dispatch.end(property, entry);
+    }
+}
@@ -0,0 +1,592 @@
+package com.tcss.filewatcher.Model;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Owns the versioned layout of the 'filewatcher' table.
+ * Version 2 adds an epoch-millis timestamp, an integer event-type code and the
+ * file extension, each indexed together with the timestamp. Version 3 flags events
+ * that were reconstructed by a rescan. Version 4 adds the per minute, hour and day
+ * rollup tables of {@link EventRollup}, counted from the existing rows on upgrade and
+ * kept up to date by every insert, including the conversion below. Version 5 adds the
+ * partition catalog and union view of {@link EventPartitions}. Version 6 stores the
+ * path, file name and extension of each event as ids into the tables of
+ * {@link EventDictionary}, leaving the text columns empty. Databases written by
+ * older versions are upgraded in place: the new columns are added immediately and
+ * the existing rows are converted in small batches on a background thread, so
+ * startup never waits on the conversion.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+public final class EventSchema {
+
+    /**
+     * The schema version written by this class.
+     */
+    public static final int CURRENT_VERSION = 6;
+
+    /**
+     * The number of legacy rows converted per transaction.
+     */
+    public static final int MIGRATION_BATCH_SIZE = 2000;
+
+    /**
+     * The logger object.
+     */
+    private static final Logger MY_LOGGER = Logger.getLogger("Event Schema");
+
+    /**
+     * The table definition for new databases.
+     */
+    private static final String CREATE_TABLE = """
+            CREATE TABLE IF NOT EXISTS filewatcher (
+            id INTEGER PRIMARY KEY AUTOINCREMENT,
+            event_date TEXT NOT NULL,
+            event_time TEXT NOT NULL,
+            file_name TEXT NOT NULL,
+            absolute_path TEXT NOT NULL,
+            event_type TEXT NOT NULL,
+            event_timestamp INTEGER,
+            event_code INTEGER,
+            extension TEXT,
+            synthesized INTEGER NOT NULL DEFAULT 0,
+            path_id INTEGER,
+            name_id INTEGER,
+            extension_id INTEGER
+            )""";
+
+    /**
+     * The columns added since version 1 and their definitions.
+     */
+    private static final String[][] ADDED_COLUMNS = {
+            {"event_timestamp", "INTEGER"},
+            {"event_code", "INTEGER"},
+            {"extension", "TEXT"},
+            {"synthesized", "INTEGER NOT NULL DEFAULT 0"},
+            {"path_id", "INTEGER"},
+            {"name_id", "INTEGER"},
+            {"extension_id", "INTEGER"}
+    };
+
+    /**
+     * The indexes added by version 2, as name suffix and columns; since version 6 the
+     * path and extension indexes are on the dictionary ids. Every event table,
+     * the live one and each partition, has them as idx_&lt;table&gt;_&lt;suffix&gt;.
+     */
+    private static final String[][] VERSION_2_INDEXES = {
+            {"timestamp", "event_timestamp, id"},
+            {"path_timestamp", "path_id, event_timestamp"},
+            {"extension_timestamp", "extension_id, event_timestamp"}
+    };
+
+    /**
+     * The date formats used by the watcher and by older versions of the database.
+     */
+    private static final List<DateTimeFormatter> DATE_FORMATS = List.of(
+            DateTimeFormatter.ofPattern("dd MMM, yyyy"),
+            DateTimeFormatter.ofPattern("dd MMM, yyyy", Locale.ENGLISH),
+            DateTimeFormatter.ISO_LOCAL_DATE);
+
+    /**
+     * The schema of every database that has been opened, by its connection manager.
+     */
+    private static final Map<ConnectionManager, EventSchema> MY_SCHEMAS =
+            new IdentityHashMap<>();
+
+    /**
+     * The database this schema belongs to.
+     */
+    private final ConnectionManager myConnections;
+
+    /**
+     * Whether every row has been converted to the current version.
+     */
+    private volatile boolean myIsMigrated;
+
+    /**
+     * The number of legacy rows converted so far.
+     */
+    private volatile long myMigratedRows;
+
+    /**
+     * The background migration, null if none was needed.
+     */
+    private Thread myMigrationThread;
+
+    /**
+     * Creates the schema of a database.
+     *
+     * @param theConnections the shared connections of the database.
+     */
+    private EventSchema(final ConnectionManager theConnections) {
+        myConnections = theConnections;
+    }
+
+    /**
+     * Brings the 'filewatcher' table of a database up to the current version.
+     * Only the first call per database does any work; the conversion of existing
+     * rows, if any, continues in the background after this returns.
+     *
+     * @param theConnections the shared connections of the database.
+     * @return the schema of the database.
+     * @throws SQLException if the table could not be created or altered.
+     */
+    public static EventSchema initialize(final ConnectionManager theConnections)
+            throws SQLException {
+        synchronized (MY_SCHEMAS) {
+            final EventSchema existing = MY_SCHEMAS.get(theConnections);
+            if (existing != null) {
+                return existing;
+            }
+            final EventSchema schema = new EventSchema(theConnections);
+            schema.upgrade();
+            MY_SCHEMAS.put(theConnections, schema);
+            return schema;
+        }
+    }
+
+    /**
+     * Creates or upgrades the table and starts the row migration if it is needed.
+     *
+     * @throws SQLException if the table could not be created or altered.
+     */
+    private void upgrade() throws SQLException {
+        final boolean hasLegacyRows;
+        try (ConnectionManager.Lease lease = myConnections.acquireWriter();
+             Statement stmt = lease.getConnection().createStatement()) {
+
+            stmt.executeUpdate(CREATE_TABLE);
+            EventRollup.createTables(stmt);
+            EventDictionary.createTables(stmt);
+            final int version = readVersion(stmt);
+            if (version >= CURRENT_VERSION) {
+                createIndexes(stmt);
+                EventPartitions.createTables(stmt);
+                myIsMigrated = true;
+                return;
+            }
+
+            EventPartitions.createCatalog(stmt);
+            final List<String> tables = EventPartitions.tables(stmt);
+            for (final String table : tables) {
+                addColumns(stmt, table);
+                if (version < 6) {
+                    // these two now index the ids; rebuilt once the rows have them
+                    stmt.executeUpdate("DROP INDEX IF EXISTS idx_" + table + "_path_timestamp");
+                    stmt.executeUpdate("DROP INDEX IF EXISTS idx_" + table
+                            + "_extension_timestamp");
+                }
+            }
+            EventPartitions.createView(stmt);
+
+            if (version < 4) {
+                // the rows converted so far; the migration counts the rest as it goes
+                EventRollup.rebuild(stmt, EventPartitions.LIVE_TABLE, Long.MIN_VALUE);
+            }
+
+            hasLegacyRows = hasUnconvertedRows(stmt, tables);
+            if (!hasLegacyRows) {
+                for (final String table : tables) {
+                    createIndexes(stmt, table);
+                }
+                stmt.executeUpdate("PRAGMA user_version = " + CURRENT_VERSION);
+                myIsMigrated = true;
+                return;
+            }
+        }
+
+        MY_LOGGER.log(Level.INFO, "Migrating 'filewatcher' to schema version "
+                + CURRENT_VERSION + " in the background.\n");
+        myMigrationThread = new Thread(this::migrate, "Schema-Migration-Thread");
+        myMigrationThread.setDaemon(true);
+        myMigrationThread.start();
+    }
+
+    /**
+     * Adds the columns an event table is missing.
+     *
+     * @param theStatement a statement on the writer connection.
+     * @param theTable     the live table or a partition.
+     * @throws SQLException if a column could not be added.
+     */
+    private static void addColumns(final Statement theStatement, final String theTable)
+            throws SQLException {
+        final Set<String> columns = new HashSet<>();
+        try (ResultSet rs = theStatement.executeQuery("PRAGMA table_info(" + theTable + ")")) {
+            while (rs.next()) {
+                columns.add(rs.getString("name"));
+            }
+        }
+        for (final String[] column : ADDED_COLUMNS) {
+            if (!columns.contains(column[0])) {
+                theStatement.executeUpdate("ALTER TABLE " + theTable + " ADD COLUMN "
+                        + column[0] + " " + column[1]);
+            }
+        }
+    }
+
+    /**
+     * Checks whether any event table has rows that still store their path as text.
+     *
+     * @param theStatement a statement on the connection.
+     * @param theTables    the event tables.
+     * @return true if the migration is needed.
+     * @throws SQLException if a table could not be read.
+     */
+    private static boolean hasUnconvertedRows(final Statement theStatement,
+                                              final List<String> theTables)
+            throws SQLException {
+        for (final String table : theTables) {
+            try (ResultSet rs = theStatement.executeQuery(
+                    "SELECT 1 FROM " + table + " WHERE path_id IS NULL LIMIT 1")) {
+                if (rs.next()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Converts the legacy rows of every event table in batches, then indexes the tables
+     * and records the new version. Each batch takes the writer only for its own
+     * transaction so new events keep flowing in between batches.
+     */
+    private void migrate() {
+        final EventDictionary dictionary = EventDictionary.of(myConnections);
+        try {
+            final List<String> tables;
+            try (ConnectionManager.Lease lease = myConnections.acquireWriter();
+                 Statement stmt = lease.getConnection().createStatement()) {
+                tables = EventPartitions.tables(stmt);
+            }
+            for (final String table : tables) {
+                migrate(table, dictionary);
+            }
+
+            try (ConnectionManager.Lease lease = myConnections.acquireWriter();
+                 Statement stmt = lease.getConnection().createStatement()) {
+                for (final String table : tables) {
+                    createIndexes(stmt, table);
+                }
+                stmt.executeUpdate("PRAGMA user_version = " + CURRENT_VERSION);
+            }
+            myIsMigrated = true;
+            MY_LOGGER.log(Level.INFO, "Schema migration finished, " + myMigratedRows
+                    + " rows converted.\n");
+
+        } catch (final SQLException theE) {
+            MY_LOGGER.log(Level.SEVERE, "Schema migration stopped: " + theE.getMessage()
+                    + "\n");
+        }
+    }
+
+    /**
+     * Converts the legacy rows of one event table: derives the typed columns of rows
+     * written before version 2 and replaces the path, file name and extension text of
+     * every row with dictionary ids.
+     *
+     * @param theTable      the live table or a partition.
+     * @param theDictionary the dictionary of the database.
+     * @throws SQLException if a batch could not be converted.
+     */
+    private void migrate(final String theTable, final EventDictionary theDictionary)
+            throws SQLException {
+        final String selectSQL = "SELECT id, event_date, event_time, file_name, event_type, "
+                + "absolute_path, event_timestamp, event_code, extension FROM " + theTable
+                + " WHERE id > ? AND path_id IS NULL ORDER BY id LIMIT ?";
+        final String updateSQL = "UPDATE " + theTable + " SET event_timestamp = ?, "
+                + "event_code = ?, extension = NULL, path_id = ?, name_id = ?, "
+                + "extension_id = ?, file_name = '', absolute_path = '' WHERE id = ?";
+        long lastId = 0;
+        while (true) {
+            final List<LegacyRow> batch = new ArrayList<>(MIGRATION_BATCH_SIZE);
+            try (ConnectionManager.Lease lease = myConnections.acquireWriter()) {
+                final PreparedStatement select = lease.prepare(selectSQL);
+                select.setLong(1, lastId);
+                select.setInt(2, MIGRATION_BATCH_SIZE);
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        batch.add(LegacyRow.read(rs));
+                    }
+                }
+                if (batch.isEmpty()) {
+                    return;
+                }
+
+                final PreparedStatement update = lease.prepare(updateSQL);
+                final EventRollup.Batch rollups = new EventRollup.Batch();
+                lease.getConnection().setAutoCommit(false);
+                try {
+                    for (final LegacyRow row : batch) {
+                        final String name = row.fileName();
+                        final String path = row.path();
+                        final long timestamp;
+                        final int code;
+                        final String extension;
+                        if (row.timestamp() == null) {
+                            timestamp = toEpochMillis(row.date(), row.time());
+                            code = FileEventType.fromName(row.type()).getCode();
+                            extension = extensionOf(name);
+                            rollups.add(timestamp, path, extension, code);
+                        } else {
+                            timestamp = row.timestamp();
+                            code = row.code() == null ? FileEventType.fromName(row.type())
+                                    .getCode() : row.code();
+                            extension = row.extension() == null ? extensionOf(name)
+                                    : row.extension();
+                        }
+                        update.setLong(1, timestamp);
+                        update.setInt(2, code);
+                        update.setObject(3, theDictionary.idOf(lease,
+                                EventDictionary.Table.PATHS, path));
+                        update.setObject(4, theDictionary.idOf(lease,
+                                EventDictionary.Table.NAMES, name));
+                        update.setObject(5, theDictionary.idOf(lease,
+                                EventDictionary.Table.EXTENSIONS, extension));
+                        update.setLong(6, row.id());
+                        update.addBatch();
+                    }
+                    update.executeBatch();
+                    rollups.write(lease);
+                    lease.getConnection().commit();
+                } catch (final SQLException theE) {
+                    lease.getConnection().rollback();
+                    theDictionary.invalidate();
+                    throw theE;
+                } finally {
+                    lease.getConnection().setAutoCommit(true);
+                }
+            }
+            lastId = batch.getLast().id();
+            myMigratedRows += batch.size();
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Reads the schema version stored in the database header.
+     *
+     * @param theStatement a statement on the writer connection.
+     * @return the stored version, 0 for databases that never recorded one.
+     * @throws SQLException if the version could not be read.
+     */
+    private static int readVersion(final Statement theStatement) throws SQLException {
+        try (ResultSet rs = theStatement.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Creates the version 2 indexes of the live table if they do not exist yet.
+     *
+     * @param theStatement a statement on the writer connection.
+     * @throws SQLException if an index could not be created.
+     */
+    private static void createIndexes(final Statement theStatement) throws SQLException {
+        createIndexes(theStatement, EventPartitions.LIVE_TABLE);
+    }
+
+    /**
+     * Creates the version 2 indexes of an event table if they do not exist yet.
+     *
+     * @param theStatement a statement on the writer connection.
+     * @param theTable     the live table or a partition.
+     * @throws SQLException if an index could not be created.
+     */
+    static void createIndexes(final Statement theStatement, final String theTable)
+            throws SQLException {
+        for (final String[] index : VERSION_2_INDEXES) {
+            theStatement.executeUpdate("CREATE INDEX IF NOT EXISTS idx_" + theTable + "_"
+                    + index[0] + " ON " + theTable + " (" + index[1] + ")");
+        }
+    }
+
+    /**
+     * Drops the version 2 indexes of an event table.
+     *
+     * @param theStatement a statement on the writer connection.
+     * @param theTable     the live table or a partition.
+     * @throws SQLException if an index could not be dropped.
+     */
+    static void dropIndexes(final Statement theStatement, final String theTable)
+            throws SQLException {
+        for (final String[] index : VERSION_2_INDEXES) {
+            theStatement.executeUpdate("DROP INDEX IF EXISTS idx_" + theTable + "_" + index[0]);
+        }
+    }
+
+    /**
+     * Creates an empty live table with its indexes, after the old one was sealed.
+     *
+     * @param theStatement a statement on the writer connection.
+     * @throws SQLException if the table could not be created.
+     */
+    static void createLiveTable(final Statement theStatement) throws SQLException {
+        theStatement.executeUpdate(CREATE_TABLE);
+        createIndexes(theStatement);
+    }
+
+    /**
+     * Whether every row in the table has been converted to the current version.
+     *
+     * @return true once the migration is complete or was not needed.
+     */
+    public boolean isMigrated() {
+        return myIsMigrated;
+    }
+
+    /**
+     * Checks whether every row of a database is known to have been converted.
+     *
+     * @param theConnections the shared connections of the database.
+     * @return true once the schema of the database is initialized and fully migrated.
+     */
+    static boolean isMigrated(final ConnectionManager theConnections) {
+        final EventSchema schema;
+        synchronized (MY_SCHEMAS) {
+            schema = MY_SCHEMAS.get(theConnections);
+        }
+        return schema != null && schema.myIsMigrated;
+    }
+
+    /**
+     * Gets the number of legacy rows converted by the background migration.
+     *
+     * @return the number of converted rows.
+     */
+    public long getMigratedRowCount() {
+        return myMigratedRows;
+    }
+
+    /**
+     * Waits for the background migration to finish.
+     *
+     * @param theMillis the longest time to wait.
+     * @return true if the table is fully migrated.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public boolean awaitMigration(final long theMillis) throws InterruptedException {
+        final Thread migration = myMigrationThread;
+        if (migration != null) {
+            migration.join(theMillis);
+        }
+        return myIsMigrated;
+    }
+
+    /**
+     * Converts a stored date and time to epoch milliseconds in the system time zone.
+     * Accepts the "dd MMM, yyyy" format used by the watcher and ISO "yyyy-MM-dd".
+     *
+     * @param theDate the event date.
+     * @param theTime the event time, "HH:mm:ss"; midnight if missing or unreadable.
+     * @return the epoch milliseconds, 0 if the date cannot be read.
+     */
+    public static long toEpochMillis(final String theDate, final String theTime) {
+        final LocalDate date = parseDate(theDate);
+        if (date == null) {
+            return 0;
+        }
+        LocalTime time = LocalTime.MIDNIGHT;
+        if (theTime != null) {
+            try {
+                time = LocalTime.parse(theTime.trim());
+            } catch (final DateTimeParseException theE) {
+                MY_LOGGER.log(Level.FINE, "Unreadable event time: " + theTime + "\n");
+            }
+        }
+        return date.atTime(time).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Reads a date in any of the formats stored in the database.
+     *
+     * @param theDate the date text.
+     * @return the date, or null if it cannot be read.
+     */
+    public static LocalDate parseDate(final String theDate) {
+        if (theDate == null || theDate.isBlank()) {
+            return null;
+        }
+        for (final DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(theDate.trim(), format);
+            } catch (final DateTimeParseException theE) {
+                // try the next format
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the lower-case extension of a file name, including the dot.
+     *
+     * @param theFileName the file name or path.
+     * @return the extension, e.g. ".txt", or an empty string if there is none.
+     */
+    public static String extensionOf(final String theFileName) {
+        if (theFileName == null) {
+            return "";
+        }
+        final int slash = Math.max(theFileName.lastIndexOf('/'), theFileName.lastIndexOf('\\'));
+        final int dot = theFileName.lastIndexOf('.');
+        if (dot <= slash + 1) {
+            return "";
+        }
+        return theFileName.substring(dot).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * An event row as stored before the migration.
+     *
+     * @param id        the row id.
+     * @param date      the event date text.
+     * @param time      the event time text.
+     * @param fileName  the file name.
+     * @param type      the event type name.
+     * @param path      the directory.
+     * @param timestamp the epoch milliseconds, null for rows written before version 2.
+     * @param code      the event type code, or null.
+     * @param extension the extension, or null.
+     */
+    private record LegacyRow(long id, String date, String time, String fileName,
+                             String type, String path, Long timestamp, Integer code,
+                             String extension) {
+
+        /**
+         * Reads the current row of a migration query.
+         *
+         * @param theResults the results, on a row.
+         * @return the row.
+         * @throws SQLException if the row could not be read.
+         */
+        static LegacyRow read(final ResultSet theResults) throws SQLException {
+            final long timestamp = theResults.getLong("event_timestamp");
+            final Long storedTimestamp = theResults.wasNull() ? null : timestamp;
+            final int code = theResults.getInt("event_code");
+            final Integer storedCode = theResults.wasNull() ? null : code;
+            return new LegacyRow(theResults.getLong("id"), theResults.getString("event_date"),
+                    theResults.getString("event_time"), theResults.getString("file_name"),
+                    theResults.getString("event_type"), theResults.getString("absolute_path"),
+                    storedTimestamp, storedCode, theResults.getString("extension"));
+        }
+    }
+}
@@ -1,10 +1,8 @@
 package com.tcss.filewatcher.Model;
 
-import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
@@ -13,7 +11,6 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import org.sqlite.SQLiteDataSource;
 
 /**
  * This class manages the SQL database for watchlist
@@ -24,14 +21,9 @@ import org.sqlite.SQLiteDataSource;
 public class FileDirectoryDataBase {
 
     /**
-     * The data source.
+     * The shared connections to the database.
      */
-    private SQLiteDataSource myDataSource;
-
-    /**
-     * The url for the database.
-     */
-    private static final String DB_URL = "jdbc:sqlite:filewatcher.db";
+    private ConnectionManager myConnections;
 
     /**
      * Logger object.
@@ -42,7 +34,18 @@ public class FileDirectoryDataBase {
      * Constructor that initializes the database and creates the table.
      */
     public FileDirectoryDataBase(final boolean theDebuggerStatus) {
-        initialize();
+        this(theDebuggerStatus, ConnectionManager.getInstance());
+    }
+
+    /**
+     * Constructor that uses the shared connections of a specific database.
+     *
+     * @param theDebuggerStatus the status of the debugger.
+     * @param theConnections    the shared connections of the database to use.
+     */
+    public FileDirectoryDataBase(final boolean theDebuggerStatus,
+                                 final ConnectionManager theConnections) {
+        initialize(theConnections);
         createTable();
         setDebugger(theDebuggerStatus);
     }
@@ -57,19 +60,15 @@ public class FileDirectoryDataBase {
     }
 
     /**
-     * initializes the database connection.
+     * Connects to the shared database connections.
      */
-    private void initialize() {
-        try {
-            myDataSource = new SQLiteDataSource();
-            myDataSource.setUrl(DB_URL);
+    private void initialize(final ConnectionManager theConnections) {
+        if (theConnections == null) {
 
-            MY_LOGGER.log(Level.INFO, "Database connection established successfully\n");
-        } catch (final Exception theEvent) {
-
-            MY_LOGGER.log(Level.SEVERE, "Failed to initialize database: " + theEvent+"\n");
-            throw new RuntimeException("Failed to initialize database: ", theEvent);
+            MY_LOGGER.log(Level.SEVERE, "Failed to initialize database: no connection manager\n");
+            throw new RuntimeException("Failed to initialize database: no connection manager");
         }
+        myConnections = theConnections;
     }
 
     /**
@@ -86,10 +85,9 @@ public class FileDirectoryDataBase {
                 )
                 """;
 
-        try (Connection conn = myDataSource.getConnection();
-             Statement stmt = conn.createStatement()) {
+        try {
 
-            stmt.executeUpdate(query);
+            myConnections.ensureTable("watchList", query);
 
             MY_LOGGER.log(Level.INFO, "Table 'filewatcher' created successfully or already " +
                     "exists.\n");
@@ -158,9 +156,9 @@ public class FileDirectoryDataBase {
         final String insertSQL = "INSERT INTO watchList (date, time, file_extension, " +
                 "directory) VALUES (?, ?, ?, ?)";
 
-        try (final Connection conn = myDataSource.getConnection();
-             final PreparedStatement prepStmnt = conn.prepareStatement(insertSQL)) {
+        try (final ConnectionManager.Lease lease = myConnections.acquireWriter()) {
 
+            final PreparedStatement prepStmnt = lease.prepare(insertSQL);
             prepStmnt.setObject(1, theDate);
             prepStmnt.setObject(2, theTime);
             prepStmnt.setObject(3, theFileExtension);
@@ -187,9 +185,9 @@ public class FileDirectoryDataBase {
         final String removeDir = "DELETE FROM watchList WHERE directory = ? AND " +
                 "file_extension = ?";
 
-        try (final Connection conn = myDataSource.getConnection();
-             final PreparedStatement pstmt = conn.prepareStatement(removeDir)) {
+        try (final ConnectionManager.Lease lease = myConnections.acquireWriter()) {
 
+            final PreparedStatement pstmt = lease.prepare(removeDir);
             pstmt.setString(1, theDirectory);
             pstmt.setString(2, theExtension);
 
@@ -207,10 +205,9 @@ public class FileDirectoryDataBase {
      */
     public void clearDatabase() {
         final String deleteSQL = "DELETE FROM watchList";
-        try (final Connection conn = myDataSource.getConnection();
-             final Statement stmt = conn.createStatement()) {
+        try (final ConnectionManager.Lease lease = myConnections.acquireWriter()) {
 
-            int rowsDeleted = stmt.executeUpdate(deleteSQL);
+            int rowsDeleted = lease.prepare(deleteSQL).executeUpdate();
 
             MY_LOGGER.log(Level.INFO,"Deleted " + rowsDeleted + " rows from database\n");
 
@@ -226,9 +223,8 @@ public class FileDirectoryDataBase {
      */
     public int getTableSize() {
         final String countItems = "SELECT COUNT(*) FROM watchList";
-        try (final Connection conn = myDataSource.getConnection();
-             final Statement stmt = conn.createStatement();
-             final ResultSet rs = stmt.executeQuery(countItems)) {
+        try (final ConnectionManager.Lease lease = myConnections.acquireReader();
+             final ResultSet rs = lease.prepare(countItems).executeQuery()) {
             if (rs.next()) {
                 return rs.getInt(1);
             } else {
@@ -252,9 +248,8 @@ public class FileDirectoryDataBase {
                 ORDER BY date DESC , time DESC
                 """;
 
-        try (final Connection conn = myDataSource.getConnection();
-             final Statement stmt = conn.createStatement();
-             final ResultSet rs = stmt.executeQuery(query)) {
+        try (final ConnectionManager.Lease lease = myConnections.acquireReader();
+             final ResultSet rs = lease.prepare(query).executeQuery()) {
             while (rs.next()) {
 
                 String date = rs.getString("date");
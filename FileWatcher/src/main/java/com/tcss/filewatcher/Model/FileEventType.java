@@ -0,0 +1,101 @@
+package com.tcss.filewatcher.Model;
+
+/**
+ * The kinds of file events, with the integer code stored in the database.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+public enum FileEventType {
+
+    /**
+     * An event type that could not be recognized.
+     */
+    UNKNOWN(0),
+
+    /**
+     * A file or directory was created.
+     */
+    CREATED(1),
+
+    /**
+     * A file or directory was modified.
+     */
+    MODIFIED(2),
+
+    /**
+     * A file or directory was deleted.
+     */
+    DELETED(3);
+
+    /**
+     * The code stored in the event_code column.
+     */
+    private final int myCode;
+
+    /**
+     * Creates an event type.
+     *
+     * @param theCode the database code.
+     */
+    FileEventType(final int theCode) {
+        myCode = theCode;
+    }
+
+    /**
+     * Gets the database code of this event type.
+     *
+     * @return the integer code.
+     */
+    public int getCode() {
+        return myCode;
+    }
+
+    /**
+     * Gets the name the watch service uses for this event type.
+     *
+     * @return e.g. "ENTRY_CREATE", or "UNKNOWN".
+     */
+    public String getWatchName() {
+        return switch (this) {
+            case CREATED -> "ENTRY_CREATE";
+            case MODIFIED -> "ENTRY_MODIFY";
+            case DELETED -> "ENTRY_DELETE";
+            case UNKNOWN -> "UNKNOWN";
+        };
+    }
+
+    /**
+     * Looks up an event type by its database code.
+     *
+     * @param theCode the integer code.
+     * @return the matching event type, UNKNOWN if there is none.
+     */
+    public static FileEventType fromCode(final int theCode) {
+        for (final FileEventType type : values()) {
+            if (type.myCode == theCode) {
+                return type;
+            }
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * Looks up an event type by any of the names used across the application,
+     * e.g. "ENTRY_CREATE", "CREATED" or "create".
+     *
+     * @param theName the event type name.
+     * @return the matching event type, UNKNOWN if there is none.
+     */
+    public static FileEventType fromName(final String theName) {
+        if (theName == null) {
+            return UNKNOWN;
+        }
+        return switch (theName.trim().toUpperCase()) {
+            case "ENTRY_CREATE", "CREATED", "CREATE" -> CREATED;
+            case "ENTRY_MODIFY", "MODIFIED", "MODIFY" -> MODIFIED;
+            case "ENTRY_DELETE", "DELETED", "DELETE" -> DELETED;
+            default -> UNKNOWN;
+        };
+    }
+}
@@ -14,10 +14,8 @@ import java.io.Serial;
 import java.io.Serializable;
 import java.nio.file.ClosedWatchServiceException;
 import java.nio.file.FileSystems;
-import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.SimpleFileVisitor;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
@@ -25,10 +23,8 @@ import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
 import java.nio.file.WatchEvent;
 import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
-import java.nio.file.attribute.BasicFileAttributes;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -36,10 +32,11 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import org.jetbrains.annotations.NotNull;
 
 /**
  * Watches a directory for file creation, modification, and deletion events.
@@ -72,20 +69,25 @@ public class FileEventWatcher extends SceneHandler implements Serializable,
      */
     private final Set<String> myWatchedExtensions;
 
+    /**
+     * The watched extensions compiled for matching, replaced whenever they change.
+     */
+    private transient volatile FileNameMatcher myExtensionMatcher;
+
     /**
      * Flag indicating whether the watcher is currently active.
      */
-    private boolean myIsWatching;
+    private volatile boolean myIsWatching;
 
     /**
-     * List of currently captured file events.
+     * The most recently captured file events, oldest overwritten first.
      */
-    private final List<FileEvent> myCurrentEvents;
+    private transient EventRingBuffer<FileEvent> myCurrentEvents;
 
     /**
      * Flag indicating whether there are unsaved events.
      */
-    private boolean myHasUnsavedEvents;
+    private volatile boolean myHasUnsavedEvents;
 
     /**
      * The watch service used to monitor file system events.
@@ -97,6 +99,41 @@ public class FileEventWatcher extends SceneHandler implements Serializable,
      */
     private transient DataBaseManager myDBManager;
 
+    /**
+     * Queues matching events and writes them to the database in batches.
+     */
+    private transient BatchEventWriter myEventWriter;
+
+    /**
+     * Filters and persists events on its own thread and publishes the filtered stream.
+     */
+    private transient EventRouter myEventRouter;
+
+    /**
+     * Merges bursts of raw events per path before they enter the pipeline.
+     */
+    private transient EventCoalescer myCoalescer;
+
+    /**
+     * Applies the retention policy to the database of the event writer while watching.
+     */
+    private transient RetentionScheduler myRetention;
+
+    /**
+     * The last known contents of every registered directory, used to recover from overflows.
+     */
+    private transient DirectorySnapshot mySnapshot;
+
+    /**
+     * Number of times the watch service overflowed and lost events.
+     */
+    private transient AtomicLong myOverflowCount;
+
+    /**
+     * Number of events synthesized by rescanning after an overflow.
+     */
+    private transient AtomicLong myRecoveredCount;
+
     /**
      * Executor service for processing file events in a background thread.
      */
@@ -108,9 +145,14 @@ public class FileEventWatcher extends SceneHandler implements Serializable,
     private transient AtomicBoolean myShouldStop;
 
     /**
-     * Map of watch keys to their corresponding paths.
+     * Index between watch keys and the directories they watch.
      */
-    private transient Map<WatchKey, Path> myWatchKeys;
+    private transient WatchKeyIndex myWatchKeys;
+
+    /**
+     * Registers directory trees in parallel without holding up the event loop.
+     */
+    private transient DirectoryRegistrar myRegistrar;
 
     /**
      * Set of paths being watched.
@@ -128,6 +170,11 @@ public class FileEventWatcher extends SceneHandler implements Serializable,
      */
     private static final Logger MY_LOGGER = Logger.getLogger("File Event Watcher");
 
+    /**
+     * How long stopping waits for the watcher thread to finish its current events.
+     */
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5000;
+
     /**
      * Overrides constructor debugger constructor.
      */
@@ -139,7 +186,6 @@ public class FileEventWatcher extends SceneHandler implements Serializable,
      */
     public FileEventWatcher(final boolean theDebuggerStatus) {
         myWatchedExtensions = new HashSet<>();
-        myCurrentEvents = new ArrayList<>();
         myIsWatching = false;
         myHasUnsavedEvents = false;
         initializeTransientFields();
@@ -185,6 +231,7 @@ public class FileEventWatcher extends SceneHandler implements Serializable,
 
         if (theFileWatcherScene != null) {
             addPropertyChangeListener(theFileWatcherScene);
+            myEventRouter.addPropertyChangeListener(theFileWatcherScene);
         }
     }
 
@@ -195,12 +242,39 @@ public class FileEventWatcher extends SceneHandler implements Serializable,
         if (myChanges == null) {
             myChanges = new PropertyChangeSupport(this);
         }
+        if (myCurrentEvents == null) {
+            myCurrentEvents = new EventRingBuffer<>();
+        }
         if (myWatchKeys == null) {
-            myWatchKeys = new HashMap<>();
+            myWatchKeys = new WatchKeyIndex();
+        }
+        if (myRegistrar == null) {
+            myRegistrar = new DirectoryRegistrar(this::registerDirectory);
         }
         if (myDBManager == null) {
             myDBManager = new DataBaseManager(false);
         }
+        if (myEventWriter == null) {
+            myEventWriter = new BatchEventWriter(myDBManager);
+        }
+        if (myEventRouter == null) {
+            myEventRouter = new EventRouter(myEventWriter);
+        }
+        if (myCoalescer == null) {
+            myCoalescer = new EventCoalescer(this::emitEvent);
+        }
+        if (mySnapshot == null) {
+            mySnapshot = new DirectorySnapshot();
+        }
+        if (myExtensionMatcher == null) {
+            myExtensionMatcher = FileNameMatcher.ofExtensions(myWatchedExtensions);
+        }
+        if (myOverflowCount == null) {
+            myOverflowCount = new AtomicLong();
+        }
+        if (myRecoveredCount == null) {
+            myRecoveredCount = new AtomicLong();
+        }
         if (myShouldStop == null) {
             myShouldStop = new AtomicBoolean(false);
         }
@@ -212,15 +286,51 @@ public class FileEventWatcher extends SceneHandler implements Serializable,
      * @param theFilePath the absolute path of the directory to watch
      */
     public void addWatchPath(final String theFilePath) {
+        addWatchPaths(List.of(Path.of(theFilePath)));
+    }
 
-        final Path path = Path.of(theFilePath).toAbsolutePath().normalize();
-        myWatchedPaths.add(path);
-
-        try {
-            if (myIsWatching && myWatchService != null) {
+    /**
+     * Adds many directories to watch at once, e.g. the saved watch list at startup.
+     * A directory below another watched directory gets no walk of its own, the outer
+     * directory's walk already registers it.
+     *
+     * @param thePaths the directories to watch
+     */
+    public void addWatchPaths(final Collection<Path> thePaths) {
+        final List<Path> requested = new ArrayList<>();
+        final List<Path> added = new ArrayList<>();
+        for (final Path thePath : thePaths) {
+            final Path path = thePath.toAbsolutePath().normalize();
+            requested.add(path);
+            if (myWatchedPaths.add(path)) {
+                added.add(path);
+            }
+        }
 
-                walkAndRegisterDirectories(path);
+        if (myIsWatching && myWatchService != null && !added.isEmpty()) {
+            final Set<Path> outermost =
+                    new HashSet<>(myRegistrar.outermostRoots(myWatchedPaths));
+            for (final Path path : added) {
+                if (outermost.contains(path)) {
+                    registerRoot(path);
+                }
             }
+        }
+
+        myProperties = Properties.WATCH_PATH_SET;
+        for (final Path path : requested) {
+            myChanges.firePropertyChange(myProperties.toString(), null, path.toString());
+        }
+    }
+
+    /**
+     * Registers a watched root and walks its tree, forgetting it if it cannot be watched.
+     *
+     * @param path the root directory
+     */
+    private void registerRoot(final Path path) {
+        try {
+            myRegistrar.registerTree(path);
 
         } catch (final ClosedWatchServiceException theEvent) {
 
@@ -234,9 +344,27 @@ public class FileEventWatcher extends SceneHandler implements Serializable,
 
             myWatchedPaths.remove(path);
         }
+    }
 
-        myProperties = Properties.WATCH_PATH_SET;
-        myChanges.firePropertyChange(myProperties.toString(), null, path.toString());
+    /**
+     * Stops watching a directory that was added with {@link #addWatchPath(String)}, along
+     * with every directory below it that no other watched root covers.
+     *
+     * @param theFilePath the path of the directory to stop watching
+     */
+    public void removeWatchPath(final String theFilePath) {
+        final Path path = Path.of(theFilePath).toAbsolutePath().normalize();
+        unregisterDirectory(path);
+        myWatchedPaths.remove(path);
+    }
+
+    /**
+     * Returns the directories being watched, each with everything below it.
+     *
+     * @return a copy of the watched roots
+     */
+    public Set<Path> getWatchedPaths() {
+        return new HashSet<>(myWatchedPaths);
     }
 
     /**
@@ -268,11 +396,36 @@ public class FileEventWatcher extends SceneHandler implements Serializable,
 
     /**
      * Returns the list of currently captured file events.
+     * Copies the buffer; readers that poll should use {@link #getEventBuffer()} instead.
      *
      * @return a List of FileEvent objects representing the current file events
      */
     public List<FileEvent> getCurrentEvents() {
-        return new ArrayList<>(myCurrentEvents);
+        return myCurrentEvents.toList();
+    }
+
+    /**
+     * Gets the buffer of recent events, for reading the events since a sequence number
+     * without copying, or for its eviction and drop counts.
+     *
+     * @return the event ring buffer.
+     */
+    public EventRingBuffer<FileEvent> getEventBuffer() {
+        return myCurrentEvents;
+    }
+
+    /**
+     * Replaces the buffer of recent events with an empty one of a new size.
+     * Only allowed while the watcher is stopped.
+     *
+     * @param theCapacity the number of events to keep.
+     */
+    public void setEventBufferCapacity(final int theCapacity) {
+        if (myIsWatching) {
+            throw new IllegalStateException("Cannot resize the event buffer while watching");
+        }
+        myCurrentEvents = new EventRingBuffer<>(theCapacity);
+        setHasUnsavedEvents(false);
     }
 
     /**
@@ -284,6 +437,94 @@ public class FileEventWatcher extends SceneHandler implements Serializable,
         return myHasUnsavedEvents;
     }
 
+    /**
+     * Gets the writer that persists the watched events.
+     *
+     * @return the batch event writer.
+     */
+    public BatchEventWriter getEventWriter() {
+        return myEventWriter;
+    }
+
+    /**
+     * Gets the router that filters, persists and publishes the watched events.
+     *
+     * @return the event router.
+     */
+    public EventRouter getEventRouter() {
+        return myEventRouter;
+    }
+
+    /**
+     * Gets the stage that merges bursts of raw events, e.g. to change its quiet window
+     * or read how many events it suppressed.
+     *
+     * @return the event coalescer.
+     */
+    public EventCoalescer getEventCoalescer() {
+        return myCoalescer;
+    }
+
+    /**
+     * Gets the scheduler that applies the retention policy while watching.
+     *
+     * @return the retention scheduler, or null if retention was not configured when the
+     * watcher last started.
+     */
+    public RetentionScheduler getRetentionScheduler() {
+        return myRetention;
+    }
+
+    /**
+     * Gets the registrar that walks watched trees, e.g. to change its exclude globs
+     * or follow its progress.
+     *
+     * @return the directory registrar.
+     */
+    public DirectoryRegistrar getDirectoryRegistrar() {
+        return myRegistrar;
+    }
+
+    /**
+     * Gets the number of times the watch service overflowed for a directory.
+     *
+     * @return the overflow count.
+     */
+    public long getOverflowCount() {
+        return myOverflowCount.get();
+    }
+
+    /**
+     * Gets the number of events that were reconstructed by rescanning overflowed directories.
+     *
+     * @return the recovered event count.
+     */
+    public long getRecoveredEventCount() {
+        return myRecoveredCount.get();
+    }
+
+    /**
+     * Replaces the writer that persists the watched events, e.g. to change the batch size,
+     * linger time or backpressure policy. Only allowed while the watcher is stopped. The
+     * listeners of the filtered event stream move to the router of the new writer.
+     *
+     * @param theEventWriter the new batch event writer.
+     */
+    public void setEventWriter(final BatchEventWriter theEventWriter) {
+        if (theEventWriter == null) {
+            throw new IllegalArgumentException("Event writer cannot be null");
+        }
+        if (myIsWatching) {
+            throw new IllegalStateException("Cannot replace the event writer while watching");
+        }
+        final EventRouter router = new EventRouter(theEventWriter);
+        for (final PropertyChangeListener listener : myEventRouter.getPropertyChangeListeners()) {
+            router.addPropertyChangeListener(listener);
+        }
+        myEventWriter = theEventWriter;
+        myEventRouter = router;
+    }
+
     /**
      * Sets the absolute path of the directory to watch.
      *
@@ -329,6 +570,7 @@ public class FileEventWatcher extends SceneHandler implements Serializable,
         }
         final boolean added = myWatchedExtensions.add(normalizedExtension.toLowerCase());
         if (added) {
+            myExtensionMatcher = FileNameMatcher.ofExtensions(myWatchedExtensions);
 
             myProperties = Properties.ADDED_EXTENSION;
             myChanges.firePropertyChange(myProperties.toString(), null, normalizedExtension);
@@ -352,6 +594,7 @@ public class FileEventWatcher extends SceneHandler implements Serializable,
         }
         final boolean removed = myWatchedExtensions.remove(normalizedExtension.toLowerCase());
         if (removed) {
+            myExtensionMatcher = FileNameMatcher.ofExtensions(myWatchedExtensions);
 
             myProperties = Properties.REMOVED_EXTENSION;
             myChanges.firePropertyChange(myProperties.toString(), null, normalizedExtension);
@@ -361,7 +604,9 @@ public class FileEventWatcher extends SceneHandler implements Serializable,
     /**
      * Starts watching the specified paths for file events.
      *
-     * @throws IOException if an error occurs while initializing the watch service
+     * @throws IOException           if an error occurs while initializing the watch service
+     * @throws IllegalStateException if the event writer or router of the last run is still
+     *                               draining
      */
     public void startWatching() throws IOException {
         if (myIsWatching) {
@@ -379,7 +624,25 @@ public class FileEventWatcher extends SceneHandler implements Serializable,
 
         }
 
-        initializeWatchService();
+        // before the watch service, so a writer or router that cannot start leaves nothing
+        // open; the writer stays up for a router of the last run that is still draining
+        myEventWriter.start();
+        myEventRouter.start();
+        try {
+            initializeWatchService();
+        } catch (final IOException | RuntimeException theE) {
+            if (myEventRouter.shutdown()) {
+                myEventWriter.shutdown();
+            }
+            throw theE;
+        }
+        // expiring drops history for good, so only when asked to; the writer may have been
+        // replaced since the last start
+        myRetention = null;
+        if (RetentionPolicy.isConfigured()) {
+            myRetention = new RetentionScheduler(myEventWriter.getDBManager());
+            myRetention.start();
+        }
         myIsWatching = true;
         myShouldStop.set(false);
 
@@ -413,12 +676,9 @@ public class FileEventWatcher extends SceneHandler implements Serializable,
         }
         myIsWatching = false;
         myShouldStop.set(true);
+        myRegistrar.cancel();
 
-        // Shutdown executor service
-        if (myExecutorService != null && !myExecutorService.isShutdown()) {
-            myExecutorService.shutdown();
-        }
-        // Close watch service
+        // Close watch service, so the watcher thread leaves its loop after the current events
         if (myWatchService != null) {
             try {
                 myWatchService.close();
@@ -430,10 +690,36 @@ public class FileEventWatcher extends SceneHandler implements Serializable,
                 myWatchService = null;
             }
         }
+        // Wait for the watcher thread, so its last events reach the coalescer before the flush
+        if (myExecutorService != null && !myExecutorService.isShutdown()) {
+            myExecutorService.shutdown();
+            try {
+                if (!myExecutorService.awaitTermination(SHUTDOWN_TIMEOUT_MILLIS,
+                        TimeUnit.MILLISECONDS)) {
+                    MY_LOGGER.log(Level.WARNING, "Watcher thread did not stop in time.\n");
+                }
+            } catch (final InterruptedException theE) {
+                Thread.currentThread().interrupt();
+            }
+        }
 
         if (myWatchKeys != null) {
             myWatchKeys.clear();
         }
+        mySnapshot.clear();
+        if (myRetention != null) {
+            myRetention.stop();
+        }
+
+        // release, route and write out whatever is still queued before reporting that we stopped
+        myCoalescer.flushAll();
+        if (myEventRouter.shutdown()) {
+            myEventWriter.shutdown();
+        } else {
+            // the router worker still submits its queue; the writer stops with the next stop
+            MY_LOGGER.log(Level.WARNING, "Event writer left running for the draining "
+                    + "router.\n");
+        }
 
         myProperties = Properties.STOPPED_WATCHING;
         myChanges.firePropertyChange(myProperties.toString(), true, myIsWatching);
@@ -448,8 +734,8 @@ public class FileEventWatcher extends SceneHandler implements Serializable,
     private void initializeWatchService() throws IOException {
         myWatchService = FileSystems.getDefault().newWatchService();
         myWatchKeys.clear();
-        for (final Path start : myWatchedPaths) {
-            walkAndRegisterDirectories(start);
+        for (final Path start : myRegistrar.outermostRoots(myWatchedPaths)) {
+            myRegistrar.registerTree(start);
         }
     }
 
@@ -461,27 +747,35 @@ public class FileEventWatcher extends SceneHandler implements Serializable,
      */
     private void registerDirectory(final Path theDir) throws IOException {
         final WatchKey key = theDir.register(myWatchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
-        myWatchKeys.put(key, theDir);
+        myWatchKeys.put(theDir, key);
+        mySnapshot.capture(theDir);
     }
 
     /**
-     * Unregisters a directory from the watch service.
+     * Unregisters a watched root and every directory below it from the watch service.
+     * Directories that are still covered by another watched root stay registered.
      *
      * @param theDir the directory to unregister
      */
     private void unregisterDirectory(final Path theDir) {
-        WatchKey keyToRemove = null;
-        for (Map.Entry<WatchKey, Path> entry : myWatchKeys.entrySet()) {
-            if (entry.getValue().equals(theDir)) {
-                keyToRemove = entry.getKey();
-                break;
+        final Set<Path> otherRoots = new HashSet<>(myWatchedPaths);
+        otherRoots.remove(theDir);
+        for (final Path root : otherRoots) {
+            if (theDir.startsWith(root)) {
+                MY_LOGGER.log(Level.INFO, "The directory is still watched through " + root
+                        + "\n");
+                return;
             }
         }
-        if (keyToRemove != null) {
-            keyToRemove.cancel();
-            myWatchKeys.remove(keyToRemove);
 
-            MY_LOGGER.log(Level.INFO, "Directory has been successfully removed!\n");
+        final List<Path> removed = myWatchKeys.removeSubtree(theDir, otherRoots);
+        for (final Path dir : removed) {
+            mySnapshot.remove(dir);
+        }
+        if (!removed.isEmpty()) {
+
+            MY_LOGGER.log(Level.INFO, "Directory has been successfully removed! ("
+                    + removed.size() + " watches released)\n");
 
         } else {
             MY_LOGGER.log(Level.INFO, "The directory could not be removed!\n");
@@ -490,20 +784,23 @@ public class FileEventWatcher extends SceneHandler implements Serializable,
     }
 
     /**
-     * Walks through the directory tree starting from the specified path
+     * Gets the number of directories registered with the watch service at or below a path,
+     * i.e. the number of kernel watches it uses (see fs.inotify.max_user_watches on Linux).
      *
-     * @param theStart the starting path to walk through
-     * @throws IOException if an error occurs while walking the directory tree or registering directories
+     * @param theRoot the watched root or any directory below it
+     * @return the number of watch keys in the subtree
      */
-    private void walkAndRegisterDirectories(final Path theStart) throws IOException {
-        Files.walkFileTree(theStart, new SimpleFileVisitor<>() {
-            @Override
-            public @NotNull FileVisitResult preVisitDirectory(final @NotNull Path theDir,
-                                                              final @NotNull BasicFileAttributes theAttrs) throws IOException {
-                registerDirectory(theDir);
-                return FileVisitResult.CONTINUE;
-            }
-        });
+    public int getWatchKeyCount(final Path theRoot) {
+        return myWatchKeys.countUnder(theRoot);
+    }
+
+    /**
+     * Gets the number of directories registered with the watch service.
+     *
+     * @return the total number of watch keys
+     */
+    public int getWatchKeyCount() {
+        return myWatchKeys.size();
     }
 
     /**
@@ -514,17 +811,35 @@ public class FileEventWatcher extends SceneHandler implements Serializable,
             return;
         }
         try {
-            WatchKey key;
-            while ((key = myWatchService.take()) != null && !myShouldStop.get()) {
-                final Path dir = myWatchKeys.get(key);
+            while (!myShouldStop.get()) {
+                // wake up in time to release coalesced events whose quiet window has passed
+                final long wait = myCoalescer.millisUntilNextFlush(System.currentTimeMillis());
+                final WatchKey key;
+                if (wait < 0) {
+                    key = myWatchService.take();
+                } else {
+                    key = myWatchService.poll(wait, TimeUnit.MILLISECONDS);
+                }
+                if (myShouldStop.get()) {
+                    break;
+                }
+                if (key == null) {
+                    myCoalescer.flushDue(System.currentTimeMillis());
+                    continue;
+                }
+                final Path dir = myWatchKeys.getPath(key);
                 if (dir == null) {
 
                     MY_LOGGER.log(Level.WARNING, "WatchKey not recognized!!\n");
                     continue;
                 }
-                for (final WatchEvent<?> event : key.pollEvents()) {
+                final FlightEvents.WatchKey keyEvent = new FlightEvents.WatchKey();
+                final List<WatchEvent<?>> events = key.pollEvents();
+                for (final WatchEvent<?> event : events) {
                     processWatchEvent(event, dir);
                 }
+                keyEvent.end(dir, events.size());
+                myCoalescer.flushDue(System.currentTimeMillis());
                 // reset key and remove from set if directory no longer accessible
                 final boolean valid = key.reset();
                 if (!valid) {
@@ -549,49 +864,102 @@ public class FileEventWatcher extends SceneHandler implements Serializable,
 
     /**
      * Processes a single file system event.
+     * Package-private so the ingest benchmarks can drive it with synthetic events.
      *
      * @param theEvent the watch event to process
      * @param theDir   the directory where the event occurred
      */
-    private void processWatchEvent(final WatchEvent<?> theEvent, final Path theDir) {
+    void processWatchEvent(final WatchEvent<?> theEvent, final Path theDir) {
 
         final WatchEvent.Kind<?> kind = theEvent.kind();
         if (kind == OVERFLOW) {
+            recoverFromOverflow(theDir);
             return;
         }
+        final FlightEvents.WatchEventFilter flight = new FlightEvents.WatchEventFilter();
 
 
         final WatchEvent<Path> pathEvent = (WatchEvent<Path>) theEvent;
         final Path filename = pathEvent.context();
         final Path child = theDir.resolve(filename);
+        mySnapshot.update(theDir, filename, kind);
 
         // if a directory is created and watching recursively, then trigger it and it's subdirectories
-        if (kind == ENTRY_CREATE) {
-            try {
-                if (Files.isDirectory(child)) {
-                    walkAndRegisterDirectories(child);
-                }
-            } catch (final IOException theE) {
-                MY_LOGGER.log(Level.SEVERE,
-                        "Error registering new directory: " + theE.getMessage() + "\n");
-
-            }
+        if (kind == ENTRY_CREATE && Files.isDirectory(child)) {
+            myRegistrar.submitTree(child);
         }
-        // check if file matches watched extensions
-        if (!matchesWatchedExtensions(filename.toString(), theDir)) {
+        // check if file matches watched extensions and rules
+        if (!isWatchedFile(filename, theDir)) {
+            flight.end(child, kind.name(), false);
             return;
         }
 
+        myCoalescer.offer(theDir, filename, kind, System.currentTimeMillis());
+        flight.end(child, kind.name(), true);
+    }
+
+    /**
+     * Rescans a directory whose events were lost and publishes the differences from its
+     * snapshot as synthesized events.
+     *
+     * @param theDir the directory the watch service overflowed for
+     */
+    private void recoverFromOverflow(final Path theDir) {
+        myOverflowCount.incrementAndGet();
+        MY_LOGGER.log(Level.WARNING, "Events were lost for " + theDir + ", rescanning.\n");
+
+        // anything still held for this directory happened before the lost events
+        myCoalescer.flushAll();
+        final Map<Path, WatchEvent.Kind<Path>> changes = mySnapshot.rescan(theDir);
+        final long now = System.currentTimeMillis();
+        for (final Map.Entry<Path, WatchEvent.Kind<Path>> change : changes.entrySet()) {
+            final Path filename = change.getKey();
+            final Path child = theDir.resolve(filename);
+            if (change.getValue() == ENTRY_CREATE && Files.isDirectory(child)) {
+                myRegistrar.submitTree(child);
+            }
+            if (isWatchedFile(filename, theDir)) {
+                publishEvent(theDir, filename, change.getValue(), now, true);
+                myRecoveredCount.incrementAndGet();
+            }
+        }
+        MY_LOGGER.log(Level.INFO, "Recovered " + changes.size() + " events for " + theDir
+                + "\n");
+    }
+
+    /**
+     * Publishes an event released by the coalescer to the rest of the pipeline.
+     *
+     * @param theEvent the coalesced event
+     */
+    private void emitEvent(final EventCoalescer.Pending theEvent) {
+        publishEvent(theEvent.getDirectory(), theEvent.getFileName(), theEvent.getKind(),
+                theEvent.getFirstSeenMillis(), false);
+    }
+
+    /**
+     * Records an event and hands it to the rest of the pipeline.
+     *
+     * @param theDir         the directory where the event occurred
+     * @param theFileName    the name of the file relative to the directory
+     * @param theKind        the kind of the event
+     * @param theSeenMillis  when the event was seen, in epoch milliseconds
+     * @param theSynthesized whether the event was reconstructed by a rescan
+     */
+    private void publishEvent(final Path theDir, final Path theFileName,
+                              final WatchEvent.Kind<?> theKind, final long theSeenMillis,
+                              final boolean theSynthesized) {
+        final Path child = theDir.resolve(theFileName);
+
         // Create file event
-        final String eventType = getEventTypeString(kind);
-        final String currentDate =
-                java.time.LocalDate.now().format(DateTimeFormatter.ofPattern("dd MMM, " +
-                        "yyyy"));
-        final String currentTime =
-                java.time.LocalTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss"));
+        final String eventType = getEventTypeString(theKind);
+        final EventRecord record = EventRecord.of(theSeenMillis,
+                FileEventType.fromName(theKind.name()), theDir.toString(),
+                theFileName.toString(), theSynthesized);
+        final String currentTime = record.getTime();
 
         final FileEvent fileEvent = new FileEvent(
-                filename.toString(),
+                theFileName.toString(),
                 child.toString(),
                 eventType,
                 currentTime
@@ -600,32 +968,36 @@ public class FileEventWatcher extends SceneHandler implements Serializable,
         addFileEvent(fileEvent);
 
         // print out event
-        final String message = String.format("%s: %s\n", theEvent.kind().name(), child);
+        final String message = String.format("%s%s: %s\n",
+                theSynthesized ? "RECOVERED " : "", theKind.name(), child);
         MY_LOGGER.log(Level.INFO, message);
 
-        final DirectoryEntry entry = new DirectoryEntry(currentDate, currentTime,
-                filename.toString(), theDir.toString(), theEvent.kind().name());
-
-        myChanges.firePropertyChange(Properties.NEW_FILE_EVENT.toString(), null, entry);
+        // the router fires FILTERED_FILE_EVENT for the table, off this thread
+        myEventRouter.routeRecord(record);
     }
 
     /**
-     * Checks if the given filename matches any of the watched file extensions.
+     * Checks if the given file is worth an event: it must not match an exclude rule, and
+     * must match an include rule or one of the watched file extensions. Uses the compiled
+     * matchers, so nothing is allocated per call.
+     * Package-private so the ingest benchmarks can drive it.
      *
-     * @param theFilename the name of the file to check against watched extensions
-     * @return true if the filename matches any watched extension, false otherwise
+     * @param theFilename the name of the file relative to the directory
+     * @param theDir      the directory where the event occurred
+     * @return true if the file should produce an event, false otherwise
      */
-    private boolean matchesWatchedExtensions(final String theFilename, final Path theDir) {
+    boolean isWatchedFile(final Path theFilename, final Path theDir) {
+        final String filename = theFilename.toString();
+        final String directory = theDir.toString();
+        final FileNameMatcher rules = FileExtensionHandler.getFilterRules();
+        if (rules.isExcluded(directory, filename)) {
+            return false;
+        }
         if (myWatchedExtensions.isEmpty() || myWatchedPaths.contains(theDir)) {
             return true; // watch all files if no extensions specified
         }
-        final String lowerFilename = theFilename.toLowerCase();
-        for (final String extension : myWatchedExtensions) {
-            if (lowerFilename.endsWith(extension)) {
-                return true;
-            }
-        }
-        return false;
+        return rules.isIncluded(directory, filename)
+                || myExtensionMatcher.matchesExtension(filename);
     }
 
     /**
@@ -655,15 +1027,15 @@ public class FileEventWatcher extends SceneHandler implements Serializable,
      *
      * @param theFileEvent the file event to add
      */
-    private synchronized void addFileEvent(final FileEvent theFileEvent) {
-        myCurrentEvents.add(theFileEvent);
+    private void addFileEvent(final FileEvent theFileEvent) {
+        myCurrentEvents.append(theFileEvent);
         setHasUnsavedEvents(true);
     }
 
     /**
      * Clears the list of current file events and resets the unsaved events flag.
      */
-    public synchronized void clearCurrentEvents() {
+    public void clearCurrentEvents() {
         myCurrentEvents.clear();
         setHasUnsavedEvents(false);
     }
@@ -761,10 +1133,7 @@ public class FileEventWatcher extends SceneHandler implements Serializable,
 
             case REMOVED_DIRECTORY -> {
                 if (theEvent.getOldValue() != null) {
-                    final Path thePath =
-                            Path.of(Objects.requireNonNull(theEvent.getOldValue().toString()));
-                    unregisterDirectory(thePath);
-                    myWatchedPaths.remove(thePath);
+                    removeWatchPath(Objects.requireNonNull(theEvent.getOldValue().toString()));
                 } else {
 
                     MY_LOGGER.log(Level.WARNING, "Error: The directory path is null!\n");
@@ -1,6 +1,11 @@
 package com.tcss.filewatcher.Model;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Handles whether the file extension is valid.
@@ -9,6 +14,27 @@ import java.util.List;
  * @version 8.15.25
  */
 public class FileExtensionHandler {
+
+    /**
+     * The system property with extra include rules, separated by commas.
+     */
+    public static final String INCLUDE_PROPERTY = "filewatcher.include";
+
+    /**
+     * The system property with extra exclude rules, separated by commas.
+     */
+    public static final String EXCLUDE_PROPERTY = "filewatcher.exclude";
+
+    /**
+     * Logger object.
+     */
+    private static final Logger MY_LOGGER = Logger.getLogger("File Extension Handler");
+
+    /**
+     * The include and exclude rules shared by the watcher and the event filter.
+     */
+    private static volatile FileNameMatcher myFilterRules = loadFilterRules();
+
     private FileExtensionHandler() {
     }
 
@@ -21,30 +47,118 @@ public class FileExtensionHandler {
     public static boolean canAddExtension(final List<String> theListOfDirExten,
                                           final DirectoryEntry theEntry) {
 
-        final String fileName = theEntry.getFileName().toLowerCase();
-        final String extension = theEntry.getFileExtension();
+        return canAddEvent(theListOfDirExten == null ? null
+                : FileNameMatcher.ofExtensions(theListOfDirExten), theEntry);
+    }
+
+    /**
+     * Checks if the event can be added to the table, using the compiled rules of its
+     * directory and the shared include and exclude rules.
+     *
+     * @param theDirRules the compiled extensions of the directory, or null if the
+     *                    directory is not monitored.
+     * @param theEntry    the new entry event.
+     * @return true if the event is valid with the associated directory.
+     */
+    public static boolean canAddEvent(final FileNameMatcher theDirRules,
+                                      final DirectoryEntry theEntry) {
+
+        return canAddEvent(theDirRules, theEntry.getDirectory(), theEntry.getFileName());
+    }
+
+    /**
+     * Checks if the event can be added to the table, using the compiled rules of its
+     * directory and the shared include and exclude rules.
+     *
+     * @param theDirRules the compiled extensions of the directory, or null if the
+     *                    directory is not monitored.
+     * @param theRecord   the new event.
+     * @return true if the event is valid with the associated directory.
+     */
+    public static boolean canAddEvent(final FileNameMatcher theDirRules,
+                                      final EventRecord theRecord) {
+
+        return canAddEvent(theDirRules, theRecord.getDirectory(), theRecord.getFileName());
+    }
+
+    /**
+     * Checks a file against the rules of its directory and the shared rules.
+     *
+     * @param theDirRules  the compiled extensions of the directory, or null.
+     * @param theDirectory the directory of the file, or null.
+     * @param theFileName  the name of the file, or null.
+     * @return true if the event is valid with the associated directory.
+     */
+    private static boolean canAddEvent(final FileNameMatcher theDirRules,
+                                       final String theDirectory, final String theFileName) {
 
-        if (fileName.equalsIgnoreCase(".DS_Store")) {
+        final String fileName = theFileName == null ? "" : theFileName;
+        final String directory = theDirectory == null ? "" : theDirectory;
+
+        if (theDirRules == null) {
             return false;
         }
 
-        if (theListOfDirExten == null) {
+        final FileNameMatcher rules = myFilterRules;
+        if (rules.isExcluded(directory, fileName)) {
             return false;
         }
 
-        if (theListOfDirExten.contains("All Extensions")) {
-            
-            new DataBaseManager(false).insertFileEvent(theEntry.getDate(), theEntry.getTime(),
-                    fileName, theEntry.getDirectory(), theEntry.getModificationType());
-            return true;
+        return rules.isIncluded(directory, fileName) || theDirRules.matchesExtension(fileName);
+    }
+
+    /**
+     * Gets the include and exclude rules shared by the watcher and the event filter.
+     *
+     * @return the compiled rules.
+     */
+    public static FileNameMatcher getFilterRules() {
+        return myFilterRules;
+    }
+
+    /**
+     * Replaces the include and exclude rules. The default excludes always apply.
+     *
+     * @param theIncludes the include rules, globs or regexes prefixed with "regex:".
+     * @param theExcludes the exclude rules, added to the default excludes.
+     * @throws IllegalArgumentException if a rule does not compile.
+     */
+    public static void setFilterRules(final Collection<String> theIncludes,
+                                      final Collection<String> theExcludes) {
+        if (theIncludes == null || theExcludes == null) {
+            throw new IllegalArgumentException("Rules cannot be null");
         }
+        final List<String> excludes = new ArrayList<>(FileNameMatcher.DEFAULT_EXCLUDES);
+        excludes.addAll(theExcludes);
+        myFilterRules = FileNameMatcher.ofRules(theIncludes, excludes);
+    }
 
-        if (extension != null && theListOfDirExten.contains(extension)) {
-            new DataBaseManager(false).insertFileEvent(theEntry.getDate(), theEntry.getTime(),
-                    fileName, theEntry.getDirectory(), theEntry.getModificationType());
-            return true;
+    /**
+     * Builds the rules from the system properties, falling back to the default excludes
+     * if they do not compile.
+     *
+     * @return the compiled rules.
+     */
+    private static FileNameMatcher loadFilterRules() {
+        final List<String> includes = split(System.getProperty(INCLUDE_PROPERTY));
+        final List<String> excludes = new ArrayList<>(FileNameMatcher.DEFAULT_EXCLUDES);
+        excludes.addAll(split(System.getProperty(EXCLUDE_PROPERTY)));
+        try {
+            return FileNameMatcher.ofRules(includes, excludes);
+        } catch (final IllegalArgumentException theE) {
+            MY_LOGGER.log(Level.WARNING, "Filter rules ignored: " + theE.getMessage() + "\n");
+            return FileNameMatcher.ofRules(List.of(), FileNameMatcher.DEFAULT_EXCLUDES);
         }
+    }
 
-        return false;
+    /**
+     * Splits a property into rules.
+     *
+     * @param theValue the property value, or null.
+     * @return the rules.
+     */
+    private static List<String> split(final String theValue) {
+        return theValue == null || theValue.isBlank() ? List.of()
+                : Arrays.asList(theValue.split(","));
     }
 }
@@ -0,0 +1,681 @@
+package com.tcss.filewatcher.Model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Decides which files are worth an event, compiled once so the check per event does not
+ * allocate. Extensions are compiled into an automaton over the reversed file name, so a
+ * name is read once from its end no matter how many extensions are watched. Include and
+ * exclude rules are globs, or regexes when prefixed with {@code regex:}, and are matched
+ * without case. A glob without a slash matches the file name, e.g. {@code *.tmp~}; one
+ * with a slash matches the end of the path at a directory boundary, e.g.
+ * {@code build/**}, or the whole path when it starts with a slash. Globs support
+ * {@code *}, {@code **}, {@code ?} and {@code [a-z]} classes; regexes match the file name.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+public final class FileNameMatcher {
+
+    /**
+     * The extension that stands for every file.
+     */
+    public static final String ALL_EXTENSIONS = "All Extensions";
+
+    /**
+     * The prefix of a regex rule.
+     */
+    public static final String REGEX_PREFIX = "regex:";
+
+    /**
+     * The prefix of a glob rule, optional.
+     */
+    public static final String GLOB_PREFIX = "glob:";
+
+    /**
+     * Files that never produce events, such as the folder metadata macOS writes.
+     */
+    public static final List<String> DEFAULT_EXCLUDES = List.of(".DS_Store");
+
+    /**
+     * A matcher without extensions or rules.
+     */
+    private static final FileNameMatcher EMPTY = new FileNameMatcher(List.of(), false,
+            ExtensionNode.EMPTY, new Rule[0], new Rule[0]);
+
+    /**
+     * The extensions as given, without duplicates.
+     */
+    private final List<String> myExtensions;
+
+    /**
+     * Whether every extension matches.
+     */
+    private final boolean myMatchesAll;
+
+    /**
+     * The start of the reversed extension automaton.
+     */
+    private final ExtensionNode myExtensionRoot;
+
+    /**
+     * The include rules.
+     */
+    private final Rule[] myIncludes;
+
+    /**
+     * The exclude rules.
+     */
+    private final Rule[] myExcludes;
+
+    /**
+     * Creates a matcher from compiled parts.
+     *
+     * @param theExtensions   the extensions as given.
+     * @param theMatchesAll   whether every extension matches.
+     * @param theExtensionRoot the extension automaton.
+     * @param theIncludes     the include rules.
+     * @param theExcludes     the exclude rules.
+     */
+    private FileNameMatcher(final List<String> theExtensions, final boolean theMatchesAll,
+                            final ExtensionNode theExtensionRoot, final Rule[] theIncludes,
+                            final Rule[] theExcludes) {
+        myExtensions = theExtensions;
+        myMatchesAll = theMatchesAll;
+        myExtensionRoot = theExtensionRoot;
+        myIncludes = theIncludes;
+        myExcludes = theExcludes;
+    }
+
+    /**
+     * Compiles a matcher for extensions only.
+     *
+     * @param theExtensions the extensions, with or without the dot; {@link #ALL_EXTENSIONS}
+     *                      matches every file and blank ones match none.
+     * @return the matcher.
+     */
+    public static FileNameMatcher ofExtensions(final Collection<String> theExtensions) {
+        return compile(theExtensions, List.of(), List.of());
+    }
+
+    /**
+     * Compiles a matcher for include and exclude rules only.
+     *
+     * @param theIncludes the include rules.
+     * @param theExcludes the exclude rules.
+     * @return the matcher.
+     * @throws IllegalArgumentException if a rule does not compile.
+     */
+    public static FileNameMatcher ofRules(final Collection<String> theIncludes,
+                                          final Collection<String> theExcludes) {
+        return compile(List.of(), theIncludes, theExcludes);
+    }
+
+    /**
+     * Compiles a matcher.
+     *
+     * @param theExtensions the extensions, with or without the dot; {@link #ALL_EXTENSIONS}
+     *                      matches every file and blank ones match none.
+     * @param theIncludes   the include rules.
+     * @param theExcludes   the exclude rules.
+     * @return the matcher.
+     * @throws IllegalArgumentException if an argument is null or a rule does not compile.
+     */
+    public static FileNameMatcher compile(final Collection<String> theExtensions,
+                                          final Collection<String> theIncludes,
+                                          final Collection<String> theExcludes) {
+        if (theExtensions == null || theIncludes == null || theExcludes == null) {
+            throw new IllegalArgumentException("Extensions and rules cannot be null");
+        }
+        if (theExtensions.isEmpty() && theIncludes.isEmpty() && theExcludes.isEmpty()) {
+            return EMPTY;
+        }
+
+        final List<String> extensions = new ArrayList<>();
+        final TreeMap<String, Boolean> reversed = new TreeMap<>();
+        boolean matchesAll = false;
+        for (final String extension : theExtensions) {
+            if (extension == null || extensions.contains(extension)) {
+                continue;
+            }
+            extensions.add(extension);
+            if (ALL_EXTENSIONS.equals(extension)) {
+                matchesAll = true;
+                continue;
+            }
+            if (extension.isBlank()) {
+                continue;
+            }
+            final String trimmed = extension.trim();
+            final String dotted = (trimmed.startsWith(".") ? trimmed : "." + trimmed)
+                    .toLowerCase(Locale.ROOT);
+            reversed.put(new StringBuilder(dotted).reverse().toString(), Boolean.TRUE);
+        }
+
+        return new FileNameMatcher(Collections.unmodifiableList(extensions), matchesAll,
+                ExtensionNode.build(new ArrayList<>(reversed.keySet()), 0),
+                compileRules(theIncludes), compileRules(theExcludes));
+    }
+
+    /**
+     * Compiles rules.
+     *
+     * @param theRules the rules as written.
+     * @return the compiled rules, blank ones left out.
+     * @throws IllegalArgumentException if a rule does not compile.
+     */
+    private static Rule[] compileRules(final Collection<String> theRules) {
+        final List<Rule> rules = new ArrayList<>();
+        for (final String rule : theRules) {
+            if (rule != null && !rule.isBlank()) {
+                rules.add(Rule.compile(rule.trim()));
+            }
+        }
+        return rules.toArray(new Rule[0]);
+    }
+
+    /**
+     * Gets the extensions the matcher was compiled from.
+     *
+     * @return the unmodifiable extensions, in the order given.
+     */
+    public List<String> getExtensions() {
+        return myExtensions;
+    }
+
+    /**
+     * Checks whether a file is accepted: not excluded, and either included or of a
+     * matching extension.
+     *
+     * @param theDirectory the directory the file is in.
+     * @param theFileName  the name of the file.
+     * @return true if the file is accepted.
+     */
+    public boolean matches(final CharSequence theDirectory, final CharSequence theFileName) {
+        return !isExcluded(theDirectory, theFileName)
+                && (isIncluded(theDirectory, theFileName) || matchesExtension(theFileName));
+    }
+
+    /**
+     * Checks whether the name of a file ends in one of the extensions, ignoring case.
+     *
+     * @param theFileName the name of the file.
+     * @return true if it does, or if the matcher stands for every extension.
+     */
+    public boolean matchesExtension(final CharSequence theFileName) {
+        if (myMatchesAll) {
+            return true;
+        }
+        ExtensionNode node = myExtensionRoot;
+        for (int i = theFileName.length() - 1; i >= 0; i--) {
+            node = node.next(fold(theFileName.charAt(i)));
+            if (node == null) {
+                return false;
+            }
+            if (node.myIsFinal) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a file matches an include rule.
+     *
+     * @param theDirectory the directory the file is in.
+     * @param theFileName  the name of the file.
+     * @return true if it does.
+     */
+    public boolean isIncluded(final CharSequence theDirectory, final CharSequence theFileName) {
+        return anyMatch(myIncludes, theDirectory, theFileName);
+    }
+
+    /**
+     * Checks whether a file matches an exclude rule.
+     *
+     * @param theDirectory the directory the file is in.
+     * @param theFileName  the name of the file.
+     * @return true if it does.
+     */
+    public boolean isExcluded(final CharSequence theDirectory, final CharSequence theFileName) {
+        return anyMatch(myExcludes, theDirectory, theFileName);
+    }
+
+    /**
+     * Checks whether there are include or exclude rules.
+     *
+     * @return true if there are.
+     */
+    public boolean hasRules() {
+        return myIncludes.length > 0 || myExcludes.length > 0;
+    }
+
+    @Override
+    public String toString() {
+        return "FileNameMatcher{extensions=" + myExtensions + ", includes="
+                + Arrays.toString(myIncludes) + ", excludes=" + Arrays.toString(myExcludes)
+                + "}";
+    }
+
+    /**
+     * Checks a file against rules.
+     *
+     * @param theRules     the rules.
+     * @param theDirectory the directory the file is in.
+     * @param theFileName  the name of the file.
+     * @return true if any rule matches.
+     */
+    private static boolean anyMatch(final Rule[] theRules, final CharSequence theDirectory,
+                                    final CharSequence theFileName) {
+        for (final Rule rule : theRules) {
+            if (rule.matches(theDirectory, theFileName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Folds a character for matching without case.
+     *
+     * @param theChar the character.
+     * @return the lower case character.
+     */
+    private static char fold(final char theChar) {
+        if (theChar < 128) {
+            return theChar >= 'A' && theChar <= 'Z' ? (char) (theChar + ('a' - 'A')) : theChar;
+        }
+        return Character.toLowerCase(theChar);
+    }
+
+    /**
+     * Checks whether a character separates directories.
+     *
+     * @param theChar the character.
+     * @return true for a slash or backslash.
+     */
+    private static boolean isSeparator(final char theChar) {
+        return theChar == '/' || theChar == '\\';
+    }
+
+    /**
+     * One state of the reversed extension automaton.
+     */
+    private static final class ExtensionNode {
+
+        /**
+         * The automaton that accepts nothing.
+         */
+        private static final ExtensionNode EMPTY = new ExtensionNode(new char[0],
+                new ExtensionNode[0], false);
+
+        /**
+         * The characters leaving this state, sorted.
+         */
+        private final char[] myLabels;
+
+        /**
+         * The state each character leads to.
+         */
+        private final ExtensionNode[] myTargets;
+
+        /**
+         * Whether a whole extension has been read on reaching this state.
+         */
+        private final boolean myIsFinal;
+
+        /**
+         * Creates a state.
+         *
+         * @param theLabels  the characters leaving it, sorted.
+         * @param theTargets the states they lead to.
+         * @param theIsFinal whether it completes an extension.
+         */
+        private ExtensionNode(final char[] theLabels, final ExtensionNode[] theTargets,
+                              final boolean theIsFinal) {
+            myLabels = theLabels;
+            myTargets = theTargets;
+            myIsFinal = theIsFinal;
+        }
+
+        /**
+         * Builds the states for sorted, reversed extensions that share a prefix.
+         *
+         * @param theSuffixes the reversed extensions, sorted.
+         * @param theDepth    the length of the shared prefix.
+         * @return the state after the shared prefix.
+         */
+        private static ExtensionNode build(final List<String> theSuffixes, final int theDepth) {
+            boolean isFinal = false;
+            final StringBuilder labels = new StringBuilder();
+            final List<ExtensionNode> targets = new ArrayList<>();
+            int i = 0;
+            while (i < theSuffixes.size()) {
+                if (theSuffixes.get(i).length() == theDepth) {
+                    isFinal = true;
+                    i++;
+                    continue;
+                }
+                final char label = theSuffixes.get(i).charAt(theDepth);
+                int end = i;
+                while (end < theSuffixes.size() && theSuffixes.get(end).length() > theDepth
+                        && theSuffixes.get(end).charAt(theDepth) == label) {
+                    end++;
+                }
+                labels.append(label);
+                targets.add(build(theSuffixes.subList(i, end), theDepth + 1));
+                i = end;
+            }
+            return new ExtensionNode(labels.toString().toCharArray(),
+                    targets.toArray(new ExtensionNode[0]), isFinal);
+        }
+
+        /**
+         * Follows a character.
+         *
+         * @param theChar the folded character.
+         * @return the next state, or null if no extension continues with it.
+         */
+        private ExtensionNode next(final char theChar) {
+            int low = 0;
+            int high = myLabels.length - 1;
+            while (low <= high) {
+                final int mid = (low + high) >>> 1;
+                final char label = myLabels[mid];
+                if (label < theChar) {
+                    low = mid + 1;
+                } else if (label > theChar) {
+                    high = mid - 1;
+                } else {
+                    return myTargets[mid];
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * One compiled include or exclude rule.
+     */
+    private static final class Rule {
+
+        /**
+         * The rule as written.
+         */
+        private final String mySource;
+
+        /**
+         * The glob, lower case, or null for a regex rule.
+         */
+        private final String myGlob;
+
+        /**
+         * The literal end of the glob after its last wildcard, which every match ends with.
+         */
+        private final String myTail;
+
+        /**
+         * Whether the glob matches the path rather than the file name.
+         */
+        private final boolean myMatchesPath;
+
+        /**
+         * Whether the glob must match from the start of the path.
+         */
+        private final boolean myIsAnchored;
+
+        /**
+         * A matcher per thread for a regex rule, reset for every name, or null.
+         */
+        private final ThreadLocal<Matcher> myRegex;
+
+        /**
+         * Creates a rule.
+         *
+         * @param theSource the rule as written.
+         * @param theGlob   the glob, or null.
+         * @param theRegex  the regex, or null.
+         */
+        private Rule(final String theSource, final String theGlob, final Pattern theRegex) {
+            mySource = theSource;
+            myGlob = theGlob;
+            myTail = theGlob == null ? "" : theGlob.substring(lastWildcard(theGlob) + 1);
+            myMatchesPath = theGlob != null && theGlob.indexOf('/') >= 0;
+            myIsAnchored = myMatchesPath && theGlob.startsWith("/");
+            myRegex = theRegex == null ? null : ThreadLocal.withInitial(() -> theRegex.matcher(""));
+        }
+
+        /**
+         * Compiles a rule.
+         *
+         * @param theRule the rule, a glob or a regex prefixed with {@link #REGEX_PREFIX}.
+         * @return the rule.
+         * @throws IllegalArgumentException if the rule does not compile.
+         */
+        private static Rule compile(final String theRule) {
+            if (theRule.startsWith(REGEX_PREFIX)) {
+                try {
+                    return new Rule(theRule, null, Pattern.compile(
+                            theRule.substring(REGEX_PREFIX.length()),
+                            Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE));
+                } catch (final PatternSyntaxException theE) {
+                    throw new IllegalArgumentException("Invalid regex rule " + theRule + ": "
+                            + theE.getDescription(), theE);
+                }
+            }
+            final String glob = (theRule.startsWith(GLOB_PREFIX)
+                    ? theRule.substring(GLOB_PREFIX.length()) : theRule)
+                    .replace('\\', '/').toLowerCase(Locale.ROOT);
+            if (glob.isEmpty()) {
+                throw new IllegalArgumentException("Empty glob rule " + theRule);
+            }
+            int depth = 0;
+            for (int i = 0; i < glob.length(); i++) {
+                if (glob.charAt(i) == '[') {
+                    depth++;
+                } else if (glob.charAt(i) == ']' && depth > 0) {
+                    depth--;
+                }
+            }
+            if (depth != 0) {
+                throw new IllegalArgumentException("Unclosed [ in glob rule " + theRule);
+            }
+            return new Rule(theRule, glob, null);
+        }
+
+        /**
+         * Checks a file against the rule.
+         *
+         * @param theDirectory the directory the file is in.
+         * @param theFileName  the name of the file.
+         * @return true if it matches.
+         */
+        private boolean matches(final CharSequence theDirectory, final CharSequence theFileName) {
+            if (myRegex != null) {
+                return myRegex.get().reset(theFileName).matches();
+            }
+            if (!myMatchesPath) {
+                return endsWithTail(theFileName, null) && glob(0, theFileName, null, 0);
+            }
+            // the path is the directory, a separator and the name, read without joining
+            if (!endsWithTail(theDirectory, theFileName)) {
+                return false;
+            }
+            if (glob(0, theDirectory, theFileName, 0)) {
+                return true;
+            }
+            if (myIsAnchored) {
+                return false;
+            }
+            for (int i = 0; i < theDirectory.length(); i++) {
+                if (isSeparator(theDirectory.charAt(i))
+                        && glob(0, theDirectory, theFileName, i + 1)) {
+                    return true;
+                }
+            }
+            return glob(0, theDirectory, theFileName, theDirectory.length() + 1);
+        }
+
+        /**
+         * Checks whether the text ends with the literal end of the glob.
+         *
+         * @param theFirst  the directory, or the name when matching names only.
+         * @param theSecond the name, or null when matching names only.
+         * @return true if it does.
+         */
+        private boolean endsWithTail(final CharSequence theFirst, final CharSequence theSecond) {
+            final int textLength = theSecond == null ? theFirst.length()
+                    : theFirst.length() + 1 + theSecond.length();
+            if (textLength < myTail.length()) {
+                return false;
+            }
+            for (int i = 1; i <= myTail.length(); i++) {
+                final char c = myTail.charAt(myTail.length() - i);
+                final char text = fold(charAt(theFirst, theSecond, textLength - i));
+                if (c == '/' ? !isSeparator(text) : c != text) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Finds the last wildcard of a glob.
+         *
+         * @param theGlob the glob.
+         * @return its position, or -1 if it has none.
+         */
+        private static int lastWildcard(final String theGlob) {
+            for (int i = theGlob.length() - 1; i >= 0; i--) {
+                final char c = theGlob.charAt(i);
+                if (c == '*' || c == '?' || c == '[' || c == ']') {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Matches the glob from a position against the text from a position.
+         *
+         * @param theGlobIndex the position in the glob.
+         * @param theFirst     the directory, or the name when matching names only.
+         * @param theSecond    the name, or null when matching names only.
+         * @param theTextIndex the position in the text.
+         * @return true if the rest of the glob matches the rest of the text.
+         */
+        private boolean glob(final int theGlobIndex, final CharSequence theFirst,
+                             final CharSequence theSecond, final int theTextIndex) {
+            final int textLength = theSecond == null ? theFirst.length()
+                    : theFirst.length() + 1 + theSecond.length();
+            int g = theGlobIndex;
+            int t = theTextIndex;
+            while (g < myGlob.length()) {
+                final char c = myGlob.charAt(g);
+                if (c == '*') {
+                    final boolean crossesDirectories = g + 1 < myGlob.length()
+                            && myGlob.charAt(g + 1) == '*';
+                    g += crossesDirectories ? 2 : 1;
+                    if (crossesDirectories && g < myGlob.length() && myGlob.charAt(g) == '/'
+                            && glob(g + 1, theFirst, theSecond, t)) {
+                        return true;
+                    }
+                    for (int k = t; k <= textLength; k++) {
+                        if (glob(g, theFirst, theSecond, k)) {
+                            return true;
+                        }
+                        if (k < textLength && !crossesDirectories
+                                && isSeparator(charAt(theFirst, theSecond, k))) {
+                            return false;
+                        }
+                    }
+                    return false;
+                }
+                if (t >= textLength) {
+                    return false;
+                }
+                final char text = fold(charAt(theFirst, theSecond, t));
+                if (c == '?') {
+                    if (isSeparator(text)) {
+                        return false;
+                    }
+                } else if (c == '[') {
+                    final int end = myGlob.indexOf(']', g + 2);
+                    if (isSeparator(text) || !inClass(g + 1, end, text)) {
+                        return false;
+                    }
+                    g = end;
+                } else if (c == '/') {
+                    if (!isSeparator(text)) {
+                        return false;
+                    }
+                } else if (c != text) {
+                    return false;
+                }
+                g++;
+                t++;
+            }
+            return t == textLength;
+        }
+
+        /**
+         * Checks a character against a class such as {@code a-z_} or {@code !0-9}.
+         *
+         * @param theStart the first position inside the brackets.
+         * @param theEnd   the position of the closing bracket.
+         * @param theChar  the folded character.
+         * @return true if the class accepts it.
+         */
+        private boolean inClass(final int theStart, final int theEnd, final char theChar) {
+            int i = theStart;
+            final boolean negated = myGlob.charAt(i) == '!' || myGlob.charAt(i) == '^';
+            if (negated) {
+                i++;
+            }
+            boolean found = false;
+            while (i < theEnd) {
+                final char low = myGlob.charAt(i);
+                if (i + 2 < theEnd && myGlob.charAt(i + 1) == '-') {
+                    found |= theChar >= low && theChar <= myGlob.charAt(i + 2);
+                    i += 3;
+                } else {
+                    found |= theChar == low;
+                    i++;
+                }
+            }
+            return found != negated;
+        }
+
+        /**
+         * Reads the text, which is either a name or a directory and a name joined by a
+         * separator.
+         *
+         * @param theFirst  the directory, or the name.
+         * @param theSecond the name, or null.
+         * @param theIndex  the position.
+         * @return the character.
+         */
+        private static char charAt(final CharSequence theFirst, final CharSequence theSecond,
+                                   final int theIndex) {
+            if (theSecond == null || theIndex < theFirst.length()) {
+                return theFirst.charAt(theIndex);
+            }
+            return theIndex == theFirst.length() ? '/'
+                    : theSecond.charAt(theIndex - theFirst.length() - 1);
+        }
+
+        @Override
+        public String toString() {
+            return mySource;
+        }
+    }
+}
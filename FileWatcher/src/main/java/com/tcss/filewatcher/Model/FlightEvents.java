@@ -0,0 +1,389 @@
+package com.tcss.filewatcher.Model;
+
+import java.nio.file.Path;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder events for each stage an event goes through, from the watch key
+ * to the database, query, export and email. An event is begun when it is created and
+ * its fields are only filled in by {@code end} when a recording will keep it, so they
+ * cost next to nothing while no recording is running.
+ * The per file events have a threshold so a continuous recording only keeps the slow
+ * ones; a custom .jfc can lower it to 0 ms to see every event.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+public final class FlightEvents {
+
+    /**
+     * The top level category of every event.
+     */
+    private static final String CATEGORY = "FileWatcher";
+
+    /**
+     * Not meant to be instantiated.
+     */
+    private FlightEvents() {
+    }
+
+    /**
+     * One watch key taken off the watch service and its events processed.
+     */
+    @Name("com.tcss.filewatcher.WatchKey")
+    @Label("Watch Key")
+    @Category({CATEGORY, "Ingest"})
+    @Description("A watch key dequeued in processEvents and its events processed")
+    @StackTrace(false)
+    public static final class WatchKey extends Event {
+
+        /**
+         * The directory of the key.
+         */
+        @Label("Path")
+        String path;
+
+        /**
+         * The number of events the key carried.
+         */
+        @Label("Events")
+        int events;
+
+        /**
+         * Begins the event.
+         */
+        public WatchKey() {
+            begin();
+        }
+
+        /**
+         * Ends and records the event.
+         *
+         * @param thePath   the directory of the key.
+         * @param theEvents the number of events the key carried.
+         */
+        public void end(final Path thePath, final int theEvents) {
+            if (shouldCommit()) {
+                path = String.valueOf(thePath);
+                events = theEvents;
+                commit();
+            }
+        }
+    }
+
+    /**
+     * One raw watch event checked against the filters.
+     */
+    @Name("com.tcss.filewatcher.WatchEventFilter")
+    @Label("Watch Event Filter")
+    @Category({CATEGORY, "Ingest"})
+    @Description("A raw watch event processed and checked against the watched extensions")
+    @Threshold("1 ms")
+    @StackTrace(false)
+    public static final class WatchEventFilter extends Event {
+
+        /**
+         * The file the event is about.
+         */
+        @Label("Path")
+        String path;
+
+        /**
+         * The kind of the event.
+         */
+        @Label("Kind")
+        String kind;
+
+        /**
+         * Whether the event passed the filter.
+         */
+        @Label("Accepted")
+        boolean accepted;
+
+        /**
+         * Begins the event.
+         */
+        public WatchEventFilter() {
+            begin();
+        }
+
+        /**
+         * Ends and records the event.
+         *
+         * @param thePath     the file the event is about.
+         * @param theKind     the kind of the event.
+         * @param theAccepted whether the event passed the filter.
+         */
+        public void end(final Path thePath, final String theKind, final boolean theAccepted) {
+            if (shouldCommit()) {
+                path = String.valueOf(thePath);
+                kind = theKind;
+                accepted = theAccepted;
+                commit();
+            }
+        }
+    }
+
+    /**
+     * One property change delivered to the listeners.
+     */
+    @Name("com.tcss.filewatcher.PropertyChangeDispatch")
+    @Label("Property Change Dispatch")
+    @Category({CATEGORY, "Ingest"})
+    @Description("A property change fired to the UI and other listeners")
+    @Threshold("1 ms")
+    public static final class PropertyChangeDispatch extends Event {
+
+        /**
+         * The property that changed.
+         */
+        @Label("Property")
+        String property;
+
+        /**
+         * The directory of the event.
+         */
+        @Label("Path")
+        String path;
+
+        /**
+         * The kind of the event.
+         */
+        @Label("Kind")
+        String kind;
+
+        /**
+         * Begins the event.
+         */
+        public PropertyChangeDispatch() {
+            begin();
+        }
+
+        /**
+         * Ends and records the event.
+         *
+         * @param theProperty the property that changed.
+         * @param theEntry    the event that was published.
+         */
+        public void end(final String theProperty, final DirectoryEntry theEntry) {
+            if (shouldCommit()) {
+                property = theProperty;
+                path = theEntry.getDirectory();
+                kind = theEntry.getModificationType();
+                commit();
+            }
+        }
+    }
+
+    /**
+     * One insert into the database, a single row or a batch in one transaction.
+     */
+    @Name("com.tcss.filewatcher.DatabaseWrite")
+    @Label("Database Write")
+    @Category({CATEGORY, "Database"})
+    @Description("Rows inserted into the event table, including the commit")
+    @StackTrace(false)
+    public static final class DatabaseWrite extends Event {
+
+        /**
+         * The directory of the first row.
+         */
+        @Label("Path")
+        String path;
+
+        /**
+         * The kind of the first row.
+         */
+        @Label("Kind")
+        String kind;
+
+        /**
+         * The number of rows written, 0 if the write failed.
+         */
+        @Label("Rows")
+        int rows;
+
+        /**
+         * How long the commit took.
+         */
+        @Label("Commit Duration")
+        @Timespan(Timespan.NANOSECONDS)
+        long commitDuration;
+
+        /**
+         * Begins the event.
+         */
+        public DatabaseWrite() {
+            begin();
+        }
+
+        /**
+         * Records how long the commit took, call right after it.
+         *
+         * @param theStartNanos when the commit started, in System.nanoTime terms.
+         */
+        public void recordCommit(final long theStartNanos) {
+            commitDuration = System.nanoTime() - theStartNanos;
+        }
+
+        /**
+         * Ends and records the event.
+         *
+         * @param thePath the directory of the first row.
+         * @param theKind the kind of the first row.
+         * @param theRows the number of rows written.
+         */
+        public void end(final String thePath, final String theKind, final int theRows) {
+            if (shouldCommit()) {
+                path = thePath;
+                kind = theKind;
+                rows = theRows;
+                commit();
+            }
+        }
+    }
+
+    /**
+     * One query against the event table.
+     */
+    @Name("com.tcss.filewatcher.DatabaseQuery")
+    @Label("Database Query")
+    @Category({CATEGORY, "Database"})
+    @Description("A query call of the database manager, including reading the rows")
+    public static final class DatabaseQuery extends Event {
+
+        /**
+         * The kind of query, e.g. extension or directory.
+         */
+        @Label("Query")
+        String query;
+
+        /**
+         * What was searched for, e.g. the directory path.
+         */
+        @Label("Path")
+        String path;
+
+        /**
+         * The number of rows returned.
+         */
+        @Label("Rows")
+        int rows;
+
+        /**
+         * Begins the event.
+         */
+        public DatabaseQuery() {
+            begin();
+        }
+
+        /**
+         * Ends and records the event.
+         *
+         * @param theQuery the kind of query.
+         * @param thePath  what was searched for.
+         * @param theRows  the number of rows returned.
+         */
+        public void end(final String theQuery, final String thePath, final int theRows) {
+            if (shouldCommit()) {
+                query = theQuery;
+                path = thePath;
+                rows = theRows;
+                commit();
+            }
+        }
+    }
+
+    /**
+     * One CSV export.
+     */
+    @Name("com.tcss.filewatcher.CsvExport")
+    @Label("CSV Export")
+    @Category({CATEGORY, "Export"})
+    @Description("Query results written to a CSV file")
+    public static final class CsvExport extends Event {
+
+        /**
+         * The file written.
+         */
+        @Label("Path")
+        String path;
+
+        /**
+         * The number of rows written.
+         */
+        @Label("Rows")
+        int rows;
+
+        /**
+         * Begins the event.
+         */
+        public CsvExport() {
+            begin();
+        }
+
+        /**
+         * Ends and records the event.
+         *
+         * @param thePath the file written.
+         * @param theRows the number of rows written.
+         */
+        public void end(final Path thePath, final int theRows) {
+            if (shouldCommit()) {
+                path = String.valueOf(thePath);
+                rows = theRows;
+                commit();
+            }
+        }
+    }
+
+    /**
+     * One report email sent through Gmail.
+     */
+    @Name("com.tcss.filewatcher.EmailSend")
+    @Label("Email Send")
+    @Category({CATEGORY, "Export"})
+    @Description("A report email with a CSV attachment sent through Gmail")
+    public static final class EmailSend extends Event {
+
+        /**
+         * The attached file.
+         */
+        @Label("Path")
+        String path;
+
+        /**
+         * Whether the email was sent.
+         */
+        @Label("Success")
+        boolean success;
+
+        /**
+         * Begins the event.
+         */
+        public EmailSend() {
+            begin();
+        }
+
+        /**
+         * Ends and records the event.
+         *
+         * @param thePath    the attached file.
+         * @param theSuccess whether the email was sent.
+         */
+        public void end(final Path thePath, final boolean theSuccess) {
+            if (shouldCommit()) {
+                path = String.valueOf(thePath);
+                success = theSuccess;
+                commit();
+            }
+        }
+    }
+}
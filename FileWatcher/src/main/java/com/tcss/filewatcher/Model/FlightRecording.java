@@ -0,0 +1,244 @@
+package com.tcss.filewatcher.Model;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+/**
+ * Continuous, low overhead flight recording for profiling incidents after the fact.
+ * Turned on with {@code -Dfilewatcher.jfr=<directory>}: the JVM's rolling chunk
+ * repository is moved into that directory, the JDK "default" settings are used and
+ * chunks older than {@code filewatcher.jfr.maxage} (default 6h) or beyond
+ * {@code filewatcher.jfr.maxsize} (default 250 MB) are discarded.
+ * A recording is dumped to the directory on exit, or on demand with {@link #dump(Path)}.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+public final class FlightRecording {
+
+    /**
+     * System property with the recording directory, unset to not record.
+     */
+    public static final String DIRECTORY_PROPERTY = "filewatcher.jfr";
+
+    /**
+     * System property with how long recorded data is kept, e.g. 30m, 6h or 2d.
+     */
+    public static final String MAX_AGE_PROPERTY = "filewatcher.jfr.maxage";
+
+    /**
+     * System property with the most recorded data kept, e.g. 500k, 250m or 1g.
+     */
+    public static final String MAX_SIZE_PROPERTY = "filewatcher.jfr.maxsize";
+
+    /**
+     * The default of {@link #MAX_AGE_PROPERTY}.
+     */
+    public static final Duration DEFAULT_MAX_AGE = Duration.ofHours(6);
+
+    /**
+     * The default of {@link #MAX_SIZE_PROPERTY}, in bytes.
+     */
+    public static final long DEFAULT_MAX_SIZE = 250L * 1024 * 1024;
+
+    /**
+     * Logger object.
+     */
+    private static final Logger MY_LOGGER = Logger.getLogger("Flight Recording");
+
+    /**
+     * The running recording, or null.
+     */
+    private static Recording myRecording;
+
+    /**
+     * Not meant to be instantiated.
+     */
+    private FlightRecording() {
+    }
+
+    /**
+     * Starts the continuous recording if the system properties ask for it. Problems are
+     * logged rather than thrown so the application starts either way.
+     *
+     * @return true if a recording is running.
+     */
+    public static synchronized boolean startFromSystemProperties() {
+        final String directory = System.getProperty(DIRECTORY_PROPERTY);
+        if (directory == null || directory.isBlank()) {
+            return myRecording != null;
+        }
+        try {
+            start(Path.of(directory),
+                    parseDuration(System.getProperty(MAX_AGE_PROPERTY), DEFAULT_MAX_AGE),
+                    parseSize(System.getProperty(MAX_SIZE_PROPERTY), DEFAULT_MAX_SIZE));
+        } catch (final IOException | ParseException | IllegalArgumentException theE) {
+            MY_LOGGER.log(Level.WARNING, "Flight recording not started: " + theE.getMessage()
+                    + "\n");
+        }
+        return myRecording != null;
+    }
+
+    /**
+     * Starts a continuous recording. Does nothing if one is already running.
+     *
+     * @param theDirectory where the chunk repository and dumps go.
+     * @param theMaxAge    how long recorded data is kept.
+     * @param theMaxSize   the most recorded data kept, in bytes.
+     * @throws IOException    if the directory cannot be created or used.
+     * @throws ParseException if the JDK default settings cannot be read.
+     */
+    public static synchronized void start(final Path theDirectory, final Duration theMaxAge,
+                                          final long theMaxSize)
+            throws IOException, ParseException {
+        if (myRecording != null) {
+            return;
+        }
+        if (theMaxAge == null || theMaxAge.isNegative() || theMaxAge.isZero()
+                || theMaxSize <= 0) {
+            throw new IllegalArgumentException("Max age and size must be positive");
+        }
+        final Path directory = Files.createDirectories(theDirectory).toAbsolutePath();
+        moveRepository(directory.resolve("repository"));
+
+        final Recording recording = new Recording(Configuration.getConfiguration("default"));
+        recording.setName("FileWatcher");
+        recording.setToDisk(true);
+        recording.setMaxAge(theMaxAge);
+        recording.setMaxSize(theMaxSize);
+        recording.setDumpOnExit(true);
+        recording.setDestination(directory.resolve("filewatcher-exit.jfr"));
+        recording.start();
+        myRecording = recording;
+        MY_LOGGER.log(Level.INFO, "Flight recording to " + directory + ", keeping "
+                + theMaxAge + " or " + theMaxSize / (1024 * 1024) + " MB\n");
+    }
+
+    /**
+     * Writes what the running recording holds so far to a file.
+     *
+     * @param theFile the file to write.
+     * @return true if a recording was running and was written.
+     * @throws IOException if the file cannot be written.
+     */
+    public static synchronized boolean dump(final Path theFile) throws IOException {
+        if (myRecording == null) {
+            return false;
+        }
+        myRecording.dump(theFile);
+        return true;
+    }
+
+    /**
+     * Stops and discards the running recording. Does nothing if none is running.
+     */
+    public static synchronized void stop() {
+        if (myRecording != null) {
+            myRecording.close();
+            myRecording = null;
+        }
+    }
+
+    /**
+     * Checks whether a recording is running.
+     *
+     * @return true if a recording is running.
+     */
+    public static synchronized boolean isRecording() {
+        return myRecording != null;
+    }
+
+    /**
+     * Moves the JVM's chunk repository, the same as {@code jcmd <pid> JFR.configure
+     * repositorypath=...}. The recording still works in the default temporary
+     * repository if this fails.
+     *
+     * @param theRepository the new repository directory.
+     */
+    private static void moveRepository(final Path theRepository) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().invoke(
+                    new ObjectName("com.sun.management:type=DiagnosticCommand"),
+                    "jfrConfigure",
+                    new Object[]{new String[]{"repositorypath=" + theRepository}},
+                    new String[]{String[].class.getName()});
+        } catch (final JMException | RuntimeException theE) {
+            MY_LOGGER.log(Level.WARNING, "Keeping the default JFR repository: "
+                    + theE.getMessage() + "\n");
+        }
+    }
+
+    /**
+     * Parses a duration such as 30s, 30m, 6h or 2d.
+     *
+     * @param theText    the text, or null.
+     * @param theDefault the value for null or blank text.
+     * @return the duration.
+     * @throws IllegalArgumentException if the text cannot be read.
+     */
+    static Duration parseDuration(final String theText, final Duration theDefault) {
+        if (theText == null || theText.isBlank()) {
+            return theDefault;
+        }
+        final String text = theText.trim().toLowerCase(Locale.ROOT);
+        final long amount = parseAmount(text);
+        return switch (text.charAt(text.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            case 'h' -> Duration.ofHours(amount);
+            case 'd' -> Duration.ofDays(amount);
+            default -> throw new IllegalArgumentException("Unknown duration: " + theText);
+        };
+    }
+
+    /**
+     * Parses a size such as 500k, 250m or 1g, or a plain number of bytes.
+     *
+     * @param theText    the text, or null.
+     * @param theDefault the value for null or blank text.
+     * @return the size in bytes.
+     * @throws IllegalArgumentException if the text cannot be read.
+     */
+    static long parseSize(final String theText, final long theDefault) {
+        if (theText == null || theText.isBlank()) {
+            return theDefault;
+        }
+        final String text = theText.trim().toLowerCase(Locale.ROOT);
+        if (Character.isDigit(text.charAt(text.length() - 1))) {
+            return parseAmount(text + "b");
+        }
+        final long amount = parseAmount(text);
+        return switch (text.charAt(text.length() - 1)) {
+            case 'k' -> amount * 1024;
+            case 'm' -> amount * 1024 * 1024;
+            case 'g' -> amount * 1024 * 1024 * 1024;
+            default -> throw new IllegalArgumentException("Unknown size: " + theText);
+        };
+    }
+
+    /**
+     * Parses the number in front of a one letter unit.
+     *
+     * @param theText the text with its unit.
+     * @return the number.
+     * @throws IllegalArgumentException if there is no number.
+     */
+    private static long parseAmount(final String theText) {
+        try {
+            return Long.parseLong(theText.substring(0, theText.length() - 1));
+        } catch (final NumberFormatException | IndexOutOfBoundsException theE) {
+            throw new IllegalArgumentException("Not a number: " + theText, theE);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.tcss.filewatcher.Model;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread safe latency histogram with fixed bucket bounds, in the shape the metrics
+ * endpoint exports. Recording is lock free, so it can sit on the write path.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+public final class LatencyHistogram {
+
+    /**
+     * Bucket upper bounds in seconds for local operations such as database writes.
+     */
+    public static final double[] LOCAL_BOUNDS = {0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025,
+            0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+
+    /**
+     * Bucket upper bounds in seconds for remote calls such as sending an email.
+     */
+    public static final double[] REMOTE_BOUNDS = {0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30,
+            60};
+
+    /**
+     * The bucket upper bounds in nanoseconds, ascending.
+     */
+    private final long[] myBoundNanos;
+
+    /**
+     * The bucket upper bounds in seconds, ascending.
+     */
+    private final double[] myBounds;
+
+    /**
+     * The number of observations per bucket, the last one being everything larger.
+     */
+    private final AtomicLongArray myCounts;
+
+    /**
+     * The sum of every observation in nanoseconds.
+     */
+    private final LongAdder mySumNanos = new LongAdder();
+
+    /**
+     * Creates a histogram.
+     *
+     * @param theBounds the bucket upper bounds in seconds, ascending.
+     * @throws IllegalArgumentException if the bounds are empty or not ascending.
+     */
+    public LatencyHistogram(final double... theBounds) {
+        if (theBounds == null || theBounds.length == 0) {
+            throw new IllegalArgumentException("A histogram needs at least one bucket");
+        }
+        myBounds = theBounds.clone();
+        myBoundNanos = new long[myBounds.length];
+        for (int i = 0; i < myBounds.length; i++) {
+            if (i > 0 && myBounds[i] <= myBounds[i - 1]) {
+                throw new IllegalArgumentException("Bucket bounds must be ascending");
+            }
+            myBoundNanos[i] = (long) (myBounds[i] * TimeUnit.SECONDS.toNanos(1));
+        }
+        myCounts = new AtomicLongArray(myBounds.length + 1);
+    }
+
+    /**
+     * Records one observation.
+     *
+     * @param theNanos the latency in nanoseconds.
+     */
+    public void record(final long theNanos) {
+        final long nanos = Math.max(theNanos, 0);
+        int bucket = Arrays.binarySearch(myBoundNanos, nanos);
+        if (bucket < 0) {
+            bucket = -bucket - 1;
+        }
+        myCounts.incrementAndGet(bucket);
+        mySumNanos.add(nanos);
+    }
+
+    /**
+     * Records the time since a start.
+     *
+     * @param theStartNanos the start, in System.nanoTime terms.
+     */
+    public void recordSince(final long theStartNanos) {
+        record(System.nanoTime() - theStartNanos);
+    }
+
+    /**
+     * Gets the bucket upper bounds.
+     *
+     * @return the bounds in seconds, ascending.
+     */
+    public double[] getBounds() {
+        return myBounds.clone();
+    }
+
+    /**
+     * Gets the cumulative count per bucket, i.e. the observations less than or equal to
+     * each bound, followed by the total count.
+     *
+     * @return one more count than there are bounds.
+     */
+    public long[] getCumulativeCounts() {
+        final long[] counts = new long[myCounts.length()];
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            total += myCounts.get(i);
+            counts[i] = total;
+        }
+        return counts;
+    }
+
+    /**
+     * Gets the number of observations.
+     *
+     * @return the count.
+     */
+    public long getCount() {
+        long total = 0;
+        for (int i = 0; i < myCounts.length(); i++) {
+            total += myCounts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Gets the sum of every observation.
+     *
+     * @return the sum in seconds.
+     */
+    public double getSumSeconds() {
+        return mySumNanos.sum() / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+}
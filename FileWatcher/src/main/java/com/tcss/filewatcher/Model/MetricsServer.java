@@ -0,0 +1,607 @@
+package com.tcss.filewatcher.Model;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Local HTTP endpoint that reports how the watcher is doing, so it can be monitored
+ * without the UI. {@code /metrics} serves the Prometheus text format and
+ * {@code /metrics.json} (or {@code /metrics?format=json}) the same values as JSON.
+ * The server only listens on the loopback interface.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+public final class MetricsServer {
+
+    /**
+     * The port used when none is configured.
+     */
+    public static final int DEFAULT_PORT = 9404;
+
+    /**
+     * System property that sets the port of the shared server, negative to disable it.
+     */
+    public static final String PORT_PROPERTY = "filewatcher.metrics.port";
+
+    /**
+     * How often the per second rates are recomputed.
+     */
+    private static final long RATE_INTERVAL_MILLIS = 1000;
+
+    /**
+     * Content type of the Prometheus text format.
+     */
+    private static final String PROMETHEUS_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    /**
+     * Logger object.
+     */
+    private static final Logger MY_LOGGER = Logger.getLogger("Metrics Server");
+
+    /**
+     * The server started by {@link #startDefault()}, or null.
+     */
+    private static MetricsServer myDefault;
+
+    /**
+     * The port asked for, 0 for any free port.
+     */
+    private final int myRequestedPort;
+
+    /**
+     * The watcher being reported on, or null.
+     */
+    private volatile FileEventWatcher myWatcher;
+
+    /**
+     * The HTTP server while running.
+     */
+    private HttpServer myServer;
+
+    /**
+     * Answers the requests while running.
+     */
+    private ExecutorService myServerExecutor;
+
+    /**
+     * Recomputes the rates while running.
+     */
+    private ScheduledExecutorService mySampler;
+
+    /**
+     * The counters at the last rate sample.
+     */
+    private long[] myLastCounters = new long[Counter.values().length];
+
+    /**
+     * When the last rate sample was taken, in System.nanoTime terms.
+     */
+    private long myLastSampleNanos;
+
+    /**
+     * The per second rates from the last two samples.
+     */
+    private volatile double[] myRates = new double[Counter.values().length];
+
+    /**
+     * The pipeline counters that are also reported as per second rates.
+     */
+    private enum Counter {
+        RECEIVED, FILTERED, COALESCED, PERSISTED
+    }
+
+    /**
+     * Creates a server that is not listening yet.
+     *
+     * @param thePort the port to listen on, 0 for any free port.
+     * @throws IllegalArgumentException if the port is out of range.
+     */
+    public MetricsServer(final int thePort) {
+        if (thePort < 0 || thePort > 65535) {
+            throw new IllegalArgumentException("Port must be between 0 and 65535");
+        }
+        myRequestedPort = thePort;
+    }
+
+    /**
+     * Starts the shared server on the configured port unless it is already running or
+     * was disabled. A port that is taken is logged rather than thrown, so the
+     * application still starts.
+     *
+     * @return the shared server, or null if it is disabled or could not start.
+     */
+    public static synchronized MetricsServer startDefault() {
+        if (myDefault != null) {
+            return myDefault;
+        }
+        final int port = Integer.getInteger(PORT_PROPERTY, DEFAULT_PORT);
+        if (port < 0) {
+            return null;
+        }
+        final MetricsServer server = new MetricsServer(port);
+        try {
+            server.start();
+            myDefault = server;
+        } catch (final IOException | IllegalArgumentException theE) {
+            MY_LOGGER.log(Level.WARNING, "Metrics endpoint not started on port " + port + ": "
+                    + theE.getMessage() + "\n");
+        }
+        return myDefault;
+    }
+
+    /**
+     * Starts listening. Does nothing if already running.
+     *
+     * @throws IOException if the port cannot be bound.
+     */
+    public synchronized void start() throws IOException {
+        if (myServer != null) {
+            return;
+        }
+        final HttpServer server = HttpServer.create(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), myRequestedPort), 0);
+        server.createContext("/metrics", this::handle);
+        server.createContext("/metrics.json", theExchange -> respond(theExchange, true));
+        myServerExecutor = Executors.newSingleThreadExecutor(theRunnable ->
+                daemon(theRunnable, "Metrics-Server-Thread"));
+        server.setExecutor(myServerExecutor);
+        server.start();
+        myServer = server;
+
+        myLastCounters = readCounters();
+        myLastSampleNanos = System.nanoTime();
+        mySampler = Executors.newSingleThreadScheduledExecutor(theRunnable ->
+                daemon(theRunnable, "Metrics-Sampler-Thread"));
+        mySampler.scheduleAtFixedRate(this::sampleRates, RATE_INTERVAL_MILLIS,
+                RATE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        MY_LOGGER.log(Level.INFO, "Metrics available at http://localhost:" + getPort()
+                + "/metrics\n");
+    }
+
+    /**
+     * Stops listening. Does nothing if not running.
+     */
+    public void stop() {
+        synchronized (this) {
+            if (myServer == null) {
+                return;
+            }
+            mySampler.shutdownNow();
+            myServer.stop(0);
+            myServerExecutor.shutdownNow();
+            myServer = null;
+        }
+        // taken separately, startDefault locks the class before the instance
+        synchronized (MetricsServer.class) {
+            if (myDefault == this) {
+                myDefault = null;
+            }
+        }
+    }
+
+    /**
+     * Gets the port the server listens on.
+     *
+     * @return the bound port, or the requested one if not running.
+     */
+    public synchronized int getPort() {
+        return myServer == null ? myRequestedPort : myServer.getAddress().getPort();
+    }
+
+    /**
+     * Sets the watcher to report on. The UI creates a new watcher after a stop, so this
+     * may be called many times.
+     *
+     * @param theWatcher the watcher, or null to report an idle pipeline.
+     */
+    public void setWatcher(final FileEventWatcher theWatcher) {
+        myWatcher = theWatcher;
+    }
+
+    /**
+     * Serves /metrics in the format asked for.
+     *
+     * @param theExchange the request.
+     * @throws IOException if the response cannot be written.
+     */
+    private void handle(final HttpExchange theExchange) throws IOException {
+        final String query = theExchange.getRequestURI().getQuery();
+        final String accept = theExchange.getRequestHeaders().getFirst("Accept");
+        respond(theExchange, (query != null && query.contains("format=json"))
+                || (accept != null && accept.startsWith("application/json")));
+    }
+
+    /**
+     * Writes the metrics.
+     *
+     * @param theExchange the request.
+     * @param theJson     true for JSON, false for the Prometheus text format.
+     * @throws IOException if the response cannot be written.
+     */
+    private void respond(final HttpExchange theExchange, final boolean theJson)
+            throws IOException {
+        try (theExchange) {
+            if (!"GET".equals(theExchange.getRequestMethod())) {
+                theExchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            final List<Family> families = collect();
+            final byte[] body = (theJson ? renderJson(families) : renderPrometheus(families))
+                    .getBytes(StandardCharsets.UTF_8);
+            theExchange.getResponseHeaders().set("Content-Type",
+                    theJson ? "application/json" : PROMETHEUS_TYPE);
+            theExchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = theExchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    /**
+     * Renders the current metrics in the Prometheus text format.
+     *
+     * @return the exposition text.
+     */
+    public String renderPrometheus() {
+        return renderPrometheus(collect());
+    }
+
+    /**
+     * Renders the current metrics as JSON.
+     *
+     * @return the JSON text.
+     */
+    public String renderJson() {
+        return renderJson(collect());
+    }
+
+    /**
+     * Reads the pipeline counters of the current watcher.
+     *
+     * @return the counters, indexed by {@link Counter} ordinal.
+     */
+    private long[] readCounters() {
+        final long[] counters = new long[Counter.values().length];
+        final FileEventWatcher watcher = myWatcher;
+        if (watcher != null) {
+            final EventCoalescer coalescer = watcher.getEventCoalescer();
+            counters[Counter.RECEIVED.ordinal()] = coalescer.getReceivedCount();
+            counters[Counter.COALESCED.ordinal()] = coalescer.getSuppressedCount()
+                    + coalescer.getTransientCount();
+            counters[Counter.FILTERED.ordinal()] = watcher.getEventRouter().getFilteredCount();
+            counters[Counter.PERSISTED.ordinal()] = watcher.getEventWriter().getWrittenCount();
+        }
+        return counters;
+    }
+
+    /**
+     * Recomputes the per second rates. A counter that went backwards, e.g. because the
+     * watcher was replaced, restarts at a rate of zero.
+     */
+    private void sampleRates() {
+        final long now = System.nanoTime();
+        final long[] counters = readCounters();
+        final double seconds = (now - myLastSampleNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+        final double[] rates = new double[counters.length];
+        for (int i = 0; i < counters.length; i++) {
+            final long delta = counters[i] - myLastCounters[i];
+            rates[i] = delta > 0 && seconds > 0 ? delta / seconds : 0;
+        }
+        myRates = rates;
+        myLastCounters = counters;
+        myLastSampleNanos = now;
+    }
+
+    /**
+     * Gathers every metric.
+     *
+     * @return the metric families in output order.
+     */
+    private List<Family> collect() {
+        final List<Family> families = new ArrayList<>();
+        final FileEventWatcher watcher = myWatcher;
+        final long[] counters = readCounters();
+        final double[] rates = myRates;
+
+        for (final Counter counter : Counter.values()) {
+            final String name = counter.name().toLowerCase(Locale.ROOT);
+            families.add(Family.single("filewatcher_events_" + name + "_total", "counter",
+                    "Events " + name + " since the watcher was created.",
+                    counters[counter.ordinal()]));
+            families.add(Family.single("filewatcher_events_" + name + "_per_second", "gauge",
+                    "Events " + name + " per second over the last sample interval.",
+                    rates[counter.ordinal()]));
+        }
+
+        final Family queues = new Family("filewatcher_queue_depth", "gauge",
+                "Events waiting in each ingest stage.");
+        final BatchEventWriter writer = watcher == null ? null : watcher.getEventWriter();
+        queues.add("stage", "coalescer", watcher == null ? 0
+                : watcher.getEventCoalescer().getPendingCount());
+        queues.add("stage", "router", watcher == null ? 0
+                : watcher.getEventRouter().getQueueDepth());
+        queues.add("stage", "writer", writer == null ? 0 : writer.getQueueDepth());
+        families.add(queues);
+        families.add(Family.single("filewatcher_event_buffer_size", "gauge",
+                "Recent events held for the UI.", watcher == null ? 0
+                        : watcher.getEventBuffer().size()));
+        families.add(Family.single("filewatcher_events_dropped_total", "counter",
+                "Events the writer dropped or failed to persist.", writer == null ? 0
+                        : writer.getDroppedCount()));
+        if (writer != null) {
+            families.add(Family.histogram("filewatcher_db_write_seconds",
+                    "Time to write one batch of events to the database.",
+                    writer.getWriteLatency()));
+        }
+
+        families.add(Family.single("filewatcher_watching", "gauge",
+                "1 while the watcher is running.", watcher != null && watcher.isWatching()
+                        ? 1 : 0));
+        families.add(Family.single("filewatcher_watch_keys", "gauge",
+                "Directories registered with the watch service.", watcher == null ? 0
+                        : watcher.getWatchKeyCount()));
+        families.add(Family.single("filewatcher_overflows_total", "counter",
+                "Watch service overflows.", watcher == null ? 0 : watcher.getOverflowCount()));
+        families.add(Family.single("filewatcher_recovered_events_total", "counter",
+                "Events recovered by rescanning after an overflow.", watcher == null ? 0
+                        : watcher.getRecoveredEventCount()));
+        families.add(Family.histogram("filewatcher_email_send_seconds",
+                "Time to send one report email.", EmailClient.getSendLatency()));
+
+        final MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        final Family memory = new Family("jvm_memory_heap_bytes", "gauge",
+                "Heap memory of the JVM.");
+        memory.add("area", "used", heap.getUsed());
+        memory.add("area", "committed", heap.getCommitted());
+        memory.add("area", "max", heap.getMax());
+        families.add(memory);
+
+        final Family collections = new Family("jvm_gc_collections_total", "counter",
+                "Garbage collections per collector.");
+        final Family gcTime = new Family("jvm_gc_collection_seconds_total", "counter",
+                "Time spent in garbage collection per collector.");
+        for (final GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            collections.add("gc", gc.getName(), Math.max(gc.getCollectionCount(), 0));
+            gcTime.add("gc", gc.getName(), Math.max(gc.getCollectionTime(), 0) / 1000.0);
+        }
+        families.add(collections);
+        families.add(gcTime);
+        return families;
+    }
+
+    /**
+     * Renders metric families in the Prometheus text format.
+     *
+     * @param theFamilies the metrics.
+     * @return the exposition text.
+     */
+    private static String renderPrometheus(final List<Family> theFamilies) {
+        final StringBuilder text = new StringBuilder();
+        for (final Family family : theFamilies) {
+            text.append("# HELP ").append(family.myName).append(' ').append(family.myHelp)
+                    .append('\n');
+            text.append("# TYPE ").append(family.myName).append(' ').append(family.myType)
+                    .append('\n');
+            if (family.myHistogram != null) {
+                final double[] bounds = family.myHistogram.getBounds();
+                final long[] counts = family.myHistogram.getCumulativeCounts();
+                for (int i = 0; i <= bounds.length; i++) {
+                    text.append(family.myName).append("_bucket{le=\"")
+                            .append(i < bounds.length ? format(bounds[i]) : "+Inf")
+                            .append("\"} ").append(counts[i]).append('\n');
+                }
+                text.append(family.myName).append("_sum ")
+                        .append(format(family.myHistogram.getSumSeconds())).append('\n');
+                text.append(family.myName).append("_count ")
+                        .append(counts[bounds.length]).append('\n');
+                continue;
+            }
+            for (final Sample sample : family.mySamples) {
+                text.append(family.myName);
+                if (sample.label() != null) {
+                    text.append('{').append(sample.label()).append("=\"")
+                            .append(escape(sample.labelValue())).append("\"}");
+                }
+                text.append(' ').append(format(sample.value())).append('\n');
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Renders metric families as one JSON object keyed by metric name. Labelled metrics
+     * become objects keyed by label value and histograms carry count, sum and buckets.
+     *
+     * @param theFamilies the metrics.
+     * @return the JSON text.
+     */
+    private static String renderJson(final List<Family> theFamilies) {
+        final StringBuilder json = new StringBuilder("{");
+        for (final Family family : theFamilies) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append("\n  \"").append(family.myName).append("\": ");
+            if (family.myHistogram != null) {
+                final double[] bounds = family.myHistogram.getBounds();
+                final long[] counts = family.myHistogram.getCumulativeCounts();
+                json.append("{\"count\": ").append(counts[bounds.length])
+                        .append(", \"sum\": ").append(format(family.myHistogram.getSumSeconds()))
+                        .append(", \"buckets\": {");
+                for (int i = 0; i < bounds.length; i++) {
+                    json.append(i > 0 ? ", " : "").append('"').append(format(bounds[i]))
+                            .append("\": ").append(counts[i]);
+                }
+                json.append("}}");
+            } else if (family.mySamples.size() == 1 && family.mySamples.get(0).label() == null) {
+                json.append(format(family.mySamples.get(0).value()));
+            } else {
+                final Map<String, String> values = new LinkedHashMap<>();
+                for (final Sample sample : family.mySamples) {
+                    values.put(sample.labelValue(), format(sample.value()));
+                }
+                json.append('{');
+                String separator = "";
+                for (final Map.Entry<String, String> value : values.entrySet()) {
+                    json.append(separator).append('"').append(escape(value.getKey()))
+                            .append("\": ").append(value.getValue());
+                    separator = ", ";
+                }
+                json.append('}');
+            }
+        }
+        return json.append("\n}\n").toString();
+    }
+
+    /**
+     * Formats a value without a trailing .0 for whole numbers.
+     *
+     * @param theValue the value.
+     * @return the text.
+     */
+    private static String format(final double theValue) {
+        if (theValue == Math.rint(theValue) && Math.abs(theValue) < 1e15) {
+            return Long.toString((long) theValue);
+        }
+        return Double.toString(theValue);
+    }
+
+    /**
+     * Escapes a label value for both output formats.
+     *
+     * @param theValue the raw value.
+     * @return the escaped value.
+     */
+    private static String escape(final String theValue) {
+        return theValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /**
+     * Creates a daemon thread so the server never keeps the application alive.
+     *
+     * @param theRunnable the work.
+     * @param theName     the thread name.
+     * @return the thread.
+     */
+    private static Thread daemon(final Runnable theRunnable, final String theName) {
+        final Thread thread = new Thread(theRunnable, theName);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * One value of a metric, with at most one label.
+     *
+     * @param label      the label name, or null.
+     * @param labelValue the label value, or null.
+     * @param value      the value.
+     */
+    private record Sample(String label, String labelValue, double value) {
+    }
+
+    /**
+     * A metric with its metadata and values.
+     */
+    private static final class Family {
+
+        /**
+         * The metric name.
+         */
+        private final String myName;
+
+        /**
+         * The Prometheus type.
+         */
+        private final String myType;
+
+        /**
+         * The description.
+         */
+        private final String myHelp;
+
+        /**
+         * The values, empty for histograms.
+         */
+        private final List<Sample> mySamples = new ArrayList<>();
+
+        /**
+         * The histogram, or null.
+         */
+        private LatencyHistogram myHistogram;
+
+        /**
+         * Creates a family without values.
+         *
+         * @param theName the metric name.
+         * @param theType the Prometheus type.
+         * @param theHelp the description.
+         */
+        Family(final String theName, final String theType, final String theHelp) {
+            myName = theName;
+            myType = theType;
+            myHelp = theHelp;
+        }
+
+        /**
+         * Creates an unlabelled metric.
+         *
+         * @param theName  the metric name.
+         * @param theType  the Prometheus type.
+         * @param theHelp  the description.
+         * @param theValue the value.
+         * @return the family.
+         */
+        static Family single(final String theName, final String theType, final String theHelp,
+                             final double theValue) {
+            final Family family = new Family(theName, theType, theHelp);
+            family.mySamples.add(new Sample(null, null, theValue));
+            return family;
+        }
+
+        /**
+         * Creates a histogram metric.
+         *
+         * @param theName      the metric name.
+         * @param theHelp      the description.
+         * @param theHistogram the histogram.
+         * @return the family.
+         */
+        static Family histogram(final String theName, final String theHelp,
+                                final LatencyHistogram theHistogram) {
+            final Family family = new Family(theName, "histogram", theHelp);
+            family.myHistogram = theHistogram;
+            return family;
+        }
+
+        /**
+         * Adds a labelled value.
+         *
+         * @param theLabel      the label name.
+         * @param theLabelValue the label value.
+         * @param theValue      the value.
+         */
+        void add(final String theLabel, final String theLabelValue, final double theValue) {
+            mySamples.add(new Sample(theLabel, theLabelValue, theValue));
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.tcss.filewatcher.Model;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * Maps directories to values in a tree of path components, so the value of the most
+ * specific directory above any path is found in time proportional to its depth.
+ * Reads never lock: the tree is immutable and replaced as a whole on every change.
+ * Changes copy only the nodes on the way to the directory and are serialized, which
+ * suits rules that are read for every event and changed by the user now and then.
+ * Paths are split on the platform separator and are expected to be normalized already.
+ *
+ * @param <V> the type of the values.
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+public final class PathTrie<V> {
+
+    /**
+     * The top of the current tree.
+     */
+    private volatile Node<V> myRoot = Node.empty();
+
+    /**
+     * Gets the value stored for exactly this directory.
+     *
+     * @param thePath the directory.
+     * @return the value, or null if there is none.
+     */
+    public V get(final String thePath) {
+        Node<V> node = myRoot;
+        int start = 0;
+        while (node != null && start < thePath.length()) {
+            final int end = nextSeparator(thePath, start);
+            if (end > start) {
+                node = node.myChildren.get(thePath.substring(start, end));
+            }
+            start = end + 1;
+        }
+        return node == null ? null : node.myValue;
+    }
+
+    /**
+     * Gets the value of the most specific directory at or above a path.
+     *
+     * @param thePath the path, e.g. the directory an event happened in.
+     * @return the value, or null if no directory above it has one.
+     */
+    public V findNearest(final String thePath) {
+        Node<V> node = myRoot;
+        V nearest = node.myValue;
+        int start = 0;
+        while (start < thePath.length()) {
+            final int end = nextSeparator(thePath, start);
+            if (end > start) {
+                node = node.myChildren.get(thePath.substring(start, end));
+                if (node == null) {
+                    break;
+                }
+                if (node.myValue != null) {
+                    nearest = node.myValue;
+                }
+            }
+            start = end + 1;
+        }
+        return nearest;
+    }
+
+    /**
+     * Replaces the value of a directory.
+     *
+     * @param thePath  the directory.
+     * @param theValue the value, or null to remove it.
+     */
+    public void put(final String thePath, final V theValue) {
+        compute(thePath, theOld -> theValue);
+    }
+
+    /**
+     * Removes the value of a directory. Directories below it keep theirs.
+     *
+     * @param thePath the directory.
+     */
+    public void remove(final String thePath) {
+        compute(thePath, theOld -> null);
+    }
+
+    /**
+     * Changes the value of a directory, atomically with respect to other changes.
+     *
+     * @param thePath     the directory.
+     * @param theFunction gets the current value or null and returns the new value, or
+     *                    null to remove it.
+     */
+    public synchronized void compute(final String thePath, final UnaryOperator<V> theFunction) {
+        final Node<V> root = update(myRoot, thePath, 0, theFunction);
+        myRoot = root == null ? Node.empty() : root;
+    }
+
+    /**
+     * Changes the values of many directories and publishes them together, so readers
+     * see either none or all of the changes.
+     *
+     * @param theFunctions the change for each directory.
+     */
+    public synchronized void computeAll(final Map<String, UnaryOperator<V>> theFunctions) {
+        Node<V> root = myRoot;
+        for (final Map.Entry<String, UnaryOperator<V>> change : theFunctions.entrySet()) {
+            root = update(root == null ? Node.empty() : root, change.getKey(), 0,
+                    change.getValue());
+        }
+        myRoot = root == null ? Node.empty() : root;
+    }
+
+    /**
+     * Removes every value.
+     */
+    public synchronized void clear() {
+        myRoot = Node.empty();
+    }
+
+    /**
+     * Checks whether no directory has a value.
+     *
+     * @return true if the tree is empty.
+     */
+    public boolean isEmpty() {
+        final Node<V> root = myRoot;
+        return root.myValue == null && root.myChildren.isEmpty();
+    }
+
+    /**
+     * Copies the nodes on the way to a directory with its value changed.
+     *
+     * @param theNode     the node at this depth.
+     * @param thePath     the directory.
+     * @param theStart    where the next component starts in the path.
+     * @param theFunction the change.
+     * @return the new node, or null if it holds nothing any more.
+     */
+    private static <V> Node<V> update(final Node<V> theNode, final String thePath,
+                                      final int theStart,
+                                      final UnaryOperator<V> theFunction) {
+        int start = theStart;
+        int end = start;
+        while (start < thePath.length() && (end = nextSeparator(thePath, start)) == start) {
+            start = end + 1;
+        }
+        if (start >= thePath.length()) {
+            return Node.of(theFunction.apply(theNode.myValue), theNode.myChildren);
+        }
+
+        final String name = thePath.substring(start, end);
+        final Node<V> child = theNode.myChildren.get(name);
+        final Node<V> updated = update(child == null ? Node.empty() : child, thePath,
+                end + 1, theFunction);
+        if (updated == child) {
+            return theNode;
+        }
+        final Map<String, Node<V>> children = new HashMap<>(theNode.myChildren);
+        if (updated == null) {
+            children.remove(name);
+        } else {
+            children.put(name, updated);
+        }
+        return Node.of(theNode.myValue, children);
+    }
+
+    /**
+     * Finds the end of the component starting at an index.
+     *
+     * @param thePath  the path.
+     * @param theStart the start of the component.
+     * @return the index of the next separator, or the length of the path.
+     */
+    private static int nextSeparator(final String thePath, final int theStart) {
+        final int end = thePath.indexOf(File.separatorChar, theStart);
+        return end < 0 ? thePath.length() : end;
+    }
+
+    /**
+     * One path component, immutable once published.
+     *
+     * @param <V> the type of the value.
+     */
+    private static final class Node<V> {
+
+        /**
+         * The node every empty tree starts from.
+         */
+        private static final Node<?> EMPTY = new Node<>(null, Map.of());
+
+        /**
+         * The value of this directory, or null.
+         */
+        private final V myValue;
+
+        /**
+         * The nodes below this one by component name.
+         */
+        private final Map<String, Node<V>> myChildren;
+
+        /**
+         * Creates a node.
+         *
+         * @param theValue    the value, or null.
+         * @param theChildren the nodes below, not copied.
+         */
+        private Node(final V theValue, final Map<String, Node<V>> theChildren) {
+            myValue = theValue;
+            myChildren = theChildren;
+        }
+
+        /**
+         * Gets the empty node.
+         *
+         * @param <V> the type of the value.
+         * @return a node without value or children.
+         */
+        @SuppressWarnings("unchecked")
+        private static <V> Node<V> empty() {
+            return (Node<V>) EMPTY;
+        }
+
+        /**
+         * Creates a node, or none if it would hold nothing.
+         *
+         * @param theValue    the value, or null.
+         * @param theChildren the nodes below.
+         * @return the node, or null if it has neither value nor children.
+         */
+        private static <V> Node<V> of(final V theValue, final Map<String, Node<V>> theChildren) {
+            if (theValue == null && theChildren.isEmpty()) {
+                return null;
+            }
+            return new Node<>(theValue, Collections.unmodifiableMap(theChildren));
+        }
+    }
+}
@@ -0,0 +1,600 @@
+package com.tcss.filewatcher.Model;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs event queries off the calling thread. Queries run one at a time on a single
+ * worker with its own read-only connection, so a long query never holds a pooled reader
+ * and can be stopped with SQLite's interrupt. Every new query supersedes the one before
+ * it: the older query is cancelled, and interrupted if it is already running, so a
+ * screen whose filters change only ever waits for its latest query. Pages read with
+ * {@link #page} are the exception; they supersede nothing, and a pager cancels the pages
+ * it no longer needs itself. Use one service per screen.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+public final class QueryService implements AutoCloseable {
+
+    /**
+     * The default number of records per delivered chunk.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 256;
+
+    /**
+     * The most queries waiting for the worker.
+     */
+    private static final int QUEUE_CAPACITY = 8;
+
+    /**
+     * Logger object.
+     */
+    private static final Logger MY_LOGGER = Logger.getLogger("Query Service");
+
+    /**
+     * The connections of the queried database.
+     */
+    private final ConnectionManager myConnections;
+
+    /**
+     * The partitions the queries read from.
+     */
+    private final EventPartitions myPartitions;
+
+    /**
+     * The single worker the queries run on.
+     */
+    private final ThreadPoolExecutor myExecutor;
+
+    /**
+     * The worker's own connection, opened on first use and only touched by the worker.
+     */
+    private volatile ConnectionManager.Lease myLease;
+
+    /**
+     * The latest query submitted.
+     */
+    private QueryTask<?> myLatest;
+
+    /**
+     * The query the worker is running, guarded by this service.
+     */
+    private QueryTask<?> myRunning;
+
+    /**
+     * Creates a service for a database. The worker and its connection start with the
+     * first query.
+     *
+     * @param theConnections the connections of the database.
+     * @throws IllegalArgumentException if the connections are null.
+     */
+    public QueryService(final ConnectionManager theConnections) {
+        if (theConnections == null) {
+            throw new IllegalArgumentException("Connection manager cannot be null");
+        }
+        myConnections = theConnections;
+        myPartitions = EventPartitions.of(theConnections);
+        myExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), theRunnable -> {
+                    final Thread thread = new Thread(theRunnable, "Query-Service-Thread");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Counts the events a query selects.
+     *
+     * @param theQuery the query.
+     * @return the running query, whose result is the count.
+     * @throws IllegalArgumentException if the query is null.
+     * @throws IllegalStateException    if the service is closed or too many queries wait.
+     */
+    public QueryTask<Long> count(final EventQuery theQuery) {
+        if (theQuery == null) {
+            throw new IllegalArgumentException("Query cannot be null");
+        }
+        final EventQuery query = theQuery.forSchema(EventSchema.isMigrated(myConnections));
+        return submit(theQuery, true, theTask -> {
+            final String sql = query.toCountSql(myPartitions.tablesBetween(lease(),
+                    query.getFromMillis(), query.getToMillis()));
+            try (ResultSet rs = prepare(query, sql).executeQuery()) {
+                final long count = rs.next() ? rs.getLong(1) : 0;
+                theTask.myRows = count;
+                return count;
+            }
+        });
+    }
+
+    /**
+     * Reads the events a query selects in chunks of the default size.
+     *
+     * @param theQuery         the query.
+     * @param theChunkListener called on the worker with each chunk, in order.
+     * @return the running query, whose result is the number of events delivered.
+     * @throws IllegalArgumentException if an argument is null.
+     * @throws IllegalStateException    if the service is closed or too many queries wait.
+     */
+    public QueryTask<Long> stream(final EventQuery theQuery,
+                                  final Consumer<List<EventRecord>> theChunkListener) {
+        return stream(theQuery, DEFAULT_CHUNK_SIZE, theChunkListener);
+    }
+
+    /**
+     * Reads the events a query selects, handing them over a chunk at a time so a
+     * listener can show the first rows while the rest are read. A listener on a UI
+     * thread should hand each chunk to that thread. No chunk is delivered after the
+     * query is cancelled.
+     *
+     * @param theQuery         the query.
+     * @param theChunkSize     the most events per chunk.
+     * @param theChunkListener called on the worker with each chunk, in order.
+     * @return the running query, whose result is the number of events delivered.
+     * @throws IllegalArgumentException if an argument is null or the size is not positive.
+     * @throws IllegalStateException    if the service is closed or too many queries wait.
+     */
+    public QueryTask<Long> stream(final EventQuery theQuery, final int theChunkSize,
+                                  final Consumer<List<EventRecord>> theChunkListener) {
+        if (theQuery == null || theChunkListener == null) {
+            throw new IllegalArgumentException("Query and chunk listener cannot be null");
+        }
+        if (theChunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        final EventQuery query = theQuery.forSchema(EventSchema.isMigrated(myConnections));
+        return submit(theQuery, true, theTask -> {
+            final PreparedStatement pstmt = prepare(query,
+                    query.toSql(DataBaseManager.RECORD_COLUMNS));
+            pstmt.setFetchSize(theChunkSize);
+            List<EventRecord> chunk = new ArrayList<>(theChunkSize);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (!theTask.isCancelled() && rs.next()) {
+                    chunk.add(EventCursor.readRecord(rs));
+                    if (chunk.size() == theChunkSize) {
+                        theTask.deliver(chunk, theChunkListener);
+                        chunk = new ArrayList<>(theChunkSize);
+                    }
+                }
+            }
+            if (!chunk.isEmpty()) {
+                theTask.deliver(chunk, theChunkListener);
+            }
+            return theTask.myRows;
+        });
+    }
+
+    /**
+     * Reads one page of the events a query selects, continuing after a known event and
+     * skipping some events first, like {@link DataBaseManager#queryPage} and
+     * {@link DataBaseManager#findRecordAfter} in one statement. The page does not
+     * supersede the other queries, so a pager can read pages while its count runs;
+     * cancelling it interrupts a long skip.
+     *
+     * @param theQuery          the query.
+     * @param theAfterTimestamp the timestamp of the known event, or the first-page key of
+     *                          {@link DataBaseManager#queryPage} to count from the start.
+     * @param theAfterId        the id of the known event, chosen like the timestamp.
+     * @param theSkip           how many events after the known one to skip.
+     * @param theLimit          the most events to read.
+     * @return the running query, whose result is the page.
+     * @throws IllegalArgumentException if the query is null, the skip is negative or the
+     *                                  limit is not positive.
+     * @throws IllegalStateException    if the service is closed or too many queries wait.
+     */
+    public QueryTask<List<EventRecord>> page(final EventQuery theQuery,
+                                             final long theAfterTimestamp,
+                                             final long theAfterId, final long theSkip,
+                                             final int theLimit) {
+        if (theQuery == null || theSkip < 0 || theLimit < 1) {
+            throw new IllegalArgumentException("Query cannot be null, skip cannot be "
+                    + "negative and limit must be positive");
+        }
+        final EventQuery query = theQuery.forSchema(EventSchema.isMigrated(myConnections));
+        return submit(theQuery, false, theTask -> {
+            final PreparedStatement pstmt = prepare(query,
+                    query.toPageSql(DataBaseManager.RECORD_COLUMNS) + " LIMIT ? OFFSET ?");
+            int parameter = query.parameters().size();
+            pstmt.setLong(++parameter, theAfterTimestamp);
+            pstmt.setLong(++parameter, theAfterId);
+            pstmt.setInt(++parameter, theLimit);
+            pstmt.setLong(++parameter, theSkip);
+            final List<EventRecord> rows = new ArrayList<>(theLimit);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(EventCursor.readRecord(rs));
+                }
+            }
+            theTask.myRows = rows.size();
+            return rows;
+        });
+    }
+
+    /**
+     * Stops the worker, cancelling the waiting and running queries, and closes its
+     * connection.
+     */
+    @Override
+    public void close() {
+        final QueryTask<?> latest;
+        final QueryTask<?> running;
+        synchronized (this) {
+            latest = myLatest;
+            running = myRunning;
+        }
+        if (latest != null) {
+            latest.cancel(true);
+        }
+        if (running != null) {
+            running.cancel(true);
+        }
+        myExecutor.shutdownNow();
+        try {
+            myExecutor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (final InterruptedException theE) {
+            Thread.currentThread().interrupt();
+        }
+        if (myLease != null) {
+            myLease.close();
+            myLease = null;
+        }
+    }
+
+    /**
+     * Queues a query, first superseding the latest query if asked to.
+     *
+     * @param theQuery     the query, for timing and logging.
+     * @param theSupersede whether the query replaces the latest query.
+     * @param theWork      the statement to run on the worker.
+     * @param <T>          the type of the result.
+     * @return the queued query.
+     */
+    private <T> QueryTask<T> submit(final EventQuery theQuery, final boolean theSupersede,
+                                    final Work<T> theWork) {
+        final QueryTask<T> task = new QueryTask<>(this, theQuery, theWork);
+        if (theSupersede) {
+            final QueryTask<?> superseded;
+            synchronized (this) {
+                superseded = myLatest;
+                myLatest = task;
+            }
+            if (superseded != null) {
+                superseded.cancel(true);
+            }
+        }
+        // cancelled queries would otherwise keep their place in the queue
+        myExecutor.purge();
+        try {
+            myExecutor.execute(task);
+        } catch (final RejectedExecutionException theE) {
+            task.cancel(false);
+            throw new IllegalStateException("Query service is closed or busy", theE);
+        }
+        return task;
+    }
+
+    /**
+     * Gets the worker's connection, opening it on first use.
+     *
+     * @return the lease of the connection.
+     * @throws SQLException if the connection cannot be opened.
+     */
+    private ConnectionManager.Lease lease() throws SQLException {
+        if (myLease == null) {
+            myLease = myConnections.openDedicatedReader();
+        }
+        return myLease;
+    }
+
+    /**
+     * Prepares a statement on the worker's connection and binds the query's parameters.
+     *
+     * @param theQuery the query.
+     * @param theSql   the compiled statement.
+     * @return the bound statement.
+     * @throws SQLException if the connection cannot be opened or the statement prepared.
+     */
+    private PreparedStatement prepare(final EventQuery theQuery, final String theSql)
+            throws SQLException {
+        final ConnectionManager.Lease lease = lease();
+        final PreparedStatement pstmt = lease.prepare(myPartitions.resolve(lease, theSql,
+                theQuery.getFromMillis(), theQuery.getToMillis()));
+        final List<Object> params = theQuery.parameters();
+        for (int i = 0; i < params.size(); i++) {
+            pstmt.setObject(i + 1, params.get(i));
+        }
+        return pstmt;
+    }
+
+    /**
+     * Marks a query as running on the worker, or as finished.
+     *
+     * @param theTask the running query, or null when it finishes.
+     */
+    private synchronized void setRunning(final QueryTask<?> theTask) {
+        myRunning = theTask;
+    }
+
+    /**
+     * Interrupts the statement of a query if the worker is running it. The check and the
+     * interrupt are done under the lock the worker takes when a query ends, so the
+     * interrupt never lands on the next query.
+     *
+     * @param theTask the query to interrupt.
+     */
+    private synchronized void interrupt(final QueryTask<?> theTask) {
+        if (myRunning == theTask && myLease != null) {
+            try {
+                myLease.interrupt();
+            } catch (final SQLException theE) {
+                MY_LOGGER.log(Level.WARNING, "Unable to interrupt query: " + theE.getMessage()
+                        + "\n");
+            }
+        }
+    }
+
+    /**
+     * The statements a query runs on the worker.
+     *
+     * @param <T> the type of the result.
+     */
+    private interface Work<T> {
+
+        /**
+         * Runs the statements.
+         *
+         * @param theTask the query being run.
+         * @return the result.
+         * @throws SQLException if a statement fails or is interrupted.
+         */
+        T run(QueryTask<T> theTask) throws SQLException;
+    }
+
+    /**
+     * The statements of a query together with the query they run for, so they can check
+     * for cancellation and count the rows they deliver.
+     *
+     * @param <T> the type of the result.
+     */
+    private static final class BoundWork<T> implements Callable<T> {
+
+        /**
+         * The statements.
+         */
+        private final Work<T> myWork;
+
+        /**
+         * The query the statements run for, set once it is created.
+         */
+        private QueryTask<T> myTask;
+
+        /**
+         * Wraps statements that are not yet bound to a query.
+         *
+         * @param theWork the statements.
+         */
+        private BoundWork(final Work<T> theWork) {
+            myWork = theWork;
+        }
+
+        @Override
+        public T call() throws SQLException {
+            return myWork.run(myTask);
+        }
+    }
+
+    /**
+     * A query submitted to the service. Cancelling it before it runs drops it from the
+     * queue; cancelling it while it runs interrupts its statement. It records when it
+     * was submitted, started and finished, and how many rows it read.
+     *
+     * @param <T> the type of the result.
+     * @author Kassie Whitney
+     * @version 10.17.26
+     */
+    public static final class QueryTask<T> extends FutureTask<T> {
+
+        /**
+         * The service running the query.
+         */
+        private final QueryService myService;
+
+        /**
+         * The query.
+         */
+        private final EventQuery myQuery;
+
+        /**
+         * When the query was submitted, in nanoseconds.
+         */
+        private final long mySubmitNanos = System.nanoTime();
+
+        /**
+         * When the worker started the query, in nanoseconds, 0 if it has not started.
+         */
+        private volatile long myStartNanos;
+
+        /**
+         * When the query finished, in nanoseconds, 0 if it has not finished.
+         */
+        private volatile long myEndNanos;
+
+        /**
+         * The number of rows read or counted.
+         */
+        private volatile long myRows;
+
+        /**
+         * Called once the query is done, or null.
+         */
+        private Consumer<QueryTask<T>> myDoneListener;
+
+        /**
+         * Creates a query.
+         *
+         * @param theService the service running the query.
+         * @param theQuery   the query.
+         * @param theWork    the statements to run.
+         */
+        private QueryTask(final QueryService theService, final EventQuery theQuery,
+                          final Work<T> theWork) {
+            this(theService, theQuery, new BoundWork<>(theWork));
+        }
+
+        /**
+         * Creates a query and binds its statements to it.
+         *
+         * @param theService the service running the query.
+         * @param theQuery   the query.
+         * @param theWork    the statements to run, not yet bound to a query.
+         */
+        private QueryTask(final QueryService theService, final EventQuery theQuery,
+                          final BoundWork<T> theWork) {
+            super(theWork);
+            theWork.myTask = this;
+            myService = theService;
+            myQuery = theQuery;
+        }
+
+        /**
+         * Gets the query.
+         *
+         * @return the query.
+         */
+        public EventQuery getQuery() {
+            return myQuery;
+        }
+
+        /**
+         * Gets the number of rows read or counted so far.
+         *
+         * @return the row count.
+         */
+        public long getRowCount() {
+            return myRows;
+        }
+
+        /**
+         * Gets how long the query waited for the worker, so far if it has not started.
+         *
+         * @return the wait in milliseconds.
+         */
+        public long getWaitMillis() {
+            final long start = myStartNanos;
+            return TimeUnit.NANOSECONDS.toMillis((start == 0 ? System.nanoTime() : start)
+                    - mySubmitNanos);
+        }
+
+        /**
+         * Gets how long the query ran, so far if it has not finished.
+         *
+         * @return the run time in milliseconds, 0 if it never started.
+         */
+        public long getRunMillis() {
+            final long start = myStartNanos;
+            final long end = myEndNanos;
+            if (start == 0) {
+                return 0;
+            }
+            return TimeUnit.NANOSECONDS.toMillis((end == 0 ? System.nanoTime() : end) - start);
+        }
+
+        /**
+         * Sets a listener called once the query is done, on the worker, or at once on this
+         * thread if it is already done. A listener on a UI thread should hand the result
+         * to that thread.
+         *
+         * @param theListener the listener.
+         * @return this query.
+         * @throws IllegalArgumentException if the listener is null.
+         */
+        public QueryTask<T> whenDone(final Consumer<QueryTask<T>> theListener) {
+            if (theListener == null) {
+                throw new IllegalArgumentException("Listener cannot be null");
+            }
+            synchronized (this) {
+                if (!isDone()) {
+                    myDoneListener = theListener;
+                    return this;
+                }
+            }
+            theListener.accept(this);
+            return this;
+        }
+
+        @Override
+        public boolean cancel(final boolean theMayInterruptIfRunning) {
+            // the worker thread is never interrupted; SQLite stops the statement instead
+            final boolean cancelled = super.cancel(false);
+            if (cancelled && theMayInterruptIfRunning) {
+                myService.interrupt(this);
+            }
+            return cancelled;
+        }
+
+        @Override
+        public void run() {
+            if (isDone()) {
+                return;
+            }
+            myStartNanos = System.nanoTime();
+            myService.setRunning(this);
+            final FlightEvents.DatabaseQuery flight = new FlightEvents.DatabaseQuery();
+            try {
+                super.run();
+            } finally {
+                myService.setRunning(null);
+                flight.end("async", myQuery.toString(), (int) Math.min(myRows,
+                        Integer.MAX_VALUE));
+            }
+        }
+
+        @Override
+        protected void setException(final Throwable theThrowable) {
+            if (!isCancelled()) {
+                MY_LOGGER.log(Level.SEVERE, "Error running query " + myQuery + ": "
+                        + theThrowable.getMessage() + "\n");
+            }
+            super.setException(theThrowable);
+        }
+
+        @Override
+        protected void done() {
+            myEndNanos = System.nanoTime();
+            final Consumer<QueryTask<T>> listener;
+            synchronized (this) {
+                listener = myDoneListener;
+                myDoneListener = null;
+            }
+            if (listener != null) {
+                listener.accept(this);
+            }
+        }
+
+        /**
+         * Hands a chunk to the listener unless the query has been cancelled.
+         *
+         * @param theChunk    the records.
+         * @param theListener the chunk listener.
+         */
+        private void deliver(final List<EventRecord> theChunk,
+                             final Consumer<List<EventRecord>> theListener) {
+            if (!isCancelled()) {
+                myRows += theChunk.size();
+                theListener.accept(theChunk);
+            }
+        }
+    }
+}
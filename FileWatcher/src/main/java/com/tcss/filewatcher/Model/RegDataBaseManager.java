@@ -1,25 +1,17 @@
 package com.tcss.filewatcher.Model;
 
-import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import org.sqlite.SQLiteDataSource;
 
 public class RegDataBaseManager {
 
     /**
-     * The SQLite data source for database connections.
+     * The shared connections to the database.
      */
-    private SQLiteDataSource myDs;
-
-    /**
-     * The JDBC URL for the SQLite database file.
-     */
-    private static final String DB_URL = "jdbc:sqlite:filewatcher.db";
+    private ConnectionManager myConnections;
 
     /**
      * Logger for debugging purpose.
@@ -31,25 +23,31 @@ public class RegDataBaseManager {
      * if needed.
      */
     public RegDataBaseManager() {
-        initializeDatabase();
+        this(ConnectionManager.getInstance());
+    }
+
+    /**
+     * Constructs a new RegDataBaseManager on top of a specific database.
+     *
+     * @param theConnections the shared connections of the database to use.
+     */
+    public RegDataBaseManager(final ConnectionManager theConnections) {
+        initializeDatabase(theConnections);
         createTable();
     }
 
     /**
-     * Initializes the SQLite data source and sets the database URL.
+     * Connects the manager to the shared connections of the database.
      * Throws a RuntimeException if initialization fails.
      */
-    private void initializeDatabase() {
-        try {
-            myDs = new SQLiteDataSource();
-            myDs.setUrl(DB_URL);
-            MY_LOGGER.log(Level.INFO, "Database connection established successfully!\n");
-        } catch (final Exception theEvent) {
-
-            MY_LOGGER.log(Level.SEVERE,
-                    "The database was unable to initialize: " + theEvent.getMessage() + "\n");
-            throw new RuntimeException("Failed to initialize database: ", theEvent);
+    private void initializeDatabase(final ConnectionManager theConnections) {
+        if (theConnections == null) {
+
+            MY_LOGGER.log(Level.SEVERE, "The database was unable to initialize: no connection "
+                    + "manager\n");
+            throw new RuntimeException("Failed to initialize database: no connection manager");
         }
+        myConnections = theConnections;
     }
 
     /**
@@ -66,9 +64,8 @@ public class RegDataBaseManager {
                 )""";
 
 
-        try (final Connection conn = myDs.getConnection();
-             final Statement stmt = conn.createStatement()) {
-            stmt.executeUpdate(query);
+        try {
+            myConnections.ensureTable("registration", query);
             MY_LOGGER.log(Level.INFO, "Table 'registration' initialized.\n");
 
         } catch (SQLException theE) {
@@ -104,9 +101,9 @@ public class RegDataBaseManager {
             final String insertSQL = "INSERT INTO registration (email, password, email_freq) " +
                     "VALUES (?,?,?)";
 
-            try (final Connection conn = myDs.getConnection();
-                 final PreparedStatement prepStmt = conn.prepareStatement(insertSQL)) {
+            try (final ConnectionManager.Lease lease = myConnections.acquireWriter()) {
 
+                final PreparedStatement prepStmt = lease.prepare(insertSQL);
                 prepStmt.setString(1, theEmail);
                 prepStmt.setString(2, thePassword);
                 prepStmt.setString(3, theEmailFrequency);
@@ -138,8 +135,8 @@ public class RegDataBaseManager {
 
         final String query = "SELECT 1 FROM registration WHERE LOWER(email) = LOWER(?)";
 
-        try (final Connection conn = myDs.getConnection();
-             PreparedStatement prepStmt = conn.prepareStatement(query)) {
+        try (final ConnectionManager.Lease lease = myConnections.acquireReader()) {
+            final PreparedStatement prepStmt = lease.prepare(query);
             prepStmt.setString(1, theEmail);
 
             try (final ResultSet rs = prepStmt.executeQuery()) {
@@ -165,9 +162,9 @@ public class RegDataBaseManager {
         final String query = "SELECT email_freq FROM registration where email = ? COLLATE " +
                 "NOCASE";
 
-        try (final Connection conn = myDs.getConnection();
-             final PreparedStatement prepStmt = conn.prepareStatement(query)) {
+        try (final ConnectionManager.Lease lease = myConnections.acquireReader()) {
 
+            final PreparedStatement prepStmt = lease.prepare(query);
             prepStmt.setString(1, theEmail);
 
             try (final ResultSet rs = prepStmt.executeQuery()) {
@@ -194,8 +191,8 @@ public class RegDataBaseManager {
         final String query = "SELECT password FROM registration WHERE email = ? COLLATE " +
                 "NOCASE";
 
-        try (final Connection conn = myDs.getConnection();
-             final PreparedStatement prepStmt = conn.prepareStatement(query)) {
+        try (final ConnectionManager.Lease lease = myConnections.acquireReader()) {
+            final PreparedStatement prepStmt = lease.prepare(query);
             prepStmt.setString(1, theEmail);
 
             try (final ResultSet rs = prepStmt.executeQuery()) {
@@ -223,9 +220,8 @@ public class RegDataBaseManager {
      */
     public final boolean hasAUserAlreadyRegistered(final String theEmail) {
         final String userEmail = "SELECT email FROM registration";
-        try (final Connection conn = myDs.getConnection();
-             final Statement stmt = conn.createStatement();
-             final ResultSet rs = stmt.executeQuery(userEmail)) {
+        try (final ConnectionManager.Lease lease = myConnections.acquireReader();
+             final ResultSet rs = lease.prepare(userEmail).executeQuery()) {
 
             while (rs.next()) {
                 if (rs.getString("email").equals(theEmail)) {
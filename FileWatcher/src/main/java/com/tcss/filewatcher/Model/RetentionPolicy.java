@@ -0,0 +1,155 @@
+package com.tcss.filewatcher.Model;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * How long the event history is kept: raw events for a shorter time, their rollups for
+ * a longer one. Raw events expire a whole partition at a time, once the newest event in
+ * the partition is older than the raw retention, so some events live a little longer.
+ * Configured with {@code -Dfilewatcher.retention.raw} (default 90d) and
+ * {@code -Dfilewatcher.retention.rollups} (default 730d). Nothing expires on its own
+ * unless one of them is set, since expiring drops history for good.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+public final class RetentionPolicy {
+
+    /**
+     * System property with how long raw events are kept, e.g. 90d.
+     */
+    public static final String RAW_PROPERTY = "filewatcher.retention.raw";
+
+    /**
+     * System property with how long rollups are kept, e.g. 730d.
+     */
+    public static final String ROLLUPS_PROPERTY = "filewatcher.retention.rollups";
+
+    /**
+     * Keeps 90 days of raw events and two years of rollups.
+     */
+    public static final RetentionPolicy DEFAULT =
+            new RetentionPolicy(Duration.ofDays(90), Duration.ofDays(730));
+
+    /**
+     * The logger object.
+     */
+    private static final Logger MY_LOGGER = Logger.getLogger("Retention Policy");
+
+    /**
+     * How long raw events are kept.
+     */
+    private final Duration myRaw;
+
+    /**
+     * How long rollups are kept.
+     */
+    private final Duration myRollups;
+
+    /**
+     * Creates a retention policy.
+     *
+     * @param theRaw     how long raw events are kept.
+     * @param theRollups how long rollups are kept.
+     * @throws IllegalArgumentException if a duration is null or negative.
+     */
+    public RetentionPolicy(final Duration theRaw, final Duration theRollups) {
+        if (theRaw == null || theRollups == null || theRaw.isNegative()
+                || theRollups.isNegative()) {
+            throw new IllegalArgumentException("Retention cannot be null or negative");
+        }
+        myRaw = theRaw;
+        myRollups = theRollups;
+    }
+
+    /**
+     * Reads the policy from the system properties, using the default for any property
+     * that is unset or cannot be read.
+     *
+     * @return the policy.
+     */
+    public static RetentionPolicy fromSystemProperties() {
+        return new RetentionPolicy(read(RAW_PROPERTY, DEFAULT.myRaw),
+                read(ROLLUPS_PROPERTY, DEFAULT.myRollups));
+    }
+
+    /**
+     * Checks whether a retention property is set, i.e. whether old events should be
+     * expired on a schedule.
+     *
+     * @return true if the raw or rollup retention is set.
+     */
+    public static boolean isConfigured() {
+        return isSet(RAW_PROPERTY) || isSet(ROLLUPS_PROPERTY);
+    }
+
+    /**
+     * Checks whether a system property has a value.
+     *
+     * @param theProperty the property name.
+     * @return true if the property is set and not blank.
+     */
+    private static boolean isSet(final String theProperty) {
+        final String value = System.getProperty(theProperty);
+        return value != null && !value.isBlank();
+    }
+
+    /**
+     * Reads one duration property.
+     *
+     * @param theProperty the property name.
+     * @param theDefault  the value if it is unset or cannot be read.
+     * @return the duration.
+     */
+    private static Duration read(final String theProperty, final Duration theDefault) {
+        try {
+            final Duration duration =
+                    FlightRecording.parseDuration(System.getProperty(theProperty), theDefault);
+            if (!duration.isNegative()) {
+                return duration;
+            }
+        } catch (final IllegalArgumentException theE) {
+            // logged below
+        }
+        MY_LOGGER.log(Level.WARNING, "Ignoring " + theProperty + "="
+                + System.getProperty(theProperty) + ", using " + theDefault + ".\n");
+        return theDefault;
+    }
+
+    /**
+     * Gets how long raw events are kept.
+     *
+     * @return the raw retention.
+     */
+    public Duration getRaw() {
+        return myRaw;
+    }
+
+    /**
+     * Gets how long rollups are kept.
+     *
+     * @return the rollup retention.
+     */
+    public Duration getRollups() {
+        return myRollups;
+    }
+
+    @Override
+    public boolean equals(final Object theOther) {
+        return theOther instanceof RetentionPolicy other && myRaw.equals(other.myRaw)
+                && myRollups.equals(other.myRollups);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(myRaw, myRollups);
+    }
+
+    @Override
+    public String toString() {
+        return "RetentionPolicy{raw=" + myRaw + ", rollups=" + myRollups + "}";
+    }
+}
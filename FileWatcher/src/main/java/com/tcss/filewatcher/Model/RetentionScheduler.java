@@ -0,0 +1,115 @@
+package com.tcss.filewatcher.Model;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Applies the {@link RetentionPolicy} from the system properties to an event database
+ * shortly after starting and then once a day, sealing the live event table and expiring
+ * old partitions and rollups. The watcher runs one while watching when
+ * {@link RetentionPolicy#isConfigured() retention is configured}, so the application and
+ * the daemon both keep their database bounded once asked to.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+public final class RetentionScheduler {
+
+    /**
+     * How long after starting the policy is first applied, so it does not slow startup.
+     */
+    private static final long INITIAL_DELAY_MINUTES = 1;
+
+    /**
+     * How often the policy is applied.
+     */
+    private static final long INTERVAL_MINUTES = TimeUnit.DAYS.toMinutes(1);
+
+    /**
+     * The logger object.
+     */
+    private static final Logger MY_LOGGER = Logger.getLogger("Retention Scheduler");
+
+    /**
+     * The database the policy is applied to.
+     */
+    private final DataBaseManager myDBManager;
+
+    /**
+     * Applies the policy while running, null when stopped.
+     */
+    private ScheduledExecutorService myExecutor;
+
+    /**
+     * Creates a scheduler that is not running yet.
+     *
+     * @param theDBManager the database the policy is applied to.
+     * @throws IllegalArgumentException if the database manager is null.
+     */
+    public RetentionScheduler(final DataBaseManager theDBManager) {
+        if (theDBManager == null) {
+            throw new IllegalArgumentException("Database manager cannot be null");
+        }
+        myDBManager = theDBManager;
+    }
+
+    /**
+     * Starts applying the policy daily. Does nothing if already running.
+     */
+    public synchronized void start() {
+        if (myExecutor != null) {
+            return;
+        }
+        myExecutor = Executors.newSingleThreadScheduledExecutor(theRunnable -> {
+            final Thread thread = new Thread(theRunnable, "FileWatcher-Retention");
+            thread.setDaemon(true);
+            return thread;
+        });
+        myExecutor.scheduleWithFixedDelay(this::applyNow, INITIAL_DELAY_MINUTES,
+                INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Stops applying the policy. Does nothing if not running.
+     */
+    public synchronized void stop() {
+        if (myExecutor != null) {
+            myExecutor.shutdownNow();
+            myExecutor = null;
+        }
+    }
+
+    /**
+     * Checks whether the policy is being applied daily.
+     *
+     * @return true while running.
+     */
+    public synchronized boolean isRunning() {
+        return myExecutor != null;
+    }
+
+    /**
+     * Applies the policy from the system properties now. Failures are logged rather than
+     * thrown, so one failed run does not cancel the daily ones.
+     *
+     * @return the number of partitions dropped, or -1 if the policy could not be applied.
+     */
+    public int applyNow() {
+        int dropped;
+        try {
+            dropped = myDBManager.applyRetention(RetentionPolicy.fromSystemProperties(),
+                    System.currentTimeMillis());
+        } catch (final RuntimeException theE) {
+            MY_LOGGER.log(Level.SEVERE, "Unable to apply retention: " + theE.getMessage()
+                    + "\n");
+            dropped = -1;
+        }
+        if (dropped < 0) {
+            MY_LOGGER.log(Level.WARNING, "Retention was not applied, retrying tomorrow.\n");
+        }
+        return dropped;
+    }
+}
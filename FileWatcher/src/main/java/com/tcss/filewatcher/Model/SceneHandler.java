@@ -2,8 +2,12 @@ package com.tcss.filewatcher.Model;
 
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Hashtable;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.UnaryOperator;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javafx.application.Platform;
@@ -28,9 +32,10 @@ public abstract class SceneHandler {
     private static boolean myIsStopped = false;
 
     /**
-     * Stores a local temp container of all the extensions and correlated directories.
+     * Stores the compiled extensions of every monitored directory in a tree of path
+     * components, so an event anywhere below a directory finds its rules without locking.
      */
-    private static final Hashtable<String, List<String>> myMonitoredDirectory = new Hashtable<>();
+    private static final PathTrie<FileNameMatcher> myMonitoredDirectory = new PathTrie<>();
 
     /**
      * Returns whether the watcher is running or paused
@@ -119,15 +124,31 @@ public abstract class SceneHandler {
 
     public static void addMonitoredDirectory(final String thePath, final String theExtension) {
 
-        final String path = Path.of(thePath).normalize().toString().toLowerCase();
+        myMonitoredDirectory.compute(toKey(thePath), theRules -> withExtensions(theRules,
+                List.of(theExtension)));
 
-        myMonitoredDirectory.putIfAbsent(path, new ArrayList<>());
+    }
+
+    /**
+     * Adds many directories to the internal watchlist at once, e.g. the whole saved watch
+     * list at startup. The lists are built first and published in one step.
+     *
+     * @param theRules the extensions monitored for each directory.
+     */
+    public static void addMonitoredDirectories(
+            final Map<String, ? extends Collection<String>> theRules) {
 
-        final List<String> extensionList = myMonitoredDirectory.get(path);
-        if (!extensionList.contains(theExtension)) {
-            extensionList.add(theExtension);
+        final Map<String, List<String>> built = new HashMap<>();
+        for (final Map.Entry<String, ? extends Collection<String>> rule : theRules.entrySet()) {
+            built.computeIfAbsent(toKey(rule.getKey()), thePath -> new ArrayList<>())
+                    .addAll(rule.getValue());
         }
 
+        final Map<String, UnaryOperator<FileNameMatcher>> changes = new HashMap<>();
+        for (final Map.Entry<String, List<String>> rule : built.entrySet()) {
+            changes.put(rule.getKey(), theOld -> withExtensions(theOld, rule.getValue()));
+        }
+        myMonitoredDirectory.computeAll(changes);
     }
 
     /**
@@ -139,17 +160,14 @@ public abstract class SceneHandler {
     public static void removeMonitoredExtension(final String thePath,
                                                 final String theExtension) {
 
-        final String path = Path.of(thePath).normalize().toString().toLowerCase();
-
-        final List<String> extensionList = myMonitoredDirectory.get(path);
-        if (extensionList != null) {
-
-            extensionList.remove(theExtension);
-
-            if (extensionList.isEmpty()) {
-                myMonitoredDirectory.remove(path);
+        myMonitoredDirectory.compute(toKey(thePath), theRules -> {
+            if (theRules == null || !theRules.getExtensions().contains(theExtension)) {
+                return theRules;
             }
-        }
+            final List<String> extensionList = new ArrayList<>(theRules.getExtensions());
+            extensionList.remove(theExtension);
+            return extensionList.isEmpty() ? null : FileNameMatcher.ofExtensions(extensionList);
+        });
     }
 
     /**
@@ -158,21 +176,73 @@ public abstract class SceneHandler {
      * @param thePath The path of the directory.
      */
     public static void removeMonitoredDirectory(final String thePath) {
-        final String path = Path.of(thePath).normalize().toString().toLowerCase();
-        myMonitoredDirectory.remove(path);
+        myMonitoredDirectory.remove(toKey(thePath));
     }
 
     /**
-     * Gets the list of the correlating extensions for the directory
+     * Gets the list of the correlating extensions for the directory. A directory that is
+     * not monitored itself gets the extensions of the closest monitored directory above
+     * it, so events from subdirectories of a watched directory find their rules.
      *
      * @param thePath the Directory path.
-     * @return returns NULL if the path does not exist, returns the list of extensions if
-     * the path exists.
+     * @return returns NULL if neither the path nor a directory above it is monitored,
+     * returns the unmodifiable list of extensions otherwise.
      */
     public static List<String> getExtensionsFromDir(final String thePath) {
 
-        final String path = Path.of(thePath).normalize().toString().toLowerCase();
-        return myMonitoredDirectory.get(path);
+        final FileNameMatcher rules = myMonitoredDirectory.findNearest(toKey(thePath));
+        return rules == null ? null : rules.getExtensions();
+    }
+
+    /**
+     * Gets the compiled extensions of the closest monitored directory at or above a path,
+     * the same lookup as {@link #getExtensionsFromDir(String)}. Called for every event, so
+     * the path is only lowercased; it must be normalized already, as the watcher's are.
+     *
+     * @param thePath the normalized Directory path.
+     * @return the compiled extensions, or NULL if no directory above it is monitored.
+     */
+    public static FileNameMatcher getRulesFromDir(final String thePath) {
+
+        return myMonitoredDirectory.findNearest(thePath.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Gets the extensions added for exactly this directory, ignoring the directories
+     * above it.
+     *
+     * @param thePath the Directory path.
+     * @return the unmodifiable list of extensions, or NULL if the path is not monitored.
+     */
+    public static List<String> getMonitoredExtensions(final String thePath) {
+
+        final FileNameMatcher rules = myMonitoredDirectory.get(toKey(thePath));
+        return rules == null ? null : rules.getExtensions();
+    }
+
+    /**
+     * Builds the key a directory is stored under.
+     *
+     * @param thePath the Directory path.
+     * @return the normalized path, lowercased the same in every locale.
+     */
+    private static String toKey(final String thePath) {
+        return Path.of(thePath).normalize().toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Compiles the extensions of a directory with more extensions appended.
+     *
+     * @param theRules      the current extensions, or null.
+     * @param theExtensions the extensions to add.
+     * @return the compiled extensions.
+     */
+    private static FileNameMatcher withExtensions(final FileNameMatcher theRules,
+                                                  final Collection<String> theExtensions) {
+        final List<String> extensionList = theRules == null
+                ? new ArrayList<>() : new ArrayList<>(theRules.getExtensions());
+        extensionList.addAll(theExtensions);
+        return FileNameMatcher.ofExtensions(extensionList);
     }
 
 
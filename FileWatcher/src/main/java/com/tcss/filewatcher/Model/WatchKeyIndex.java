@@ -0,0 +1,265 @@
+package com.tcss.filewatcher.Model;
+
+import java.nio.file.Path;
+import java.nio.file.WatchKey;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Two-way index between registered directories and their watch keys.
+ * Keys are looked up by the event loop without locking. Directories are also kept in a
+ * tree of path components, each node counting the keys below it, so a whole subtree
+ * can be found and cancelled in time proportional to its size, and the number of
+ * kernel watches used by any root is available at once.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+public class WatchKeyIndex {
+
+    /**
+     * The directory of every key.
+     */
+    private final Map<WatchKey, Path> myPaths = new ConcurrentHashMap<>();
+
+    /**
+     * The tree of path components, starting above the file system roots.
+     */
+    private final Node myTree = new Node(null, null);
+
+    /**
+     * Adds a registered directory, replacing any older key for it.
+     *
+     * @param theDir the directory.
+     * @param theKey its watch key.
+     */
+    public synchronized void put(final Path theDir, final WatchKey theKey) {
+        final Node node = find(theDir, true);
+        if (node.myKey != null) {
+            myPaths.remove(node.myKey);
+        } else {
+            for (Node n = node; n != null; n = n.myParent) {
+                n.myCount++;
+            }
+        }
+        node.myKey = theKey;
+        node.myPath = theDir;
+        myPaths.put(theKey, theDir);
+    }
+
+    /**
+     * Gets the directory of a key.
+     *
+     * @param theKey the watch key.
+     * @return the directory, or null if the key is unknown.
+     */
+    public Path getPath(final WatchKey theKey) {
+        return myPaths.get(theKey);
+    }
+
+    /**
+     * Gets the key of a directory.
+     *
+     * @param theDir the directory.
+     * @return the watch key, or null if the directory is not registered.
+     */
+    public synchronized WatchKey getKey(final Path theDir) {
+        final Node node = find(theDir, false);
+        return node == null ? null : node.myKey;
+    }
+
+    /**
+     * Forgets a key, e.g. after it became invalid. The key is not cancelled.
+     *
+     * @param theKey the watch key.
+     * @return the directory of the key, or null if it was unknown.
+     */
+    public synchronized Path remove(final WatchKey theKey) {
+        final Path dir = myPaths.remove(theKey);
+        if (dir != null) {
+            final Node node = find(dir, false);
+            if (node != null && node.myKey == theKey) {
+                clearKey(node);
+            }
+        }
+        return dir;
+    }
+
+    /**
+     * Cancels and forgets every key at or below a directory, leaving alone the subtrees
+     * of other watched roots nested inside it.
+     *
+     * @param theRoot      the top of the subtree.
+     * @param theKeptRoots watched roots whose subtrees must stay registered.
+     * @return the directories whose keys were cancelled.
+     */
+    public synchronized List<Path> removeSubtree(final Path theRoot,
+                                                 final Collection<Path> theKeptRoots) {
+        final List<Path> removed = new ArrayList<>();
+        final Node top = find(theRoot, false);
+        if (top == null) {
+            return removed;
+        }
+        final Deque<Node> pending = new ArrayDeque<>();
+        pending.push(top);
+        while (!pending.isEmpty()) {
+            final Node node = pending.pop();
+            if (node != top && node.myPath != null && theKeptRoots.contains(node.myPath)) {
+                continue;
+            }
+            if (node.myKey != null) {
+                node.myKey.cancel();
+                myPaths.remove(node.myKey);
+                removed.add(node.myPath);
+                clearKey(node);
+            }
+            // children are pushed after the parent was handled, so pruning the parent
+            // cannot detach nodes that are still waiting to be visited
+            pending.addAll(new ArrayList<>(node.myChildren.values()));
+        }
+        return removed;
+    }
+
+    /**
+     * Counts the keys at or below a directory.
+     *
+     * @param theRoot the directory.
+     * @return the number of watch keys in the subtree.
+     */
+    public synchronized int countUnder(final Path theRoot) {
+        final Node node = find(theRoot, false);
+        return node == null ? 0 : node.myCount;
+    }
+
+    /**
+     * Gets the number of registered directories.
+     *
+     * @return the number of watch keys.
+     */
+    public int size() {
+        return myPaths.size();
+    }
+
+    /**
+     * Checks whether no directory is registered.
+     *
+     * @return true if the index is empty.
+     */
+    public boolean isEmpty() {
+        return myPaths.isEmpty();
+    }
+
+    /**
+     * Forgets every key without cancelling them, e.g. after the watch service closed.
+     */
+    public synchronized void clear() {
+        myPaths.clear();
+        myTree.myChildren.clear();
+        myTree.myCount = 0;
+    }
+
+    /**
+     * Finds the node of a directory.
+     *
+     * @param theDir    the directory.
+     * @param theCreate whether missing nodes are created on the way.
+     * @return the node, or null if it does not exist and was not created.
+     */
+    private Node find(final Path theDir, final boolean theCreate) {
+        Node node = myTree;
+        if (theDir.getRoot() != null) {
+            node = node.child(theDir.getRoot(), theCreate);
+        }
+        for (int i = 0; node != null && i < theDir.getNameCount(); i++) {
+            node = node.child(theDir.getName(i), theCreate);
+        }
+        return node;
+    }
+
+    /**
+     * Removes the key of a node, updates the counts above it and prunes nodes that
+     * no longer lead to any key.
+     *
+     * @param theNode the node.
+     */
+    private void clearKey(final Node theNode) {
+        theNode.myKey = null;
+        for (Node n = theNode; n != null; n = n.myParent) {
+            n.myCount--;
+        }
+        Node node = theNode;
+        while (node.myParent != null && node.myCount == 0 && node.myChildren.isEmpty()) {
+            node.myParent.myChildren.remove(node.myName);
+            node = node.myParent;
+        }
+    }
+
+    /**
+     * One path component in the tree.
+     */
+    private static final class Node {
+
+        /**
+         * The node above this one, null for the top of the tree.
+         */
+        private final Node myParent;
+
+        /**
+         * The path component of this node.
+         */
+        private final Path myName;
+
+        /**
+         * The nodes below this one by path component.
+         */
+        private final Map<Path, Node> myChildren = new HashMap<>();
+
+        /**
+         * The watch key of this directory, null if it is not registered.
+         */
+        private WatchKey myKey;
+
+        /**
+         * The full path of this directory, set once it has been registered.
+         */
+        private Path myPath;
+
+        /**
+         * The number of keys at or below this node.
+         */
+        private int myCount;
+
+        /**
+         * Creates a node.
+         *
+         * @param theParent the node above.
+         * @param theName   the path component.
+         */
+        private Node(final Node theParent, final Path theName) {
+            myParent = theParent;
+            myName = theName;
+        }
+
+        /**
+         * Gets a child node.
+         *
+         * @param theName   the path component.
+         * @param theCreate whether to create the child if it is missing.
+         * @return the child, or null if it does not exist and was not created.
+         */
+        private Node child(final Path theName, final boolean theCreate) {
+            Node child = myChildren.get(theName);
+            if (child == null && theCreate) {
+                child = new Node(this, theName);
+                myChildren.put(theName, child);
+            }
+            return child;
+        }
+    }
+}
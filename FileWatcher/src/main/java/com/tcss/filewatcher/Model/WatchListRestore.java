@@ -0,0 +1,245 @@
+package com.tcss.filewatcher.Model;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The saved watch list read in one pass and applied in bulk, so restarting a watcher
+ * with hundreds of roots takes seconds. Rows are grouped by root, roots nested inside
+ * another root are walked only once as part of the outer one, the filter rules are
+ * published in one step and the trees are registered in parallel by the watcher's
+ * {@link DirectoryRegistrar}. The time from reading the list until every tree is
+ * registered is reported as the time to ready.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+public final class WatchListRestore {
+
+    /**
+     * The extension saved for a directory watched for every file.
+     */
+    public static final String ALL_EXTENSIONS = "All Extensions";
+
+    /**
+     * Logger object.
+     */
+    private static final Logger MY_LOGGER = Logger.getLogger("Watch List Restore");
+
+    /**
+     * The saved rows as read.
+     */
+    private final List<DirectoryEntry> myEntries;
+
+    /**
+     * Every saved root with its extensions, in path order.
+     */
+    private final Map<Path, Set<String>> myRules;
+
+    /**
+     * The saved roots that exist.
+     */
+    private final List<Path> myRoots;
+
+    /**
+     * The saved roots that do not exist.
+     */
+    private final List<Path> myMissingRoots;
+
+    /**
+     * When the list started being read, in System.nanoTime terms.
+     */
+    private final long myStartNanos;
+
+    /**
+     * Groups the saved rows by root.
+     *
+     * @param theEntries   the saved rows.
+     * @param theStartNanos when reading started.
+     */
+    private WatchListRestore(final List<DirectoryEntry> theEntries, final long theStartNanos) {
+        myEntries = Collections.unmodifiableList(theEntries);
+        myStartNanos = theStartNanos;
+
+        final Map<Path, Set<String>> rules = new TreeMap<>();
+        for (final DirectoryEntry entry : theEntries) {
+            final String directory = entry.getDirectory();
+            if (directory == null || directory.isBlank()) {
+                continue;
+            }
+            final String extension = entry.getFileExtension().isBlank()
+                    ? ALL_EXTENSIONS : entry.getFileExtension();
+            rules.computeIfAbsent(Path.of(directory).toAbsolutePath().normalize(),
+                    theRoot -> new TreeSet<>()).add(extension);
+        }
+        myRules = Collections.unmodifiableMap(rules);
+
+        final List<Path> roots = new ArrayList<>();
+        final List<Path> missing = new ArrayList<>();
+        for (final Path root : rules.keySet()) {
+            (Files.isDirectory(root) ? roots : missing).add(root);
+        }
+        myRoots = Collections.unmodifiableList(roots);
+        myMissingRoots = Collections.unmodifiableList(missing);
+    }
+
+    /**
+     * Reads the saved watch list with a single query.
+     *
+     * @param theWatchList the saved watch list.
+     * @return the restore.
+     */
+    public static WatchListRestore read(final FileDirectoryDataBase theWatchList) {
+        if (theWatchList == null) {
+            throw new IllegalArgumentException("Watch list cannot be null");
+        }
+        final long start = System.nanoTime();
+        return new WatchListRestore(theWatchList.getAllEntries(), start);
+    }
+
+    /**
+     * Uses rows that were already read, e.g. the ones shown in the directory table.
+     *
+     * @param theEntries the rows.
+     * @return the restore.
+     */
+    public static WatchListRestore of(final Collection<DirectoryEntry> theEntries) {
+        if (theEntries == null) {
+            throw new IllegalArgumentException("Entries cannot be null");
+        }
+        return new WatchListRestore(new ArrayList<>(theEntries), System.nanoTime());
+    }
+
+    /**
+     * Gets the saved rows as read.
+     *
+     * @return the rows.
+     */
+    public List<DirectoryEntry> getEntries() {
+        return myEntries;
+    }
+
+    /**
+     * Gets every saved root with its extensions.
+     *
+     * @return the rules in path order.
+     */
+    public Map<Path, Set<String>> getRules() {
+        return myRules;
+    }
+
+    /**
+     * Gets the saved roots that exist.
+     *
+     * @return the roots in path order.
+     */
+    public List<Path> getRoots() {
+        return myRoots;
+    }
+
+    /**
+     * Gets the saved roots that do not exist.
+     *
+     * @return the missing roots in path order.
+     */
+    public List<Path> getMissingRoots() {
+        return myMissingRoots;
+    }
+
+    /**
+     * Gets the extensions the watcher filters on, built the same way the start button
+     * does: every saved extension except {@link #ALL_EXTENSIONS}, lowercase with a dot.
+     *
+     * @return the extensions.
+     */
+    public Set<String> getWatchedExtensions() {
+        final Set<String> extensions = new HashSet<>();
+        for (final Set<String> saved : myRules.values()) {
+            for (final String extension : saved) {
+                if (!ALL_EXTENSIONS.equals(extension)) {
+                    extensions.add((extension.startsWith(".") ? extension : "." + extension)
+                            .toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return extensions;
+    }
+
+    /**
+     * Publishes the per directory rules to {@link SceneHandler} in one step.
+     */
+    public void registerRules() {
+        final Map<String, Set<String>> rules = new TreeMap<>();
+        for (final Map.Entry<Path, Set<String>> rule : myRules.entrySet()) {
+            rules.put(rule.getKey().toString(), rule.getValue());
+        }
+        SceneHandler.addMonitoredDirectories(rules);
+    }
+
+    /**
+     * Gives the watcher every existing root and the extensions to filter on. Missing
+     * roots are logged and left out, so they cannot keep the watcher from starting.
+     *
+     * @param theWatcher the watcher.
+     */
+    public void applyTo(final FileEventWatcher theWatcher) {
+        for (final Path root : myMissingRoots) {
+            MY_LOGGER.log(Level.WARNING, "Saved directory does not exist: " + root + "\n");
+        }
+        theWatcher.addWatchPaths(myRoots);
+        for (final String extension : getWatchedExtensions()) {
+            theWatcher.addWatchedExtension(extension);
+        }
+    }
+
+    /**
+     * Counts the existing roots that are nested inside another root and so are not
+     * walked on their own.
+     *
+     * @param theWatcher the watcher whose registrar decides.
+     * @return the number of nested roots.
+     */
+    public int getNestedRootCount(final FileEventWatcher theWatcher) {
+        return myRoots.size() - theWatcher.getDirectoryRegistrar().outermostRoots(myRoots).size();
+    }
+
+    /**
+     * Waits until the watcher has registered every tree, then logs the time to ready.
+     *
+     * @param theWatcher the watcher the list was applied to, started.
+     * @param theMillis  the longest time to wait.
+     * @return the milliseconds from reading the list until ready, or -1 if the wait
+     * timed out or was interrupted.
+     */
+    public long awaitReady(final FileEventWatcher theWatcher, final long theMillis) {
+        final DirectoryRegistrar registrar = theWatcher.getDirectoryRegistrar();
+        try {
+            if (!registrar.awaitIdle(theMillis)) {
+                return -1;
+            }
+        } catch (final InterruptedException theE) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+        final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - myStartNanos);
+        MY_LOGGER.log(Level.INFO, "Restored " + myRoots.size() + " watched directories ("
+                + getNestedRootCount(theWatcher) + " nested, " + myMissingRoots.size()
+                + " missing) from " + myEntries.size() + " saved rows, "
+                + theWatcher.getWatchKeyCount() + " directories registered, ready in "
+                + millis + " ms\n");
+        return millis;
+    }
+}
@@ -5,14 +5,12 @@ import com.tcss.filewatcher.Controller.EmailFileController;
 import com.tcss.filewatcher.Model.DataBaseManager;
 import com.tcss.filewatcher.Model.DirectoryEntry;
 import static com.tcss.filewatcher.Model.EmailClient.start;
-import com.tcss.filewatcher.Model.FileExtensionHandler;
 import com.tcss.filewatcher.Model.SceneHandler;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
 import java.io.IOException;
 import java.nio.file.Path;
-import java.util.List;
 import java.util.Objects;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -301,20 +299,14 @@ public class FileWatcherSceneController extends SceneHandler implements Property
             stopWatcher();
             handleExitOnActive(myStage);
 
-        } else if (theEvent.getPropertyName().equals(Properties.NEW_FILE_EVENT.toString()) && watcherRunningProperty()) {
+        } else if (theEvent.getPropertyName().equals(Properties.FILTERED_FILE_EVENT.toString()) && watcherRunningProperty()) {
 
+            // already filtered and persisted by the event router, only display it here
             final DirectoryEntry entry = (DirectoryEntry) theEvent.getNewValue();
 
-            System.out.println(entry);
-
             Platform.runLater(() -> {
-                final List<String> entriesExtensions = getExtensionsFromDir(entry.getDirectory());
-
-                if (FileExtensionHandler.canAddExtension(entriesExtensions, entry)) {
-                    myTableview.add(entry);
-                    logger.log(Level.INFO, "Added file to table: " + entry.getFileName() + "\n");
-                }
-
+                myTableview.add(entry);
+                logger.log(Level.INFO, "Added file to table: " + entry.getFileName() + "\n");
             });
 
         } else if (theEvent.getPropertyName().equals(Properties.USERS_EMAIL.toString())) {
@@ -3,10 +3,13 @@ package com.tcss.filewatcher.Viewer;
 import com.tcss.filewatcher.Common.Properties;
 import com.tcss.filewatcher.Controller.EmailFileController;
 import com.tcss.filewatcher.Controller.EmailFrequencyManager;
+import com.tcss.filewatcher.Model.ConnectionManager;
 import com.tcss.filewatcher.Model.DirectoryEntry;
 import com.tcss.filewatcher.Model.FileDirectoryDataBase;
 import com.tcss.filewatcher.Model.FileEventWatcher;
+import com.tcss.filewatcher.Model.MetricsServer;
 import com.tcss.filewatcher.Model.SceneHandler;
+import com.tcss.filewatcher.Model.WatchListRestore;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
@@ -17,6 +20,7 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javafx.application.Platform;
@@ -242,6 +246,7 @@ public class MainSceneController extends SceneHandler implements PropertyChangeL
         myFileWatcher = new FileEventWatcher(false);
 
         myFileWatcher.connectToControllers(this, null);
+        reportMetricsFor(myFileWatcher);
 
         myDate.setCellValueFactory(cellData -> cellData.getValue().dateProperty());
         myTime.setCellValueFactory(cellData -> cellData.getValue().timeProperty());
@@ -250,15 +255,12 @@ public class MainSceneController extends SceneHandler implements PropertyChangeL
 
         myDirectoriesToMonitorTable.setItems(myTableView);
 
-        if (myFileDirectoryDatabase.getTableSize() > 0) {
-            myTableView.addAll(myFileDirectoryDatabase.getAllEntries());
+        // one query for both the table and the filter rules
+        final WatchListRestore saved = WatchListRestore.read(myFileDirectoryDatabase);
+        if (!saved.getEntries().isEmpty()) {
+            myTableView.addAll(saved.getEntries());
             myQueryMenuItem.setDisable(false);
-
-            for (DirectoryEntry entry : myFileDirectoryDatabase.getAllEntries()) {
-                final String dir = entry.getDirectory();
-                final String ext = entry.getFileExtension();
-                addMonitoredDirectory(dir, ext);
-            }
+            saved.registerRules();
         }
 
 
@@ -280,6 +282,45 @@ public class MainSceneController extends SceneHandler implements PropertyChangeL
     }
 
 
+    /**
+     * Points the local metrics endpoint at the given watcher, starting the endpoint on
+     * first use unless it was disabled with -Dfilewatcher.metrics.port=-1.
+     *
+     * @param theWatcher the watcher to report on.
+     */
+    private static void reportMetricsFor(final FileEventWatcher theWatcher) {
+        final MetricsServer metrics = MetricsServer.startDefault();
+        if (metrics != null) {
+            metrics.setWatcher(theWatcher);
+        }
+    }
+
+
+    /**
+     * Logs the time to ready once the watcher has registered every restored tree. The
+     * trees are walked in the background, so this waits on its own thread, not the
+     * JavaFX thread.
+     *
+     * @param theRestore the watch list the watcher was started with.
+     * @param theWatcher the started watcher.
+     */
+    private static void reportReady(final WatchListRestore theRestore,
+                                    final FileEventWatcher theWatcher) {
+        if (!theWatcher.isWatching()) {
+            return;
+        }
+        final Thread ready = new Thread(() -> {
+            long millis;
+            do {
+                millis = theRestore.awaitReady(theWatcher, TimeUnit.MINUTES.toMillis(1));
+            } while (millis < 0 && theWatcher.isWatching()
+                    && !Thread.currentThread().isInterrupted());
+        }, "FileWatcher-Ready");
+        ready.setDaemon(true);
+        ready.start();
+    }
+
+
     /**
      * Sets the current stage to this scene.
      *
@@ -308,19 +349,11 @@ public class MainSceneController extends SceneHandler implements PropertyChangeL
 
         if (myFileWatcher == null) {
             myFileWatcher = new FileEventWatcher(false);
+            reportMetricsFor(myFileWatcher);
         }
 
-        for (final DirectoryEntry theEntry : myTableView) {
-            final String dir = theEntry.getDirectory();
-            final String ext = theEntry.getFileExtension();
-
-            myFileWatcher.addWatchPath(dir);
-
-            if (ext != null && !"All Extensions".equals(ext)) {
-                final String normalized = ext.startsWith(".") ? ext : "." + ext;
-                myFileWatcher.addWatchedExtension(normalized);
-            }
-        }
+        final WatchListRestore restore = WatchListRestore.of(myTableView);
+        restore.applyTo(myFileWatcher);
 
         EmailFileController.start5Pm(myUsersEmailAddress,
                 EmailFileController.getTmpFilePath());
@@ -361,6 +394,7 @@ public class MainSceneController extends SceneHandler implements PropertyChangeL
 
             myChanges.firePropertyChange(Properties.START.toString(), null, Properties.START);
             myChanges.firePropertyChange(Properties.USERS_EMAIL.toString(), null, myUsersEmailAddress);
+            reportReady(restore, myFileWatcher);
 
         } catch (final IOException ioe) {
 
@@ -576,6 +610,9 @@ public class MainSceneController extends SceneHandler implements PropertyChangeL
                 myFileWatcher.stopWatching(); // closes WatchService, shuts down executor
             }
 
+            // checkpoints the WAL and releases the shared database connections
+            ConnectionManager.closeAll();
+
             if (myStage != null) {
                 myStage.close();
             }
@@ -633,8 +670,8 @@ public class MainSceneController extends SceneHandler implements PropertyChangeL
         final boolean dirCheck =
                 myTableView.stream().anyMatch(theEvent -> theEvent.getDirectory().equals(finalDirectory));
 
-        if (dirCheck) {
-            listOfUsedExten = getExtensionsFromDir(finalDirectory);
+        if (dirCheck && getMonitoredExtensions(finalDirectory) != null) {
+            listOfUsedExten = getMonitoredExtensions(finalDirectory);
         }
 
         if (listOfUsedExten.contains(extension) || listOfUsedExten.contains("All Extensions")) {
@@ -812,6 +849,15 @@ public class MainSceneController extends SceneHandler implements PropertyChangeL
         myChanges.addPropertyChangeListener(theListener);
     }
 
+    /**
+     * Removes a listener from the listener list.
+     *
+     * @param theListener the scene that no longer listens for changes.
+     */
+    public void removePropertyChangeListener(final PropertyChangeListener theListener) {
+        myChanges.removePropertyChangeListener(theListener);
+    }
+
     /**
      * Sets the users email from the login screen.
      *
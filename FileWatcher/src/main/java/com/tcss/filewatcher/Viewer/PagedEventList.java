@@ -0,0 +1,212 @@
+package com.tcss.filewatcher.Viewer;
+
+import com.tcss.filewatcher.Model.DirectoryEntry;
+import com.tcss.filewatcher.Model.EventPager;
+import com.tcss.filewatcher.Model.EventRecord;
+import com.tcss.filewatcher.Model.QueryService;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import javafx.application.Platform;
+import javafx.collections.ObservableListBase;
+
+/**
+ * A read-only table model over an event pager. The table only asks for the rows it
+ * shows, so scrolling reads pages on demand and only a window of rows, each wrapped
+ * in a table row once, is ever in memory. Pages are read on a query service, never on
+ * the JavaFX thread: a row whose page is missing shows blank, and once the page arrives
+ * its rows are replaced, which makes the table show them. One page is read at a time,
+ * the most recently asked for first, and a page scrolled past before it arrives is
+ * cancelled, so dragging the scroll bar to the end does not wait for the pages between.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+final class PagedEventList extends ObservableListBase<DirectoryEntry> {
+
+    /**
+     * The most pages waiting to be read; older requests are dropped.
+     */
+    private static final int WANTED_PAGES = EventPager.DEFAULT_RESIDENT_PAGES;
+
+    /**
+     * The pager the rows come from.
+     */
+    private final EventPager myPager;
+
+    /**
+     * The service the pages are read on.
+     */
+    private final QueryService myService;
+
+    /**
+     * The table rows of recently shown events by index, least recently used first.
+     */
+    private final Map<Integer, DirectoryEntry> myRows;
+
+    /**
+     * The pages asked for and not read yet, most recent first, including the one being
+     * read.
+     */
+    private final Deque<Integer> myWanted = new ArrayDeque<>();
+
+    /**
+     * The row shown while its page is being read.
+     */
+    private final DirectoryEntry myLoadingRow = new DirectoryEntry("");
+
+    /**
+     * The page being read, or null.
+     */
+    private QueryService.QueryTask<List<EventRecord>> myTask;
+
+    /**
+     * The number of the page being read, -1 if none.
+     */
+    private int myLoadingPage = -1;
+
+    /**
+     * Whether the table no longer shows this list.
+     */
+    private boolean myIsClosed;
+
+    /**
+     * Creates a table model over a pager.
+     *
+     * @param thePager   the pager.
+     * @param theService the service the pages are read on.
+     */
+    PagedEventList(final EventPager thePager, final QueryService theService) {
+        myPager = thePager;
+        myService = theService;
+        final int window = EventPager.DEFAULT_PAGE_SIZE * EventPager.DEFAULT_RESIDENT_PAGES;
+        myRows = new LinkedHashMap<>(window * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(
+                    final Map.Entry<Integer, DirectoryEntry> theEldest) {
+                return size() > window;
+            }
+        };
+    }
+
+    /**
+     * Gets the pager the rows come from.
+     *
+     * @return the pager.
+     */
+    EventPager getPager() {
+        return myPager;
+    }
+
+    /**
+     * Stops reading pages, once the table shows other results.
+     */
+    void close() {
+        myIsClosed = true;
+        myWanted.clear();
+        if (myTask != null) {
+            myTask.cancel(true);
+            myTask = null;
+            myLoadingPage = -1;
+        }
+    }
+
+    @Override
+    public DirectoryEntry get(final int theIndex) {
+        DirectoryEntry row = myRows.get(theIndex);
+        if (row == null) {
+            if (!myPager.isLoaded(theIndex)) {
+                request(theIndex / myPager.getPageSize());
+                return myLoadingRow;
+            }
+            final EventRecord record = myPager.get(theIndex);
+            // a row deleted since the count was taken shows as blank
+            row = record == null ? new DirectoryEntry("") : new DirectoryEntry(record);
+            myRows.put(theIndex, row);
+        }
+        return row;
+    }
+
+    @Override
+    public int size() {
+        return myPager.size();
+    }
+
+    /**
+     * Asks for a page to be read, ahead of the pages asked for before it.
+     *
+     * @param thePage the page number.
+     */
+    private void request(final int thePage) {
+        if (myIsClosed) {
+            return;
+        }
+        myWanted.remove(thePage);
+        myWanted.addFirst(thePage);
+        if (myWanted.size() > WANTED_PAGES && myWanted.removeLast() == myLoadingPage) {
+            // scrolled past before it arrived
+            myTask.cancel(true);
+        }
+        loadNext();
+    }
+
+    /**
+     * Starts reading the most recently asked for page, unless a page is being read.
+     */
+    private void loadNext() {
+        if (myTask != null || myWanted.isEmpty() || myIsClosed) {
+            return;
+        }
+        final int page = myWanted.getFirst();
+        final QueryService.QueryTask<List<EventRecord>> task;
+        try {
+            task = myPager.load(myService, page);
+        } catch (final IllegalStateException theE) {
+            // the service is closed or busy; the page is asked for again when shown
+            myWanted.clear();
+            return;
+        }
+        myTask = task;
+        myLoadingPage = page;
+        task.whenDone(theTask -> Platform.runLater(() -> loaded(page, theTask)));
+    }
+
+    /**
+     * Stores a page that was read and replaces its rows, then reads the next page.
+     * Runs on the JavaFX thread.
+     *
+     * @param thePage the page number.
+     * @param theTask the finished read.
+     */
+    private void loaded(final int thePage,
+                        final QueryService.QueryTask<List<EventRecord>> theTask) {
+        if (theTask != myTask) {
+            return;
+        }
+        myTask = null;
+        myLoadingPage = -1;
+        if (!theTask.isCancelled()) {
+            myWanted.remove(thePage);
+            List<EventRecord> rows = List.of();
+            try {
+                rows = theTask.get();
+            } catch (final ExecutionException theE) {
+                // the service logged the failure; the rows stay blank
+            } catch (final InterruptedException theE) {
+                Thread.currentThread().interrupt();
+            }
+            myPager.put(thePage, rows);
+
+            final int from = thePage * myPager.getPageSize();
+            final int to = Math.min(size(), from + myPager.getPageSize());
+            beginChange();
+            nextReplace(from, to, Collections.nCopies(to - from, myLoadingRow));
+            endChange();
+        }
+        loadNext();
+    }
+}
@@ -1,396 +1,420 @@
-package com.tcss.filewatcher.Viewer;
-
-import com.tcss.filewatcher.Common.Properties;
-import com.tcss.filewatcher.Controller.EmailFileController;
-import com.tcss.filewatcher.Model.DataBaseManager;
-import com.tcss.filewatcher.Model.DirectoryEntry;
-import static com.tcss.filewatcher.Model.EmailClient.start;
-import java.beans.PropertyChangeEvent;
-import java.beans.PropertyChangeListener;
-import java.beans.PropertyChangeSupport;
-import java.io.IOException;
-import java.nio.file.Path;
-import java.time.DateTimeException;
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
-import java.util.logging.Level;
-import java.util.logging.Logger;
-import javafx.application.Platform;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
-import javafx.fxml.FXML;
-import javafx.scene.control.Alert;
-import javafx.scene.control.ComboBox;
-import javafx.scene.control.DatePicker;
-import javafx.scene.control.TableColumn;
-import javafx.scene.control.TableView;
-import javafx.scene.image.Image;
-import javafx.stage.Stage;
-
-/**
- * The controller for the query scene.
- * This class handles date filtering, modification type filtering,
- * database queries, and email export of file history records.
- *
- * @author Kassie Whitney
- * @version 8.6.25
- */
-public class QuerySceneController implements PropertyChangeListener {
-
-    /** The table displaying query results. */
-    @FXML
-    private TableView<DirectoryEntry> myQuerySceneTable;
-
-    /** The column showing file modification dates. */
-    @FXML
-    private TableColumn<DirectoryEntry, String> myDateColumn;
-
-    /** The column showing file modification times. */
-    @FXML
-    private TableColumn<DirectoryEntry, String> myTimeColumn;
-
-    /** The column showing file names. */
-    @FXML
-    private TableColumn<DirectoryEntry, String> myFileNameColumn;
-
-    /** The column showing file modification types. */
-    @FXML
-    private TableColumn<DirectoryEntry, String> myModificationType;
-
-    /** The column showing file directories. */
-    @FXML
-    private TableColumn<DirectoryEntry, String> myDirectory;
-
-    /** The start date picker for filtering queries. */
-    @FXML
-    private DatePicker myFromDatePicker;
-
-    /** The end date picker for filtering queries. */
-    @FXML
-    private DatePicker myToDatePicker;
-
-    /** The combo box for selecting modification types. */
-    @FXML
-    private ComboBox<String> myModificationComboBox;
-
-    /** The observable list that backs the table view. */
-    private final ObservableList<DirectoryEntry> myTableView  = FXCollections.observableArrayList();
-
-    /** A master copy of all entries pulled from the database. */
-    private final ObservableList<DirectoryEntry> myMasterCopy = FXCollections.observableArrayList();
-
-    /** A sub copy of filtered entries. */
-    private final ObservableList<DirectoryEntry> mySubCopy    = FXCollections.observableArrayList();
-
-    /** Support for property change notifications. */
-    private final PropertyChangeSupport myChanges = new PropertyChangeSupport(this);
-
-    /** The database manager used to fetch and filter entries. */
-    private final DataBaseManager myDataBaseManager = new DataBaseManager(false);
-
-    /** The email address of the logged-in user. */
-    private String myUserEmailAddress;
-
-    /** The JavaFX stage for this scene. */
-    private Stage myStage;
-
-    /** Formatter used for dates in entries. */
-    private static final DateTimeFormatter ENTRY_FMT =
-            DateTimeFormatter.ofPattern("dd MMM, uuuu", java.util.Locale.ENGLISH);
-
-    /**
-     * Initializes the scene components, sets up bindings,
-     * and loads the initial database entries into the table.
-     */
-    @FXML
-    private void initialize() {
-        addPropertyChangeListener(this);
-
-        myDateColumn.setCellValueFactory(cd -> cd.getValue().dateProperty());
-        myTimeColumn.setCellValueFactory(cd -> cd.getValue().timeProperty());
-        myDirectory.setCellValueFactory(cd -> cd.getValue().directoryProperty());
-        myModificationType.setCellValueFactory(cd -> cd.getValue().modificationTypeProperty());
-        myFileNameColumn.setCellValueFactory(cd -> cd.getValue().fileNameProperty());
-        myQuerySceneTable.setItems(myTableView);
-
-        myFromDatePicker.setValue(LocalDate.now().minusYears(1));
-        myToDatePicker.setValue(LocalDate.now());
-
-        myTableView.clear();
-        final List<DirectoryEntry> all = myDataBaseManager.getAllEntries();
-        myMasterCopy.setAll(all);
-        mySubCopy.setAll(all);
-
-        final String from = myFromDatePicker.getValue().format(ENTRY_FMT);
-        final String to   = myToDatePicker.getValue().format(ENTRY_FMT);
-        addEntriesHelper(from, to);
-    }
-
-    /**
-     * Handles modification type selection from the combo box.
-     * Updates the table view with entries matching the selection.
-     */
-    @FXML
-    private void handleModifyComboBox() {
-        final String selected = myModificationComboBox.getSelectionModel().getSelectedItem();
-
-        if (selected == null || "ALL_TYPES".equals(selected)) {
-            myTableView.setAll(mySubCopy);
-            myQuerySceneTable.setItems(myTableView);
-            return;
-        }
-
-        final List<DirectoryEntry> filtered = new ArrayList<>();
-        for (final DirectoryEntry e : mySubCopy) {
-            if (selected.equals(e.getModificationType())) {
-                filtered.add(e);
-            }
-        }
-        myTableView.setAll(filtered);
-        myQuerySceneTable.setItems(myTableView);
-    }
-
-    /**
-     * Handles the from-date picker.
-     * Ensures valid ranges and applies filtering.
-     */
-    @FXML
-    private void handleFromDatePicker() {
-        normalizePickers();
-        myModificationComboBox.setValue(myModificationComboBox.getPromptText());
-
-        final String from = myFromDatePicker.getValue().format(ENTRY_FMT);
-        final String to   = myToDatePicker.getValue().format(ENTRY_FMT);
-        addEntriesHelper(from, to);
-    }
-
-    /**
-     * Handles the to-date picker.
-     * Ensures valid ranges and applies filtering.
-     */
-    @FXML
-    private void handleToDatePicker() {
-        normalizePickers();
-        myModificationComboBox.setValue(myModificationComboBox.getPromptText());
-
-        final String from = myFromDatePicker.getValue().format(ENTRY_FMT);
-        final String to   = myToDatePicker.getValue().format(ENTRY_FMT);
-        addEntriesHelper(from, to);
-    }
-
-    /**
-     * Normalizes the values of the date pickers.
-     * Ensures no null values and that the from-date is before the to-date.
-     */
-    private void normalizePickers() {
-        LocalDate today = LocalDate.now();
-
-        if (myFromDatePicker.getValue() == null) myFromDatePicker.setValue(today.minusYears(1));
-        if (myToDatePicker.getValue()   == null) myToDatePicker.setValue(today);
-
-        if (myToDatePicker.getValue().isAfter(today)) {
-            myToDatePicker.setValue(today);
-        }
-        if (myFromDatePicker.getValue().isAfter(myToDatePicker.getValue())) {
-            myFromDatePicker.setValue(myToDatePicker.getValue());
-        }
-    }
-
-    /**
-     * Helper method for adding entries between two dates.
-     *
-     * @param theFromDate the lower bound date string
-     * @param theToDate   the upper bound date string
-     */
-    private void addEntriesHelper(final String theFromDate, final String theToDate) {
-        final List<DirectoryEntry> entryList = new ArrayList<>();
-        addEntriesHelper(theFromDate, theToDate, entryList);
-        mySubCopy.setAll(myTableView);
-        myQuerySceneTable.setItems(myTableView);
-    }
-
-    /**
-     * Helper method for adding entries between two dates into a list.
-     *
-     * @param theFromDate  the lower bound date string
-     * @param theToDate    the upper bound date string
-     * @param theEntryList the list to populate
-     */
-    private void addEntriesHelper(final String theFromDate,
-                                  final String theToDate,
-                                  final List<DirectoryEntry> theEntryList) {
-        final LocalDate from = LocalDate.parse(theFromDate, ENTRY_FMT);
-        final LocalDate to   = LocalDate.parse(theToDate,   ENTRY_FMT);
-
-        myTableView.setAll(myMasterCopy);
-        theEntryList.clear();
-
-        for (final DirectoryEntry entry : myMasterCopy) {
-            try {
-                final LocalDate date = LocalDate.parse(entry.getDate(), ENTRY_FMT);
-                if (!date.isBefore(from) && !date.isAfter(to)) {
-                    theEntryList.add(entry);
-                }
-            } catch (DateTimeException ex) {
-                Logger.getAnonymousLogger().log(Level.FINE,
-                        "Skipping entry with unparsable date: " + entry.getDate());
-            }
-        }
-        myTableView.setAll(theEntryList);
-    }
-
-    /**
-     * Resets all filters to default values and restores all entries.
-     */
-    @FXML
-    private void handleResetButton() {
-        myModificationComboBox.setValue(myModificationComboBox.getPromptText());
-        myFromDatePicker.setValue(LocalDate.now().minusYears(1));
-        myToDatePicker.setValue(LocalDate.now());
-        myTableView.setAll(myMasterCopy);
-        mySubCopy.setAll(myMasterCopy);
-        myQuerySceneTable.setItems(myTableView);
-    }
-
-    /**
-     * Handles sending the currently displayed results by email.
-     *
-     * @throws IOException if the temporary file cannot be written
-     */
-    @FXML
-    private void handleSendEmail() throws IOException {
-        final Path tempFile = EmailFileController.getTmpFilePath();
-
-        final String filterParam =
-                "Date From: " + myFromDatePicker.getValue().format(ENTRY_FMT) + "\n" +
-                "Date To: "   + myToDatePicker.getValue().format(ENTRY_FMT)   + "\n" +
-                "Modification type: " +
-                (myModificationComboBox.getValue() == null
-                        ? myModificationComboBox.getPromptText()
-                        : myModificationComboBox.getValue());
-
-        EmailFileController.send(myTableView, tempFile, filterParam);
-
-        final String email = myUserEmailAddress;
-
-        new Thread(() -> {
-            if (start(email, tempFile)) {
-                Platform.runLater(() -> {
-                    final Alert alert = new Alert(Alert.AlertType.INFORMATION);
-                    alert.setResizable(false);
-                    alert.setContentText("Email sent Successfully");
-                    final Stage alertStage = (Stage) alert.getDialogPane().getScene().getWindow();
-                    alertStage.getIcons().add(new Image(Objects.requireNonNull(getClass()
-                    .getResourceAsStream("/icons/email_Icon.png"))));
-                    alert.show();
-                });
-            } else {
-                Platform.runLater(() -> {
-                    final Alert alert = new Alert(Alert.AlertType.ERROR);
-                    alert.setContentText("Email had failed to send!");
-                    alert.setResizable(false);
-                    final Stage alertStage = (Stage) alert.getDialogPane().getScene().getWindow();
-                    alertStage.getIcons().add(new Image(Objects.requireNonNull(getClass()
-                    .getResourceAsStream("/icons/email_Icon.png"))));
-                    alert.show();
-                });
-            }
-        }).start();
-    }
-
-    /**
-     * Connects this query scene controller to the main scene controller.
-     *
-     * @param theScene the main scene controller
-     */
-    protected void setMyMainSceneController(final MainSceneController theScene) {
-        theScene.addPropertyChangeListener(this);
-        theScene.setQuerySceneController(this);
-    }
-
-    /**
-     * Adds a property change listener.
-     *
-     * @param theListener the listener to add
-     */
-    protected void addPropertyChangeListener(final PropertyChangeListener theListener) {
-        myChanges.addPropertyChangeListener(theListener);
-    }
-
-    /**
-     * Sets the stage for this scene.
-     *
-     * @param theStage the stage
-     */
-    protected void setStage(final Stage theStage) {
-        myStage = theStage;
-    }
-
-    /**
-     * Handles property changes signaled from other controllers.
-     *
-     * @param theEvent the property change event
-     */
-    @Override
-    public void propertyChange(final PropertyChangeEvent theEvent) {
-        List<DirectoryEntry> entryList = new ArrayList<>();
-        final Properties prop = Properties.valueOf(String.valueOf(theEvent.getPropertyName()));
-        switch (prop) {
-            case Properties.QUERY_ALL: {
-                myStage.setTitle("Historical Events");
-                entryList = myDataBaseManager.getAllEntries();
-                myTableView.setAll(entryList);
-                myMasterCopy.setAll(myTableView);
-                mySubCopy.setAll(myMasterCopy);
-                myQuerySceneTable.setItems(myTableView);
-                break;
-            }
-            case Properties.QUERY_EXTENSION: {
-                final String extension = (String) theEvent.getNewValue();
-                myStage.setTitle("Events Filtered by Extensions");
-                entryList = myDataBaseManager.queryByExtension(extension);
-                myTableView.setAll(entryList);
-                myMasterCopy.setAll(myTableView);
-                mySubCopy.setAll(myMasterCopy);
-                myQuerySceneTable.setItems(myTableView);
-                break;
-            }
-            case Properties.QUERY_DIRECTORY: {
-                final String directory = (String) theEvent.getOldValue();
-                myStage.setTitle("Events Filtered by Directories");
-                entryList = myDataBaseManager.queryByDirectory(directory);
-                myTableView.setAll(entryList);
-                myMasterCopy.setAll(myTableView);
-                mySubCopy.setAll(myMasterCopy);
-                myQuerySceneTable.setItems(myTableView);
-                break;
-            }
-            case Properties.QUERY_DIRECTORY_EXTENSION: {
-                final String directory = (String) theEvent.getOldValue();
-                final String extension = (String) theEvent.getNewValue();
-                myStage.setTitle("Events Filtered by Directories and Extensions");
-                List<DirectoryEntry> tempList = myDataBaseManager.queryByDirectory(directory);
-
-                for (final DirectoryEntry entry : tempList) {
-                    if ("All Extensions".equals(extension) || extension.equals(entry.getFileExtension())) {
-                        entryList.add(entry);
-                    }
-                }
-
-                myTableView.setAll(entryList);
-                myMasterCopy.setAll(myTableView);
-                mySubCopy.setAll(myMasterCopy);
-                myQuerySceneTable.setItems(myTableView);
-                break;
-            }
-            case Properties.USERS_EMAIL: {
-                myUserEmailAddress = (String) theEvent.getNewValue();
-                break;
-            }
-            default: { }
-        }
-    }
-}
+package com.tcss.filewatcher.Viewer;
+
+import com.tcss.filewatcher.Common.Properties;
+import com.tcss.filewatcher.Controller.EmailFileController;
+import com.tcss.filewatcher.Model.ConnectionManager;
+import com.tcss.filewatcher.Model.DataBaseManager;
+import com.tcss.filewatcher.Model.DirectoryEntry;
+import static com.tcss.filewatcher.Model.EmailClient.start;
+import com.tcss.filewatcher.Model.EventPager;
+import com.tcss.filewatcher.Model.EventQuery;
+import com.tcss.filewatcher.Model.FileEventType;
+import com.tcss.filewatcher.Model.QueryService;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import javafx.application.Platform;
+import javafx.fxml.FXML;
+import javafx.scene.control.Alert;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.image.Image;
+import javafx.stage.Stage;
+
+/**
+ * The controller for the query scene.
+ * This class handles date filtering, modification type filtering,
+ * database queries, and email export of file history records.
+ *
+ * @author Kassie Whitney
+ * @version 8.6.25
+ */
+public class QuerySceneController implements PropertyChangeListener {
+
+    /** The table displaying query results. */
+    @FXML
+    private TableView<DirectoryEntry> myQuerySceneTable;
+
+    /** The column showing file modification dates. */
+    @FXML
+    private TableColumn<DirectoryEntry, String> myDateColumn;
+
+    /** The column showing file modification times. */
+    @FXML
+    private TableColumn<DirectoryEntry, String> myTimeColumn;
+
+    /** The column showing file names. */
+    @FXML
+    private TableColumn<DirectoryEntry, String> myFileNameColumn;
+
+    /** The column showing file modification types. */
+    @FXML
+    private TableColumn<DirectoryEntry, String> myModificationType;
+
+    /** The column showing file directories. */
+    @FXML
+    private TableColumn<DirectoryEntry, String> myDirectory;
+
+    /** The start date picker for filtering queries. */
+    @FXML
+    private DatePicker myFromDatePicker;
+
+    /** The end date picker for filtering queries. */
+    @FXML
+    private DatePicker myToDatePicker;
+
+    /** The combo box for selecting modification types. */
+    @FXML
+    private ComboBox<String> myModificationComboBox;
+
+    /** The height of a table row; a fixed height lets the table skip measuring rows. */
+    private static final double ROW_HEIGHT = 24;
+
+    /** The query picked in the main scene, before the date and type filters. */
+    private EventQuery myScope = EventQuery.all();
+
+    /** The scope narrowed by the date pickers, before the type filter. */
+    private EventQuery myDateQuery = EventQuery.all();
+
+    /** The query whose results the table shows. */
+    private EventQuery myShownQuery = EventQuery.all();
+
+    /** Support for property change notifications. */
+    private final PropertyChangeSupport myChanges = new PropertyChangeSupport(this);
+
+    /** The database manager used to fetch and filter entries. */
+    private final DataBaseManager myDataBaseManager = new DataBaseManager(false);
+
+    /** Counts the shown query and reads its pages off the UI thread. */
+    private final QueryService myQueryService =
+            new QueryService(ConnectionManager.getInstance());
+
+    /** The count of the query being loaded, or null once the table shows it. */
+    private QueryService.QueryTask<Long> myPendingCount;
+
+    /** The email address of the logged-in user. */
+    private String myUserEmailAddress;
+
+    /** The JavaFX stage for this scene. */
+    private Stage myStage;
+
+    /** The main scene controller this scene listens to, or null. */
+    private MainSceneController myMainSceneController;
+
+    /** Formatter used for dates in entries. */
+    private static final DateTimeFormatter ENTRY_FMT =
+            DateTimeFormatter.ofPattern("dd MMM, uuuu", java.util.Locale.ENGLISH);
+
+    /**
+     * Initializes the scene components, sets up bindings,
+     * and loads the initial database entries into the table.
+     */
+    @FXML
+    private void initialize() {
+        addPropertyChangeListener(this);
+
+        myDateColumn.setCellValueFactory(cd -> cd.getValue().dateProperty());
+        myTimeColumn.setCellValueFactory(cd -> cd.getValue().timeProperty());
+        myDirectory.setCellValueFactory(cd -> cd.getValue().directoryProperty());
+        myModificationType.setCellValueFactory(cd -> cd.getValue().modificationTypeProperty());
+        myFileNameColumn.setCellValueFactory(cd -> cd.getValue().fileNameProperty());
+
+        // rows arrive in (timestamp, id) order page by page, so they cannot be re-sorted
+        for (final TableColumn<DirectoryEntry, ?> column : List.of(myDateColumn, myTimeColumn,
+                myFileNameColumn, myModificationType, myDirectory)) {
+            column.setSortable(false);
+        }
+        myQuerySceneTable.setFixedCellSize(ROW_HEIGHT);
+
+        myFromDatePicker.setValue(LocalDate.now().minusYears(1));
+        myToDatePicker.setValue(LocalDate.now());
+
+        applyDateRange();
+    }
+
+    /**
+     * Shows the results of a query in the table. The rows are counted in the background,
+     * cancelling the count and page reads of any query shown before; once the count is
+     * in, rows are read a page at a time in the background as the table scrolls to them.
+     *
+     * @param theQuery the query to show.
+     */
+    private void show(final EventQuery theQuery) {
+        myShownQuery = theQuery;
+        if (myQuerySceneTable.getItems() instanceof PagedEventList shown) {
+            shown.close();
+        }
+        final QueryService.QueryTask<Long> count = myQueryService.count(theQuery);
+        myPendingCount = count;
+        count.whenDone(theTask -> Platform.runLater(() -> showCounted(theTask)));
+    }
+
+    /**
+     * Puts a counted query in the table, unless a newer query has replaced it.
+     *
+     * @param theCount the finished count.
+     */
+    private void showCounted(final QueryService.QueryTask<Long> theCount) {
+        if (theCount != myPendingCount || theCount.isCancelled()) {
+            return;
+        }
+        myPendingCount = null;
+        long rows = 0;
+        try {
+            rows = theCount.get();
+        } catch (final ExecutionException theE) {
+            // the service logged the failure; show an empty table
+        } catch (final InterruptedException theE) {
+            Thread.currentThread().interrupt();
+        }
+        myQuerySceneTable.setItems(new PagedEventList(new EventPager(myDataBaseManager,
+                theCount.getQuery(), rows), myQueryService));
+    }
+
+    /**
+     * Narrows the scope to the dates in the pickers and shows the result.
+     */
+    private void applyDateRange() {
+        final ZoneId zone = ZoneId.systemDefault();
+        myDateQuery = myScope.between(
+                myFromDatePicker.getValue().atStartOfDay(zone).toInstant().toEpochMilli(),
+                myToDatePicker.getValue().plusDays(1).atStartOfDay(zone).toInstant()
+                        .toEpochMilli() - 1);
+        show(myDateQuery);
+    }
+
+    /**
+     * Shows everything in a new scope, without date or type filters.
+     *
+     * @param theScope the query picked in the main scene.
+     */
+    private void showScope(final EventQuery theScope) {
+        myScope = theScope;
+        myDateQuery = theScope;
+        show(theScope);
+    }
+
+    /**
+     * Handles modification type selection from the combo box.
+     * Updates the table view with entries matching the selection.
+     */
+    @FXML
+    private void handleModifyComboBox() {
+        final String selected = myModificationComboBox.getSelectionModel().getSelectedItem();
+        final FileEventType type = FileEventType.fromName(selected);
+
+        // ALL_TYPES and the prompt text are not event types
+        final EventQuery query = type == FileEventType.UNKNOWN ? myDateQuery
+                : myDateQuery.ofType(type);
+        if (!query.equals(myShownQuery)) {
+            show(query);
+        }
+    }
+
+    /**
+     * Handles the from-date picker.
+     * Ensures valid ranges and applies filtering.
+     */
+    @FXML
+    private void handleFromDatePicker() {
+        normalizePickers();
+        myModificationComboBox.setValue(myModificationComboBox.getPromptText());
+        applyDateRange();
+    }
+
+    /**
+     * Handles the to-date picker.
+     * Ensures valid ranges and applies filtering.
+     */
+    @FXML
+    private void handleToDatePicker() {
+        normalizePickers();
+        myModificationComboBox.setValue(myModificationComboBox.getPromptText());
+        applyDateRange();
+    }
+
+    /**
+     * Normalizes the values of the date pickers.
+     * Ensures no null values and that the from-date is before the to-date.
+     */
+    private void normalizePickers() {
+        LocalDate today = LocalDate.now();
+
+        if (myFromDatePicker.getValue() == null) myFromDatePicker.setValue(today.minusYears(1));
+        if (myToDatePicker.getValue()   == null) myToDatePicker.setValue(today);
+
+        if (myToDatePicker.getValue().isAfter(today)) {
+            myToDatePicker.setValue(today);
+        }
+        if (myFromDatePicker.getValue().isAfter(myToDatePicker.getValue())) {
+            myFromDatePicker.setValue(myToDatePicker.getValue());
+        }
+    }
+
+    /**
+     * Resets all filters to default values and restores all entries.
+     */
+    @FXML
+    private void handleResetButton() {
+        myModificationComboBox.setValue(myModificationComboBox.getPromptText());
+        myFromDatePicker.setValue(LocalDate.now().minusYears(1));
+        myToDatePicker.setValue(LocalDate.now());
+        showScope(myScope);
+    }
+
+    /**
+     * Handles sending the currently displayed results by email. The results are exported
+     * on the email thread, since a long history takes a while to stream to the file.
+     */
+    @FXML
+    private void handleSendEmail() {
+        final Path tempFile = EmailFileController.getTmpFilePath();
+
+        final String filterParam =
+                "Date From: " + myFromDatePicker.getValue().format(ENTRY_FMT) + "\n" +
+                "Date To: "   + myToDatePicker.getValue().format(ENTRY_FMT)   + "\n" +
+                "Modification type: " +
+                (myModificationComboBox.getValue() == null
+                        ? myModificationComboBox.getPromptText()
+                        : myModificationComboBox.getValue());
+
+        final EventQuery query = myShownQuery;
+        final String email = myUserEmailAddress;
+
+        new Thread(() -> {
+            boolean sent;
+            try {
+                EmailFileController.send(myDataBaseManager, query, tempFile, filterParam);
+                sent = start(email, tempFile);
+            } catch (final IOException | IllegalStateException theE) {
+                // the export failed, so there is nothing to send
+                sent = false;
+            }
+            if (sent) {
+                Platform.runLater(() -> showEmailAlert(Alert.AlertType.INFORMATION,
+                        "Email sent Successfully"));
+            } else {
+                Platform.runLater(() -> showEmailAlert(Alert.AlertType.ERROR,
+                        "Email had failed to send!"));
+            }
+        }).start();
+    }
+
+    /**
+     * Shows the outcome of sending an email.
+     *
+     * @param theType    the type of the alert.
+     * @param theMessage the message to show.
+     */
+    private void showEmailAlert(final Alert.AlertType theType, final String theMessage) {
+        final Alert alert = new Alert(theType);
+        alert.setResizable(false);
+        alert.setContentText(theMessage);
+        final Stage alertStage = (Stage) alert.getDialogPane().getScene().getWindow();
+        alertStage.getIcons().add(new Image(Objects.requireNonNull(getClass()
+                .getResourceAsStream("/icons/email_Icon.png"))));
+        alert.show();
+    }
+
+    /**
+     * Connects this query scene controller to the main scene controller.
+     *
+     * @param theScene the main scene controller
+     */
+    protected void setMyMainSceneController(final MainSceneController theScene) {
+        myMainSceneController = theScene;
+        theScene.addPropertyChangeListener(this);
+        theScene.setQuerySceneController(this);
+    }
+
+    /**
+     * Adds a property change listener.
+     *
+     * @param theListener the listener to add
+     */
+    protected void addPropertyChangeListener(final PropertyChangeListener theListener) {
+        myChanges.addPropertyChangeListener(theListener);
+    }
+
+    /**
+     * Sets the stage for this scene, releasing the scene's resources once it is hidden.
+     *
+     * @param theStage the stage
+     */
+    protected void setStage(final Stage theStage) {
+        myStage = theStage;
+        theStage.setOnHidden(theEvent -> close());
+    }
+
+    /**
+     * Stops listening to the main scene and cancels the count and page reads of the
+     * shown query, then closes the query service with its worker and connection.
+     */
+    private void close() {
+        if (myMainSceneController != null) {
+            myMainSceneController.removePropertyChangeListener(this);
+            myMainSceneController = null;
+        }
+        if (myPendingCount != null) {
+            myPendingCount.cancel(true);
+            myPendingCount = null;
+        }
+        if (myQuerySceneTable.getItems() instanceof PagedEventList shown) {
+            shown.close();
+        }
+        myQueryService.close();
+    }
+
+    /**
+     * Handles property changes signaled from other controllers.
+     *
+     * @param theEvent the property change event
+     */
+    @Override
+    public void propertyChange(final PropertyChangeEvent theEvent) {
+        final Properties prop = Properties.valueOf(String.valueOf(theEvent.getPropertyName()));
+        switch (prop) {
+            case Properties.QUERY_ALL: {
+                myStage.setTitle("Historical Events");
+                showScope(EventQuery.all());
+                break;
+            }
+            case Properties.QUERY_EXTENSION: {
+                final String extension = (String) theEvent.getNewValue();
+                myStage.setTitle("Events Filtered by Extensions");
+                showScope(EventQuery.all().withExtension(extension));
+                break;
+            }
+            case Properties.QUERY_DIRECTORY: {
+                final String directory = (String) theEvent.getOldValue();
+                myStage.setTitle("Events Filtered by Directories");
+                showScope(EventQuery.all().inDirectory(directory));
+                break;
+            }
+            case Properties.QUERY_DIRECTORY_EXTENSION: {
+                final String directory = (String) theEvent.getOldValue();
+                final String extension = (String) theEvent.getNewValue();
+                myStage.setTitle("Events Filtered by Directories and Extensions");
+                final EventQuery scope = EventQuery.all().inDirectory(directory);
+                showScope("All Extensions".equals(extension) ? scope
+                        : scope.withExtension(extension));
+                break;
+            }
+            case Properties.USERS_EMAIL: {
+                myUserEmailAddress = (String) theEvent.getNewValue();
+                break;
+            }
+            default: { }
+        }
+    }
+}
@@ -9,6 +9,8 @@ module com.tcss.filewatcher {
     requires java.logging;
     requires java.sql;
     requires java.desktop;
+    requires java.management;
+    requires jdk.jfr;
 
     // SQLite JDBC
     requires org.xerial.sqlitejdbc;
@@ -0,0 +1,197 @@
+import com.tcss.filewatcher.Model.BatchEventWriter;
+import com.tcss.filewatcher.Model.DataBaseManager;
+import com.tcss.filewatcher.Model.DirectoryEntry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for the BatchEventWriter class.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+class BatchEventWriterTest {
+
+    /**
+     * The database the writer flushes to.
+     */
+    private DataBaseManager myDBManager;
+
+    /**
+     * The writer under test.
+     */
+    private BatchEventWriter myWriter;
+
+    @BeforeEach
+    void setUp() {
+        myDBManager = new DataBaseManager(false);
+        myDBManager.clearDatabase();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (myWriter != null) {
+            myWriter.shutdown();
+        }
+        myDBManager.clearDatabase();
+    }
+
+    private DirectoryEntry entry(final int theIndex) {
+        return new DirectoryEntry("01 Jan, 2025", "10:00:00", "file" + theIndex + ".txt",
+                "/path", "ENTRY_CREATE");
+    }
+
+    @Test
+    void testInsertFileEventsBatch() {
+        final List<DirectoryEntry> batch = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            batch.add(entry(i));
+        }
+        assertEquals(10, myDBManager.insertFileEvents(batch), "All 10 rows should be written");
+        assertEquals(10, myDBManager.getTableSize(), "Table should contain the batch");
+    }
+
+    @Test
+    void testInsertFileEventsEmpty() {
+        assertEquals(0, myDBManager.insertFileEvents(new ArrayList<>()));
+        assertEquals(0, myDBManager.insertFileEvents(null));
+    }
+
+    @Test
+    void testShutdownDrainsQueue() {
+        myWriter = new BatchEventWriter(myDBManager, 16, 1000, 1024,
+                BatchEventWriter.BackpressurePolicy.BLOCK);
+        myWriter.start();
+        for (int i = 0; i < 100; i++) {
+            assertTrue(myWriter.submit(entry(i)));
+        }
+        myWriter.shutdown();
+
+        assertEquals(100, myWriter.getWrittenCount(), "Every queued event should be written");
+        assertEquals(100, myDBManager.getTableSize(), "Every queued event should be in the table");
+        assertEquals(0, myWriter.getQueueDepth(), "Queue should be empty after shutdown");
+    }
+
+    @Test
+    void testSubmitWhenStopped() {
+        myWriter = new BatchEventWriter(myDBManager);
+        assertFalse(myWriter.submit(entry(1)), "A stopped writer should not accept events");
+        assertEquals(1, myWriter.getDroppedCount());
+    }
+
+    @Test
+    void testSubmitNull() {
+        myWriter = new BatchEventWriter(myDBManager);
+        myWriter.start();
+        assertFalse(myWriter.submit(null));
+    }
+
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new BatchEventWriter(null));
+        assertThrows(IllegalArgumentException.class, () -> new BatchEventWriter(myDBManager, 0,
+                10, 10, BatchEventWriter.BackpressurePolicy.BLOCK));
+        assertThrows(IllegalArgumentException.class, () -> new BatchEventWriter(myDBManager, 1,
+                -1, 10, BatchEventWriter.BackpressurePolicy.BLOCK));
+        assertThrows(IllegalArgumentException.class, () -> new BatchEventWriter(myDBManager, 1,
+                10, 10, null));
+    }
+
+    @Test
+    void testRestartAfterShutdown() {
+        myWriter = new BatchEventWriter(myDBManager);
+        myWriter.start();
+        myWriter.submit(entry(1));
+        myWriter.shutdown();
+        myWriter.start();
+        myWriter.submit(entry(2));
+        myWriter.shutdown();
+        assertEquals(2, myDBManager.getTableSize(), "Writer should work again after a restart");
+    }
+
+    @Test
+    void testRestartWhileLastWorkerDrains() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        myWriter = new BatchEventWriter(myDBManager, 1, 0, 16,
+                BatchEventWriter.BackpressurePolicy.BLOCK);
+        // holds the worker inside its first batch
+        myWriter.setCommitListener(theBatch -> {
+            try {
+                release.await();
+            } catch (final InterruptedException theE) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        myWriter.start();
+        myWriter.submit(entry(1));
+        myWriter.submit(entry(2));
+        myWriter.shutdown();
+
+        Thread.currentThread().interrupt();
+        assertThrows(IllegalStateException.class, myWriter::start);
+        assertTrue(Thread.interrupted(), "The interrupt should be kept");
+        assertThrows(IllegalStateException.class, myWriter::start,
+                "The wait for the last worker should be bounded");
+        assertFalse(myWriter.submit(entry(3)), "A writer that did not start accepts nothing");
+
+        release.countDown();
+        myWriter.start();
+        assertTrue(myWriter.submit(entry(4)));
+        myWriter.shutdown();
+        assertEquals(3, myDBManager.getTableSize(), "Both runs should write their events");
+    }
+
+    @Test
+    void testCommitListenerSeesEveryCommittedEvent() {
+        final AtomicInteger committed = new AtomicInteger();
+        myWriter = new BatchEventWriter(myDBManager, 8, 1000, 1024,
+                BatchEventWriter.BackpressurePolicy.BLOCK);
+        myWriter.setCommitListener(theBatch -> committed.addAndGet(theBatch.size()));
+        myWriter.start();
+        for (int i = 0; i < 50; i++) {
+            myWriter.submit(entry(i));
+        }
+        myWriter.shutdown();
+
+        assertEquals(50, committed.get(), "The listener should see every committed event");
+    }
+
+    @Test
+    void testShutdownWritesEveryAcceptedEvent() throws InterruptedException {
+        myWriter = new BatchEventWriter(myDBManager, 4, 1, 4,
+                BatchEventWriter.BackpressurePolicy.BLOCK);
+        myWriter.start();
+        final List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < 4; p++) {
+            final Thread producer = new Thread(() -> {
+                for (int i = 0; i < 10_000 && myWriter.submit(entry(i)); i++) {
+                    // submit until the writer stops accepting
+                }
+            });
+            producer.start();
+            producers.add(producer);
+        }
+        Thread.sleep(50);
+        myWriter.shutdown();
+        for (final Thread producer : producers) {
+            producer.join(5000);
+            assertFalse(producer.isAlive(), "A producer should not block after shutdown");
+        }
+
+        assertEquals(0, myWriter.getQueueDepth(), "No accepted event should stay queued");
+        assertEquals(myWriter.getSubmittedCount(), myWriter.getWrittenCount(),
+                "Every accepted event should be written");
+        assertEquals(myWriter.getWrittenCount(), myDBManager.getTableSize());
+    }
+}
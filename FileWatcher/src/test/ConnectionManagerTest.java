@@ -0,0 +1,113 @@
+import com.tcss.filewatcher.Model.ConnectionManager;
+import com.tcss.filewatcher.Model.DataBaseManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Unit tests for the ConnectionManager class.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+class ConnectionManagerTest {
+
+    /**
+     * Temporary directory for the test database.
+     */
+    @TempDir
+    Path myTempDir;
+
+    /**
+     * The manager under test.
+     */
+    private ConnectionManager myConnections;
+
+    @BeforeEach
+    void setUp() {
+        myConnections = ConnectionManager.getInstance("jdbc:sqlite:"
+                + myTempDir.resolve("test.db"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        myConnections.close();
+    }
+
+    @Test
+    void testSameInstancePerUrl() {
+        assertSame(myConnections, ConnectionManager.getInstance(myConnections.getUrl()),
+                "The same URL should share one manager");
+    }
+
+    @Test
+    void testWalModeEnabled() throws SQLException {
+        try (ConnectionManager.Lease lease = myConnections.acquireWriter();
+             ResultSet rs = lease.getConnection().createStatement()
+                     .executeQuery("PRAGMA journal_mode")) {
+            assertTrue(rs.next());
+            assertEquals("wal", rs.getString(1).toLowerCase(), "Database should be in WAL mode");
+        }
+    }
+
+    @Test
+    void testReaderSeesCommittedWrites() {
+        final DataBaseManager manager = new DataBaseManager(false, myConnections);
+        manager.insertFileEvent("01 Jan, 2025", "10:00:00", "a.txt", "/path", "ENTRY_CREATE");
+        assertEquals(1, manager.getTableSize(), "Reader should see the committed row");
+    }
+
+    @Test
+    void testStatementCache() throws SQLException {
+        try (ConnectionManager.Lease lease = myConnections.acquireWriter()) {
+            final PreparedStatement first = lease.prepare("SELECT 1");
+            final PreparedStatement second = lease.prepare("SELECT 1");
+            assertSame(first, second, "The same SQL should reuse the prepared statement");
+        }
+    }
+
+    @Test
+    void testReaderIsReturnedToPool() throws SQLException {
+        final ConnectionManager.Lease first;
+        try (ConnectionManager.Lease lease = myConnections.acquireReader()) {
+            first = lease;
+        }
+        try (ConnectionManager.Lease lease = myConnections.acquireReader()) {
+            assertSame(first, lease, "An idle reader should be reused");
+        }
+    }
+
+    @Test
+    void testReaderIsReadOnly() {
+        new DataBaseManager(false, myConnections);
+        assertThrows(SQLException.class, () -> {
+            try (ConnectionManager.Lease lease = myConnections.acquireReader()) {
+                lease.prepare("DELETE FROM filewatcher").executeUpdate();
+            }
+        }, "Reader connections should not be able to write");
+    }
+
+    @Test
+    void testClosedManager() {
+        myConnections.close();
+        assertThrows(SQLException.class, () -> myConnections.acquireWriter());
+        assertThrows(SQLException.class, () -> myConnections.acquireReader());
+    }
+
+    @Test
+    void testInvalidUrl() {
+        assertThrows(IllegalArgumentException.class, () -> ConnectionManager.getInstance(""));
+        assertThrows(IllegalArgumentException.class, () -> ConnectionManager.getInstance(null));
+    }
+}
@@ -0,0 +1,157 @@
+import com.tcss.filewatcher.Common.Properties;
+import com.tcss.filewatcher.Model.DirectoryRegistrar;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for the DirectoryRegistrar class.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+class DirectoryRegistrarTest {
+
+    /**
+     * The root of the test tree.
+     */
+    @TempDir
+    Path myRoot;
+
+    /**
+     * The directories handed to the handler.
+     */
+    private final Set<Path> myRegistered = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The registrar under test.
+     */
+    private DirectoryRegistrar myRegistrar;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        myRegistered.clear();
+        myRegistrar = new DirectoryRegistrar(myRegistered::add, 4);
+        for (int i = 0; i < 5; i++) {
+            for (int j = 0; j < 5; j++) {
+                Files.createDirectories(myRoot.resolve("src" + i).resolve("pkg" + j));
+            }
+        }
+        Files.createDirectories(myRoot.resolve(".git/objects/ab"));
+        Files.createDirectories(myRoot.resolve("web/node_modules/left-pad"));
+        Files.createDirectories(myRoot.resolve("build/tmp/cache"));
+        Files.writeString(myRoot.resolve("src0/file.txt"), "not a directory");
+    }
+
+    @Test
+    void testWholeTreeIsRegistered() throws IOException, InterruptedException {
+        myRegistrar.setExcludeGlobs(List.of());
+        myRegistrar.registerTree(myRoot);
+        assertTrue(myRegistrar.awaitIdle(10_000), "The walk should finish");
+
+        // root + 5 src + 25 pkg + .git/objects/ab + web/node_modules/left-pad + build/tmp/cache
+        assertEquals(40, myRegistered.size());
+        assertEquals(40, myRegistrar.getRegisteredCount());
+    }
+
+    @Test
+    void testOutermostRootsSkipsNestedRoots() {
+        final Path src = myRoot.resolve("src0");
+        final Path pkg = myRoot.resolve("src0/pkg1");
+        final Path other = myRoot.resolve("src1/pkg2");
+
+        assertEquals(List.of(myRoot), myRegistrar.outermostRoots(List.of(pkg, myRoot, src)));
+        assertEquals(List.of(src, other), myRegistrar.outermostRoots(List.of(other, pkg, src)));
+        assertEquals(List.of(src), myRegistrar.outermostRoots(List.of(src, src)),
+                "Duplicates should be walked once");
+    }
+
+    @Test
+    void testOutermostRootsKeepsRootsBelowExcludedDirectories() {
+        final Path leftPad = myRoot.resolve("web/node_modules/left-pad");
+
+        assertEquals(List.of(myRoot, leftPad),
+                myRegistrar.outermostRoots(List.of(myRoot, leftPad)),
+                "The outer walk prunes node_modules, so the nested root needs its own walk");
+    }
+
+    @Test
+    void testDefaultExcludesPruneSubtrees() throws IOException, InterruptedException {
+        myRegistrar.registerTree(myRoot);
+        assertTrue(myRegistrar.awaitIdle(10_000));
+
+        assertFalse(myRegistered.contains(myRoot.resolve(".git")));
+        assertFalse(myRegistered.contains(myRoot.resolve(".git/objects")));
+        assertFalse(myRegistered.contains(myRoot.resolve("web/node_modules/left-pad")));
+        assertTrue(myRegistered.contains(myRoot.resolve("web")));
+        assertEquals(2, myRegistrar.getExcludedCount());
+    }
+
+    @Test
+    void testPathGlobExclude() throws IOException, InterruptedException {
+        myRegistrar.setExcludeGlobs(List.of("**/build/tmp"));
+        myRegistrar.registerTree(myRoot);
+        assertTrue(myRegistrar.awaitIdle(10_000));
+
+        assertTrue(myRegistered.contains(myRoot.resolve("build")));
+        assertFalse(myRegistered.contains(myRoot.resolve("build/tmp")));
+        assertFalse(myRegistered.contains(myRoot.resolve("build/tmp/cache")));
+    }
+
+    @Test
+    void testSubmitTreeSkipsExcludedDirectory() throws InterruptedException {
+        myRegistrar.submitTree(myRoot.resolve("web/node_modules"));
+        assertTrue(myRegistrar.awaitIdle(10_000));
+        assertTrue(myRegistered.isEmpty(), "An excluded directory should not be registered");
+
+        myRegistrar.submitTree(myRoot.resolve("src1"));
+        assertTrue(myRegistrar.awaitIdle(10_000));
+        assertEquals(6, myRegistered.size(), "src1 and its five packages should be registered");
+    }
+
+    @Test
+    void testCompletionIsPublished() throws IOException, InterruptedException {
+        final CountDownLatch completed = new CountDownLatch(1);
+        myRegistrar.addPropertyChangeListener(theEvent -> {
+            if (Properties.REGISTRATION_COMPLETE.toString().equals(theEvent.getPropertyName())) {
+                completed.countDown();
+            }
+        });
+        myRegistrar.registerTree(myRoot);
+        assertTrue(myRegistrar.awaitIdle(10_000));
+        // the event is published right after the waiters are woken
+        assertTrue(completed.await(10, TimeUnit.SECONDS),
+                "Listeners should hear that registration finished");
+        assertTrue(myRegistrar.isIdle());
+    }
+
+    @Test
+    void testRootFailureIsReported() {
+        final DirectoryRegistrar failing = new DirectoryRegistrar(theDir -> {
+            throw new IOException("no watches left");
+        });
+        assertThrows(IOException.class, () -> failing.registerTree(myRoot));
+    }
+
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new DirectoryRegistrar(null));
+        assertThrows(IllegalArgumentException.class,
+                () -> new DirectoryRegistrar(myRegistered::add, 0));
+        assertThrows(IllegalArgumentException.class, () -> myRegistrar.setExcludeGlobs(null));
+    }
+}
@@ -0,0 +1,86 @@
+import com.tcss.filewatcher.Model.DirectorySnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.util.Map;
+
+/**
+ * Unit tests for the DirectorySnapshot class.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+class DirectorySnapshotTest {
+
+    /**
+     * The directory being snapshotted.
+     */
+    @TempDir
+    Path myTempDir;
+
+    /**
+     * The snapshot under test.
+     */
+    private DirectorySnapshot mySnapshot;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.writeString(myTempDir.resolve("keep.txt"), "keep");
+        Files.writeString(myTempDir.resolve("change.txt"), "before");
+        Files.writeString(myTempDir.resolve("gone.txt"), "gone");
+        mySnapshot = new DirectorySnapshot();
+        mySnapshot.capture(myTempDir);
+    }
+
+    @Test
+    void testRescanFindsMissedChanges() throws IOException {
+        Files.writeString(myTempDir.resolve("change.txt"), "after the change");
+        Files.delete(myTempDir.resolve("gone.txt"));
+        Files.writeString(myTempDir.resolve("new.txt"), "new");
+
+        final Map<Path, WatchEvent.Kind<Path>> changes = mySnapshot.rescan(myTempDir);
+        assertEquals(3, changes.size(), "Only the three changed entries should be reported");
+        assertEquals(ENTRY_MODIFY, changes.get(Path.of("change.txt")));
+        assertEquals(ENTRY_DELETE, changes.get(Path.of("gone.txt")));
+        assertEquals(ENTRY_CREATE, changes.get(Path.of("new.txt")));
+    }
+
+    @Test
+    void testRescanReplacesSnapshot() throws IOException {
+        Files.writeString(myTempDir.resolve("new.txt"), "new");
+        mySnapshot.rescan(myTempDir);
+        assertTrue(mySnapshot.rescan(myTempDir).isEmpty(), "A second rescan should be clean");
+    }
+
+    @Test
+    void testUpdateKeepsSnapshotInStep() throws IOException {
+        Files.writeString(myTempDir.resolve("new.txt"), "new");
+        mySnapshot.update(myTempDir, Path.of("new.txt"), ENTRY_CREATE);
+        Files.delete(myTempDir.resolve("gone.txt"));
+        mySnapshot.update(myTempDir, Path.of("gone.txt"), ENTRY_DELETE);
+
+        assertTrue(mySnapshot.rescan(myTempDir).isEmpty(),
+                "Delivered events should not be reported again");
+    }
+
+    @Test
+    void testRemove() {
+        assertTrue(mySnapshot.contains(myTempDir));
+        mySnapshot.remove(myTempDir);
+        assertFalse(mySnapshot.contains(myTempDir));
+        assertTrue(mySnapshot.rescan(myTempDir).isEmpty(),
+                "A directory without a snapshot has nothing to compare against");
+    }
+}
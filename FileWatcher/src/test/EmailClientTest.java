@@ -105,6 +105,15 @@ class EmailClientTest {
         });
     }
 
+    @Test
+    void testSendWithoutAddress() {
+        // send is the headless path, it must fail without touching the JavaFX toolkit
+        assertFalse(EmailClient.send(INVALID_EMAIL_NULL, testCsvPath),
+                "Should return false for null email");
+        assertFalse(EmailClient.send(INVALID_EMAIL_BLANK, testCsvPath),
+                "Should return false for blank email");
+    }
+
     @Test
     void testStartWithNullEmail() throws InterruptedException {
         CountDownLatch latch = new CountDownLatch(1);
@@ -0,0 +1,132 @@
+import com.tcss.filewatcher.Model.EventCoalescer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for the EventCoalescer class.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+class EventCoalescerTest {
+
+    /**
+     * The quiet window used by the tests.
+     */
+    private static final long WINDOW = 100;
+
+    /**
+     * The directory the events happen in.
+     */
+    private static final Path DIR = Path.of("/tmp/coalesce");
+
+    /**
+     * The events released by the coalescer.
+     */
+    private final List<EventCoalescer.Pending> myReleased = new ArrayList<>();
+
+    /**
+     * The coalescer under test.
+     */
+    private EventCoalescer myCoalescer;
+
+    @BeforeEach
+    void setUp() {
+        myReleased.clear();
+        myCoalescer = new EventCoalescer(myReleased::add, WINDOW);
+    }
+
+    @Test
+    void testRepeatedModifiesAreMerged() {
+        for (int i = 0; i < 10; i++) {
+            myCoalescer.offer(DIR, Path.of("a.txt"), ENTRY_MODIFY, i * 10L);
+        }
+        myCoalescer.flushDue(150);
+        assertTrue(myReleased.isEmpty(), "The path is not quiet yet");
+
+        myCoalescer.flushDue(190);
+        assertEquals(1, myReleased.size(), "The burst should become one event");
+        assertEquals(ENTRY_MODIFY, myReleased.getFirst().getKind());
+        assertEquals(9, myCoalescer.getSuppressedCount());
+    }
+
+    @Test
+    void testCreateThenModifiesIsOneCreate() {
+        myCoalescer.offer(DIR, Path.of("a.txt"), ENTRY_CREATE, 0);
+        myCoalescer.offer(DIR, Path.of("a.txt"), ENTRY_MODIFY, 5);
+        myCoalescer.offer(DIR, Path.of("a.txt"), ENTRY_MODIFY, 10);
+        myCoalescer.flushDue(200);
+
+        assertEquals(1, myReleased.size());
+        assertEquals(ENTRY_CREATE, myReleased.getFirst().getKind());
+        assertEquals(0, myReleased.getFirst().getFirstSeenMillis());
+    }
+
+    @Test
+    void testCreateThenDeleteIsTransient() {
+        myCoalescer.offer(DIR, Path.of("tmp.swp"), ENTRY_CREATE, 0);
+        myCoalescer.offer(DIR, Path.of("tmp.swp"), ENTRY_MODIFY, 1);
+        myCoalescer.offer(DIR, Path.of("tmp.swp"), ENTRY_DELETE, 2);
+        myCoalescer.flushAll();
+
+        assertTrue(myReleased.isEmpty(), "A transient file should not be reported");
+        assertEquals(1, myCoalescer.getTransientCount());
+        assertEquals(3, myCoalescer.getSuppressedCount());
+    }
+
+    @Test
+    void testOtherSequencesKeepOrder() {
+        myCoalescer.offer(DIR, Path.of("a.txt"), ENTRY_MODIFY, 0);
+        myCoalescer.offer(DIR, Path.of("a.txt"), ENTRY_DELETE, 1);
+        myCoalescer.offer(DIR, Path.of("b.txt"), ENTRY_CREATE, 2);
+        myCoalescer.flushAll();
+
+        assertEquals(3, myReleased.size());
+        assertEquals(ENTRY_MODIFY, myReleased.get(0).getKind());
+        assertEquals(ENTRY_DELETE, myReleased.get(1).getKind());
+        assertEquals(Path.of("b.txt"), myReleased.get(2).getFileName());
+    }
+
+    @Test
+    void testContinuousChangesAreCapped() {
+        for (long now = 0; now <= WINDOW * 10; now += 10) {
+            myCoalescer.offer(DIR, Path.of("log.txt"), ENTRY_MODIFY, now);
+            myCoalescer.flushDue(now);
+        }
+        assertEquals(1, myReleased.size(), "A busy path should still be reported");
+    }
+
+    @Test
+    void testZeroWindowPassesThrough() {
+        myCoalescer.setQuietWindowMillis(0);
+        myCoalescer.offer(DIR, Path.of("a.txt"), ENTRY_MODIFY, 0);
+        myCoalescer.offer(DIR, Path.of("a.txt"), ENTRY_MODIFY, 0);
+        assertEquals(2, myReleased.size());
+        assertEquals(-1, myCoalescer.millisUntilNextFlush(0));
+    }
+
+    @Test
+    void testMillisUntilNextFlush() {
+        assertEquals(-1, myCoalescer.millisUntilNextFlush(0));
+        myCoalescer.offer(DIR, Path.of("a.txt"), ENTRY_MODIFY, 0);
+        assertEquals(WINDOW - 40, myCoalescer.millisUntilNextFlush(40));
+    }
+
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new EventCoalescer(null));
+        assertThrows(IllegalArgumentException.class,
+                () -> new EventCoalescer(myReleased::add, -1));
+    }
+}
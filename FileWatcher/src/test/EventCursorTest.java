@@ -0,0 +1,137 @@
+import com.tcss.filewatcher.Controller.CSVExporter;
+import com.tcss.filewatcher.Model.ConnectionManager;
+import com.tcss.filewatcher.Model.DataBaseManager;
+import com.tcss.filewatcher.Model.EventCursor;
+import com.tcss.filewatcher.Model.EventRecord;
+import com.tcss.filewatcher.Model.FileEventType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+/**
+ * Unit tests for the EventCursor class and the streaming queries of DataBaseManager.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+class EventCursorTest {
+
+    /**
+     * The number of events in the test database.
+     */
+    private static final int EVENT_COUNT = 1000;
+
+    /**
+     * A folder for the test database and exports.
+     */
+    @TempDir
+    Path myTempDir;
+
+    /**
+     * The connections of the test database.
+     */
+    private ConnectionManager myConnections;
+
+    /**
+     * The database under test.
+     */
+    private DataBaseManager myDBManager;
+
+    @BeforeEach
+    void setUp() {
+        myConnections = ConnectionManager.getInstance("jdbc:sqlite:"
+                + myTempDir.resolve("cursor.db"));
+        myDBManager = new DataBaseManager(false, myConnections);
+        final List<EventRecord> batch = new ArrayList<>();
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            batch.add(EventRecord.of(i * 1000L, FileEventType.CREATED,
+                    i % 2 == 0 ? "/even" : "/odd", "file" + i + (i % 4 == 0 ? ".log" : ".txt"),
+                    false));
+        }
+        myDBManager.insertEventRecords(batch);
+    }
+
+    @AfterEach
+    void tearDown() {
+        myConnections.close();
+    }
+
+    @Test
+    void testCursorReadsEveryRowInOrder() {
+        myDBManager.setFetchSize(16);
+        long previous = -1;
+        try (EventCursor cursor = myDBManager.openAllRecords()) {
+            while (cursor.hasNext()) {
+                final EventRecord record = cursor.next();
+                assertTrue(record.getTimestamp() > previous, "Rows should be oldest first");
+                previous = record.getTimestamp();
+            }
+            assertEquals(EVENT_COUNT, cursor.getCount());
+            assertThrows(NoSuchElementException.class, cursor::next);
+        }
+    }
+
+    @Test
+    void testFilteredCursors() {
+        try (EventCursor cursor = myDBManager.openRecordsByDirectory("/even")) {
+            assertEquals(EVENT_COUNT / 2, cursor.stream().count());
+        }
+        try (Stream<EventRecord> logs = myDBManager.openRecordsByExtension("LOG").stream()) {
+            assertTrue(logs.allMatch(theRecord -> ".log".equals(theRecord.getExtension())));
+        }
+        try (EventCursor cursor = myDBManager.openRecordsByTimeRange(10_000, 19_999)) {
+            assertEquals(10, cursor.stream().count());
+        }
+        assertEquals(10, myDBManager.countByTimeRange(10_000, 19_999));
+    }
+
+    @Test
+    void testClosedCursorsReleaseTheirConnection() {
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            for (int i = 0; i < ConnectionManager.DEFAULT_READER_COUNT * 3; i++) {
+                try (EventCursor cursor = myDBManager.openAllRecords()) {
+                    cursor.next();
+                }
+            }
+        });
+        final EventCursor cursor = myDBManager.openAllRecords();
+        cursor.close();
+        assertFalse(cursor.hasNext(), "A closed cursor has no rows");
+    }
+
+    @Test
+    void testInvalidFetchSize() {
+        assertThrows(IllegalArgumentException.class, () -> myDBManager.setFetchSize(0));
+    }
+
+    @Test
+    void testStreamedExport() throws IOException {
+        final Path csv = myTempDir.resolve("export.csv");
+        final long written;
+        try (EventCursor cursor = myDBManager.openAllRecords()) {
+            written = CSVExporter.exportRecordsToCSV(cursor, myDBManager.getTableSize(), csv,
+                    null);
+        }
+        assertEquals(EVENT_COUNT, written);
+        final List<String> lines = Files.readAllLines(csv);
+        assertTrue(lines.stream().anyMatch(theLine -> theLine.contains("file999.txt")));
+        assertTrue(lines.stream().anyMatch(theLine -> theLine.contains("" + EVENT_COUNT)),
+                "The header should report the record count");
+    }
+}
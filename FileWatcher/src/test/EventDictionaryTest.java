@@ -0,0 +1,275 @@
+import com.tcss.filewatcher.Model.ConnectionManager;
+import com.tcss.filewatcher.Model.DataBaseManager;
+import com.tcss.filewatcher.Model.EventDictionary;
+import com.tcss.filewatcher.Model.EventQuery;
+import com.tcss.filewatcher.Model.EventRecord;
+import com.tcss.filewatcher.Model.EventRollup;
+import com.tcss.filewatcher.Model.EventSchema;
+import com.tcss.filewatcher.Model.FileEventType;
+import com.tcss.filewatcher.Model.QueryService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Unit tests for the EventDictionary class and the dictionary-encoded event rows.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+class EventDictionaryTest {
+
+    /**
+     * A folder for the test database.
+     */
+    @TempDir
+    Path myTempDir;
+
+    /**
+     * The connections of the test database.
+     */
+    private ConnectionManager myConnections;
+
+    @BeforeEach
+    void setUp() {
+        myConnections = ConnectionManager.getInstance("jdbc:sqlite:"
+                + myTempDir.resolve("dictionary.db"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        myConnections.close();
+    }
+
+    @Test
+    void testEventsAreStoredAsIds() throws SQLException {
+        final DataBaseManager manager = new DataBaseManager(false, myConnections);
+        final List<EventRecord> batch = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            batch.add(EventRecord.of(i * 1000L, FileEventType.MODIFIED,
+                    i % 3 == 0 ? "/root/a" : i % 3 == 1 ? "/root/a/b" : "/other",
+                    "log" + i % 10 + (i % 2 == 0 ? ".log" : ".TXT"), false));
+        }
+        manager.insertEventRecords(batch);
+
+        assertEquals(3, count("SELECT COUNT(*) FROM event_paths"));
+        assertEquals(10, count("SELECT COUNT(*) FROM event_names"));
+        assertEquals(2, count("SELECT COUNT(*) FROM event_extensions"));
+        assertEquals(0, count("SELECT COUNT(*) FROM filewatcher WHERE file_name <> '' "
+                + "OR absolute_path <> '' OR extension IS NOT NULL OR path_id IS NULL"),
+                "Only the ids are stored");
+        final List<EventRecord> stored = manager.getAllRecords();
+        for (int i = 0; i < batch.size(); i++) {
+            assertEquals(batch.get(i).getDirectory(), stored.get(i).getDirectory());
+            assertEquals(batch.get(i).getFileName(), stored.get(i).getFileName());
+            assertEquals(batch.get(i).getExtension(), stored.get(i).getExtension());
+        }
+
+        assertEquals(200, manager.queryByDirectory("/root/a").size(), "The whole subtree");
+        assertEquals(100, manager.queryByDirectory("/root/a/b").size());
+        assertEquals(0, manager.queryByDirectory("/missing").size());
+        assertEquals(150, manager.queryByExtension(".txt").size());
+        assertEquals(30, manager.countRecords(EventQuery.all().named("LOG1.*")));
+        assertEquals(50, manager.countRecords(EventQuery.all().inDirectory("/other")
+                .withExtensions(List.of(".log", ".pdf"))));
+    }
+
+    @Test
+    void testDirectoryMatchesItsSubtreeOnly() {
+        final DataBaseManager manager = new DataBaseManager(false, myConnections);
+        final List<EventRecord> batch = new ArrayList<>();
+        for (final String directory : List.of("/a/b", "/a/b/c", "/a/B/d", "/a/bc",
+                "/a/b-old", "/a/b.bak", "/a")) {
+            batch.add(EventRecord.of(batch.size(), FileEventType.CREATED, directory,
+                    "f.txt", false));
+        }
+        manager.insertEventRecords(batch);
+
+        assertEquals(3, manager.queryByDirectory("/a/b").size(),
+                "Siblings sharing the prefix are not in the subtree");
+        assertEquals(3, manager.queryByDirectory("/a/b/").size());
+        assertEquals(3, manager.queryByDirectory("/A/B").size(), "Any case matches");
+        assertEquals(1, manager.queryByDirectory("/a/b/c").size());
+        assertEquals(7, manager.queryByDirectory("/a").size());
+        assertEquals(7, manager.queryByDirectory("/").size());
+        assertEquals(0, manager.queryByDirectory("/a/b/c/e").size());
+    }
+
+    @Test
+    void testIngestLooksIdsUpInTheCache() {
+        final DataBaseManager manager = new DataBaseManager(false, myConnections);
+        final EventDictionary dictionary = EventDictionary.of(myConnections);
+        final List<EventRecord> batch = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            batch.add(EventRecord.of(i, FileEventType.CREATED, i % 2 == 0 ? "/a" : "/b",
+                    "same.txt", false));
+        }
+        manager.insertEventRecords(batch);
+
+        assertEquals(4, dictionary.getMissCount(), "Two paths, one name and one extension");
+        assertEquals(296, dictionary.getHitCount());
+
+        manager.clearDatabase();
+        manager.insertEventRecords(batch);
+        assertEquals(4, dictionary.getMissCount(), "The ids outlive the events");
+    }
+
+    @Test
+    void testTextRowsAreMigrated() throws SQLException, InterruptedException {
+        createVersion5Database();
+
+        final DataBaseManager manager = new DataBaseManager(false, myConnections);
+        assertTrue(manager.getSchema().awaitMigration(30_000), "Migration should finish");
+
+        assertEquals(20, manager.getSchema().getMigratedRowCount());
+        assertEquals(EventSchema.CURRENT_VERSION, count("PRAGMA user_version"));
+        assertEquals(0, count("SELECT COUNT(*) FROM filewatcher_p10 WHERE path_id IS NULL "
+                + "OR absolute_path <> ''"), "The partition is converted too");
+        assertEquals(10, manager.queryByDirectory("/even").size());
+        assertEquals(20, manager.queryByExtension(".md").size());
+        assertEquals("f20.md", manager.getAllEntries().getLast().getFileName());
+        assertEquals(1, count("SELECT COUNT(*) FROM sqlite_master WHERE name = "
+                + "'idx_filewatcher_p10_path_timestamp' AND sql LIKE '%path_id%'"),
+                "The path index is rebuilt on the ids");
+        assertEquals(0, manager.aggregateEvents(EventRollup.Granularity.DAY, Long.MIN_VALUE,
+                Long.MAX_VALUE, null, Set.of(), 0).stream().mapToLong(EventRollup::getCount)
+                .sum(), "Rows that were already counted are not counted again");
+    }
+
+    @Test
+    void testFiltersMatchRowsNotMigratedYet() throws SQLException, InterruptedException,
+            ExecutionException {
+        createVersion5Database();
+        try (ConnectionManager.Lease lease = myConnections.acquireWriter();
+             Statement stmt = lease.getConnection().createStatement()) {
+            // holds the migration at its first batch
+            stmt.executeUpdate("CREATE TRIGGER hold_migration BEFORE UPDATE ON filewatcher "
+                    + "BEGIN SELECT RAISE(ABORT, 'held'); END");
+        }
+
+        final DataBaseManager manager = new DataBaseManager(false, myConnections);
+        assertFalse(manager.getSchema().awaitMigration(30_000), "Migration should be held");
+        manager.insertEventRecords(List.of(EventRecord.of(21, FileEventType.CREATED,
+                "/even/new", "f21.md", false)));
+        assertEquals(20, count("SELECT COUNT(*) FROM filewatcher_all WHERE path_id IS NULL"));
+
+        assertEquals(11, manager.queryByDirectory("/even").size(),
+                "Rows with and without ids are both matched");
+        assertEquals(21, manager.queryByExtension(".md").size());
+        assertEquals(3, manager.countRecords(EventQuery.all().named("f2*")));
+        assertEquals(7, manager.countRecords(EventQuery.all().inDirectory("/even")
+                .withExtension("md").between(10, 21)));
+        assertEquals(6, manager.queryPage(EventQuery.all().inDirectory("/even"), 10, 10, 100)
+                .size());
+        try (QueryService service = new QueryService(myConnections)) {
+            assertEquals(11, service.count(EventQuery.all().inDirectory("/even")).get());
+        }
+    }
+
+    @Test
+    void testFiltersMatchVersion1RowsNotMigratedYet() throws SQLException,
+            InterruptedException {
+        try (ConnectionManager.Lease lease = myConnections.acquireWriter();
+             Statement stmt = lease.getConnection().createStatement()) {
+            // a version 1 table: no timestamp, type code or extension
+            stmt.executeUpdate("CREATE TABLE filewatcher (id INTEGER PRIMARY KEY "
+                    + "AUTOINCREMENT, event_date TEXT NOT NULL, event_time TEXT NOT NULL, "
+                    + "file_name TEXT NOT NULL, absolute_path TEXT NOT NULL, "
+                    + "event_type TEXT NOT NULL)");
+            stmt.executeUpdate("INSERT INTO filewatcher (event_date, event_time, file_name, "
+                    + "absolute_path, event_type) VALUES "
+                    + "('01 Jan, 2025', '09:59:59', 'a.md', '/v1', 'ENTRY_CREATE'), "
+                    + "('01 Jan, 2025', '10:00:00', 'b.MD', '/v1', 'ENTRY_CREATE'), "
+                    + "('2025-01-20', '12:00:00', 'c.txt', '/v1/sub', 'ENTRY_MODIFY'), "
+                    + "('20 Jan, 2025', '12:00:00', 'README', '/v1', 'ENTRY_MODIFY'), "
+                    + "('15 Feb, 2025', '10:00:00', 'd.md', '/v10', 'ENTRY_DELETE'), "
+                    + "('15 Feb, 2025', '10:00:01', 'e.md', '/v1', 'ENTRY_DELETE')");
+            stmt.executeUpdate("CREATE TRIGGER hold_migration BEFORE UPDATE ON filewatcher "
+                    + "BEGIN SELECT RAISE(ABORT, 'held'); END");
+        }
+
+        final DataBaseManager manager = new DataBaseManager(false, myConnections);
+        assertFalse(manager.getSchema().awaitMigration(30_000), "Migration should be held");
+        final long from = LocalDate.of(2025, 1, 1).atTime(10, 0)
+                .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        final long to = LocalDate.of(2025, 2, 15).atTime(10, 0)
+                .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+        assertEquals(4, manager.queryByExtension(".md").size(),
+                "The extension is read from the file name");
+        assertEquals(1, manager.countRecords(EventQuery.all().withExtension("")));
+        assertEquals(4, manager.countRecords(EventQuery.all().between(from, to)),
+                "The time range is read from the date and time");
+        assertEquals(2, manager.countRecords(EventQuery.all().between(from + 1, to - 1)),
+                "The bounds are rounded into the range to compare seconds");
+        assertEquals(1, manager.countRecords(EventQuery.all().inDirectory("/v1")
+                .withExtension("md").between(from, to)));
+        assertEquals(2, manager.countRecords(EventQuery.all().inDirectory("/v1")
+                .withExtensions(List.of("txt", "")).between(from, to)));
+    }
+
+    /**
+     * Creates a version 5 database with one sealed partition and 20 events stored as text.
+     *
+     * @throws SQLException if the database could not be written.
+     */
+    private void createVersion5Database() throws SQLException {
+        try (ConnectionManager.Lease lease = myConnections.acquireWriter();
+             Statement stmt = lease.getConnection().createStatement()) {
+            for (final String table : List.of("filewatcher", "filewatcher_p10")) {
+                stmt.executeUpdate("CREATE TABLE " + table + " (id INTEGER PRIMARY KEY "
+                        + "AUTOINCREMENT, event_date TEXT NOT NULL, event_time TEXT NOT NULL, "
+                        + "file_name TEXT NOT NULL, absolute_path TEXT NOT NULL, "
+                        + "event_type TEXT NOT NULL, event_timestamp INTEGER, "
+                        + "event_code INTEGER, extension TEXT, "
+                        + "synthesized INTEGER NOT NULL DEFAULT 0)");
+                stmt.executeUpdate("CREATE INDEX idx_" + table + "_path_timestamp ON "
+                        + table + " (absolute_path, event_timestamp)");
+            }
+            stmt.executeUpdate("CREATE TABLE event_partitions (name TEXT PRIMARY KEY, "
+                    + "first_timestamp INTEGER NOT NULL, last_timestamp INTEGER NOT NULL, "
+                    + "row_count INTEGER NOT NULL, sealed_at INTEGER NOT NULL, "
+                    + "dropped_at INTEGER)");
+            stmt.executeUpdate("INSERT INTO event_partitions VALUES "
+                    + "('filewatcher_p10', 1, 10, 10, 10, NULL)");
+            for (int i = 1; i <= 20; i++) {
+                stmt.executeUpdate("INSERT INTO "
+                        + (i <= 10 ? "filewatcher_p10" : "filewatcher") + " VALUES (" + i
+                        + ", '01 Jan, 2025', '10:00:00', 'f" + i + ".md', '"
+                        + (i % 2 == 0 ? "/even" : "/odd") + "', 'ENTRY_CREATE', " + i + ", "
+                        + FileEventType.CREATED.getCode() + ", '.md', 0)");
+            }
+            stmt.executeUpdate("PRAGMA user_version = 5");
+        }
+    }
+
+    /**
+     * Runs a query returning one number.
+     *
+     * @param theSql the query.
+     * @return the number.
+     * @throws SQLException if the query fails.
+     */
+    private long count(final String theSql) throws SQLException {
+        try (ConnectionManager.Lease lease = myConnections.acquireReader();
+             ResultSet rs = lease.prepare(theSql).executeQuery()) {
+            return rs.next() ? rs.getLong(1) : -1;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+import com.tcss.filewatcher.Model.ConnectionManager;
+import com.tcss.filewatcher.Model.DataBaseManager;
+import com.tcss.filewatcher.Model.EventPager;
+import com.tcss.filewatcher.Model.EventQuery;
+import com.tcss.filewatcher.Model.EventRecord;
+import com.tcss.filewatcher.Model.FileEventType;
+import com.tcss.filewatcher.Model.QueryService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for the EventPager and EventQuery classes.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+class EventPagerTest {
+
+    /**
+     * The number of events in the test database.
+     */
+    private static final int EVENT_COUNT = 1000;
+
+    /**
+     * A folder for the test database.
+     */
+    @TempDir
+    Path myTempDir;
+
+    /**
+     * The connections of the test database.
+     */
+    private ConnectionManager myConnections;
+
+    /**
+     * The database under test.
+     */
+    private DataBaseManager myDBManager;
+
+    @BeforeEach
+    void setUp() {
+        myConnections = ConnectionManager.getInstance("jdbc:sqlite:"
+                + myTempDir.resolve("pager.db"));
+        myDBManager = new DataBaseManager(false, myConnections);
+        final List<EventRecord> batch = new ArrayList<>();
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            // several events share each timestamp, so the id breaks the ties
+            batch.add(EventRecord.of(i / 3 * 1000L,
+                    i % 2 == 0 ? FileEventType.CREATED : FileEventType.MODIFIED,
+                    i % 5 == 0 ? "/five" : "/other", "file" + i + ".txt", false));
+        }
+        myDBManager.insertEventRecords(batch);
+    }
+
+    @AfterEach
+    void tearDown() {
+        myConnections.close();
+    }
+
+    @Test
+    void testSequentialPagesMatchFullQuery() {
+        final List<EventRecord> all = myDBManager.getAllRecords();
+        final EventPager pager = new EventPager(myDBManager, EventQuery.all(), 32, 3);
+
+        assertEquals(EVENT_COUNT, pager.size());
+        for (int i = 0; i < pager.size(); i++) {
+            assertEquals(all.get(i), pager.get(i), "Row " + i);
+            assertTrue(pager.getResidentPageCount() <= 3, "Only the window stays resident");
+        }
+        assertEquals((EVENT_COUNT + 31) / 32, pager.getPageLoads());
+    }
+
+    @Test
+    void testJumpsMatchFullQuery() {
+        final List<EventRecord> all = myDBManager.getAllRecords();
+        final EventPager pager = new EventPager(myDBManager, EventQuery.all(), 32, 2);
+
+        for (final int index : new int[]{EVENT_COUNT - 1, 10, 500, 499, 33, 731, 0}) {
+            assertEquals(all.get(index), pager.get(index), "Row " + index);
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> pager.get(EVENT_COUNT));
+    }
+
+    @Test
+    void testPagesReadOnAQueryService() throws Exception {
+        final List<EventRecord> all = myDBManager.getAllRecords();
+        final EventPager pager = new EventPager(myDBManager, EventQuery.all(), 32, 3);
+
+        try (QueryService service = new QueryService(myConnections)) {
+            assertFalse(pager.isLoaded(500));
+            // the jump skips forward from the first page in the same statement
+            pager.put(15, pager.load(service, 15).get(10, TimeUnit.SECONDS));
+            assertTrue(pager.isLoaded(500));
+            assertEquals(all.get(500), pager.get(500));
+            // the next page starts after the last row of the one just read
+            pager.put(16, pager.load(service, 16).get(10, TimeUnit.SECONDS));
+            assertEquals(all.get(16 * 32), pager.get(16 * 32));
+            assertEquals(all.get(EVENT_COUNT - 1), service.page(EventQuery.all(),
+                    Long.MIN_VALUE, Long.MIN_VALUE, EVENT_COUNT - 1, 32).get().getFirst());
+
+            assertEquals(2, pager.getPageLoads(), "get read nothing itself");
+            assertThrows(IndexOutOfBoundsException.class, () -> pager.load(service, 32));
+            assertThrows(IllegalArgumentException.class, () -> pager.load(null, 0));
+        }
+    }
+
+    @Test
+    void testFilteredPaging() {
+        final EventQuery query = EventQuery.all().inDirectory("/five")
+                .ofType(FileEventType.CREATED).between(0, 200_000);
+        final EventPager pager = new EventPager(myDBManager, query, 8, 2);
+
+        // every 10th event up to timestamp 200000, i.e. index 602
+        assertEquals(61, pager.size());
+        for (int i = 0; i < pager.size(); i++) {
+            final EventRecord record = pager.get(i);
+            assertEquals("/five", record.getDirectory());
+            assertEquals(FileEventType.CREATED, record.getKind());
+        }
+        assertEquals(61, myDBManager.countRecords(query));
+    }
+
+    @Test
+    void testScopedPagesStreamInOrder() {
+        // one sealed partition and a live table, each read in its own branch
+        myDBManager.sealPartition();
+        myDBManager.insertEventRecords(List.of(EventRecord.of(EVENT_COUNT * 1000L,
+                FileEventType.CREATED, "/five/sub", "late.txt", false)));
+
+        for (final EventQuery query : List.of(EventQuery.all(),
+                EventQuery.all().inDirectory("/five"),
+                EventQuery.all().withExtension("txt"),
+                EventQuery.all().inDirectory("/five").withExtensions(List.of("txt", "log"))
+                        .orderBy(EventQuery.Order.NEWEST_FIRST))) {
+            final List<String> plan = myDBManager.explainPage(query);
+            assertFalse(plan.isEmpty());
+            assertTrue(plan.stream().noneMatch(theStep -> theStep.contains("TEMP B-TREE")),
+                    "A page of " + query + " should not sort: " + plan);
+            assertTrue(plan.stream().anyMatch(theStep -> theStep.contains("MERGE")),
+                    "A page of " + query + " should merge the tables: " + plan);
+        }
+        final EventPager pager = new EventPager(myDBManager,
+                EventQuery.all().inDirectory("/five"), 16, 2);
+        assertEquals(EVENT_COUNT / 5 + 1, pager.size());
+        assertEquals("late.txt", pager.get(pager.size() - 1).getFileName());
+        final List<EventRecord> newest = myDBManager.queryPage(EventQuery.all()
+                .orderBy(EventQuery.Order.NEWEST_FIRST), Long.MAX_VALUE, Long.MAX_VALUE, 2);
+        assertEquals("late.txt", newest.get(0).getFileName());
+        assertEquals((EVENT_COUNT - 1) / 3 * 1000L, newest.get(1).getTimestamp(),
+                "The page should continue in the sealed partition");
+    }
+
+    @Test
+    void testQueriesCompose() {
+        final EventQuery scope = EventQuery.all().withExtension("TXT");
+        assertEquals(scope, EventQuery.all().withExtension(".txt"));
+        assertNotEquals(scope, scope.ofType(FileEventType.DELETED));
+        assertEquals(EVENT_COUNT, myDBManager.countRecords(scope));
+        assertEquals(0, myDBManager.countRecords(scope.ofType(FileEventType.DELETED)));
+        assertThrows(IllegalArgumentException.class, () -> scope.inDirectory(null));
+        assertThrows(IllegalArgumentException.class,
+                () -> new EventPager(myDBManager, scope, 0, 1));
+
+        final Locale locale = Locale.getDefault();
+        // lowercases 'I' to a dotless 'ı'
+        Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+        try {
+            assertEquals(EventQuery.all().withExtension(".tif"),
+                    EventQuery.all().withExtension("TIF"));
+        } finally {
+            Locale.setDefault(locale);
+        }
+    }
+
+    @Test
+    void testNewestFirstPaging() {
+        final List<EventRecord> all = new ArrayList<>(myDBManager.getAllRecords());
+        Collections.reverse(all);
+        final EventPager pager = new EventPager(myDBManager,
+                EventQuery.all().orderBy(EventQuery.Order.NEWEST_FIRST), 32, 2);
+
+        assertEquals(EVENT_COUNT, pager.size());
+        for (final int index : new int[]{0, 1, 31, 32, 700, 999, 64, 63}) {
+            assertEquals(all.get(index), pager.get(index), "Row " + index);
+        }
+    }
+
+    @Test
+    void testNamePatterns() {
+        assertEquals(10, myDBManager.countRecords(EventQuery.all().named("file1?.txt")));
+        assertEquals(111, myDBManager.countRecords(EventQuery.all().named("file1*")));
+        // the LIKE wildcards are matched literally
+        assertEquals(0, myDBManager.countRecords(EventQuery.all().named("file_*")));
+        assertEquals(0, myDBManager.countRecords(EventQuery.all().named("%")));
+        assertThrows(IllegalArgumentException.class, () -> EventQuery.all().named(null));
+    }
+
+    @Test
+    void testSetsAndLimits() {
+        assertEquals(EVENT_COUNT, myDBManager.countRecords(EventQuery.all()
+                .ofTypes(EnumSet.of(FileEventType.CREATED, FileEventType.MODIFIED))));
+        assertEquals(EVENT_COUNT, myDBManager.countRecords(EventQuery.all()
+                .withExtensions(List.of("log", ".TXT"))));
+        assertEquals(0, myDBManager.countRecords(EventQuery.all()
+                .withExtensions(List.of("log", "csv"))));
+        assertThrows(IllegalArgumentException.class,
+                () -> EventQuery.all().withExtensions(List.of()));
+
+        final EventQuery latest = EventQuery.all().orderBy(EventQuery.Order.NEWEST_FIRST)
+                .limit(5);
+        final List<EventRecord> records = myDBManager.queryRecords(latest);
+        assertEquals(5, records.size());
+        assertEquals(5, myDBManager.countRecords(latest));
+        assertEquals("file999.txt", records.get(0).getFileName());
+        assertTrue(records.get(0).getId() > records.get(4).getId());
+        assertThrows(IllegalArgumentException.class, () -> latest.limit(0));
+    }
+}
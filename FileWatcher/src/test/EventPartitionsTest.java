@@ -0,0 +1,267 @@
+import com.tcss.filewatcher.Model.ConnectionManager;
+import com.tcss.filewatcher.Model.DataBaseManager;
+import com.tcss.filewatcher.Model.EventPartitions;
+import com.tcss.filewatcher.Model.EventQuery;
+import com.tcss.filewatcher.Model.EventRecord;
+import com.tcss.filewatcher.Model.EventRollup;
+import com.tcss.filewatcher.Model.FileEventType;
+import com.tcss.filewatcher.Model.RetentionPolicy;
+import com.tcss.filewatcher.Model.RetentionScheduler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Unit tests for the EventPartitions and RetentionPolicy classes and the partitioned
+ * queries of DataBaseManager.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+class EventPartitionsTest {
+
+    /**
+     * One day in milliseconds.
+     */
+    private static final long DAY = 86_400_000L;
+
+    /**
+     * The events written per day.
+     */
+    private static final int PER_DAY = 4;
+
+    /**
+     * A folder for the test database.
+     */
+    @TempDir
+    Path myTempDir;
+
+    /**
+     * The connections of the test database.
+     */
+    private ConnectionManager myConnections;
+
+    /**
+     * The database under test.
+     */
+    private DataBaseManager myDBManager;
+
+    @BeforeEach
+    void setUp() {
+        myConnections = ConnectionManager.getInstance("jdbc:sqlite:"
+                + myTempDir.resolve("partitions.db"));
+        myDBManager = new DataBaseManager(false, myConnections);
+        // three weeks of events, the first two sealed into partitions
+        insertDays(0, 7);
+        assertNotNull(myDBManager.sealPartition());
+        insertDays(7, 14);
+        assertNotNull(myDBManager.sealPartition());
+        insertDays(14, 21);
+    }
+
+    @AfterEach
+    void tearDown() {
+        myConnections.close();
+    }
+
+    @Test
+    void testSealKeepsEveryEvent() throws SQLException {
+        final List<EventPartitions.Partition> partitions = myDBManager.getPartitions();
+        assertEquals(2, partitions.size());
+        assertEquals(0, partitions.get(0).getFirstTimestamp());
+        assertEquals(7 * DAY - DAY / PER_DAY, partitions.get(0).getLastTimestamp());
+        assertEquals(7 * PER_DAY, partitions.get(1).getRowCount());
+
+        final List<EventRecord> all = myDBManager.getAllRecords();
+        assertEquals(21 * PER_DAY, all.size());
+        assertEquals(21 * PER_DAY, myDBManager.getTableSize());
+        assertEquals(21 * PER_DAY, countView());
+        for (int i = 0; i < all.size(); i++) {
+            assertEquals(i * DAY / PER_DAY, all.get(i).getTimestamp());
+            assertEquals(i + 1, all.get(i).getId(), "Ids continue across partitions");
+        }
+
+        final EventQuery overlap = EventQuery.all().between(6 * DAY, 15 * DAY - 1);
+        assertEquals(9 * PER_DAY, myDBManager.countRecords(overlap));
+        assertEquals(9 * PER_DAY, myDBManager.queryRecords(overlap).size());
+        assertEquals(21 * PER_DAY / 2,
+                myDBManager.queryByDirectory("/even").size());
+    }
+
+    @Test
+    void testPagingAcrossPartitions() {
+        final List<EventRecord> all = myDBManager.getAllRecords();
+        final EventQuery newest = EventQuery.all().orderBy(EventQuery.Order.NEWEST_FIRST);
+        final List<EventRecord> paged = new ArrayList<>();
+        long afterTimestamp = Long.MAX_VALUE;
+        long afterId = Long.MAX_VALUE;
+        List<EventRecord> page;
+        while (!(page = myDBManager.queryPage(newest, afterTimestamp, afterId, 10))
+                .isEmpty()) {
+            paged.addAll(page);
+            afterTimestamp = page.getLast().getTimestamp();
+            afterId = page.getLast().getId();
+        }
+        assertEquals(all.reversed(), paged);
+        assertEquals(all.get(35), myDBManager.findRecordAfter(EventQuery.all(),
+                Long.MIN_VALUE, Long.MIN_VALUE, 35));
+    }
+
+    @Test
+    void testQueriesReadOnlyOverlappingPartitions() throws SQLException {
+        final String first = myDBManager.getPartitions().get(0).getName();
+        try (ConnectionManager.Lease lease = myConnections.acquireWriter();
+             Statement stmt = lease.getConnection().createStatement()) {
+            // behind the catalog's back, so any query reading it fails
+            stmt.executeUpdate("DROP VIEW filewatcher_all");
+            stmt.executeUpdate("DROP TABLE " + first);
+        }
+
+        assertEquals(7 * PER_DAY, myDBManager.countRecords(
+                EventQuery.all().between(10 * DAY, 17 * DAY - 1)));
+        assertEquals(14 * PER_DAY, myDBManager.queryRecordsByTimeRange(7 * DAY,
+                Long.MAX_VALUE).size());
+        assertEquals(-1, myDBManager.countRecords(EventQuery.all()),
+                "The whole history needs the dropped table");
+    }
+
+    @Test
+    void testRetentionDropsWholePartitionsAndKeepsRollups() {
+        final RetentionPolicy policy = new RetentionPolicy(Duration.ofDays(10),
+                Duration.ofDays(730));
+
+        assertEquals(1, myDBManager.applyRetention(policy, 21 * DAY));
+        assertEquals(1, myDBManager.getPartitions().size());
+        assertEquals(14 * PER_DAY, myDBManager.getTableSize());
+        assertEquals(7 * DAY, myDBManager.getAllRecords().getFirst().getTimestamp());
+        assertEquals(0, myDBManager.applyRetention(policy, 21 * DAY), "Nothing left to drop");
+
+        // the rollups outlive the raw events, also when they are recounted
+        assertEquals(21 * PER_DAY, totalRollup());
+        assertEquals(14 * PER_DAY, myDBManager.rebuildRollups());
+        assertEquals(21 * PER_DAY, totalRollup());
+
+        assertEquals(0, myDBManager.applyRetention(new RetentionPolicy(Duration.ofDays(10),
+                Duration.ofDays(3)), 21 * DAY));
+        assertEquals(3 * PER_DAY, totalRollup());
+    }
+
+    @Test
+    void testRetentionSealsAWeekOfLiveEvents() {
+        assertEquals(0, myDBManager.applyRetention(RetentionPolicy.DEFAULT, 21 * DAY));
+        assertEquals(2, myDBManager.getPartitions().size(), "A week is not old enough");
+
+        assertEquals(0, myDBManager.applyRetention(RetentionPolicy.DEFAULT, 21 * DAY + 1));
+        assertEquals(3, myDBManager.getPartitions().size());
+        assertEquals(21 * PER_DAY, myDBManager.getTableSize());
+
+        insertDays(21, 22);
+        final List<EventRecord> all = myDBManager.getAllRecords();
+        assertEquals(22 * PER_DAY, all.getLast().getId());
+    }
+
+    @Test
+    void testSchedulerAppliesThePolicyFromTheProperties() {
+        final RetentionScheduler scheduler = new RetentionScheduler(myDBManager);
+        scheduler.start();
+        assertTrue(scheduler.isRunning());
+
+        // events from 1970 are far older than the default policy keeps
+        assertEquals(3, scheduler.applyNow());
+        assertEquals(0, myDBManager.getTableSize());
+
+        scheduler.stop();
+        assertFalse(scheduler.isRunning());
+        assertThrows(IllegalArgumentException.class, () -> new RetentionScheduler(null));
+    }
+
+    @Test
+    void testClearDatabaseDropsPartitions() throws SQLException {
+        myDBManager.clearDatabase();
+
+        assertTrue(myDBManager.getPartitions().isEmpty());
+        assertEquals(0, myDBManager.getTableSize());
+        assertEquals(0, countView());
+        assertNull(myDBManager.sealPartition(), "Nothing to seal");
+        insertDays(0, 1);
+        assertEquals(PER_DAY, myDBManager.getAllRecords().size());
+    }
+
+    @Test
+    void testInvalidRetention() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new RetentionPolicy(Duration.ofDays(-1), Duration.ofDays(1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> new RetentionPolicy(Duration.ofDays(1), null));
+        assertThrows(IllegalArgumentException.class,
+                () -> myDBManager.applyRetention(null, 0));
+
+        System.setProperty(RetentionPolicy.RAW_PROPERTY, "30d");
+        System.setProperty(RetentionPolicy.ROLLUPS_PROPERTY, "often");
+        try {
+            final RetentionPolicy policy = RetentionPolicy.fromSystemProperties();
+            assertEquals(Duration.ofDays(30), policy.getRaw());
+            assertEquals(RetentionPolicy.DEFAULT.getRollups(), policy.getRollups());
+        } finally {
+            System.clearProperty(RetentionPolicy.RAW_PROPERTY);
+            System.clearProperty(RetentionPolicy.ROLLUPS_PROPERTY);
+        }
+    }
+
+    /**
+     * Writes the events of some days, alternating between two directories.
+     *
+     * @param theFirstDay the first day, inclusive.
+     * @param theLastDay  the last day, exclusive.
+     */
+    private void insertDays(final int theFirstDay, final int theLastDay) {
+        final List<EventRecord> batch = new ArrayList<>();
+        for (int i = theFirstDay * PER_DAY; i < theLastDay * PER_DAY; i++) {
+            batch.add(EventRecord.of(i * DAY / PER_DAY, FileEventType.CREATED,
+                    i % 2 == 0 ? "/even" : "/odd", "file" + i + ".txt", false));
+        }
+        myDBManager.insertEventRecords(batch);
+    }
+
+    /**
+     * Counts the events in the union view.
+     *
+     * @return the number of events.
+     * @throws SQLException if the view cannot be read.
+     */
+    private long countView() throws SQLException {
+        try (ConnectionManager.Lease lease = myConnections.acquireReader();
+             ResultSet rs = lease.prepare("SELECT COUNT(*) FROM filewatcher_all")
+                     .executeQuery()) {
+            return rs.next() ? rs.getLong(1) : -1;
+        }
+    }
+
+    /**
+     * Adds up the day rollups of the whole history.
+     *
+     * @return the number of events counted.
+     */
+    private long totalRollup() {
+        return myDBManager.aggregateEvents(EventRollup.Granularity.DAY, Long.MIN_VALUE,
+                Long.MAX_VALUE, null, EnumSet.noneOf(EventRollup.Dimension.class), 0)
+                .stream().mapToLong(EventRollup::getCount).sum();
+    }
+}
@@ -0,0 +1,133 @@
+import com.tcss.filewatcher.Model.ConnectionManager;
+import com.tcss.filewatcher.Model.DataBaseManager;
+import com.tcss.filewatcher.Model.DirectoryEntry;
+import com.tcss.filewatcher.Model.EventRecord;
+import com.tcss.filewatcher.Model.EventSchema;
+import com.tcss.filewatcher.Model.FileEventType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Unit tests for the EventRecord class.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+class EventRecordTest {
+
+    /**
+     * A folder for the test database.
+     */
+    @TempDir
+    Path myTempDir;
+
+    /**
+     * The connections of the test database.
+     */
+    private ConnectionManager myConnections;
+
+    /**
+     * The database under test.
+     */
+    private DataBaseManager myDBManager;
+
+    @BeforeEach
+    void setUp() {
+        myConnections = ConnectionManager.getInstance("jdbc:sqlite:"
+                + myTempDir.resolve("records.db"));
+        myDBManager = new DataBaseManager(false, myConnections);
+    }
+
+    @AfterEach
+    void tearDown() {
+        myConnections.close();
+    }
+
+    @Test
+    void testDerivedFields() {
+        final long millis = EventSchema.toEpochMillis("05 Mar, 2025", "14:03:27");
+        final EventRecord record = EventRecord.of(millis, FileEventType.MODIFIED, "/home/docs",
+                "Report.PDF", true);
+
+        assertEquals(".pdf", record.getExtension());
+        assertEquals("05 Mar, 2025", record.getDate());
+        assertEquals("14:03:27", record.getTime());
+        assertEquals("ENTRY_MODIFY", record.getModificationType());
+        assertTrue(record.isSynthesized());
+        assertEquals(0, record.getId());
+    }
+
+    @Test
+    void testDirectoriesAreShared() {
+        final EventRecord first = EventRecord.of(1, FileEventType.CREATED,
+                new String("/home/shared"), "a.txt", false);
+        final EventRecord second = EventRecord.of(2, FileEventType.CREATED,
+                new String("/home/shared"), "b.txt", false);
+
+        assertSame(first.getDirectory(), second.getDirectory());
+        assertSame(first.getExtension(), second.getExtension());
+    }
+
+    @Test
+    void testNullFieldsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> EventRecord.of(1, null, "/dir", "a.txt", false));
+        assertThrows(IllegalArgumentException.class,
+                () -> EventRecord.of(1, FileEventType.CREATED, null, "a.txt", false));
+    }
+
+    @Test
+    void testDirectoryEntryRoundTrip() {
+        final EventRecord record = EventRecord.of(
+                EventSchema.toEpochMillis("01 Jan, 2025", "10:00:00"), FileEventType.DELETED,
+                "/path", "gone.txt", false);
+        final DirectoryEntry entry = new DirectoryEntry(record);
+
+        assertEquals("01 Jan, 2025", entry.getDate());
+        assertEquals("10:00:00", entry.getTime());
+        assertEquals("ENTRY_DELETE", entry.getModificationType());
+        assertSame(record, entry.toRecord());
+
+        final DirectoryEntry fromText = new DirectoryEntry("01 Jan, 2025", "10:00:00",
+                "gone.txt", "/path", "ENTRY_DELETE");
+        assertEquals(record, fromText.toRecord());
+    }
+
+    @Test
+    void testInsertAndQueryRecords() {
+        final long base = EventSchema.toEpochMillis("01 Jan, 2025", "10:00:00");
+        final List<EventRecord> batch = List.of(
+                EventRecord.of(base, FileEventType.CREATED, "/path", "a.txt", false),
+                EventRecord.of(base + 1000, FileEventType.MODIFIED, "/path", "b.log", true),
+                EventRecord.of(base + 2000, FileEventType.DELETED, "/other", "c.txt", false));
+
+        assertEquals(3, myDBManager.insertEventRecords(batch));
+
+        final List<EventRecord> all = myDBManager.getAllRecords();
+        assertEquals(3, all.size());
+        assertEquals(base + 1000, all.get(1).getTimestamp());
+        assertEquals(FileEventType.MODIFIED, all.get(1).getKind());
+        assertEquals(".log", all.get(1).getExtension());
+        assertTrue(all.get(1).isSynthesized());
+        assertTrue(all.get(0).getId() > 0);
+
+        final List<EventRecord> range = myDBManager.queryRecordsByTimeRange(base + 500,
+                base + 2000);
+        assertEquals(2, range.size());
+        assertEquals("c.txt", range.get(1).getFileName());
+
+        // the text columns stay readable for the table queries
+        assertEquals("ENTRY_DELETE", myDBManager.queryByDirectory("/other").get(0)
+                .getModificationType());
+    }
+}
@@ -0,0 +1,135 @@
+import com.tcss.filewatcher.Model.EventRingBuffer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Unit tests for the EventRingBuffer class.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+class EventRingBufferTest {
+
+    /**
+     * The buffer under test.
+     */
+    private EventRingBuffer<Integer> myBuffer;
+
+    @BeforeEach
+    void setUp() {
+        myBuffer = new EventRingBuffer<>(8);
+    }
+
+    @Test
+    void testCapacityIsRoundedUp() {
+        assertEquals(8, myBuffer.getCapacity());
+        assertEquals(16, new EventRingBuffer<Integer>(9).getCapacity());
+    }
+
+    @Test
+    void testReadSinceCursor() {
+        for (int i = 0; i < 5; i++) {
+            myBuffer.append(i);
+        }
+        final List<Integer> seen = new ArrayList<>();
+        long cursor = myBuffer.read(0, 3, seen::add);
+        assertEquals(List.of(0, 1, 2), seen);
+        assertEquals(3, cursor);
+
+        myBuffer.append(5);
+        cursor = myBuffer.read(cursor, Integer.MAX_VALUE, seen::add);
+        assertEquals(List.of(0, 1, 2, 3, 4, 5), seen);
+        assertEquals(myBuffer.getHeadSequence(), cursor, "The cursor should catch up");
+    }
+
+    @Test
+    void testOldestEventsAreEvicted() {
+        for (int i = 0; i < 20; i++) {
+            myBuffer.append(i);
+        }
+        assertEquals(8, myBuffer.size());
+        assertEquals(12, myBuffer.getEvictedCount());
+        assertEquals(List.of(12, 13, 14, 15, 16, 17, 18, 19), myBuffer.toList());
+    }
+
+    @Test
+    void testLaggingReaderCountsDrops() {
+        for (int i = 0; i < 20; i++) {
+            myBuffer.append(i);
+        }
+        final List<Integer> seen = new ArrayList<>();
+        final long cursor = myBuffer.read(2, Integer.MAX_VALUE, seen::add);
+        assertEquals(10, myBuffer.getDroppedCount(), "Events 2 to 11 were overwritten");
+        assertEquals(12, seen.getFirst());
+        assertEquals(20, cursor);
+    }
+
+    @Test
+    void testClear() {
+        myBuffer.append(1);
+        myBuffer.append(2);
+        myBuffer.clear();
+        assertTrue(myBuffer.isEmpty());
+        assertTrue(myBuffer.toList().isEmpty());
+
+        myBuffer.append(3);
+        assertEquals(List.of(3), myBuffer.toList());
+        assertEquals(0, myBuffer.getDroppedCount(), "Cleared events are not drops");
+    }
+
+    @Test
+    void testConcurrentWriters() throws InterruptedException {
+        final EventRingBuffer<Integer> buffer = new EventRingBuffer<>(1 << 16);
+        final Thread[] writers = new Thread[4];
+        for (int t = 0; t < writers.length; t++) {
+            writers[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    buffer.append(i);
+                }
+            });
+            writers[t].start();
+        }
+        for (final Thread writer : writers) {
+            writer.join();
+        }
+        final AtomicLong count = new AtomicLong();
+        buffer.read(0, Integer.MAX_VALUE, theEvent -> count.incrementAndGet());
+        assertEquals(40_000, count.get());
+        assertEquals(0, buffer.getEvictedCount());
+    }
+
+    @Test
+    void testWritersALapApartNeverStallReaders() throws InterruptedException {
+        // a tiny buffer, so writers often land on the same slot a lap apart
+        final EventRingBuffer<Integer> buffer = new EventRingBuffer<>(2);
+        final Thread[] writers = new Thread[8];
+        for (int t = 0; t < writers.length; t++) {
+            writers[t] = new Thread(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    buffer.append(i);
+                }
+            });
+            writers[t].start();
+        }
+        for (final Thread writer : writers) {
+            writer.join();
+        }
+        assertEquals(buffer.size(), buffer.toList().size(),
+                "Every slot should hold the newest event of its lap");
+        assertEquals(800_000, buffer.getEvictedCount() + buffer.getDroppedCount()
+                + buffer.size(), "Every event is retained, evicted or dropped");
+    }
+
+    @Test
+    void testInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new EventRingBuffer<Integer>(0));
+    }
+}
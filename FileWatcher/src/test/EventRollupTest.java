@@ -0,0 +1,149 @@
+import com.tcss.filewatcher.Model.ConnectionManager;
+import com.tcss.filewatcher.Model.DataBaseManager;
+import com.tcss.filewatcher.Model.EventRecord;
+import com.tcss.filewatcher.Model.EventRollup;
+import com.tcss.filewatcher.Model.FileEventType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Unit tests for the EventRollup class and the aggregate queries of DataBaseManager.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+class EventRollupTest {
+
+    /**
+     * One hour in milliseconds.
+     */
+    private static final long HOUR = 3_600_000L;
+
+    /**
+     * A folder for the test database.
+     */
+    @TempDir
+    Path myTempDir;
+
+    /**
+     * The connections of the test database.
+     */
+    private ConnectionManager myConnections;
+
+    /**
+     * The database under test.
+     */
+    private DataBaseManager myDBManager;
+
+    @BeforeEach
+    void setUp() {
+        myConnections = ConnectionManager.getInstance("jdbc:sqlite:"
+                + myTempDir.resolve("rollup.db"));
+        myDBManager = new DataBaseManager(false, myConnections);
+        final List<EventRecord> batch = new ArrayList<>();
+        // 48 hours, with /busy modified 3 times and /quiet created once every hour
+        for (int hour = 0; hour < 48; hour++) {
+            for (int i = 0; i < 3; i++) {
+                batch.add(EventRecord.of(hour * HOUR + i * 1000L, FileEventType.MODIFIED,
+                        "/busy", "log" + i + ".log", false));
+            }
+            batch.add(EventRecord.of(hour * HOUR + 5000L, FileEventType.CREATED, "/quiet",
+                    "note" + hour + (hour % 2 == 0 ? ".txt" : ""), false));
+        }
+        myDBManager.insertEventRecords(batch);
+    }
+
+    @AfterEach
+    void tearDown() {
+        myConnections.close();
+    }
+
+    @Test
+    void testCountPerDirectoryPerHour() {
+        final List<EventRollup> rows = myDBManager.countPerDirectory(
+                EventRollup.Granularity.HOUR, 0, 23 * HOUR, FileEventType.MODIFIED);
+
+        assertEquals(24, rows.size(), "Only /busy has modifications");
+        for (int hour = 0; hour < 24; hour++) {
+            final EventRollup row = rows.get(hour);
+            assertEquals(hour * HOUR, row.getBucketStart());
+            assertEquals("/busy", row.getDirectory());
+            assertEquals(3, row.getCount());
+            assertNull(row.getExtension(), "Not grouped by extension");
+        }
+        assertEquals(48, myDBManager.countPerDirectory(EventRollup.Granularity.HOUR, 0,
+                23 * HOUR, null).size(), "Both directories for every hour");
+    }
+
+    @Test
+    void testTopExtensions() {
+        final List<EventRollup> rows = myDBManager.topExtensions(0, HOUR * 24, 2);
+
+        assertEquals(2, rows.size());
+        assertEquals(".log", rows.get(0).getExtension());
+        assertEquals(144, rows.get(0).getCount());
+        assertEquals("", rows.get(1).getExtension(), "Files without an extension");
+        assertEquals(24, rows.get(1).getCount());
+        assertEquals(Long.MIN_VALUE, rows.get(0).getBucketStart());
+    }
+
+    @Test
+    void testGranularitiesAgree() {
+        for (final EventRollup.Granularity granularity : EventRollup.Granularity.values()) {
+            final List<EventRollup> total = myDBManager.aggregateEvents(granularity,
+                    Long.MIN_VALUE, Long.MAX_VALUE, null, Set.of(), 0);
+            assertEquals(192, total.getFirst().getCount(), granularity + " total");
+        }
+        final List<EventRollup> days = myDBManager.aggregateEvents(
+                EventRollup.Granularity.DAY, 0, Long.MAX_VALUE, FileEventType.CREATED,
+                EnumSet.of(EventRollup.Dimension.TIME, EventRollup.Dimension.TYPE), 0);
+        assertEquals(2, days.size());
+        assertEquals(FileEventType.CREATED, days.get(1).getKind());
+        assertEquals(24, days.get(1).getCount());
+        assertEquals(86_400_000L, days.get(1).getBucketStart());
+    }
+
+    @Test
+    void testSingleInsertsAndRebuildMatchBatches() {
+        myDBManager.insertFileEvent("01 Jan, 2025", "10:00:00", "late.txt", "/single",
+                "ENTRY_CREATE");
+        final Set<EventRollup.Dimension> everything = EnumSet.allOf(
+                EventRollup.Dimension.class);
+        final List<EventRollup> incremental = myDBManager.aggregateEvents(
+                EventRollup.Granularity.MINUTE, Long.MIN_VALUE, Long.MAX_VALUE, null,
+                everything, 0);
+        assertTrue(incremental.stream().anyMatch(theRow -> "/single".equals(
+                theRow.getDirectory())), "A single insert should be counted");
+
+        assertEquals(193, myDBManager.rebuildRollups());
+        assertEquals(incremental.toString(), myDBManager.aggregateEvents(
+                EventRollup.Granularity.MINUTE, Long.MIN_VALUE, Long.MAX_VALUE, null,
+                everything, 0).toString(), "A rebuild should count the same as the inserts");
+
+        myDBManager.clearDatabase();
+        assertEquals(0, myDBManager.aggregateEvents(EventRollup.Granularity.DAY,
+                Long.MIN_VALUE, Long.MAX_VALUE, null, everything, 0).size());
+    }
+
+    @Test
+    void testBucketsAndArguments() {
+        assertEquals(-60_000L, EventRollup.Granularity.MINUTE.bucketOf(-1));
+        assertEquals(HOUR, EventRollup.Granularity.HOUR.bucketOf(HOUR + 59_999));
+        assertThrows(IllegalArgumentException.class, () -> myDBManager.aggregateEvents(
+                null, 0, 1, null, Set.of(), 0));
+        assertThrows(IllegalArgumentException.class, () -> myDBManager.topExtensions(0, 1, -1));
+    }
+}
@@ -0,0 +1,212 @@
+import com.tcss.filewatcher.Common.Properties;
+import com.tcss.filewatcher.Model.BatchEventWriter;
+import com.tcss.filewatcher.Model.DataBaseManager;
+import com.tcss.filewatcher.Model.DirectoryEntry;
+import com.tcss.filewatcher.Model.EventRecord;
+import com.tcss.filewatcher.Model.EventRouter;
+import com.tcss.filewatcher.Model.FileEventType;
+import com.tcss.filewatcher.Model.FileExtensionHandler;
+import com.tcss.filewatcher.Model.SceneHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Unit tests for the EventRouter class.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+class EventRouterTest {
+
+    /**
+     * Watched test directory.
+     */
+    private static final String TEST_DIR = "/tmp/router-test";
+
+    /**
+     * The database the writer flushes to.
+     */
+    private DataBaseManager myDBManager;
+
+    /**
+     * The writer behind the router.
+     */
+    private BatchEventWriter myWriter;
+
+    /**
+     * The router under test.
+     */
+    private EventRouter myRouter;
+
+    /**
+     * Events published on the filtered stream.
+     */
+    private final List<DirectoryEntry> myPublished = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        myDBManager = new DataBaseManager(false);
+        myDBManager.clearDatabase();
+        myWriter = new BatchEventWriter(myDBManager);
+        myRouter = new EventRouter(myWriter);
+        myRouter.addPropertyChangeListener(theEvent -> {
+            if (Properties.FILTERED_FILE_EVENT.toString().equals(theEvent.getPropertyName())) {
+                myPublished.add((DirectoryEntry) theEvent.getNewValue());
+            }
+        });
+        SceneHandler.addMonitoredDirectory(TEST_DIR, ".txt");
+        myWriter.start();
+        myRouter.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        myRouter.shutdown();
+        myWriter.shutdown();
+        SceneHandler.removeMonitoredDirectory(TEST_DIR);
+        myDBManager.clearDatabase();
+    }
+
+    private DirectoryEntry entry(final String theFileName) {
+        return new DirectoryEntry("01 Jan, 2025", "10:00:00", theFileName, TEST_DIR,
+                "ENTRY_CREATE");
+    }
+
+    @Test
+    void testMatchingEventsArePersistedAndPublished() {
+        assertTrue(myRouter.route(entry("a.txt")));
+        assertTrue(myRouter.route(entry("b.txt")));
+        myRouter.shutdown();
+        myWriter.shutdown();
+
+        assertEquals(2, myPublished.size(), "Both events should be published");
+        assertEquals(2, myDBManager.getTableSize(), "Both events should be persisted");
+        assertEquals(2, myRouter.getAcceptedCount());
+    }
+
+    @Test
+    void testNonMatchingEventsAreFiltered() {
+        myRouter.route(entry("a.pdf"));
+        myRouter.route(entry(".DS_Store"));
+        myRouter.route(entry("c.txt"));
+        myRouter.shutdown();
+        myWriter.shutdown();
+
+        assertEquals(1, myPublished.size(), "Only the .txt event should be published");
+        assertEquals(1, myDBManager.getTableSize(), "Only the .txt event should be persisted");
+        assertEquals(2, myRouter.getFilteredCount());
+        assertEquals(3, myRouter.getReceivedCount());
+    }
+
+    @Test
+    void testSubdirectoryEventsAndExcludeRules() {
+        FileExtensionHandler.setFilterRules(List.of(), List.of("*.tmp~"));
+        try {
+            myRouter.route(new DirectoryEntry("01 Jan, 2025", "10:00:00", "a.txt",
+                    TEST_DIR + "/sub/dir", "ENTRY_CREATE"));
+            myRouter.route(entry("a.txt.tmp~"));
+            myRouter.shutdown();
+            myWriter.shutdown();
+        } finally {
+            FileExtensionHandler.setFilterRules(List.of(), List.of());
+        }
+
+        assertEquals(1, myPublished.size(), "The subdirectory event should use the root's rules");
+        assertEquals(1, myRouter.getFilteredCount(), "The excluded file should be filtered");
+    }
+
+    @Test
+    void testRouteWhenStopped() {
+        myRouter.shutdown();
+        assertFalse(myRouter.route(entry("a.txt")), "A stopped router should not accept events");
+        assertFalse(myRouter.route(null));
+    }
+
+    @Test
+    void testRecordsArePersistedAndPublished() {
+        final EventRecord record = EventRecord.of(1000, FileEventType.CREATED, TEST_DIR,
+                "a.txt", false);
+        assertTrue(myRouter.routeRecord(record));
+        assertFalse(myRouter.routeRecord(null));
+        myRouter.shutdown();
+        myWriter.shutdown();
+
+        assertEquals(1, myDBManager.getTableSize());
+        assertEquals(record, myPublished.getFirst().toRecord(),
+                "Subscribers should get a row for the record");
+    }
+
+    @Test
+    void testShutdownRoutesEveryAcceptedEvent() throws InterruptedException {
+        final List<Thread> callers = new ArrayList<>();
+        for (int c = 0; c < 4; c++) {
+            final Thread caller = new Thread(() -> {
+                for (int i = 0; i < 10_000 && myRouter.route(entry(i + ".txt")); i++) {
+                    // route until the router stops accepting
+                }
+            });
+            caller.start();
+            callers.add(caller);
+        }
+        Thread.sleep(50);
+        myRouter.shutdown();
+        for (final Thread caller : callers) {
+            caller.join(5000);
+            assertFalse(caller.isAlive(), "A caller should not block after shutdown");
+        }
+        myWriter.shutdown();
+
+        assertEquals(0, myRouter.getQueueDepth(), "No accepted event should stay queued");
+        assertEquals(myRouter.getReceivedCount(), myRouter.getAcceptedCount());
+        assertEquals(myRouter.getAcceptedCount(), myPublished.size(),
+                "Every accepted event should be published");
+        assertEquals(myRouter.getAcceptedCount(), myDBManager.getTableSize(),
+                "Every accepted event should be persisted");
+    }
+
+    @Test
+    void testRestartWhileLastWorkerDrains() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        // holds the worker after it submitted the first event
+        myRouter.addPropertyChangeListener(theEvent -> {
+            try {
+                release.await();
+            } catch (final InterruptedException theE) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(myRouter.route(entry("a.txt")));
+        assertTrue(myRouter.route(entry("b.txt")));
+        assertFalse(myRouter.shutdown(), "The worker should still be draining");
+
+        Thread.currentThread().interrupt();
+        assertThrows(IllegalStateException.class, myRouter::start);
+        assertTrue(Thread.interrupted(), "The interrupt should be kept");
+        assertFalse(myRouter.isRunning());
+
+        // a writer stopped too early refuses the rest of the queue
+        myWriter.shutdown();
+        release.countDown();
+        myRouter.start();
+        assertTrue(myRouter.shutdown());
+        assertEquals(1, myRouter.getDroppedCount(), "The refused event should be counted");
+        assertEquals(1, myDBManager.getTableSize());
+    }
+
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new EventRouter(null));
+        assertThrows(IllegalArgumentException.class, () -> new EventRouter(myWriter, 0));
+    }
+}
@@ -0,0 +1,186 @@
+import com.tcss.filewatcher.Model.ConnectionManager;
+import com.tcss.filewatcher.Model.DataBaseManager;
+import com.tcss.filewatcher.Model.DirectoryEntry;
+import com.tcss.filewatcher.Model.EventRollup;
+import com.tcss.filewatcher.Model.EventSchema;
+import com.tcss.filewatcher.Model.FileEventType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Unit tests for the EventSchema class.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+class EventSchemaTest {
+
+    /**
+     * Temporary directory for the test database.
+     */
+    @TempDir
+    Path myTempDir;
+
+    /**
+     * The connections to the test database.
+     */
+    private ConnectionManager myConnections;
+
+    @BeforeEach
+    void setUp() {
+        myConnections = ConnectionManager.getInstance("jdbc:sqlite:"
+                + myTempDir.resolve("schema.db"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        myConnections.close();
+    }
+
+    /**
+     * Creates a table the way version 1 did and fills it with rows.
+     */
+    private void createLegacyTable(final int theRows) throws SQLException {
+        try (ConnectionManager.Lease lease = myConnections.acquireWriter();
+             Statement stmt = lease.getConnection().createStatement()) {
+            stmt.executeUpdate("""
+                    CREATE TABLE filewatcher (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    event_date TEXT NOT NULL,
+                    event_time TEXT NOT NULL,
+                    file_name TEXT NOT NULL,
+                    absolute_path TEXT NOT NULL,
+                    event_type TEXT NOT NULL
+                    )""");
+            lease.getConnection().setAutoCommit(false);
+            for (int i = 0; i < theRows; i++) {
+                stmt.addBatch("INSERT INTO filewatcher (event_date, event_time, file_name, "
+                        + "absolute_path, event_type) VALUES ('0" + (1 + i % 9)
+                        + " Mar, 2025', '10:00:00', 'file" + i + ".TXT', '/legacy', "
+                        + "'ENTRY_MODIFY')");
+            }
+            stmt.executeBatch();
+            lease.getConnection().commit();
+            lease.getConnection().setAutoCommit(true);
+        }
+    }
+
+    private int userVersion() throws SQLException {
+        try (ConnectionManager.Lease lease = myConnections.acquireReader();
+             ResultSet rs = lease.prepare("PRAGMA user_version").executeQuery()) {
+            return rs.getInt(1);
+        }
+    }
+
+    @Test
+    void testNewDatabaseIsCurrent() throws SQLException {
+        final DataBaseManager manager = new DataBaseManager(false, myConnections);
+        assertTrue(manager.getSchema().isMigrated(), "An empty database needs no migration");
+        assertEquals(EventSchema.CURRENT_VERSION, userVersion());
+    }
+
+    @Test
+    void testLegacyRowsAreMigrated() throws SQLException, InterruptedException {
+        final int rows = EventSchema.MIGRATION_BATCH_SIZE * 2 + 17;
+        createLegacyTable(rows);
+
+        final DataBaseManager manager = new DataBaseManager(false, myConnections);
+        manager.insertFileEvent("05 Mar, 2025", "11:00:00", "new.txt", "/legacy",
+                "ENTRY_CREATE");
+        assertTrue(manager.getSchema().awaitMigration(30_000), "Migration should finish");
+
+        assertEquals(rows, manager.getSchema().getMigratedRowCount());
+        assertEquals(EventSchema.CURRENT_VERSION, userVersion());
+        assertEquals(rows + 1, manager.queryByExtension(".txt").size(),
+                "Migrated extensions should be lower case");
+
+        final List<DirectoryEntry> day = manager.queryByDateRange("05 Mar, 2025",
+                "05 Mar, 2025");
+        assertEquals(rows / 9 + 1, day.size(), "The range should cover the whole day");
+        assertEquals("new.txt", day.getLast().getFileName(), "Results should be in time order");
+        assertEquals(rows + 1, manager.aggregateEvents(EventRollup.Granularity.DAY,
+                        Long.MIN_VALUE, Long.MAX_VALUE, null, Set.of(), 0).getFirst().getCount(),
+                "Migrated rows should be counted in the rollups");
+    }
+
+    @Test
+    void testIndexesExist() throws SQLException {
+        new DataBaseManager(false, myConnections);
+        int count = 0;
+        try (ConnectionManager.Lease lease = myConnections.acquireReader();
+             ResultSet rs = lease.prepare("SELECT name FROM sqlite_master WHERE type = 'index' "
+                     + "AND tbl_name = 'filewatcher' AND name LIKE 'idx_%'").executeQuery()) {
+            while (rs.next()) {
+                count++;
+            }
+        }
+        assertEquals(3, count, "The timestamp, path and extension indexes should exist");
+    }
+
+    @Test
+    void testSynthesizedFlagIsStored() {
+        final DataBaseManager manager = new DataBaseManager(false, myConnections);
+        final DirectoryEntry recovered = new DirectoryEntry("01 Jan, 2025", "10:00:00",
+                "lost.txt", "/recovered", "ENTRY_CREATE");
+        recovered.setSynthesized(true);
+        manager.insertFileEvents(List.of(recovered, new DirectoryEntry("01 Jan, 2025",
+                "10:00:01", "seen.txt", "/recovered", "ENTRY_CREATE")));
+
+        final List<DirectoryEntry> results = manager.queryByDirectory("/recovered");
+        assertTrue(results.get(0).isSynthesized(), "The recovered event should stay marked");
+        assertFalse(results.get(1).isSynthesized(), "Reported events should not be marked");
+    }
+
+    @Test
+    void testToEpochMillis() {
+        final long expected = LocalDateTime.of(2025, 1, 2, 3, 4, 5)
+                .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        assertEquals(expected, EventSchema.toEpochMillis("02 Jan, 2025", "03:04:05"));
+        assertEquals(expected, EventSchema.toEpochMillis("2025-01-02", "03:04:05"));
+        assertEquals(0, EventSchema.toEpochMillis("not a date", "03:04:05"));
+        assertEquals(0, EventSchema.toEpochMillis(null, null));
+    }
+
+    @Test
+    void testExtensionOf() {
+        assertEquals(".txt", EventSchema.extensionOf("/a/b/Notes.TXT"));
+        assertEquals("", EventSchema.extensionOf("/a/b.dir/Makefile"));
+        assertEquals("", EventSchema.extensionOf(".DS_Store"));
+        assertEquals("", EventSchema.extensionOf(null));
+
+        final Locale locale = Locale.getDefault();
+        // lowercases 'I' to a dotless 'ı'
+        Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+        try {
+            assertEquals(".tif", EventSchema.extensionOf("SCAN.TIF"),
+                    "The extension should match the file name matcher's in every locale");
+        } finally {
+            Locale.setDefault(locale);
+        }
+    }
+
+    @Test
+    void testEventTypeCodes() {
+        assertEquals(FileEventType.CREATED, FileEventType.fromName("ENTRY_CREATE"));
+        assertEquals(FileEventType.DELETED, FileEventType.fromName("delete"));
+        assertEquals(FileEventType.UNKNOWN, FileEventType.fromName("RENAME"));
+        assertEquals(FileEventType.MODIFIED,
+                FileEventType.fromCode(FileEventType.MODIFIED.getCode()));
+    }
+}
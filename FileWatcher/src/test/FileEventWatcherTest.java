@@ -1,5 +1,8 @@
 import com.tcss.filewatcher.Common.Properties;
+import com.tcss.filewatcher.Model.BatchEventWriter;
+import com.tcss.filewatcher.Model.DataBaseManager;
 import com.tcss.filewatcher.Model.FileEventWatcher;
+import com.tcss.filewatcher.Model.RetentionPolicy;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -369,6 +372,41 @@ class FileEventWatcherTest {
         );
     }
 
+    @Test
+    void testWatchingAppliesRetention() throws IOException {
+        System.setProperty(RetentionPolicy.RAW_PROPERTY, "90d");
+        try {
+            myWatcher.addWatchPath(myTempDir.toString());
+            myWatcher.startWatching();
+            assertTrue(myWatcher.getRetentionScheduler().isRunning(),
+                    "Retention should be scheduled while watching");
+
+            myWatcher.stopWatching();
+            assertFalse(myWatcher.getRetentionScheduler().isRunning());
+        } finally {
+            System.clearProperty(RetentionPolicy.RAW_PROPERTY);
+        }
+    }
+
+    @Test
+    void testRetentionIsOffUnlessConfigured() throws IOException {
+        myWatcher.addWatchPath(myTempDir.toString());
+        myWatcher.startWatching();
+        assertNull(myWatcher.getRetentionScheduler(),
+                "History should not expire unless a retention property is set");
+        myWatcher.stopWatching();
+    }
+
+    @Test
+    void testSetEventWriterKeepsRouterListeners() {
+        myWatcher.getEventRouter().addPropertyChangeListener(myListener);
+        myWatcher.setEventWriter(new BatchEventWriter(new DataBaseManager(false)));
+
+        assertArrayEquals(new PropertyChangeListener[]{myListener},
+                myWatcher.getEventRouter().getPropertyChangeListeners(),
+                "Subscribers of the filtered events should move to the new router");
+    }
+
     @Test
     void testFileEventToString() {
         FileEventWatcher.FileEvent event = new FileEventWatcher.FileEvent(
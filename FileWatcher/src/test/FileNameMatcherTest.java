@@ -0,0 +1,135 @@
+import com.tcss.filewatcher.Model.FileNameMatcher;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the FileNameMatcher class.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+class FileNameMatcherTest {
+
+    /**
+     * The directory the files are in.
+     */
+    private static final String DIR = "/home/user/project";
+
+    @Test
+    void testExtensionsMatchFromTheEnd() {
+        final FileNameMatcher matcher = FileNameMatcher.ofExtensions(
+                List.of(".txt", "java", ".TAR.GZ", ".t"));
+
+        assertAll("Extensions",
+                () -> assertTrue(matcher.matchesExtension("notes.txt")),
+                () -> assertTrue(matcher.matchesExtension("Main.JAVA"), "Case is ignored"),
+                () -> assertTrue(matcher.matchesExtension("backup.tar.gz"),
+                        "Extensions with several dots match"),
+                () -> assertTrue(matcher.matchesExtension(".hidden.txt")),
+                () -> assertTrue(matcher.matchesExtension("a.t")),
+                () -> assertFalse(matcher.matchesExtension("not-really-txt"),
+                        "The dot is part of the extension"),
+                () -> assertFalse(matcher.matchesExtension("archive.gz")),
+                () -> assertFalse(matcher.matchesExtension("")),
+                () -> assertFalse(matcher.matchesExtension("README")));
+    }
+
+    @Test
+    void testAllExtensionsAndEmpty() {
+        assertTrue(FileNameMatcher.ofExtensions(List.of("All Extensions"))
+                .matchesExtension("README"));
+        assertFalse(FileNameMatcher.ofExtensions(List.of()).matchesExtension("a.txt"));
+        assertFalse(FileNameMatcher.ofExtensions(List.of("", "  ")).matchesExtension("README"),
+                "Blank extensions match nothing");
+    }
+
+    @Test
+    void testExtensionsKeepTheirOrderWithoutDuplicates() {
+        final FileNameMatcher matcher = FileNameMatcher.ofExtensions(
+                List.of(".pdf", ".txt", ".pdf"));
+
+        assertEquals(List.of(".pdf", ".txt"), matcher.getExtensions());
+        assertThrows(UnsupportedOperationException.class,
+                () -> matcher.getExtensions().add(".md"));
+    }
+
+    @Test
+    void testNameGlobs() {
+        final FileNameMatcher matcher = FileNameMatcher.ofRules(List.of(),
+                List.of("*.tmp~", ".DS_Store", "~$*", "core.[0-9]*", "?.bak"));
+
+        assertAll("Name globs",
+                () -> assertTrue(matcher.isExcluded(DIR, "report.tmp~")),
+                () -> assertTrue(matcher.isExcluded(DIR, ".ds_store"), "Case is ignored"),
+                () -> assertTrue(matcher.isExcluded(DIR, "~$budget.xlsx")),
+                () -> assertTrue(matcher.isExcluded(DIR, "core.1234")),
+                () -> assertTrue(matcher.isExcluded(DIR, "a.bak")),
+                () -> assertFalse(matcher.isExcluded(DIR, "ab.bak")),
+                () -> assertFalse(matcher.isExcluded(DIR, "core.dump")),
+                () -> assertFalse(matcher.isExcluded(DIR, "report.tmp")),
+                () -> assertFalse(matcher.isExcluded("/tmp", "report.txt")));
+    }
+
+    @Test
+    void testPathGlobs() {
+        final FileNameMatcher matcher = FileNameMatcher.ofRules(List.of(),
+                List.of("build/**", "**/.git/*", "/var/log/*.log", "target/classes/*.class"));
+
+        assertAll("Path globs",
+                () -> assertTrue(matcher.isExcluded(DIR + "/build", "out.jar")),
+                () -> assertTrue(matcher.isExcluded(DIR + "/build/a/b", "c.o"),
+                        "** crosses directories"),
+                () -> assertTrue(matcher.isExcluded(DIR + "/.git", "index")),
+                () -> assertFalse(matcher.isExcluded(DIR + "/.git/refs", "main"),
+                        "* does not cross directories"),
+                () -> assertTrue(matcher.isExcluded("/var/log", "syslog.log")),
+                () -> assertFalse(matcher.isExcluded("/home/var/log", "syslog.log"),
+                        "A leading slash anchors the glob"),
+                () -> assertTrue(matcher.isExcluded(DIR + "/target/classes", "A.class")),
+                () -> assertFalse(matcher.isExcluded(DIR + "/rebuild", "out.jar"),
+                        "Globs match whole directory names"),
+                () -> assertFalse(matcher.isExcluded(DIR, "build")));
+    }
+
+    @Test
+    void testRegexRules() {
+        final FileNameMatcher matcher = FileNameMatcher.ofRules(
+                List.of("regex:report-\\d{4}\\.csv"), List.of("regex:.*\\.sw[po]"));
+
+        assertTrue(matcher.isIncluded(DIR, "Report-2025.csv"));
+        assertFalse(matcher.isIncluded(DIR, "report-25.csv"));
+        assertTrue(matcher.isExcluded(DIR, ".notes.txt.swp"));
+        assertFalse(matcher.isExcluded(DIR, "notes.txt"));
+    }
+
+    @Test
+    void testMatchesCombinesRules() {
+        final FileNameMatcher matcher = FileNameMatcher.compile(List.of(".txt"),
+                List.of("Makefile"), List.of("draft-*"));
+
+        assertTrue(matcher.matches(DIR, "notes.txt"));
+        assertTrue(matcher.matches(DIR, "Makefile"), "Includes need no extension");
+        assertFalse(matcher.matches(DIR, "draft-notes.txt"), "Excludes win");
+        assertFalse(matcher.matches(DIR, "image.png"));
+        assertTrue(matcher.hasRules());
+        assertFalse(FileNameMatcher.ofExtensions(List.of(".txt")).hasRules());
+    }
+
+    @Test
+    void testInvalidRules() {
+        assertThrows(IllegalArgumentException.class,
+                () -> FileNameMatcher.ofRules(List.of("regex:(unclosed"), List.of()));
+        assertThrows(IllegalArgumentException.class,
+                () -> FileNameMatcher.ofRules(List.of(), List.of("[abc")));
+        assertThrows(IllegalArgumentException.class,
+                () -> FileNameMatcher.ofRules(List.of(), List.of("glob:")));
+        assertThrows(IllegalArgumentException.class,
+                () -> FileNameMatcher.compile(null, List.of(), List.of()));
+    }
+}
@@ -0,0 +1,165 @@
+import com.tcss.filewatcher.Controller.CSVExporter;
+import com.tcss.filewatcher.Model.ConnectionManager;
+import com.tcss.filewatcher.Model.DataBaseManager;
+import com.tcss.filewatcher.Model.DirectoryEntry;
+import com.tcss.filewatcher.Model.FlightRecording;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Unit tests for the FlightEvents and FlightRecording classes.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+class FlightEventsTest {
+
+    /**
+     * Temporary directory for the test database and recordings.
+     */
+    @TempDir
+    Path myTempDir;
+
+    /**
+     * The connections to the test database.
+     */
+    private ConnectionManager myConnections;
+
+    /**
+     * The database under test.
+     */
+    private DataBaseManager myDBManager;
+
+    @BeforeEach
+    void setUp() {
+        myConnections = ConnectionManager.getInstance("jdbc:sqlite:"
+                + myTempDir.resolve("jfr.db"));
+        myDBManager = new DataBaseManager(false, myConnections);
+    }
+
+    @AfterEach
+    void tearDown() {
+        myConnections.close();
+    }
+
+    /**
+     * Runs an action while recording every FileWatcher event, thresholds included.
+     *
+     * @param theAction the action.
+     * @return the recorded FileWatcher events.
+     */
+    private List<RecordedEvent> record(final ThrowingRunnable theAction) throws Exception {
+        final Path file = myTempDir.resolve("test.jfr");
+        try (Recording recording = new Recording()) {
+            for (final String name : new String[]{"WatchKey", "WatchEventFilter",
+                    "PropertyChangeDispatch", "DatabaseWrite", "DatabaseQuery", "CsvExport",
+                    "EmailSend"}) {
+                recording.enable("com.tcss.filewatcher." + name).withThreshold(Duration.ZERO);
+            }
+            recording.start();
+            theAction.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(theEvent -> theEvent.getEventType().getName()
+                        .startsWith("com.tcss.filewatcher."))
+                .toList();
+    }
+
+    /**
+     * Finds the first recorded event of a type.
+     *
+     * @param theEvents the recorded events.
+     * @param theName   the short event name.
+     * @return the event.
+     */
+    private static RecordedEvent first(final List<RecordedEvent> theEvents,
+                                       final String theName) {
+        return theEvents.stream()
+                .filter(theEvent -> theEvent.getEventType().getName()
+                        .equals("com.tcss.filewatcher." + theName))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No " + theName + " event recorded"));
+    }
+
+    @Test
+    void testDatabaseEventsAreRecorded() throws Exception {
+        final List<RecordedEvent> events = record(() -> {
+            myDBManager.insertFileEvents(List.of(new DirectoryEntry("01 Jan, 2025", "10:00:00",
+                    "a.txt", "/jfr/dir", "ENTRY_CREATE")));
+            myDBManager.queryByDirectory("/jfr");
+        });
+
+        final RecordedEvent write = first(events, "DatabaseWrite");
+        assertEquals("/jfr/dir", write.getString("path"));
+        assertEquals("ENTRY_CREATE", write.getString("kind"));
+        assertEquals(1, write.getInt("rows"));
+        assertTrue(write.getDuration().compareTo(write.getDuration("commitDuration")) >= 0,
+                "The commit is part of the write");
+
+        final RecordedEvent query = first(events, "DatabaseQuery");
+        assertEquals("directory", query.getString("query"));
+        assertEquals("/jfr", query.getString("path"));
+        assertEquals(1, query.getInt("rows"));
+    }
+
+    @Test
+    void testCsvExportIsRecorded() throws Exception {
+        final Path csv = myTempDir.resolve("export.csv");
+        final List<RecordedEvent> events = record(() -> CSVExporter.exportToCSV(
+                List.of(new DirectoryEntry("01 Jan, 2025", "10:00:00", "a.txt", "/jfr",
+                        "ENTRY_CREATE")), csv, "test"));
+
+        final RecordedEvent export = first(events, "CsvExport");
+        assertEquals(csv.toString(), export.getString("path"));
+        assertEquals(1, export.getInt("rows"));
+    }
+
+    @Test
+    void testContinuousRecordingIsOffByDefault() throws IOException {
+        System.clearProperty(FlightRecording.DIRECTORY_PROPERTY);
+        assertFalse(FlightRecording.startFromSystemProperties());
+        assertFalse(FlightRecording.isRecording());
+        assertFalse(FlightRecording.dump(myTempDir.resolve("none.jfr")),
+                "Nothing to dump without a recording");
+    }
+
+    @Test
+    void testContinuousRecordingRejectsInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> FlightRecording.start(myTempDir,
+                Duration.ZERO, 1024));
+        assertThrows(IllegalArgumentException.class, () -> FlightRecording.start(myTempDir,
+                Duration.ofHours(1), 0));
+        assertFalse(FlightRecording.isRecording());
+    }
+
+    /**
+     * An action that may throw.
+     */
+    @FunctionalInterface
+    private interface ThrowingRunnable {
+
+        /**
+         * Runs the action.
+         *
+         * @throws Exception if the action fails.
+         */
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,46 @@
+import com.tcss.filewatcher.Model.LatencyHistogram;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for the LatencyHistogram class.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+class LatencyHistogramTest {
+
+    @Test
+    void testObservationsLandInCumulativeBuckets() {
+        final LatencyHistogram histogram = new LatencyHistogram(0.001, 0.01, 0.1);
+        histogram.record(TimeUnit.MICROSECONDS.toNanos(500));
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(1));
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(5));
+        histogram.record(TimeUnit.SECONDS.toNanos(1));
+
+        assertArrayEquals(new long[]{2, 3, 3, 4}, histogram.getCumulativeCounts(),
+                "A bound is inclusive and larger values go to the last bucket");
+        assertEquals(4, histogram.getCount());
+        assertEquals(1.0065, histogram.getSumSeconds(), 1e-9);
+    }
+
+    @Test
+    void testNegativeLatencyCountsAsZero() {
+        final LatencyHistogram histogram = new LatencyHistogram(0.001);
+        histogram.record(-5);
+        assertArrayEquals(new long[]{1, 1}, histogram.getCumulativeCounts());
+        assertEquals(0, histogram.getSumSeconds());
+    }
+
+    @Test
+    void testInvalidBounds() {
+        assertThrows(IllegalArgumentException.class, LatencyHistogram::new);
+        assertThrows(IllegalArgumentException.class, () -> new LatencyHistogram(0.1, 0.1));
+        assertThrows(IllegalArgumentException.class, () -> new LatencyHistogram(1, 0.5));
+    }
+}
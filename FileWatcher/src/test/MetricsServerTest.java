@@ -0,0 +1,118 @@
+import com.tcss.filewatcher.Model.FileEventWatcher;
+import com.tcss.filewatcher.Model.MetricsServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Unit tests for the MetricsServer class.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+class MetricsServerTest {
+
+    /**
+     * The server under test, on a free port.
+     */
+    private MetricsServer myServer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        myServer = new MetricsServer(0);
+        myServer.setWatcher(new FileEventWatcher(false));
+        myServer.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        myServer.stop();
+    }
+
+    /**
+     * Fetches a path from the server.
+     *
+     * @param thePath the path and query.
+     * @return the connection, with the response available.
+     * @throws IOException if the request fails.
+     */
+    private HttpURLConnection get(final String thePath) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) URI.create(
+                "http://127.0.0.1:" + myServer.getPort() + thePath).toURL().openConnection();
+        connection.setConnectTimeout(5000);
+        connection.setReadTimeout(5000);
+        return connection;
+    }
+
+    /**
+     * Reads a response body.
+     *
+     * @param theConnection the connection.
+     * @return the body.
+     * @throws IOException if it cannot be read.
+     */
+    private static String body(final HttpURLConnection theConnection) throws IOException {
+        try (InputStream in = theConnection.getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    void testPrometheusFormat() throws IOException {
+        final HttpURLConnection connection = get("/metrics");
+        assertEquals(200, connection.getResponseCode());
+        assertTrue(connection.getContentType().startsWith("text/plain; version=0.0.4"));
+
+        final String text = body(connection);
+        assertTrue(text.contains("# TYPE filewatcher_events_received_total counter\n"
+                + "filewatcher_events_received_total 0\n"), text);
+        assertTrue(text.contains("filewatcher_queue_depth{stage=\"writer\"} 0\n"), text);
+        assertTrue(text.contains("filewatcher_db_write_seconds_bucket{le=\"+Inf\"} 0\n"), text);
+        assertTrue(text.contains("filewatcher_email_send_seconds_count"), text);
+        assertTrue(text.contains("filewatcher_watch_keys 0\n"), text);
+        assertTrue(text.contains("jvm_memory_heap_bytes{area=\"used\"}"), text);
+        assertTrue(text.contains("jvm_gc_collections_total{gc=\""), text);
+    }
+
+    @Test
+    void testJsonFormat() throws IOException {
+        final String json = body(get("/metrics.json"));
+        assertTrue(json.startsWith("{") && json.trim().endsWith("}"), json);
+        assertTrue(json.contains("\"filewatcher_events_persisted_per_second\": 0"), json);
+        assertTrue(json.contains("\"filewatcher_queue_depth\": {\"coalescer\": 0, "
+                + "\"router\": 0, \"writer\": 0}"), json);
+        assertTrue(json.contains("\"filewatcher_db_write_seconds\": {\"count\": 0"), json);
+
+        assertTrue(body(get("/metrics?format=json")).contains("\"filewatcher_watching\": 0"),
+                "The query parameter should select JSON");
+    }
+
+    @Test
+    void testOnlyGetIsAllowed() throws IOException {
+        final HttpURLConnection connection = get("/metrics");
+        connection.setRequestMethod("DELETE");
+        assertEquals(405, connection.getResponseCode());
+    }
+
+    @Test
+    void testWithoutWatcher() {
+        myServer.setWatcher(null);
+        assertTrue(myServer.renderPrometheus().contains("filewatcher_watching 0\n"));
+    }
+
+    @Test
+    void testInvalidPort() {
+        assertThrows(IllegalArgumentException.class, () -> new MetricsServer(-1));
+        assertThrows(IllegalArgumentException.class, () -> new MetricsServer(70000));
+    }
+}
@@ -0,0 +1,125 @@
+import com.tcss.filewatcher.Model.PathTrie;
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.UnaryOperator;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the PathTrie class.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+class PathTrieTest {
+
+    /**
+     * Builds a path from components with the platform separator.
+     */
+    private static String path(final String... theNames) {
+        return File.separator + String.join(File.separator, theNames);
+    }
+
+    @Test
+    void testGetIsExact() {
+        final PathTrie<String> trie = new PathTrie<>();
+        trie.put(path("home", "docs"), "docs");
+
+        assertEquals("docs", trie.get(path("home", "docs")));
+        assertNull(trie.get(path("home")), "A directory above has no value");
+        assertNull(trie.get(path("home", "docs", "a")), "A directory below has no value");
+    }
+
+    @Test
+    void testFindNearestPicksMostSpecificAncestor() {
+        final PathTrie<String> trie = new PathTrie<>();
+        trie.put(path("home"), "home");
+        trie.put(path("home", "docs"), "docs");
+
+        assertEquals("docs", trie.findNearest(path("home", "docs", "a", "b")));
+        assertEquals("docs", trie.findNearest(path("home", "docs")));
+        assertEquals("home", trie.findNearest(path("home", "music")));
+        assertNull(trie.findNearest(path("var", "log")));
+    }
+
+    @Test
+    void testRemoveKeepsDirectoriesBelow() {
+        final PathTrie<String> trie = new PathTrie<>();
+        trie.put(path("home"), "home");
+        trie.put(path("home", "docs"), "docs");
+
+        trie.remove(path("home"));
+
+        assertNull(trie.findNearest(path("home", "music")));
+        assertEquals("docs", trie.findNearest(path("home", "docs", "a")));
+        trie.remove(path("home", "docs"));
+        assertTrue(trie.isEmpty(), "Empty branches should be pruned");
+    }
+
+    @Test
+    void testComputeSeesCurrentValue() {
+        final PathTrie<Integer> trie = new PathTrie<>();
+        trie.compute(path("a"), theOld -> theOld == null ? 1 : theOld + 1);
+        trie.compute(path("a"), theOld -> theOld == null ? 1 : theOld + 1);
+
+        assertEquals(2, trie.get(path("a")));
+        trie.compute(path("a"), theOld -> null);
+        assertNull(trie.get(path("a")));
+    }
+
+    @Test
+    void testComputeAllAndClear() {
+        final PathTrie<String> trie = new PathTrie<>();
+        final Map<String, UnaryOperator<String>> changes = Map.of(
+                path("a"), theOld -> "a",
+                path("a", "b"), theOld -> "b",
+                path("c"), theOld -> "c");
+        trie.computeAll(changes);
+
+        assertEquals("b", trie.findNearest(path("a", "b", "x")));
+        assertEquals("c", trie.get(path("c")));
+        trie.clear();
+        assertTrue(trie.isEmpty());
+    }
+
+    @Test
+    void testRepeatedSeparatorsAreIgnored() {
+        final PathTrie<String> trie = new PathTrie<>();
+        trie.put(path("a", "b"), "b");
+
+        assertEquals("b", trie.get(File.separator + "a" + File.separator + File.separator + "b"
+                + File.separator));
+    }
+
+    @Test
+    void testReadsDuringWrites() throws InterruptedException {
+        final PathTrie<String> trie = new PathTrie<>();
+        trie.put(path("root"), "root");
+        final AtomicBoolean failed = new AtomicBoolean();
+        final CountDownLatch done = new CountDownLatch(1);
+
+        final Thread reader = new Thread(() -> {
+            while (done.getCount() > 0) {
+                if (!"root".equals(trie.findNearest(path("root", "x", "y")))) {
+                    failed.set(true);
+                }
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 2_000; i++) {
+            trie.put(path("other", String.valueOf(i)), "v");
+            trie.remove(path("other", String.valueOf(i - 1)));
+        }
+        done.countDown();
+        reader.join(TimeUnit.SECONDS.toMillis(5));
+
+        assertFalse(failed.get(), "Readers should always see the unchanged root");
+    }
+}
@@ -0,0 +1,189 @@
+import com.tcss.filewatcher.Model.ConnectionManager;
+import com.tcss.filewatcher.Model.DataBaseManager;
+import com.tcss.filewatcher.Model.EventQuery;
+import com.tcss.filewatcher.Model.EventRecord;
+import com.tcss.filewatcher.Model.FileEventType;
+import com.tcss.filewatcher.Model.QueryService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for the QueryService class.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+class QueryServiceTest {
+
+    /**
+     * The number of events in the test database.
+     */
+    private static final int EVENT_COUNT = 1000;
+
+    /**
+     * A folder for the test database.
+     */
+    @TempDir
+    Path myTempDir;
+
+    /**
+     * The connections of the test database.
+     */
+    private ConnectionManager myConnections;
+
+    /**
+     * The database the events are written with.
+     */
+    private DataBaseManager myDBManager;
+
+    /**
+     * The service under test.
+     */
+    private QueryService myService;
+
+    @BeforeEach
+    void setUp() {
+        myConnections = ConnectionManager.getInstance("jdbc:sqlite:"
+                + myTempDir.resolve("service.db"));
+        myDBManager = new DataBaseManager(false, myConnections);
+        final List<EventRecord> batch = new ArrayList<>();
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            batch.add(EventRecord.of(i * 1000L, FileEventType.CREATED,
+                    i % 2 == 0 ? "/even" : "/odd", "file" + i + ".txt", false));
+        }
+        myDBManager.insertEventRecords(batch);
+        myService = new QueryService(myConnections);
+    }
+
+    @AfterEach
+    void tearDown() {
+        myService.close();
+        myConnections.close();
+    }
+
+    @Test
+    void testCount() throws Exception {
+        final QueryService.QueryTask<Long> task =
+                myService.count(EventQuery.all().inDirectory("/even"));
+
+        assertEquals(EVENT_COUNT / 2, task.get(10, TimeUnit.SECONDS));
+        assertEquals(EVENT_COUNT / 2, task.getRowCount());
+        assertTrue(task.getRunMillis() >= 0 && task.getWaitMillis() >= 0);
+    }
+
+    @Test
+    void testStreamDeliversChunksInOrder() throws Exception {
+        final List<Integer> sizes = Collections.synchronizedList(new ArrayList<>());
+        final List<EventRecord> records = Collections.synchronizedList(new ArrayList<>());
+        final QueryService.QueryTask<Long> task = myService.stream(EventQuery.all(), 300,
+                theChunk -> {
+                    sizes.add(theChunk.size());
+                    records.addAll(theChunk);
+                });
+
+        assertEquals(EVENT_COUNT, task.get(10, TimeUnit.SECONDS));
+        assertEquals(List.of(300, 300, 300, 100), sizes);
+        assertEquals(myDBManager.getAllRecords(), records);
+    }
+
+    @Test
+    void testNewQuerySupersedesRunningQuery() throws Exception {
+        final CountDownLatch firstChunk = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<Integer> chunks = Collections.synchronizedList(new ArrayList<>());
+        final QueryService.QueryTask<Long> slow = myService.stream(EventQuery.all(), 10,
+                theChunk -> {
+                    chunks.add(theChunk.size());
+                    firstChunk.countDown();
+                    try {
+                        release.await();
+                    } catch (final InterruptedException theE) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+        assertTrue(firstChunk.await(10, TimeUnit.SECONDS));
+
+        final CompletableFuture<Long> done = new CompletableFuture<>();
+        final QueryService.QueryTask<Long> latest = myService.count(EventQuery.all())
+                .whenDone(theTask -> done.complete(theTask.getRowCount()));
+        assertTrue(slow.isCancelled(), "The older query should be cancelled");
+        assertFalse(latest.isDone(), "The worker is still busy with the older query");
+        release.countDown();
+
+        assertEquals(EVENT_COUNT, done.get(10, TimeUnit.SECONDS));
+        assertEquals(1, chunks.size(), "No chunk follows the cancellation");
+        assertThrows(CancellationException.class, slow::get);
+    }
+
+    @Test
+    void testPagesDoNotSupersedeOtherQueries() throws Exception {
+        final EventQuery query = EventQuery.all().inDirectory("/even");
+        final List<EventRecord> even = myDBManager.queryRecords(query);
+        final QueryService.QueryTask<Long> count = myService.count(EventQuery.all());
+        final QueryService.QueryTask<List<EventRecord>> skipped = myService.page(query,
+                Long.MIN_VALUE, Long.MIN_VALUE, 100, 50);
+        final EventRecord known = even.get(150);
+        final QueryService.QueryTask<List<EventRecord>> after = myService.page(query,
+                known.getTimestamp(), known.getId(), 0, 10);
+
+        assertEquals(EVENT_COUNT, count.get(10, TimeUnit.SECONDS), "The count still runs");
+        assertEquals(even.subList(100, 150), skipped.get(10, TimeUnit.SECONDS));
+        assertEquals(50, skipped.getRowCount());
+        assertEquals(even.subList(151, 161), after.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testInterruptStopsRunningStatement() throws Exception {
+        try (ConnectionManager.Lease lease = myConnections.openDedicatedReader()) {
+            final CompletableFuture<Throwable> failure = CompletableFuture.supplyAsync(() -> {
+                try (ResultSet rs = lease.prepare("WITH RECURSIVE n(x) AS (SELECT 1 "
+                        + "UNION ALL SELECT x + 1 FROM n) SELECT COUNT(*) FROM n")
+                        .executeQuery()) {
+                    rs.next();
+                    return null;
+                } catch (final SQLException theE) {
+                    return theE;
+                }
+            });
+            // the statement may not have started yet, so keep interrupting until it stops
+            for (int i = 0; i < 500 && !failure.isDone(); i++) {
+                lease.interrupt();
+                Thread.sleep(20);
+            }
+            assertTrue(failure.get(10, TimeUnit.SECONDS) instanceof SQLException,
+                    "The endless statement should be interrupted");
+        }
+    }
+
+    @Test
+    void testInvalidUse() {
+        assertThrows(IllegalArgumentException.class, () -> new QueryService(null));
+        assertThrows(IllegalArgumentException.class, () -> myService.count(null));
+        assertThrows(IllegalArgumentException.class,
+                () -> myService.stream(EventQuery.all(), 0, theChunk -> { }));
+        assertThrows(IllegalArgumentException.class,
+                () -> myService.page(EventQuery.all(), 0, 0, -1, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> myService.page(EventQuery.all(), 0, 0, 0, 0));
+        myService.close();
+        assertThrows(IllegalStateException.class, () -> myService.count(EventQuery.all()));
+    }
+}
@@ -3,8 +3,10 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.logging.Handler;
 import java.util.logging.Level;
 import java.util.logging.LogRecord;
@@ -274,6 +276,51 @@ class SceneHandlerTest {
         );
     }
 
+    @Test
+    void testSubdirectoryUsesClosestMonitoredDirectory() {
+        String root = "/nested/root";
+        String child = "/nested/root/child";
+
+        SceneHandler.addMonitoredDirectory(root, ".txt");
+        SceneHandler.addMonitoredDirectory(child, ".pdf");
+
+        assertAll("Closest monitored directory",
+                () -> assertEquals(List.of(".txt"), SceneHandler.getExtensionsFromDir(
+                        "/nested/root/a/b"), "Should use the watched root's rules"),
+                () -> assertEquals(List.of(".pdf"), SceneHandler.getExtensionsFromDir(
+                        "/nested/root/child/c"), "Should use the most specific rules"),
+                () -> assertNull(SceneHandler.getMonitoredExtensions("/nested/root/a"),
+                        "Exact lookup should ignore directories above"),
+                () -> assertNull(SceneHandler.getExtensionsFromDir("/nested"),
+                        "Directories above a root have no rules"));
+
+        SceneHandler.removeMonitoredDirectory(child);
+        assertEquals(List.of(".txt"), SceneHandler.getExtensionsFromDir(child));
+        SceneHandler.removeMonitoredDirectory(root);
+        assertNull(SceneHandler.getExtensionsFromDir(child));
+    }
+
+    @Test
+    void testDirectoriesMatchInAnyCaseInEveryLocale() {
+        Locale locale = Locale.getDefault();
+        // lowercases 'I' to a dotless 'ı'
+        Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+        try {
+            SceneHandler.addMonitoredDirectory("/TITLE/Images", ".png");
+
+            assertAll("Case-insensitive lookups",
+                    () -> assertEquals(List.of(".png"),
+                            SceneHandler.getMonitoredExtensions("/title/images")),
+                    () -> assertNotNull(SceneHandler.getRulesFromDir(Path.of(
+                                    "/Title/IMAGES/icons").toString()),
+                            "Events below the directory should find its rules"));
+            SceneHandler.removeMonitoredDirectory("/title/images");
+            assertNull(SceneHandler.getRulesFromDir(Path.of("/TITLE/Images").toString()));
+        } finally {
+            Locale.setDefault(locale);
+        }
+    }
+
     /**
      * Test implementation of SceneHandler for testing purposes.
      */
@@ -0,0 +1,152 @@
+import com.tcss.filewatcher.Model.WatchKeyIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.Watchable;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Unit tests for the WatchKeyIndex class.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+class WatchKeyIndexTest {
+
+    /**
+     * The index under test.
+     */
+    private WatchKeyIndex myIndex;
+
+    /**
+     * A watch key that only remembers whether it was cancelled.
+     */
+    private static final class TestKey implements WatchKey {
+
+        /**
+         * Whether cancel was called.
+         */
+        private boolean myIsCancelled;
+
+        @Override
+        public boolean isValid() {
+            return !myIsCancelled;
+        }
+
+        @Override
+        public List<WatchEvent<?>> pollEvents() {
+            return List.of();
+        }
+
+        @Override
+        public boolean reset() {
+            return isValid();
+        }
+
+        @Override
+        public void cancel() {
+            myIsCancelled = true;
+        }
+
+        @Override
+        public Watchable watchable() {
+            return null;
+        }
+    }
+
+    private TestKey register(final String thePath) {
+        final TestKey key = new TestKey();
+        myIndex.put(Path.of(thePath), key);
+        return key;
+    }
+
+    @BeforeEach
+    void setUp() {
+        myIndex = new WatchKeyIndex();
+    }
+
+    @Test
+    void testLookupBothWays() {
+        final TestKey key = register("/repo/src");
+        assertEquals(Path.of("/repo/src"), myIndex.getPath(key));
+        assertSame(key, myIndex.getKey(Path.of("/repo/src")));
+        assertNull(myIndex.getKey(Path.of("/repo")), "Intermediate paths have no key");
+    }
+
+    @Test
+    void testRemoveSubtreeCancelsEveryKey() {
+        final TestKey root = register("/repo");
+        final TestKey src = register("/repo/src");
+        final TestKey deep = register("/repo/src/main/java");
+        final TestKey other = register("/other");
+
+        final List<Path> removed = myIndex.removeSubtree(Path.of("/repo"), Set.of());
+        assertEquals(3, removed.size());
+        assertFalse(root.isValid());
+        assertFalse(src.isValid());
+        assertFalse(deep.isValid());
+        assertTrue(other.isValid(), "Keys outside the subtree should stay registered");
+        assertEquals(1, myIndex.size());
+        assertNull(myIndex.getPath(deep));
+    }
+
+    @Test
+    void testNestedRootIsKept() {
+        register("/repo");
+        final TestKey nested = register("/repo/lib");
+        final TestKey below = register("/repo/lib/util");
+
+        myIndex.removeSubtree(Path.of("/repo"), Set.of(Path.of("/repo/lib")));
+        assertTrue(nested.isValid());
+        assertTrue(below.isValid());
+        assertEquals(2, myIndex.countUnder(Path.of("/repo/lib")));
+    }
+
+    @Test
+    void testCountUnder() {
+        register("/repo");
+        register("/repo/a");
+        register("/repo/a/b");
+        register("/repo/c");
+        assertEquals(4, myIndex.countUnder(Path.of("/repo")));
+        assertEquals(2, myIndex.countUnder(Path.of("/repo/a")));
+        assertEquals(0, myIndex.countUnder(Path.of("/missing")));
+    }
+
+    @Test
+    void testRemoveSingleKey() {
+        final TestKey key = register("/repo/a");
+        register("/repo/a/b");
+        assertEquals(Path.of("/repo/a"), myIndex.remove(key));
+        assertEquals(1, myIndex.countUnder(Path.of("/repo")));
+        assertTrue(key.isValid(), "remove should not cancel the key");
+        assertNull(myIndex.remove(key));
+    }
+
+    @Test
+    void testReplacingKeyKeepsCount() {
+        final TestKey first = register("/repo");
+        final TestKey second = register("/repo");
+        assertEquals(1, myIndex.countUnder(Path.of("/repo")));
+        assertNull(myIndex.getPath(first));
+        assertSame(second, myIndex.getKey(Path.of("/repo")));
+    }
+
+    @Test
+    void testClear() {
+        register("/repo");
+        myIndex.clear();
+        assertTrue(myIndex.isEmpty());
+        assertEquals(0, myIndex.countUnder(Path.of("/repo")));
+    }
+}
@@ -0,0 +1,150 @@
+import com.tcss.filewatcher.Model.BatchEventWriter;
+import com.tcss.filewatcher.Model.ConnectionManager;
+import com.tcss.filewatcher.Model.DataBaseManager;
+import com.tcss.filewatcher.Model.DirectoryEntry;
+import com.tcss.filewatcher.Model.FileDirectoryDataBase;
+import com.tcss.filewatcher.Model.FileEventWatcher;
+import com.tcss.filewatcher.Model.SceneHandler;
+import com.tcss.filewatcher.Model.WatchListRestore;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the WatchListRestore class.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+class WatchListRestoreTest {
+
+    /**
+     * The saved date of every watch list row.
+     */
+    private static final String DATE = "01 Jan, 2025";
+
+    /**
+     * The saved time of every watch list row.
+     */
+    private static final String TIME = "10:00:00";
+
+    /**
+     * Temporary directory for the database and watched directories.
+     */
+    @TempDir
+    Path myTempDir;
+
+    /**
+     * The connections to the test database.
+     */
+    private ConnectionManager myConnections;
+
+    /**
+     * The saved watch list.
+     */
+    private FileDirectoryDataBase myWatchList;
+
+    /**
+     * The watcher the list is restored into.
+     */
+    private FileEventWatcher myWatcher;
+
+    @BeforeEach
+    void setUp() {
+        myConnections = ConnectionManager.getInstance("jdbc:sqlite:"
+                + myTempDir.resolve("restore.db"));
+        myWatchList = new FileDirectoryDataBase(false, myConnections);
+        myWatcher = new FileEventWatcher(false);
+        myWatcher.setEventWriter(new BatchEventWriter(new DataBaseManager(false, myConnections)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        myWatcher.stopWatching();
+        myConnections.close();
+    }
+
+    private Path save(final String theName, final String theExtension) throws IOException {
+        final Path dir = Files.createDirectories(myTempDir.resolve(theName));
+        myWatchList.insertDirectory(DATE, TIME, theExtension, dir.toString());
+        return dir;
+    }
+
+    @Test
+    void testRowsAreGroupedByRoot() throws IOException {
+        final Path docs = save("docs", ".txt");
+        save("docs", ".PDF");
+        final Path all = save("all", "All Extensions");
+        myWatchList.insertDirectory(DATE, TIME, ".log", myTempDir.resolve("gone").toString());
+
+        final WatchListRestore restore = WatchListRestore.read(myWatchList);
+
+        assertEquals(4, restore.getEntries().size());
+        assertEquals(List.of(all, docs), restore.getRoots());
+        assertEquals(List.of(myTempDir.resolve("gone")), restore.getMissingRoots());
+        assertEquals(Set.of(".txt", ".PDF"), restore.getRules().get(docs));
+        assertEquals(Set.of(".txt", ".pdf", ".log"), restore.getWatchedExtensions(),
+                "All Extensions is not a filter and the rest are lowercased");
+    }
+
+    @Test
+    void testRulesArePublishedToSceneHandler() throws IOException {
+        final Path docs = save("rules", ".md");
+        save("rules", ".csv");
+
+        WatchListRestore.read(myWatchList).registerRules();
+
+        final List<String> extensions = SceneHandler.getExtensionsFromDir(docs.toString());
+        assertTrue(extensions.contains(".md") && extensions.contains(".csv"), extensions.toString());
+        SceneHandler.removeMonitoredDirectory(docs.toString());
+    }
+
+    @Test
+    void testNestedRootsAreWalkedOnce() throws IOException {
+        final Path outer = save("outer", "All Extensions");
+        Files.createDirectories(outer.resolve("a/b"));
+        save("outer/a", ".txt");
+        save("outer/a/b", ".txt");
+        save("elsewhere", ".txt");
+
+        final WatchListRestore restore = WatchListRestore.read(myWatchList);
+        restore.applyTo(myWatcher);
+        myWatcher.startWatching();
+
+        assertTrue(restore.awaitReady(myWatcher, 10_000) >= 0, "Registration should finish");
+        assertEquals(2, restore.getNestedRootCount(myWatcher));
+        assertEquals(4, myWatcher.getWatchedPaths().size(), "Every root is still watched");
+        // outer, outer/a, outer/a/b and elsewhere, each registered once
+        assertEquals(4, myWatcher.getWatchKeyCount());
+        assertEquals(4, myWatcher.getDirectoryRegistrar().getRegisteredCount());
+    }
+
+    @Test
+    void testMissingRootsDoNotStopTheWatcher() throws IOException {
+        save("present", ".txt");
+        myWatchList.insertDirectory(DATE, TIME, ".txt", myTempDir.resolve("absent").toString());
+
+        WatchListRestore.read(myWatchList).applyTo(myWatcher);
+        myWatcher.startWatching();
+
+        assertTrue(myWatcher.isWatching());
+        assertEquals(1, myWatcher.getWatchedPaths().size());
+    }
+
+    @Test
+    void testNullArguments() {
+        assertThrows(IllegalArgumentException.class, () -> WatchListRestore.read(null));
+        assertThrows(IllegalArgumentException.class, () -> WatchListRestore.of(null));
+        assertEquals(0, WatchListRestore.of(List.<DirectoryEntry>of()).getRoots().size());
+    }
+}
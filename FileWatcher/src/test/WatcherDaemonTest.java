@@ -0,0 +1,235 @@
+import com.tcss.filewatcher.Controller.WatcherDaemon;
+import com.tcss.filewatcher.Model.BatchEventWriter;
+import com.tcss.filewatcher.Model.ConnectionManager;
+import com.tcss.filewatcher.Model.DataBaseManager;
+import com.tcss.filewatcher.Model.FileDirectoryDataBase;
+import com.tcss.filewatcher.Model.FileEventWatcher;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the WatcherDaemon class.
+ *
+ * @author Kassie Whitney
+ * @version 10.17.26
+ */
+class WatcherDaemonTest {
+
+    /**
+     * The saved date of every watch list row.
+     */
+    private static final String DATE = "01 Jan, 2025";
+
+    /**
+     * The saved time of every watch list row.
+     */
+    private static final String TIME = "10:00:00";
+
+    /**
+     * Temporary directory for the database, socket and watched directories.
+     */
+    @TempDir
+    Path myTempDir;
+
+    /**
+     * The connections to the test database.
+     */
+    private ConnectionManager myConnections;
+
+    /**
+     * The saved watch list.
+     */
+    private FileDirectoryDataBase myWatchList;
+
+    /**
+     * The event store.
+     */
+    private DataBaseManager myEvents;
+
+    /**
+     * The control socket.
+     */
+    private Path mySocket;
+
+    /**
+     * The daemon under test.
+     */
+    private WatcherDaemon myDaemon;
+
+    @BeforeEach
+    void setUp() {
+        myConnections = ConnectionManager.getInstance("jdbc:sqlite:"
+                + myTempDir.resolve("daemon.db"));
+        myWatchList = new FileDirectoryDataBase(false, myConnections);
+        myEvents = new DataBaseManager(false, myConnections);
+        mySocket = myTempDir.resolve("ctl.sock");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (myDaemon != null) {
+            myDaemon.stop();
+        }
+        myConnections.close();
+    }
+
+    private WatcherDaemon newDaemon(final Path theSocket) {
+        final FileEventWatcher watcher = new FileEventWatcher(false);
+        watcher.setEventWriter(new BatchEventWriter(myEvents));
+        return new WatcherDaemon(myWatchList, myEvents, watcher, theSocket, null);
+    }
+
+    private Path savedDirectory(final String theName) throws IOException {
+        final Path dir = Files.createDirectories(myTempDir.resolve(theName));
+        myWatchList.insertDirectory(DATE, TIME, "All Extensions", dir.toString());
+        return dir;
+    }
+
+    private String control(final String theCommand) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        WatcherDaemon.sendCommand(mySocket, theCommand,
+                new PrintStream(out, true, StandardCharsets.UTF_8));
+        return out.toString(StandardCharsets.UTF_8).trim();
+    }
+
+    private static boolean waitFor(final BooleanSupplier theCondition)
+            throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 10_000;
+        while (!theCondition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(20);
+        }
+        return true;
+    }
+
+    @Test
+    void testStartLoadsSavedWatchList() throws IOException, InterruptedException {
+        savedDirectory("one");
+        savedDirectory("two");
+        myWatchList.insertDirectory(DATE, TIME, ".txt",
+                myTempDir.resolve("missing").toString());
+
+        myDaemon = newDaemon(null);
+        myDaemon.start();
+
+        assertTrue(myDaemon.isRunning());
+        assertEquals(2, myDaemon.getRootCount(), "Both existing roots should be watched");
+        assertEquals(1, myDaemon.getMissingRootCount(), "The missing root should be skipped");
+        assertTrue(waitFor(() -> myDaemon.getReadyMillis() >= 0),
+                "The time to ready should be reported");
+    }
+
+    @Test
+    void testEventsArePersisted() throws IOException, InterruptedException {
+        final Path dir = savedDirectory("persisted");
+        myDaemon = newDaemon(null);
+        myDaemon.start();
+
+        Files.writeString(dir.resolve("report.txt"), "hello");
+
+        assertTrue(waitFor(() -> myEvents.getTableSize() > 0),
+                "The event should reach the database");
+    }
+
+    @Test
+    void testStatusThroughControlSocket() throws IOException {
+        savedDirectory("status");
+        myDaemon = newDaemon(mySocket);
+        myDaemon.start();
+
+        final String status = control("status");
+        assertTrue(status.contains("running=true"), status);
+        assertTrue(status.contains("roots=1"), status);
+        assertTrue(control("bogus").startsWith("unknown command"));
+    }
+
+    @Test
+    void testReloadPicksUpWatchListChanges() throws IOException {
+        final Path first = savedDirectory("first");
+        myDaemon = newDaemon(mySocket);
+        myDaemon.start();
+
+        savedDirectory("second");
+        myWatchList.removeDirectory(first.toString(), "All Extensions");
+
+        final String reply = control("reload");
+        assertTrue(reply.contains("added=1"), reply);
+        assertTrue(reply.contains("removed=1"), reply);
+        assertEquals(1, myDaemon.getRootCount());
+    }
+
+    @Test
+    void testStopThroughControlSocket() throws IOException, InterruptedException {
+        myDaemon = newDaemon(mySocket);
+        myDaemon.start();
+        assertTrue(Files.exists(mySocket), "The control socket should be created");
+
+        assertEquals("stopping", control("stop"));
+        assertTrue(waitFor(() -> !myDaemon.isRunning()), "The daemon should stop");
+        assertFalse(Files.exists(mySocket), "The control socket should be removed");
+    }
+
+    @Test
+    void testSecondDaemonOnSameSocketFails() throws IOException {
+        myDaemon = newDaemon(mySocket);
+        myDaemon.start();
+
+        final WatcherDaemon second = newDaemon(mySocket);
+        assertThrows(IllegalStateException.class, second::start);
+        assertTrue(control("status").contains("running=true"),
+                "The first daemon should keep its socket");
+    }
+
+    @Test
+    void testStaleSocketIsReplaced() throws IOException {
+        Files.createFile(mySocket);
+        myDaemon = newDaemon(mySocket);
+        myDaemon.start();
+
+        assertTrue(control("status").contains("running=true"));
+    }
+
+    @Test
+    void testDigestWithoutAddress() throws IOException {
+        myDaemon = newDaemon(null);
+        myDaemon.start();
+
+        assertEquals(-1, myDaemon.sendDigest(), "No digest without an address");
+    }
+
+    @Test
+    void testSlowCommandsAnswerRightAway() throws IOException {
+        myDaemon = newDaemon(mySocket);
+        myDaemon.start();
+
+        assertTrue(control("rollups").startsWith("rollups queued"));
+        assertTrue(control("digest").startsWith("digest queued"));
+        assertTrue(control("status").contains("running=true"),
+                "Status should answer while the queued commands run");
+    }
+
+    @Test
+    void testStartOnlyOnce() throws IOException {
+        myDaemon = newDaemon(null);
+        myDaemon.start();
+        myDaemon.stop();
+
+        assertThrows(IllegalStateException.class, myDaemon::start);
+    }
+}